@@ -1,24 +1,37 @@
 package controller;
 
 import java.io.FileReader;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Scanner;
 import model.Calendars;
 import model.MultipleCalendars;
+import model.ReminderService;
+import model.ReminderSink;
+import view.AsyncView;
 import view.View;
 import view.ViewForConsole;
 import view.CalendarGUI;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import javax.management.ObjectName;
 import javax.swing.SwingUtilities;
 
 /**
  * Main application class for the Calendar application. Represents a Calendar App that can
- * be run in either interactive, headless, or GUI mode.
+ * be run in either interactive, headless, server, HTTP, or GUI mode.
  */
 public class CalendarApp {
+  private static final String DEFAULT_PORT = "7070";
+  private static final String DEFAULT_HTTP_PORT = "8080";
+  private static final Duration REMINDER_LEAD = Duration.ofMinutes(15);
 
   /**
    * Entry point for the CalendarApp.
-   * Supports interactive, headless, and GUI modes.
+   * Supports interactive, headless, server, HTTP, and GUI modes. Text modes write their output
+   * on a background thread when "--async" is given as the last argument.
    *
    * @param args command line arguments specifying mode and optional file
    */
@@ -32,24 +45,48 @@ public class CalendarApp {
         return;
       }
 
+      // an optional trailing flag switches the console output to a background writer
+      boolean async = args[args.length - 1].equalsIgnoreCase("--async");
+      if (async) {
+        args = Arrays.copyOf(args, args.length - 1);
+      }
+
       // Validate arguments for text modes
       validateArguments(args);
-      View view = new ViewForConsole();
-      Calendars calendars = new MultipleCalendars(view);
-      EnhancedCommandParser parser = new EnhancedCommandParser(calendars, view);
-
-      String mode = args[1].toLowerCase();
-
-      // delegate to appropriate method based on mode argument
-      if ("interactive".equals(mode)) {
-        runWithReadable(parser, new InputStreamReader(System.in), view);
-      } else if ("headless".equals(mode)) {
-        if (args.length < 3) {
-          throw new IllegalArgumentException("Headless mode requires a filename");
+      View view = async ? new AsyncView() : new ViewForConsole();
+      MultipleCalendars calendars = new MultipleCalendars(view);
+      // lets heaps be sized from what the calendars are estimated to use
+      ObjectName memoryBean = calendars.registerMemoryBean();
+      try {
+        EnhancedCommandParser parser = new EnhancedCommandParser(calendars, view);
+
+        String mode = args[1].toLowerCase();
+
+        // delegate to appropriate method based on mode argument
+        if ("interactive".equals(mode)) {
+          // remind the user of events that are about to start while they work
+          try (ReminderService reminders = new ReminderService(calendars,
+                  REMINDER_LEAD, ReminderSink.toView(view))) {
+            reminders.start();
+            runWithReadable(parser, new InputStreamReader(System.in), view);
+          }
+        } else if ("http".equals(mode)) {
+          runHttpServer(calendars, args.length > 2 ? args[2] : DEFAULT_HTTP_PORT, view);
+        } else if ("server".equals(mode)) {
+          runServer(calendars, args.length > 2 ? args[2] : DEFAULT_PORT, view);
+        } else if ("headless".equals(mode)) {
+          if (args.length < 3) {
+            throw new IllegalArgumentException("Headless mode requires a filename");
+          }
+          runWithReadable(parser, new FileReader(args[2]), view);
+        } else {
+          throw new IllegalArgumentException("Invalid mode: " + mode);
+        }
+      } finally {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(memoryBean);
+        if (view instanceof AsyncView) {
+          ((AsyncView) view).close();
         }
-        runWithReadable(parser, new FileReader(args[2]), view);
-      } else {
-        throw new IllegalArgumentException("Invalid mode: " + mode);
       }
     } catch (Exception e) {
       System.err.println("Error: " + e.getMessage());
@@ -76,6 +113,45 @@ public class CalendarApp {
     System.out.println("  java -jar Program.jar                           (GUI mode)");
     System.out.println("  java -jar Program.jar --mode interactive        (Interactive text mode)");
     System.out.println("  java -jar Program.jar --mode headless <file>    (Headless mode)");
+    System.out.println("  java -jar Program.jar --mode server [port|unix:<path>]  (Server mode)");
+    System.out.println("  java -jar Program.jar --mode http [port]          (HTTP JSON API)");
+    System.out.println("  Add --async as the last argument to write output on a background thread");
+  }
+
+  /**
+   * Serves the calendars to local clients until the process is stopped.
+   *
+   * @param calendars the calendars to serve
+   * @param address   a port on the loopback interface, or "unix:" and a socket path
+   * @param view      the view for displaying where the server is listening
+   * @throws Exception if the server cannot be started
+   */
+  private static void runServer(Calendars calendars, String address, View view)
+          throws Exception {
+    try (CalendarServer server =
+                 new CalendarServer(calendars, CalendarClient.parseAddress(address))) {
+      server.start();
+      view.displayMessage("Listening on " + server.getAddress());
+      server.awaitClose();
+    }
+  }
+
+  /**
+   * Serves the calendars as a JSON API on the loopback interface until the process is stopped.
+   *
+   * @param calendars the calendars to serve
+   * @param port      the port to listen on
+   * @param view      the view for displaying where the server is listening
+   * @throws Exception if the server cannot be started
+   */
+  private static void runHttpServer(Calendars calendars, String port, View view)
+          throws Exception {
+    try (CalendarHttpServer server = new CalendarHttpServer(calendars,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port)))) {
+      server.start();
+      view.displayMessage("Listening on http:/" + server.getAddress() + "/calendars");
+      Thread.currentThread().join();
+    }
   }
 
   /**
@@ -0,0 +1,268 @@
+package controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A client for a {@link CalendarServer}. It can send commands one at a time, or stream a whole
+ * script with many commands in flight and measure the replies, which makes it a load tester for
+ * the server.
+ */
+public class CalendarClient implements Closeable {
+  // how many commands a script may have in flight before sending waits for replies
+  private static final int WINDOW = 4096;
+
+  private final SocketChannel channel;
+  private final InputStream in;
+  private final OutputStream out;
+
+  /**
+   * Connects to a server.
+   *
+   * @param address the address of the server
+   * @throws IOException if the connection cannot be made
+   */
+  public CalendarClient(SocketAddress address) throws IOException {
+    this.channel = address instanceof UnixDomainSocketAddress
+            ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open();
+    this.channel.connect(address);
+    this.in = new BufferedInputStream(CalendarServer.inputOf(channel));
+    this.out = new BufferedOutputStream(CalendarServer.outputOf(channel));
+  }
+
+  /**
+   * Sends one command and waits for its reply.
+   *
+   * @param command the command, which must fit on one line
+   * @return the reply
+   * @throws IOException if the connection fails or was closed by the server
+   */
+  public String send(String command) throws IOException {
+    writeCommand(command);
+    out.flush();
+    String reply = CalendarServer.readReply(in);
+    if (reply == null) {
+      throw new IOException("Connection closed");
+    }
+    return reply;
+  }
+
+  /**
+   * Streams every command of a script without waiting for replies, while another thread reads
+   * the replies and times each command from when it was sent until its reply arrived, so the
+   * times include waiting behind the commands sent before it. Stops after an exit command.
+   *
+   * @param script the commands, one per line
+   * @return the measurements, without a heap high-water mark
+   * @throws IOException if the connection fails
+   */
+  public LoadReport run(Readable script) throws IOException {
+    BlockingQueue<Pending> pending = new ArrayBlockingQueue<>(WINDOW);
+    Map<String, LatencyHistogram> latencies = new HashMap<>();
+    Map<String, Long> errors = new HashMap<>();
+    ExecutorService receiver = Executors.newSingleThreadExecutor();
+    long start = System.nanoTime();
+
+    Future<Long> received = receiver.submit(() -> {
+      long replies = 0;
+      for (Pending next = pending.take(); next != Pending.END; next = pending.take()) {
+        String reply = CalendarServer.readReply(in);
+        if (reply == null) {
+          throw new IOException("Connection closed");
+        }
+        latencies.computeIfAbsent(next.type, key -> new LatencyHistogram())
+                .record(System.nanoTime() - next.sent);
+        if (reply.startsWith("Error")) {
+          errors.merge(next.type, 1L, Long::sum);
+        }
+        replies++;
+      }
+      return replies;
+    });
+
+    try (Scanner scanner = new Scanner(script)) {
+      while (scanner.hasNextLine()) {
+        String command = scanner.nextLine().trim();
+        if (command.isEmpty()) {
+          continue;
+        }
+        Pending next = new Pending(LoadDriver.typeOf(command), System.nanoTime());
+        if (!pending.offer(next)) {
+          // the window is full, so make sure the server has everything before waiting on it
+          out.flush();
+          pending.put(next);
+        }
+        writeCommand(command);
+        if (command.equalsIgnoreCase("exit")) {
+          break;
+        }
+      }
+      out.flush();
+      pending.put(Pending.END);
+      long replies = received.get();
+      return new LoadReport(latencies, errors, replies, System.nanoTime() - start, 0);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while sending", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof IOException ? (IOException) cause
+              : new IOException(cause.getMessage(), cause);
+    } finally {
+      receiver.shutdownNow();
+    }
+  }
+
+  /**
+   * Closes the connection.
+   *
+   * @throws IOException if closing fails
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void writeCommand(String command) throws IOException {
+    if (command.indexOf('\n') >= 0 || command.indexOf('\r') >= 0) {
+      throw new IllegalArgumentException("Command cannot span lines");
+    }
+    out.write(command.getBytes(StandardCharsets.UTF_8));
+    out.write('\n');
+  }
+
+  /**
+   * Parses an address given on the command line: a port on the loopback interface, or
+   * "unix:" followed by the path of a socket file.
+   *
+   * @param address the address
+   * @return the parsed address
+   * @throws IllegalArgumentException if the address is invalid
+   */
+  static SocketAddress parseAddress(String address) throws IllegalArgumentException {
+    if (address.startsWith("unix:")) {
+      return UnixDomainSocketAddress.of(address.substring("unix:".length()));
+    }
+    try {
+      return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid address: " + address);
+    }
+  }
+
+  /**
+   * Connects to a server and either sends the lines of standard input one at a time, or runs
+   * generated scripts on several connections at once and prints a report.
+   * Usage: {@code CalendarClient <port|unix:path> [--load <events> [connections]]}
+   *
+   * @param args the address, then optionally the load to generate
+   */
+  public static void main(String[] args) {
+    try {
+      if (args.length < 1) {
+        throw new IllegalArgumentException("Missing address");
+      }
+      SocketAddress address = parseAddress(args[0]);
+      if (args.length > 2 && args[1].equals("--load")) {
+        long events = Long.parseLong(args[2]);
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        System.out.print(load(address, events, connections));
+        return;
+      }
+      try (CalendarClient client = new CalendarClient(address);
+           BufferedReader input = new BufferedReader(new InputStreamReader(System.in))) {
+        String command;
+        while ((command = input.readLine()) != null) {
+          if (command.trim().isEmpty()) {
+            continue;
+          }
+          System.out.println(client.send(command));
+          if (command.trim().equalsIgnoreCase("exit")) {
+            break;
+          }
+        }
+      }
+    } catch (Exception e) {
+      System.err.println("Error: " + e.getMessage());
+      System.out.println("Usage: CalendarClient <port|unix:path> [--load <events> [connections]]");
+    }
+  }
+
+  /**
+   * Runs a generated script on each of several connections at once. Each script uses its own
+   * calendars so the connections do not collide.
+   */
+  private static LoadReport load(SocketAddress address, long events, int connections)
+          throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(connections * 2);
+    try {
+      List<Future<LoadReport>> runs = new ArrayList<>();
+      long start = System.nanoTime();
+      for (int i = 0; i < connections; i++) {
+        LoadGenerator generator = LoadGenerator.getBuilder().events(events).seed(i)
+                .calendarPrefix("C" + i + "-").build();
+        PipedReader script = new PipedReader(1 << 16);
+        PipedWriter writer = new PipedWriter(script);
+        pool.submit(() -> {
+          try (PipedWriter out = writer) {
+            generator.write(out);
+          }
+          return null;
+        });
+        runs.add(pool.submit(() -> {
+          try (CalendarClient client = new CalendarClient(address)) {
+            return client.run(script);
+          }
+        }));
+      }
+      List<LoadReport> reports = new ArrayList<>();
+      for (Future<LoadReport> run : runs) {
+        reports.add(run.get());
+      }
+      return LoadReport.combine(reports, System.nanoTime() - start);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * A command that was sent and is waiting for its reply.
+   */
+  private static final class Pending {
+    private static final Pending END = new Pending("", 0);
+
+    private final String type;
+    private final long sent;
+
+    private Pending(String type, long sent) {
+      this.type = type;
+      this.sent = sent;
+    }
+  }
+}
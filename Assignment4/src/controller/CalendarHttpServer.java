@@ -0,0 +1,450 @@
+package controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import model.Calendars;
+import model.Event;
+import model.Property;
+
+/**
+ * Serves the calendars as a JSON API over HTTP on the JDK's built-in server. Every request runs
+ * on its own session of the calendars, so requests never see each other's calendar in use.
+ *
+ * <p>The API has these resources, with dates as yyyy-MM-dd and times as yyyy-MM-ddTHH:mm:
+ * <ul>
+ *   <li>{@code GET /calendars} lists the calendars; {@code POST /calendars} with
+ *   {@code name} and {@code timezone} creates one.</li>
+ *   <li>{@code PATCH /calendars/{name}} with {@code property} and {@code value} edits one.</li>
+ *   <li>{@code GET /calendars/{name}/events?date=} or {@code ?from=&to=} lists the events of a
+ *   day or range; {@code POST} with {@code subject} and either {@code start} and {@code end} or
+ *   an all day {@code date}, and optionally {@code description}, {@code location},
+ *   {@code status}, and {@code repeats} with {@code times} or {@code until}, creates events.</li>
+ *   <li>{@code GET /calendars/{name}/events/{id}} gets an event; {@code PATCH} with
+ *   {@code property} and {@code value} edits it.</li>
+ *   <li>{@code GET /calendars/{name}/freebusy?at=} tells whether a time is busy, and
+ *   {@code ?from=&to=} lists the busy intervals of a range.</li>
+ *   <li>{@code POST /calendars/{name}/copy} with {@code target} and {@code to} copies an
+ *   {@code event} starting {@code on} a time, the events on a {@code date}, or the events
+ *   between {@code start} and {@code end}.</li>
+ * </ul>
+ *
+ * <p>Day and range queries carry an ETag computed from the events they return. A poller that
+ * sends it back in If-None-Match gets 304 Not Modified with no body while nothing in the range
+ * has changed.
+ */
+public class CalendarHttpServer implements Closeable {
+  private static final int MAX_BODY = 1 << 20;
+
+  private final Calendars calendars;
+  private final HttpServer server;
+  private final ExecutorService requests;
+
+  /**
+   * Creates a server and binds it to an address. Nothing is served until it is started.
+   *
+   * @param calendars the calendars to serve
+   * @param address   the address to listen on
+   * @throws IOException              if the address cannot be bound
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public CalendarHttpServer(Calendars calendars, InetSocketAddress address)
+          throws IOException, IllegalArgumentException {
+    if (calendars == null || address == null) {
+      throw new IllegalArgumentException("Calendars and address cannot be null");
+    }
+    this.calendars = calendars;
+    this.server = HttpServer.create(address, 0);
+    // Java 17 has no virtual threads, so requests share a pool of daemon threads instead
+    this.requests = Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, "calendar-http");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(requests);
+    server.createContext("/calendars", this::handle);
+  }
+
+  /**
+   * Starts serving requests on background threads.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Gets the address the server is bound to, including the port chosen when port 0 was asked
+   * for.
+   *
+   * @return the address
+   */
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  /**
+   * Stops the server without waiting for requests in progress.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    requests.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      route(exchange);
+    } catch (IllegalArgumentException | DateTimeException e) {
+      String message = e.getMessage() == null ? "Invalid request" : e.getMessage();
+      error(exchange, message.toLowerCase().contains("not found") ? 404 : 400, message);
+    } catch (IllegalStateException e) {
+      error(exchange, 409, e.getMessage());
+    } catch (RuntimeException e) {
+      error(exchange, 500, "Internal error");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void route(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath().substring("/calendars".length());
+    if (!path.isEmpty() && !path.startsWith("/")) {
+      error(exchange, 404, "Not found");
+      return;
+    }
+    String[] segments = path.replaceAll("^/+|/+$", "").split("/+");
+    String method = exchange.getRequestMethod();
+
+    if (path.replace("/", "").isEmpty()) {
+      if (method.equals("GET")) {
+        listCalendars(exchange);
+      } else if (method.equals("POST")) {
+        Map<String, String> body = body(exchange);
+        calendars.createCalendar(required(body, "name"),
+                TimeZone.getTimeZone(required(body, "timezone")));
+        respond(exchange, 201, null, json -> json.beginObject()
+                .name("name").value(body.get("name")).endObject());
+      } else {
+        error(exchange, 405, "Method not allowed");
+      }
+      return;
+    }
+
+    String name = segments[0];
+    if (segments.length == 1 && method.equals("PATCH")) {
+      Map<String, String> body = body(exchange);
+      calendars.editCalendar(name, required(body, "property"), required(body, "value"));
+      String current = body.get("property").equalsIgnoreCase("name") ? body.get("value") : name;
+      respond(exchange, 200, null, json -> json.beginObject()
+              .name("name").value(current).endObject());
+      return;
+    }
+
+    Calendars session = calendars.newSession();
+    session.useCalendar(name);
+    String resource = segments.length > 1 ? segments[1] : "";
+    if (resource.equals("events") && segments.length == 2) {
+      if (method.equals("GET")) {
+        listEvents(exchange, session);
+      } else if (method.equals("POST")) {
+        createEvents(exchange, session);
+      } else {
+        error(exchange, 405, "Method not allowed");
+      }
+    } else if (resource.equals("events") && segments.length == 3) {
+      long id = Long.parseLong(segments[2]);
+      if (method.equals("PATCH")) {
+        Map<String, String> body = body(exchange);
+        session.editEventById(id, required(body, "property"), required(body, "value"));
+      } else if (!method.equals("GET")) {
+        error(exchange, 405, "Method not allowed");
+        return;
+      }
+      Event event = session.getEventById(id);
+      respond(exchange, 200, null, json -> writeEvent(json, event));
+    } else if (resource.equals("freebusy") && segments.length == 2 && method.equals("GET")) {
+      freeBusy(exchange, session);
+    } else if (resource.equals("copy") && segments.length == 2 && method.equals("POST")) {
+      copy(exchange, session);
+    } else {
+      error(exchange, 404, "Not found");
+    }
+  }
+
+  private void listCalendars(HttpExchange exchange) throws IOException {
+    String names = calendars.getCalendars();
+    String[] list = names.equals("No calendars") ? new String[0] : names.split("\n");
+    respond(exchange, 200, null, json -> {
+      json.beginObject().name("calendars").beginArray();
+      for (String calendar : list) {
+        json.value(calendar);
+      }
+      json.endArray().endObject();
+    });
+  }
+
+  private void listEvents(HttpExchange exchange, Calendars session) throws IOException {
+    Map<String, String> query = query(exchange);
+    String[] range = range(query);
+    List<Event> events = session.snapshot().eventsBetween(range[0], range[1]);
+    String tag = tagOf(events);
+    if (notModified(exchange, tag)) {
+      return;
+    }
+    respond(exchange, 200, tag, json -> {
+      json.beginObject().name("events").beginArray();
+      for (Event event : events) {
+        writeEvent(json, event);
+      }
+      json.endArray().endObject();
+    });
+  }
+
+  private void createEvents(HttpExchange exchange, Calendars session) throws IOException {
+    Map<String, String> body = body(exchange);
+    String subject = required(body, "subject");
+    LocalDateTime start;
+    LocalDateTime end;
+    boolean allDay = body.containsKey("date");
+    if (allDay) {
+      // all day events run from 8am to 5pm, as they do when created by command
+      start = LocalDateTime.of(LocalDate.parse(body.get("date")), LocalTime.of(8, 0));
+      end = LocalDateTime.of(start.toLocalDate(), LocalTime.of(17, 0));
+    } else {
+      start = LocalDateTime.parse(required(body, "start"));
+      end = LocalDateTime.parse(required(body, "end"));
+    }
+    String status = body.getOrDefault("status", "");
+    if (!status.isEmpty() && !Property.isValidStatus(status)) {
+      throw new IllegalArgumentException("Invalid status");
+    }
+    Event event = Event.getBuilder(subject, start)
+            .endDateTime(end)
+            .description(body.get("description"))
+            .location(body.get("location"))
+            .status(status)
+            .build();
+
+    String weekdays = body.get("repeats");
+    if (weekdays == null) {
+      session.createEvent(event);
+    } else if (body.containsKey("times")) {
+      session.createEventSeriesNTimes(event, weekdays, Integer.parseInt(body.get("times")));
+    } else {
+      String until = required(body, "until");
+      session.createEventSeriesUntil(event, weekdays, allDay ? until + "T00:00" : until);
+    }
+    respond(exchange, 201, null, json -> json.beginObject()
+            .name("message").value("Events created successfully").endObject());
+  }
+
+  private void freeBusy(HttpExchange exchange, Calendars session) throws IOException {
+    Map<String, String> query = query(exchange);
+    if (query.containsKey("at")) {
+      String status = session.snapshot().isFree(query.get("at"));
+      respond(exchange, 200, null, json -> json.beginObject()
+              .name("at").value(query.get("at")).name("status").value(status).endObject());
+      return;
+    }
+    String[] range = range(query);
+    List<Event> events = session.snapshot().eventsBetween(range[0], range[1]);
+    String tag = tagOf(events);
+    if (notModified(exchange, tag)) {
+      return;
+    }
+    respond(exchange, 200, tag, json -> {
+      json.beginObject().name("busy").beginArray();
+      // events come in start order, so overlapping ones can be merged in one pass
+      LocalDateTime busyStart = null;
+      LocalDateTime busyEnd = null;
+      for (Event event : events) {
+        if (busyEnd != null && !event.getStartDateTime().isAfter(busyEnd)) {
+          if (event.getEndDateTime().isAfter(busyEnd)) {
+            busyEnd = event.getEndDateTime();
+          }
+          continue;
+        }
+        if (busyEnd != null) {
+          writeInterval(json, busyStart, busyEnd);
+        }
+        busyStart = event.getStartDateTime();
+        busyEnd = event.getEndDateTime();
+      }
+      if (busyEnd != null) {
+        writeInterval(json, busyStart, busyEnd);
+      }
+      json.endArray().endObject();
+    });
+  }
+
+  private void copy(HttpExchange exchange, Calendars session) throws IOException {
+    Map<String, String> body = body(exchange);
+    String target = required(body, "target");
+    String to = required(body, "to");
+    if (body.containsKey("event")) {
+      session.copyEvent(body.get("event"), required(body, "on"), target, to);
+    } else if (body.containsKey("date")) {
+      session.copyEventsOn(body.get("date"), target, to);
+    } else {
+      session.copyEventsBetween(required(body, "start"), required(body, "end"), target, to);
+    }
+    respond(exchange, 200, null, json -> json.beginObject()
+            .name("message").value("Events copied successfully").endObject());
+  }
+
+  /**
+   * Gets the start and end of the range a query asks for, either a whole date or a from and to.
+   */
+  private static String[] range(Map<String, String> query) {
+    if (query.containsKey("date")) {
+      String date = query.get("date");
+      LocalDate.parse(date);
+      return new String[] {date + "T00:00", date + "T23:59:59.999999999"};
+    }
+    if (!query.containsKey("from") || !query.containsKey("to")) {
+      throw new IllegalArgumentException("Missing date, or from and to");
+    }
+    return new String[] {query.get("from"), query.get("to")};
+  }
+
+  /**
+   * Computes an ETag from everything about the given events that a response shows.
+   */
+  static String tagOf(List<Event> events) {
+    long hash = 1125899906842597L;
+    for (Event event : events) {
+      hash = 31 * hash + event.getId();
+      hash = 31 * hash + event.getSubject().hashCode();
+      hash = 31 * hash + event.getStartDateTime().hashCode();
+      hash = 31 * hash + event.getEndDateTime().hashCode();
+      hash = 31 * hash + event.getDescription().hashCode();
+      hash = 31 * hash + event.getLocation().hashCode();
+      hash = 31 * hash + event.getStatus().hashCode();
+    }
+    return "\"" + Long.toHexString(hash) + "-" + events.size() + "\"";
+  }
+
+  private static boolean notModified(HttpExchange exchange, String tag) throws IOException {
+    String header = exchange.getRequestHeaders().getFirst("If-None-Match");
+    if (header == null) {
+      return false;
+    }
+    for (String candidate : header.split(",")) {
+      String trimmed = candidate.trim();
+      if (trimmed.startsWith("W/")) {
+        trimmed = trimmed.substring(2);
+      }
+      if (trimmed.equals(tag) || trimmed.equals("*")) {
+        exchange.getResponseHeaders().set("ETag", tag);
+        // a reply without a body only keeps the connection open once the request has been read
+        exchange.getRequestBody().close();
+        exchange.sendResponseHeaders(304, -1);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void writeEvent(JsonWriter json, Event event) throws IOException {
+    json.beginObject()
+            .name("id").value(event.getId())
+            .name("subject").value(event.getSubject())
+            .name("start").value(event.getStartDateTime().toString())
+            .name("end").value(event.getEndDateTime().toString())
+            .name("description").value(event.getDescription())
+            .name("location").value(event.getLocation())
+            .name("status").value(event.getStatus())
+            .name("seriesId").value(event.isPartOfSeries() ? event.getSeriesId() : null)
+            .endObject();
+  }
+
+  private static void writeInterval(JsonWriter json, LocalDateTime start, LocalDateTime end)
+          throws IOException {
+    json.beginObject()
+            .name("start").value(start.toString())
+            .name("end").value(end.toString())
+            .endObject();
+  }
+
+  private static String required(Map<String, String> body, String field) {
+    String value = body.get(field);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing field: " + field);
+    }
+    return value;
+  }
+
+  private static Map<String, String> body(HttpExchange exchange) throws IOException {
+    try (InputStream in = exchange.getRequestBody()) {
+      byte[] bytes = in.readNBytes(MAX_BODY + 1);
+      if (bytes.length > MAX_BODY) {
+        throw new IllegalArgumentException("Request body is too large");
+      }
+      return JsonReader.parseObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static Map<String, String> query(HttpExchange exchange) {
+    Map<String, String> query = new HashMap<>();
+    String raw = exchange.getRequestURI().getRawQuery();
+    if (raw == null || raw.isEmpty()) {
+      return query;
+    }
+    for (String pair : raw.split("&")) {
+      int equals = pair.indexOf('=');
+      if (equals > 0) {
+        query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return query;
+  }
+
+  private static void error(HttpExchange exchange, int status, String message) throws IOException {
+    respond(exchange, status, null, json -> json.beginObject()
+            .name("error").value(message).endObject());
+  }
+
+  /**
+   * Sends a JSON response, streaming the body as it is written.
+   */
+  private static void respond(HttpExchange exchange, int status, String tag, Body body)
+          throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    if (tag != null) {
+      exchange.getResponseHeaders().set("ETag", tag);
+    }
+    exchange.sendResponseHeaders(status, 0);
+    try (Writer out = new BufferedWriter(
+            new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+      body.write(new JsonWriter(out));
+    }
+  }
+
+  /**
+   * Writes the body of a response.
+   */
+  private interface Body {
+    void write(JsonWriter json) throws IOException;
+  }
+}
@@ -0,0 +1,251 @@
+package controller;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import model.Calendars;
+
+/**
+ * Serves the command language of {@link EnhancedCommandParser} over a local TCP or Unix domain
+ * socket. Each connection gets its own session on the shared calendars, so "use calendar" on one
+ * connection does not change the calendar in use on another.
+ *
+ * <p>Clients send one command per line. Every line gets exactly one reply, in order, written as
+ * the length of the reply in UTF-8 bytes on its own line followed by the reply itself. Clients
+ * may pipeline: send many commands without waiting, then read the replies. Replies to commands
+ * that arrive together are written together, and the connection is closed after "exit".
+ */
+public class CalendarServer implements Closeable {
+  private final Calendars calendars;
+  private final ServerSocketChannel channel;
+  private final SocketAddress address;
+  private final ExecutorService connections;
+  private final Set<SocketChannel> open;
+  private final Thread acceptor;
+
+  /**
+   * Creates a server and binds it to an address. Nothing is accepted until it is started.
+   *
+   * @param calendars the calendars to serve
+   * @param address   a loopback address and port, or a {@link UnixDomainSocketAddress}
+   * @throws IOException              if the address cannot be bound
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public CalendarServer(Calendars calendars, SocketAddress address)
+          throws IOException, IllegalArgumentException {
+    if (calendars == null || address == null) {
+      throw new IllegalArgumentException("Calendars and address cannot be null");
+    }
+    this.calendars = calendars;
+    this.channel = address instanceof UnixDomainSocketAddress
+            ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+    this.channel.bind(address);
+    this.address = channel.getLocalAddress();
+    // Java 17 has no virtual threads, so connections share a pool of daemon threads instead
+    this.connections = Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, "calendar-connection");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.open = ConcurrentHashMap.newKeySet();
+    this.acceptor = new Thread(this::acceptConnections, "calendar-acceptor");
+    this.acceptor.setDaemon(true);
+  }
+
+  /**
+   * Starts accepting connections on a background thread.
+   */
+  public void start() {
+    acceptor.start();
+  }
+
+  /**
+   * Gets the address the server is bound to, including the port chosen when port 0 was asked
+   * for.
+   *
+   * @return the address
+   */
+  public SocketAddress getAddress() {
+    return address;
+  }
+
+  /**
+   * Waits until the server is closed.
+   *
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public void awaitClose() throws InterruptedException {
+    acceptor.join();
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones.
+   *
+   * @throws IOException if the socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+    for (SocketChannel client : open) {
+      client.close();
+    }
+    connections.shutdownNow();
+    if (address instanceof UnixDomainSocketAddress) {
+      ((UnixDomainSocketAddress) address).getPath().toFile().delete();
+    }
+  }
+
+  private void acceptConnections() {
+    while (channel.isOpen()) {
+      try {
+        SocketChannel client = channel.accept();
+        open.add(client);
+        connections.execute(() -> serve(client));
+      } catch (IOException e) {
+        // the server was closed
+        return;
+      }
+    }
+  }
+
+  /**
+   * Answers the commands of one connection until it sends "exit" or goes away.
+   *
+   * @param client the connection
+   */
+  private void serve(SocketChannel client) {
+    EnhancedCommandParser parser =
+            new EnhancedCommandParser(calendars.newSession(), new DiscardingView());
+    try (BufferedReader in = new BufferedReader(
+                 new InputStreamReader(inputOf(client), StandardCharsets.UTF_8));
+         OutputStream out = new BufferedOutputStream(outputOf(client))) {
+      String command;
+      while ((command = in.readLine()) != null) {
+        String reply = command.trim().isEmpty()
+                ? "Error: Command cannot be null or empty" : parser.executeCommand(command);
+        writeReply(out, reply);
+        if (command.trim().equalsIgnoreCase("exit")) {
+          break;
+        }
+        // hold replies back while more pipelined commands are already waiting
+        if (!in.ready()) {
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      // the client went away
+    } finally {
+      open.remove(client);
+      try {
+        client.close();
+      } catch (IOException e) {
+        // already closed
+      }
+    }
+  }
+
+  /**
+   * Writes one reply in the server's framing.
+   *
+   * @param out   where the reply is written
+   * @param reply the reply
+   * @throws IOException if writing fails
+   */
+  static void writeReply(OutputStream out, String reply) throws IOException {
+    byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+    out.write((bytes.length + "\n").getBytes(StandardCharsets.US_ASCII));
+    out.write(bytes);
+  }
+
+  /**
+   * Reads one reply in the server's framing.
+   *
+   * @param in where the reply is read from
+   * @return the reply, or null if the stream ended before a reply started
+   * @throws IOException if reading fails or the stream ends in the middle of a reply
+   */
+  static String readReply(InputStream in) throws IOException {
+    int length = 0;
+    int next = in.read();
+    if (next < 0) {
+      return null;
+    }
+    while (next != '\n') {
+      if (next < '0' || next > '9') {
+        throw new IOException("Invalid reply length");
+      }
+      length = length * 10 + (next - '0');
+      next = in.read();
+    }
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length < length) {
+      throw new EOFException("Connection closed in the middle of a reply");
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Gets a stream that reads straight from a channel. Unlike the streams from
+   * {@link java.nio.channels.Channels}, it does not lock out writes while a read is waiting, so
+   * one thread can read replies while another sends commands.
+   */
+  static InputStream inputOf(SocketChannel channel) {
+    return new InputStream() {
+      @Override
+      public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+          return 0;
+        }
+        try {
+          return channel.read(ByteBuffer.wrap(bytes, offset, length));
+        } catch (ClosedChannelException e) {
+          return -1;
+        }
+      }
+    };
+  }
+
+  /**
+   * Gets a stream that writes straight to a channel.
+   */
+  static OutputStream outputOf(SocketChannel channel) {
+    return new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+    };
+  }
+}
@@ -27,6 +27,10 @@ public class CommandParser implements Command {
           "print events(?:\\s+on\\s+(\\S+)|\\s+from\\s+(\\S+)\\s+to\\s+(\\S+))");
   private static final Pattern SHOW_STATUS_PATTERN = Pattern.compile(
           "show status\\s+on\\s+(\\S+)");
+  private static final Pattern DELETE_EVENT_PATTERN = Pattern.compile(
+          "delete (event|events|series) (\"[^\"]+\"|\\S+) from (\\S+)(?: to (\\S+))?");
+  private static final Pattern DELETE_RANGE_PATTERN = Pattern.compile(
+          "delete events between (\\S+) and (\\S+)");
 
   private final Calendar calendar;
   protected final View view;
@@ -76,6 +80,8 @@ public class CommandParser implements Command {
         return handlePrintCommand(trimmedCommand);
       } else if (trimmedCommand.startsWith("show status")) {
         return handleStatusCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("delete")) {
+        return handleDeleteCommand(trimmedCommand);
       } else {
         throw new IllegalArgumentException("Not a valid command: " + command);
       }
@@ -187,7 +193,8 @@ public class CommandParser implements Command {
     String subject = extractSubject(matcher.group(3));
     String startDateTime = matcher.group(4);
     String endDateTime = matcher.group(5);
-    String newValue = matcher.group(6);
+    // a quoted value is stored without its quotes, as quoted subjects are
+    String newValue = extractSubject(matcher.group(6));
 
 
     // delegates to the right editor depending on the edit type
@@ -253,6 +260,49 @@ public class CommandParser implements Command {
     return calendar.isFree(matcher.group(1));
   }
 
+  /**
+   * Handles delete commands.
+   *
+   * @param command the command to be executed.
+   * @return a string response saying what was deleted.
+   * @throws IllegalArgumentException if the command is not recognized or invalid
+   */
+  private String handleDeleteCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = DELETE_RANGE_PATTERN.matcher(command);
+    if (matcher.matches()) {
+      int deleted = calendar.deleteRange(matcher.group(1), matcher.group(2));
+      return "Deleted " + deleted + " event(s)";
+    }
+
+    matcher = DELETE_EVENT_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid delete format");
+    }
+    String deleteType = matcher.group(1);
+    String subject = extractSubject(matcher.group(2));
+    String startDateTime = matcher.group(3);
+    String endDateTime = matcher.group(4);
+
+    switch (deleteType) {
+      case "event":
+        if (endDateTime == null) {
+          throw new IllegalArgumentException("Deleting an event needs its end time");
+        }
+        calendar.deleteEvent(subject, startDateTime, endDateTime);
+        break;
+      case "events":
+        calendar.deleteEvents(subject, startDateTime);
+        break;
+      case "series":
+        calendar.deleteSeries(subject, startDateTime);
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid delete type: " + deleteType);
+    }
+
+    return "Event(s) deleted successfully";
+  }
+
   /**
    * Extracts subject from quoted or unquoted string.
    *
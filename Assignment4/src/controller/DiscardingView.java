@@ -0,0 +1,19 @@
+package controller;
+
+import view.View;
+
+/**
+ * A view that ignores everything it is given, for callers that read results from the command
+ * replies instead.
+ */
+final class DiscardingView implements View {
+  @Override
+  public void displayMessage(String message) {
+    // the reply carries the message
+  }
+
+  @Override
+  public void displayError(String error) {
+    // the reply carries the error
+  }
+}
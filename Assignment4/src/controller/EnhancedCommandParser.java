@@ -1,10 +1,13 @@
 package controller;
 
 
+import java.util.List;
 import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import model.CalendarMemory;
+import model.CalendarUsage;
 import model.Calendars;
 import view.View;
 
@@ -32,8 +35,30 @@ public class EnhancedCommandParser extends CommandParser {
   private static final Pattern COPY_EVENTS_BETWEEN_PATTERN = Pattern.compile(
           "copy events between (\\S+) and (\\S+) --target " +
                   "([^\"].*?|\"[^\"]+\") to (\\S+)");
+  private static final Pattern SEARCH_EVENTS_PATTERN = Pattern.compile(
+          "search events (.+?)(?: from (\\S+) to (\\S+))?");
+  private static final Pattern FIND_EVENTS_PATTERN = Pattern.compile(
+          "find events where (.+?)(?: from (\\S+) to (\\S+))?");
+  private static final Pattern SHOW_ROOM_PATTERN = Pattern.compile(
+          "show room (\"[^\"]+\"|\\S+) at (\\S+)");
+  private static final Pattern FREE_ROOMS_PATTERN = Pattern.compile(
+          "show free rooms from (\\S+) to (\\S+)");
+  private static final Pattern ARCHIVE_EVENTS_PATTERN = Pattern.compile(
+          "archive events before (\\S+)");
+  private static final Pattern REPORT_PATTERN = Pattern.compile(
+          "report from (\\S+) to (\\S+)");
+  private static final Pattern MERGE_CALENDAR_PATTERN = Pattern.compile(
+          "merge calendar ([^\"].*?|\"[^\"]+\") into ([^\"].*?|\"[^\"]+\")" +
+                  "(?: --policy (\\S+))?");
+
+  private static final Pattern FORK_CALENDAR_PATTERN = Pattern.compile(
+          "fork calendar ([^\"].*?|\"[^\"]+\") as ([^\"].*?|\"[^\"]+\")");
+  private static final Pattern PROMOTE_CALENDAR_PATTERN = Pattern.compile(
+          "promote calendar ([^\"].*?|\"[^\"]+\")");
 
   private final Calendars calendars;
+  // the first error in the transaction in progress, or null if there is none
+  private String transactionError;
 
   /**
    * Creates an EnhancedCommandParser with the specified calendars system and view.
@@ -66,8 +91,31 @@ public class EnhancedCommandParser extends CommandParser {
 
     String trimmedCommand = command.trim();
 
+    // once a command in a transaction fails, the rest of it is skipped until commit or rollback
+    if (transactionError != null && !trimmedCommand.equals("commit")
+            && !trimmedCommand.equals("rollback") && !trimmedCommand.equalsIgnoreCase("exit")) {
+      return "Skipped: transaction failed (" + transactionError + ")";
+    }
+    String result = runCommand(trimmedCommand);
+    if (calendars.inTransaction() && transactionError == null && result.startsWith("Error: ")) {
+      transactionError = result.substring("Error: ".length());
+    }
+    return result;
+  }
+
+  /**
+   * Runs a command that is not skipped by a failed transaction.
+   *
+   * @param trimmedCommand the command without surrounding whitespace
+   * @return a string response to the command
+   */
+  private String runCommand(String trimmedCommand) {
     try {
       if (trimmedCommand.equalsIgnoreCase("exit")) {
+        if (calendars.inTransaction()) {
+          rollbackTransaction();
+          return "Exiting... (uncommitted transaction rolled back)";
+        }
         return "Exiting...";
       }
 
@@ -82,16 +130,59 @@ public class EnhancedCommandParser extends CommandParser {
         return handleCopyEventsCommand(trimmedCommand);
       } else if (trimmedCommand.startsWith("copy event")) {
         return handleCopyEventCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("search events")) {
+        return handleSearchEventsCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("find events")) {
+        return handleFindEventsCommand(trimmedCommand);
+      } else if (trimmedCommand.equals("show memory")) {
+        return handleShowMemoryCommand();
+      } else if (trimmedCommand.startsWith("show room")) {
+        return handleShowRoomCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("show free rooms")) {
+        return handleFreeRoomsCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("archive events")) {
+        return handleArchiveEventsCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("report")) {
+        return handleReportCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("merge calendar")) {
+        return handleMergeCalendarCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("fork calendar")) {
+        return handleForkCalendarCommand(trimmedCommand);
+      } else if (trimmedCommand.startsWith("promote calendar")) {
+        return handlePromoteCalendarCommand(trimmedCommand);
+      } else if (trimmedCommand.equals("begin")) {
+        calendars.begin();
+        return "Transaction started";
+      } else if (trimmedCommand.equals("commit")) {
+        if (transactionError != null) {
+          String error = transactionError;
+          rollbackTransaction();
+          return "Transaction rolled back after an error: " + error;
+        }
+        calendars.commit();
+        return "Transaction committed";
+      } else if (trimmedCommand.equals("rollback")) {
+        rollbackTransaction();
+        return "Transaction rolled back";
+      } else if (trimmedCommand.equals("undo")) {
+        return calendars.undo() ? "Last change undone" : "Nothing to undo";
+      } else if (trimmedCommand.equals("redo")) {
+        return calendars.redo() ? "Last change redone" : "Nothing to redo";
       }
 
       // delegate other commands to the CommandParser class
-      return super.executeCommand(command);
+      return super.executeCommand(trimmedCommand);
     } catch (Exception e) {
       view.displayError(e.getMessage());
       return "Error: " + e.getMessage();
     }
   }
 
+  private void rollbackTransaction() {
+    transactionError = null;
+    calendars.rollback();
+  }
+
   /**
    * Handles create calendar commands.
    *
@@ -206,5 +297,181 @@ public class EnhancedCommandParser extends CommandParser {
     throw new IllegalArgumentException("Invalid format for copy events command");
   }
 
+  /**
+   * Handles search events commands, which look for words in every calendar, optionally only
+   * between two times.
+   *
+   * @param command the search events command
+   * @return the matching events, or a message saying there are none
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleSearchEventsCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = SEARCH_EVENTS_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid search events format");
+    }
+
+    String results = calendars.searchEvents(extractSubject(matcher.group(1)), matcher.group(2),
+            matcher.group(3));
+    return results.isEmpty() ? "No events found" : results;
+  }
 
-}
\ No newline at end of file
+  /**
+   * Handles find events commands, which filter the events of the calendar in use by their
+   * fields.
+   *
+   * @param command the find events command
+   * @return the matching events, or a message saying there are none
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleFindEventsCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = FIND_EVENTS_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid find events format");
+    }
+
+    String results = calendars.findEvents(matcher.group(1), matcher.group(2), matcher.group(3));
+    return results.isEmpty() ? "No events found" : results;
+  }
+
+  /**
+   * Handles the show memory command, which shows the estimated memory of every calendar.
+   *
+   * @return a line for each calendar and one for the total, or a message saying there are no
+   *         calendars
+   */
+  private String handleShowMemoryCommand() {
+    List<CalendarMemory> memory = calendars.memory();
+    if (memory.isEmpty()) {
+      return "No calendars";
+    }
+    StringBuilder report = new StringBuilder();
+    long total = 0;
+    for (CalendarMemory calendar : memory) {
+      report.append(calendar).append('\n');
+      total += calendar.getOwnBytes();
+    }
+    return report.append("Total: ").append(CalendarMemory.format(total)).toString();
+  }
+
+  /**
+   * Handles show room commands, which check whether a room is in use in any calendar.
+   *
+   * @param command the show room command
+   * @return Available or Busy
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleShowRoomCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = SHOW_ROOM_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid show room format");
+    }
+    return calendars.isRoomFree(extractSubject(matcher.group(1)), matcher.group(2))
+            ? "Available" : "Busy";
+  }
+
+  /**
+   * Handles show free rooms commands, which list the rooms not in use in any calendar.
+   *
+   * @param command the show free rooms command
+   * @return the free rooms, one per line, or a message saying there are none
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleFreeRoomsCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = FREE_ROOMS_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid show free rooms format");
+    }
+    List<String> free = calendars.freeRooms(matcher.group(1), matcher.group(2));
+    return free.isEmpty() ? "No free rooms" : String.join("\n", free);
+  }
+
+  /**
+   * Handles archive events commands, which move old events of the calendar in use to disk.
+   *
+   * @param command the archive events command
+   * @return a message with the number of events archived
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleArchiveEventsCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = ARCHIVE_EVENTS_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid archive events format");
+    }
+
+    return "Archived " + calendars.archiveEvents(matcher.group(1)) + " event(s)";
+  }
+
+  /**
+   * Handles report commands, which show how busy every calendar is between two dates.
+   *
+   * @param command the report command
+   * @return the report of each calendar, or a message saying there are no calendars
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleReportCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = REPORT_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid report format");
+    }
+
+    StringBuilder report = new StringBuilder();
+    for (CalendarUsage usage : calendars.usage(matcher.group(1), matcher.group(2))) {
+      report.append(usage);
+    }
+    return report.length() == 0 ? "No calendars" : report.toString();
+  }
+
+  /**
+   * Handles merge calendar commands. Duplicates are skipped unless another policy is given.
+   *
+   * @param command the merge calendar command
+   * @return how many events were merged
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleMergeCalendarCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = MERGE_CALENDAR_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid merge calendar format");
+    }
+
+    String policy = matcher.group(3) == null ? "skip" : matcher.group(3);
+    int merged = calendars.mergeCalendar(matcher.group(1), matcher.group(2), policy);
+    return "Merged " + merged + " event(s) into '" + matcher.group(2) + "'";
+  }
+
+  /**
+   * Handles fork calendar commands, which make a copy of a calendar to try changes on.
+   *
+   * @param command the fork calendar command
+   * @return a success message
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handleForkCalendarCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = FORK_CALENDAR_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid fork calendar format");
+    }
+
+    String forkName = matcher.group(2);
+    calendars.forkCalendar(matcher.group(1), forkName);
+    return "Calendar '" + forkName + "' forked successfully";
+  }
+
+  /**
+   * Handles promote calendar commands, which put a fork in the place of its original.
+   *
+   * @param command the promote calendar command
+   * @return a success message with the name the fork now has
+   * @throws IllegalArgumentException if command format is invalid
+   */
+  private String handlePromoteCalendarCommand(String command) throws IllegalArgumentException {
+    Matcher matcher = PROMOTE_CALENDAR_PATTERN.matcher(command);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid promote calendar format");
+    }
+
+    String name = calendars.promoteCalendar(matcher.group(1));
+    return "Calendar '" + matcher.group(1) + "' promoted to '" + name + "'";
+  }
+}
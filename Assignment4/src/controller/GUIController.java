@@ -3,10 +3,15 @@ package controller;
 import model.Calendars;
 import model.Event;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TimeZone;
 
 /**
  * Controller for GUI interactions. Handles communication between CalendarGUI and the model.
+ * Queries read a snapshot of the calendar in use and never wait for a lock, so the GUI's query
+ * worker cannot hold up anything else. Edits are synchronized on this controller so they are
+ * made one at a time, and the GUI makes them off the Swing event thread.
  */
 public class GUIController {
   private final Calendars calendars;
@@ -28,7 +33,7 @@ public class GUIController {
    * @param timezone timezone
    * @return success message or error
    */
-  public String createCalendar(String name, TimeZone timezone) {
+  public synchronized String createCalendar(String name, TimeZone timezone) {
     try {
       if (name == null || name.trim().isEmpty()) {
         return "Error: Calendar name cannot be empty";
@@ -45,7 +50,7 @@ public class GUIController {
    * @param name calendar name
    * @return success message or error
    */
-  public String useCalendar(String name) {
+  public synchronized String useCalendar(String name) {
     try {
       if (name == null || name.trim().isEmpty()) {
         return "Error: Calendar name cannot be empty";
@@ -62,7 +67,7 @@ public class GUIController {
    * @param event the event to create
    * @return success message or error
    */
-  public String createEvent(Event event) {
+  public synchronized String createEvent(Event event) {
     try {
       if (event == null) {
         return "Error: Event cannot be null";
@@ -81,7 +86,7 @@ public class GUIController {
    * @param times number of times
    * @return success message or error
    */
-  public String createEventSeriesNTimes(Event event, String weekdays, int times) {
+  public synchronized String createEventSeriesNTimes(Event event, String weekdays, int times) {
     try {
       if (event == null) {
         return "Error: Event cannot be null";
@@ -106,7 +111,7 @@ public class GUIController {
    * @param until end date
    * @return success message or error
    */
-  public String createEventSeriesUntil(Event event, String weekdays, String until) {
+  public synchronized String createEventSeriesUntil(Event event, String weekdays, String until) {
     try {
       if (event == null) {
         return "Error: Event cannot be null";
@@ -133,8 +138,8 @@ public class GUIController {
    * @param newValue new value
    * @return success message or error
    */
-  public String editEvent(String property, String subject, String startDateTime,
-                          String endDateTime, String newValue) {
+  public synchronized String editEvent(String property, String subject, String startDateTime,
+                                       String endDateTime, String newValue) {
     try {
       if (property == null || property.trim().isEmpty()) {
         return "Error: Property cannot be empty";
@@ -152,6 +157,38 @@ public class GUIController {
     }
   }
 
+  /**
+   * Gets an event of the current calendar by its id.
+   * @param id event id
+   * @return the event, or null if there is no such event
+   */
+  public Event getEventById(long id) {
+    try {
+      return calendars.snapshot().getEventById(id);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Edits an event identified by its id.
+   * @param id event id
+   * @param property property to edit
+   * @param newValue new value
+   * @return success message or error
+   */
+  public synchronized String editEventById(long id, String property, String newValue) {
+    try {
+      if (property == null || property.trim().isEmpty()) {
+        return "Error: Property cannot be empty";
+      }
+      calendars.editEventById(id, property, newValue);
+      return "Event edited successfully";
+    } catch (Exception e) {
+      return "Error: " + e.getMessage();
+    }
+  }
+
   /**
    * Edits multiple events.
    * @param property property to edit
@@ -160,7 +197,8 @@ public class GUIController {
    * @param newValue new value
    * @return success message or error
    */
-  public String editEvents(String property, String subject, String startDateTime, String newValue) {
+  public synchronized String editEvents(String property, String subject, String startDateTime,
+                                        String newValue) {
     try {
       if (property == null || property.trim().isEmpty()) {
         return "Error: Property cannot be empty";
@@ -186,7 +224,8 @@ public class GUIController {
    * @param newValue new value
    * @return success message or error
    */
-  public String editEventSeries(String property, String subject, String startDateTime, String newValue) {
+  public synchronized String editEventSeries(String property, String subject,
+                                             String startDateTime, String newValue) {
     try {
       if (property == null || property.trim().isEmpty()) {
         return "Error: Property cannot be empty";
@@ -214,7 +253,7 @@ public class GUIController {
       if (date == null || date.trim().isEmpty()) {
         return "Error: Date cannot be empty";
       }
-      return calendars.daySchedule(date);
+      return calendars.snapshot().daySchedule(date);
     } catch (Exception e) {
       return "Error: " + e.getMessage();
     }
@@ -234,12 +273,74 @@ public class GUIController {
       if (endDate == null || endDate.trim().isEmpty()) {
         return "Error: End date cannot be empty";
       }
-      return calendars.rangeSchedule(startDate, endDate);
+      return calendars.snapshot().rangeSchedule(startDate, endDate);
     } catch (Exception e) {
       return "Error: " + e.getMessage();
     }
   }
 
+  /**
+   * Counts the events between two date times.
+   * @param startDateTime start date time
+   * @param endDateTime end date time
+   * @return the number of events, or 0 if the count could not be made
+   */
+  public int getEventCount(String startDateTime, String endDateTime) {
+    try {
+      if (startDateTime == null || endDateTime == null) {
+        return 0;
+      }
+      return calendars.snapshot().countEvents(startDateTime, endDateTime);
+    } catch (Exception e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Gets one page of the schedule between two date times, one line per event.
+   * @param startDateTime start date time
+   * @param endDateTime end date time
+   * @param offset index of the first event on the page
+   * @param limit largest number of events on the page
+   * @return the lines of the page, or a single error line
+   */
+  public List<String> getSchedulePage(String startDateTime, String endDateTime,
+                                      int offset, int limit) {
+    try {
+      if (startDateTime == null || startDateTime.trim().isEmpty()) {
+        return errorLine("Start date time cannot be empty");
+      }
+      if (endDateTime == null || endDateTime.trim().isEmpty()) {
+        return errorLine("End date time cannot be empty");
+      }
+      return calendars.snapshot().schedulePage(startDateTime, endDateTime, offset, limit);
+    } catch (Exception e) {
+      return errorLine(e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the number of events on each day of a month.
+   * @param month the month as yyyy-MM
+   * @return the counts with index 0 for the first day, or an empty array on error
+   */
+  public int[] getMonthEventCounts(String month) {
+    try {
+      if (month == null || month.trim().isEmpty()) {
+        return new int[0];
+      }
+      return calendars.snapshot().eventCountsByDay(month);
+    } catch (Exception e) {
+      return new int[0];
+    }
+  }
+
+  private List<String> errorLine(String message) {
+    List<String> lines = new ArrayList<>();
+    lines.add("Error: " + message);
+    return lines;
+  }
+
   /**
    * Checks if a date/time is free.
    * @param dateTime the date time to check
@@ -250,7 +351,7 @@ public class GUIController {
       if (dateTime == null || dateTime.trim().isEmpty()) {
         return "Error: Date time cannot be empty";
       }
-      return calendars.isFree(dateTime);
+      return calendars.snapshot().isFree(dateTime);
     } catch (Exception e) {
       return "Error: " + e.getMessage();
     }
@@ -275,7 +376,7 @@ public class GUIController {
    * @param newValue new value
    * @return success message or error
    */
-  public String editCalendar(String name, String property, String newValue) {
+  public synchronized String editCalendar(String name, String property, String newValue) {
     try {
       if (name == null || name.trim().isEmpty()) {
         return "Error: Calendar name cannot be empty";
@@ -298,7 +399,8 @@ public class GUIController {
    * @param newDate new date
    * @return success message or error
    */
-  public String copyEvent(String eventName, String originalDate, String targetCalendar, String newDate) {
+  public synchronized String copyEvent(String eventName, String originalDate,
+                                       String targetCalendar, String newDate) {
     try {
       if (eventName == null || eventName.trim().isEmpty()) {
         return "Error: Event name cannot be empty";
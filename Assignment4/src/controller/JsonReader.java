@@ -0,0 +1,156 @@
+package controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the flat JSON objects that make up request bodies. Values may be strings, numbers,
+ * booleans or null; numbers and booleans are kept as their text, and nested objects or arrays are
+ * rejected.
+ */
+final class JsonReader {
+  private final String text;
+  private int position;
+
+  private JsonReader(String text) {
+    this.text = text;
+  }
+
+  /**
+   * Parses a flat JSON object.
+   *
+   * @param text the JSON text
+   * @return the members of the object, with null values left out
+   * @throws IllegalArgumentException if the text is not a flat JSON object
+   */
+  static Map<String, String> parseObject(String text) throws IllegalArgumentException {
+    JsonReader reader = new JsonReader(text);
+    Map<String, String> members = reader.object();
+    reader.skipWhitespace();
+    if (reader.position != text.length()) {
+      throw new IllegalArgumentException("Invalid JSON");
+    }
+    return members;
+  }
+
+  private Map<String, String> object() {
+    Map<String, String> members = new HashMap<>();
+    expect('{');
+    skipWhitespace();
+    if (peek() == '}') {
+      position++;
+      return members;
+    }
+    while (true) {
+      skipWhitespace();
+      String name = string();
+      skipWhitespace();
+      expect(':');
+      skipWhitespace();
+      String value = value();
+      if (value != null) {
+        members.put(name, value);
+      }
+      skipWhitespace();
+      char next = next();
+      if (next == '}') {
+        return members;
+      }
+      if (next != ',') {
+        throw new IllegalArgumentException("Invalid JSON");
+      }
+    }
+  }
+
+  private String value() {
+    char c = peek();
+    if (c == '"') {
+      return string();
+    }
+    int start = position;
+    while (position < text.length() && "-+.eE0123456789truefalsn".indexOf(text.charAt(position))
+            >= 0) {
+      position++;
+    }
+    String literal = text.substring(start, position);
+    if (literal.equals("null")) {
+      return null;
+    }
+    if (literal.equals("true") || literal.equals("false")
+            || literal.matches("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?")) {
+      return literal;
+    }
+    throw new IllegalArgumentException("Invalid JSON");
+  }
+
+  private String string() {
+    expect('"');
+    StringBuilder result = new StringBuilder();
+    while (true) {
+      char c = next();
+      if (c == '"') {
+        return result.toString();
+      }
+      if (c != '\\') {
+        result.append(c);
+        continue;
+      }
+      char escaped = next();
+      switch (escaped) {
+        case 'n':
+          result.append('\n');
+          break;
+        case 't':
+          result.append('\t');
+          break;
+        case 'r':
+          result.append('\r');
+          break;
+        case 'b':
+          result.append('\b');
+          break;
+        case 'f':
+          result.append('\f');
+          break;
+        case 'u':
+          if (position + 4 > text.length()) {
+            throw new IllegalArgumentException("Invalid JSON");
+          }
+          try {
+            result.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+          } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid JSON");
+          }
+          position += 4;
+          break;
+        default:
+          result.append(escaped);
+      }
+    }
+  }
+
+  private void skipWhitespace() {
+    while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+      position++;
+    }
+  }
+
+  private void expect(char expected) {
+    if (next() != expected) {
+      throw new IllegalArgumentException("Invalid JSON");
+    }
+  }
+
+  private char peek() {
+    if (position >= text.length()) {
+      throw new IllegalArgumentException("Invalid JSON");
+    }
+    return text.charAt(position);
+  }
+
+  private char next() {
+    char c = peek();
+    position++;
+    return c;
+  }
+}
@@ -0,0 +1,114 @@
+package controller;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON straight to a stream, one token at a time, so a response is never built up in
+ * memory first. The caller is trusted to open and close objects and arrays in a valid order.
+ */
+final class JsonWriter {
+  private final Writer out;
+  // whether the next value or name must be preceded by a comma
+  private boolean comma;
+
+  JsonWriter(Writer out) {
+    this.out = out;
+  }
+
+  JsonWriter beginObject() throws IOException {
+    separate();
+    out.write('{');
+    comma = false;
+    return this;
+  }
+
+  JsonWriter endObject() throws IOException {
+    out.write('}');
+    comma = true;
+    return this;
+  }
+
+  JsonWriter beginArray() throws IOException {
+    separate();
+    out.write('[');
+    comma = false;
+    return this;
+  }
+
+  JsonWriter endArray() throws IOException {
+    out.write(']');
+    comma = true;
+    return this;
+  }
+
+  JsonWriter name(String name) throws IOException {
+    separate();
+    string(name);
+    out.write(':');
+    comma = false;
+    return this;
+  }
+
+  JsonWriter value(String value) throws IOException {
+    separate();
+    if (value == null) {
+      out.write("null");
+    } else {
+      string(value);
+    }
+    comma = true;
+    return this;
+  }
+
+  JsonWriter value(long value) throws IOException {
+    separate();
+    out.write(Long.toString(value));
+    comma = true;
+    return this;
+  }
+
+  JsonWriter value(boolean value) throws IOException {
+    separate();
+    out.write(value ? "true" : "false");
+    comma = true;
+    return this;
+  }
+
+  private void separate() throws IOException {
+    if (comma) {
+      out.write(',');
+    }
+  }
+
+  private void string(String value) throws IOException {
+    out.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          out.write("\\\"");
+          break;
+        case '\\':
+          out.write("\\\\");
+          break;
+        case '\n':
+          out.write("\\n");
+          break;
+        case '\r':
+          out.write("\\r");
+          break;
+        case '\t':
+          out.write("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            out.write(String.format("\\u%04x", (int) c));
+          } else {
+            out.write(c);
+          }
+      }
+    }
+    out.write('"');
+  }
+}
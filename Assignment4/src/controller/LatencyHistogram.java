@@ -0,0 +1,97 @@
+package controller;
+
+/**
+ * Counts latencies in buckets whose width grows with the latency, so percentiles of millions of
+ * samples can be read back to within about three percent without keeping the samples. Each power
+ * of two is split into 32 equal buckets.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  private final long[] counts = new long[(Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS];
+  private long total;
+  private long max;
+
+  /**
+   * Records one latency.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts[index(value)]++;
+    total++;
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Adds every latency recorded by another histogram to this one.
+   *
+   * @param other the histogram to add
+   */
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Gets the number of latencies recorded.
+   *
+   * @return the number of latencies
+   */
+  long count() {
+    return total;
+  }
+
+  /**
+   * Gets the largest latency recorded.
+   *
+   * @return the largest latency in nanoseconds
+   */
+  long max() {
+    return max;
+  }
+
+  /**
+   * Gets a percentile of the recorded latencies.
+   *
+   * @param percentile a number from 0 to 100
+   * @return the upper bound of the bucket holding the percentile, in nanoseconds, or 0 if
+   *         nothing was recorded
+   */
+  long percentile(double percentile) {
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  private static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BITS - 1;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  private static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long low = ((long) (SUB_BUCKETS + index % SUB_BUCKETS)) << shift;
+    return low + (1L << shift) - 1;
+  }
+}
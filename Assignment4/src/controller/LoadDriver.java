@@ -0,0 +1,119 @@
+package controller;
+
+import java.io.FileReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import model.MultipleCalendars;
+import view.View;
+
+/**
+ * Runs a headless script in-process against an {@link EnhancedCommandParser} and measures it.
+ * Output is thrown away so only the time spent parsing and running commands is counted. Scripts
+ * can be written by hand or by a {@link LoadGenerator}.
+ */
+public class LoadDriver {
+
+  /**
+   * Runs every command of a script on a new set of calendars, stopping at an exit command. The
+   * heap high-water mark is the sum of the peak use the JVM records for each heap pool from the
+   * start of the run, so peaks between commands are not missed. Other runs in the same JVM at
+   * the same time reset and share those peaks.
+   *
+   * @param script the commands to run, one per line
+   * @return the measurements
+   * @throws IllegalArgumentException if the script is null
+   */
+  public static LoadReport run(Readable script) throws IllegalArgumentException {
+    if (script == null) {
+      throw new IllegalArgumentException("Script cannot be null");
+    }
+    View view = new DiscardingView();
+    EnhancedCommandParser parser = new EnhancedCommandParser(new MultipleCalendars(view), view);
+    Map<String, LatencyHistogram> latencies = new HashMap<>();
+    Map<String, Long> errors = new HashMap<>();
+    List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        pool.resetPeakUsage();
+        heapPools.add(pool);
+      }
+    }
+    long operations = 0;
+    long elapsed = 0;
+
+    try (Scanner scanner = new Scanner(script)) {
+      while (scanner.hasNextLine()) {
+        String command = scanner.nextLine().trim();
+        if (command.isEmpty()) {
+          continue;
+        }
+        long start = System.nanoTime();
+        String result = parser.executeCommand(command);
+        long latency = System.nanoTime() - start;
+
+        String type = typeOf(command);
+        latencies.computeIfAbsent(type, key -> new LatencyHistogram()).record(latency);
+        if (result.startsWith("Error")) {
+          errors.merge(type, 1L, Long::sum);
+        }
+        elapsed += latency;
+        operations++;
+        if (command.equalsIgnoreCase("exit")) {
+          break;
+        }
+      }
+    }
+    long heapHighWater = 0;
+    for (MemoryPoolMXBean pool : heapPools) {
+      MemoryUsage peak = pool.getPeakUsage();
+      if (peak != null) {
+        heapHighWater += peak.getUsed();
+      }
+    }
+    return new LoadReport(latencies, errors, operations, elapsed, heapHighWater);
+  }
+
+  /**
+   * Gets the type of a command from its first two words. Event creations that repeat are
+   * counted separately from single ones.
+   */
+  static String typeOf(String command) {
+    String[] words = command.split("\\s+", 3);
+    if (words.length < 2) {
+      return words[0];
+    }
+    String type = words[0] + " " + words[1];
+    if (type.equals("create event") && command.contains(" repeats ")) {
+      return "create series";
+    }
+    return type;
+  }
+
+  /**
+   * Runs a script file and prints the report.
+   * Usage: {@code LoadDriver <file>}
+   *
+   * @param args the script file
+   */
+  public static void main(String[] args) {
+    try {
+      if (args.length < 1) {
+        throw new IllegalArgumentException("Missing script file");
+      }
+      try (FileReader script = new FileReader(args[0])) {
+        System.out.print(run(script));
+      }
+    } catch (Exception e) {
+      System.err.println("Error: " + e.getMessage());
+      System.out.println("Usage: LoadDriver <file>");
+    }
+  }
+}
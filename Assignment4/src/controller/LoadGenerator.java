@@ -0,0 +1,343 @@
+package controller;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Writes headless scripts that put a realistic load on the calendar application: many calendars
+ * in different timezones, single events, all day events, series with various weekday patterns,
+ * and edits, copies and queries mixed in at configurable ratios. Scripts are written as they are
+ * generated, so one with millions of events never has to be held in memory, and the same seed
+ * always produces the same script.
+ */
+public class LoadGenerator {
+  private static final String[] TIMEZONES = {"America/New_York", "America/Los_Angeles",
+      "America/Chicago", "Europe/London", "Europe/Berlin", "Asia/Kolkata", "Asia/Tokyo",
+      "Australia/Sydney", "UTC"};
+  private static final String[] PATTERNS = {"MWF", "TR", "MTWRF", "M", "W", "F", "SU",
+      "MTWRFSU"};
+  private static final String[] PROPERTIES = {"location", "description", "status"};
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 6);
+  private static final int DAYS = 365;
+  // how many events per calendar are remembered as targets for edits and copies
+  private static final int TRACKED = 64;
+
+  private final long events;
+  private final int calendars;
+  private final double seriesRatio;
+  private final int createWeight;
+  private final int editWeight;
+  private final int copyWeight;
+  private final int queryWeight;
+  private final long seed;
+  private final String prefix;
+
+  private LoadGenerator(LoadGeneratorBuilder builder) {
+    this.events = builder.events;
+    this.calendars = builder.calendars;
+    this.seriesRatio = builder.seriesRatio;
+    this.createWeight = builder.createWeight;
+    this.editWeight = builder.editWeight;
+    this.copyWeight = builder.copyWeight;
+    this.queryWeight = builder.queryWeight;
+    this.seed = builder.seed;
+    this.prefix = builder.prefix;
+  }
+
+  /**
+   * Gets a builder for a generator. Every setting has a default, so the builder can be built
+   * straight away.
+   *
+   * @return a new LoadGeneratorBuilder
+   */
+  public static LoadGeneratorBuilder getBuilder() {
+    return new LoadGeneratorBuilder();
+  }
+
+  /**
+   * Writes a script ending with an exit command. The script creates at least the configured
+   * number of events, counting every occurrence of a series.
+   *
+   * @param out where the script is written, one command per line
+   * @throws IOException if writing fails
+   */
+  public void write(Appendable out) throws IOException {
+    Random random = new Random(seed);
+    Target[][] targets = new Target[calendars][TRACKED];
+    int[] tracked = new int[calendars];
+    int totalWeight = createWeight + editWeight + copyWeight + queryWeight;
+
+    for (int i = 0; i < calendars; i++) {
+      line(out, "create calendar --name " + prefix + "Cal" + i + " --timezone "
+              + TIMEZONES[i % TIMEZONES.length]);
+    }
+    int current = 0;
+    line(out, "use calendar --name " + prefix + "Cal0");
+
+    long created = 0;
+    long subjects = 0;
+    while (created < events) {
+      // stay on one calendar for a while, the way a user would
+      if (calendars > 1 && random.nextInt(50) == 0) {
+        current = random.nextInt(calendars);
+        line(out, "use calendar --name " + prefix + "Cal" + current);
+      }
+      int pick = random.nextInt(totalWeight);
+      int known = Math.min(tracked[current], TRACKED);
+
+      if (pick >= createWeight + editWeight + copyWeight) {
+        writeQuery(out, random);
+      } else if (pick >= createWeight + editWeight && known > 0) {
+        writeCopy(out, random, targets[current][random.nextInt(known)]);
+      } else if (pick >= createWeight && known > 0) {
+        writeEdit(out, random, targets[current][random.nextInt(known)]);
+      } else {
+        String subject = "E" + subjects++;
+        LocalDate day = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        Target target;
+        if (random.nextDouble() < seriesRatio) {
+          String pattern = PATTERNS[random.nextInt(PATTERNS.length)];
+          while (!matches(pattern, day.getDayOfWeek())) {
+            day = day.plusDays(1);
+          }
+          int times = (int) Math.min(2 + random.nextInt(19), Math.max(2, events - created));
+          target = timed(random, subject, day, true);
+          line(out, "create event " + subject + " from " + target.start + " to " + target.end
+                  + " repeats " + pattern + " for " + times + " times");
+          created += times;
+        } else if (random.nextInt(10) == 0) {
+          line(out, "create event " + subject + " on " + day);
+          created++;
+          continue;
+        } else {
+          target = timed(random, subject, day, false);
+          line(out, "create event " + subject + " from " + target.start + " to " + target.end);
+          created++;
+        }
+        // keep a bounded sample of events to aim edits and copies at
+        int slot = tracked[current] < TRACKED ? tracked[current] : random.nextInt(TRACKED);
+        targets[current][slot] = target;
+        tracked[current]++;
+      }
+    }
+    line(out, "exit");
+  }
+
+  private void writeEdit(Appendable out, Random random, Target target) throws IOException {
+    String property = PROPERTIES[random.nextInt(PROPERTIES.length)];
+    String value = valueFor(property, random);
+    int kind = target.series ? random.nextInt(3) : 0;
+    if (kind == 0) {
+      line(out, "edit event " + property + " " + target.subject + " from " + target.start
+              + " to " + target.end + " with " + value);
+    } else {
+      line(out, "edit " + (kind == 1 ? "events " : "series ") + property + " "
+              + target.subject + " from " + target.start + " with " + value);
+    }
+  }
+
+  private void writeCopy(Appendable out, Random random, Target target) throws IOException {
+    String calendar = prefix + "Cal" + random.nextInt(calendars);
+    LocalDate day = FIRST_DAY.plusDays(random.nextInt(DAYS));
+    if (random.nextInt(4) == 0) {
+      line(out, "copy events on " + target.start.toLocalDate() + " --target " + calendar
+              + " to " + day);
+    } else {
+      line(out, "copy event " + target.subject + " on " + target.start + " --target "
+              + calendar + " to " + day.atTime(target.start.toLocalTime()));
+    }
+  }
+
+  private void writeQuery(Appendable out, Random random) throws IOException {
+    LocalDate day = FIRST_DAY.plusDays(random.nextInt(DAYS));
+    int kind = random.nextInt(10);
+    if (kind < 5) {
+      line(out, "print events on " + day);
+    } else if (kind < 7) {
+      line(out, "print events from " + day.atTime(0, 0) + " to " + day.plusDays(6).atTime(23, 59));
+    } else {
+      line(out, "show status on " + day.atTime(8 + random.nextInt(10), 30 * random.nextInt(2)));
+    }
+  }
+
+  private static Target timed(Random random, String subject, LocalDate day, boolean series) {
+    LocalDateTime start = day.atTime(7 + random.nextInt(11), 15 * random.nextInt(4));
+    return new Target(subject, start, start.plusMinutes(30L * (1 + random.nextInt(4))), series);
+  }
+
+  private static String valueFor(String property, Random random) {
+    if (property.equals("status")) {
+      return random.nextBoolean() ? "public" : "private";
+    }
+    return "\"" + (property.equals("location") ? "Room " : "Note ") + random.nextInt(500) + "\"";
+  }
+
+  private static boolean matches(String pattern, DayOfWeek day) {
+    return pattern.indexOf("MTWRFSU".charAt(day.getValue() - 1)) >= 0;
+  }
+
+  private static void line(Appendable out, String command) throws IOException {
+    out.append(command).append('\n');
+  }
+
+  /**
+   * Writes a script to a file, or to standard output when no file is given.
+   * Usage: {@code LoadGenerator <events> [calendars] [file]}
+   *
+   * @param args the number of events, then optionally the number of calendars and the file
+   */
+  public static void main(String[] args) {
+    try {
+      if (args.length < 1) {
+        throw new IllegalArgumentException("Missing number of events");
+      }
+      LoadGeneratorBuilder builder = getBuilder().events(Long.parseLong(args[0]));
+      if (args.length > 1) {
+        builder.calendars(Integer.parseInt(args[1]));
+      }
+      try (Writer out = new BufferedWriter(args.length > 2 ? new FileWriter(args[2])
+              : new OutputStreamWriter(System.out))) {
+        builder.build().write(out);
+      }
+    } catch (Exception e) {
+      System.err.println("Error: " + e.getMessage());
+      System.out.println("Usage: LoadGenerator <events> [calendars] [file]");
+    }
+  }
+
+  /**
+   * An event the script has created that later commands can refer to.
+   */
+  private static final class Target {
+    private final String subject;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final boolean series;
+
+    private Target(String subject, LocalDateTime start, LocalDateTime end, boolean series) {
+      this.subject = subject;
+      this.start = start;
+      this.end = end;
+      this.series = series;
+    }
+  }
+
+  /**
+   * Builder class for creating LoadGenerator objects.
+   */
+  public static class LoadGeneratorBuilder {
+    private long events = 10_000;
+    private int calendars = 4;
+    private double seriesRatio = 0.3;
+    private int createWeight = 60;
+    private int editWeight = 20;
+    private int copyWeight = 5;
+    private int queryWeight = 15;
+    private long seed = 42;
+    private String prefix = "";
+
+    /**
+     * Sets how many events the script creates.
+     *
+     * @param events the number of events, counting each occurrence of a series
+     * @return this builder
+     */
+    public LoadGeneratorBuilder events(long events) {
+      if (events <= 0) {
+        throw new IllegalArgumentException("Number of events must be positive");
+      }
+      this.events = events;
+      return this;
+    }
+
+    /**
+     * Sets how many calendars the events are spread over.
+     *
+     * @param calendars the number of calendars
+     * @return this builder
+     */
+    public LoadGeneratorBuilder calendars(int calendars) {
+      if (calendars <= 0) {
+        throw new IllegalArgumentException("Number of calendars must be positive");
+      }
+      this.calendars = calendars;
+      return this;
+    }
+
+    /**
+     * Sets the share of created events that are series.
+     *
+     * @param seriesRatio a number from 0 to 1
+     * @return this builder
+     */
+    public LoadGeneratorBuilder seriesRatio(double seriesRatio) {
+      if (seriesRatio < 0 || seriesRatio > 1) {
+        throw new IllegalArgumentException("Series ratio must be between 0 and 1");
+      }
+      this.seriesRatio = seriesRatio;
+      return this;
+    }
+
+    /**
+     * Sets the relative weights of the kinds of command in the script.
+     *
+     * @param create the weight of create commands
+     * @param edit   the weight of edit commands
+     * @param copy   the weight of copy commands
+     * @param query  the weight of print and show status commands
+     * @return this builder
+     */
+    public LoadGeneratorBuilder mix(int create, int edit, int copy, int query) {
+      if (create <= 0 || edit < 0 || copy < 0 || query < 0) {
+        throw new IllegalArgumentException("Invalid command mix");
+      }
+      this.createWeight = create;
+      this.editWeight = edit;
+      this.copyWeight = copy;
+      this.queryWeight = query;
+      return this;
+    }
+
+    /**
+     * Sets the seed of the random choices.
+     *
+     * @param seed the seed
+     * @return this builder
+     */
+    public LoadGeneratorBuilder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Sets a prefix for the names of the script's calendars, so scripts run side by side on the
+     * same calendars do not collide.
+     *
+     * @param prefix the prefix, which must not contain spaces or quotes
+     * @return this builder
+     */
+    public LoadGeneratorBuilder calendarPrefix(String prefix) {
+      if (prefix == null || prefix.matches(".*[\\s\"].*")) {
+        throw new IllegalArgumentException("Invalid calendar prefix");
+      }
+      this.prefix = prefix;
+      return this;
+    }
+
+    /**
+     * Builds the generator.
+     *
+     * @return a new LoadGenerator
+     */
+    public LoadGenerator build() {
+      return new LoadGenerator(this);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package controller;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The results of running a script with a {@link LoadDriver}: throughput, latency percentiles for
+ * each type of command, and the peak heap use of the run.
+ */
+public final class LoadReport {
+  private final Map<String, LatencyHistogram> latencies;
+  private final Map<String, Long> errors;
+  private final long operations;
+  private final long elapsedNanos;
+  private final long heapHighWater;
+
+  LoadReport(Map<String, LatencyHistogram> latencies, Map<String, Long> errors, long operations,
+             long elapsedNanos, long heapHighWater) {
+    this.latencies = new TreeMap<>(latencies);
+    this.errors = new TreeMap<>(errors);
+    this.operations = operations;
+    this.elapsedNanos = elapsedNanos;
+    this.heapHighWater = heapHighWater;
+  }
+
+  /**
+   * Combines the reports of scripts that were run at the same time.
+   *
+   * @param reports      the reports to combine
+   * @param elapsedNanos the time taken to run every script
+   * @return the combined report, with the largest heap high-water mark of the reports
+   */
+  static LoadReport combine(List<LoadReport> reports, long elapsedNanos) {
+    Map<String, LatencyHistogram> latencies = new TreeMap<>();
+    Map<String, Long> errors = new TreeMap<>();
+    long operations = 0;
+    long heapHighWater = 0;
+    for (LoadReport report : reports) {
+      for (Map.Entry<String, LatencyHistogram> entry : report.latencies.entrySet()) {
+        latencies.computeIfAbsent(entry.getKey(), key -> new LatencyHistogram())
+                .add(entry.getValue());
+      }
+      report.errors.forEach((type, count) -> errors.merge(type, count, Long::sum));
+      operations += report.operations;
+      heapHighWater = Math.max(heapHighWater, report.heapHighWater);
+    }
+    return new LoadReport(latencies, errors, operations, elapsedNanos, heapHighWater);
+  }
+
+  /**
+   * Gets the number of commands that were run.
+   *
+   * @return the number of commands
+   */
+  public long getOperations() {
+    return operations;
+  }
+
+  /**
+   * Gets the time taken to run every command.
+   *
+   * @return the time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Gets the number of commands run per second.
+   *
+   * @return the throughput
+   */
+  public double getOpsPerSecond() {
+    return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Gets the peak heap use the JVM recorded while the script ran, summed over the heap pools.
+   *
+   * @return the number of bytes, or 0 if the heap was not measured
+   */
+  public long getHeapHighWater() {
+    return heapHighWater;
+  }
+
+  /**
+   * Gets the types of command that were run, such as "create event" or "print events".
+   *
+   * @return the command types in alphabetical order
+   */
+  public Set<String> getCommandTypes() {
+    return Collections.unmodifiableSet(latencies.keySet());
+  }
+
+  /**
+   * Gets the number of commands of a type that were run.
+   *
+   * @param type the type of command
+   * @return the number of commands, or 0 if none of that type were run
+   */
+  public long getCount(String type) {
+    LatencyHistogram histogram = latencies.get(type);
+    return histogram == null ? 0 : histogram.count();
+  }
+
+  /**
+   * Gets the number of commands of a type that returned an error.
+   *
+   * @param type the type of command
+   * @return the number of errors
+   */
+  public long getErrors(String type) {
+    return errors.getOrDefault(type, 0L);
+  }
+
+  /**
+   * Gets a latency percentile for a type of command.
+   *
+   * @param type       the type of command
+   * @param percentile a number from 0 to 100
+   * @return the latency in nanoseconds, or 0 if none of that type were run
+   */
+  public long getPercentile(String type, double percentile) {
+    LatencyHistogram histogram = latencies.get(type);
+    return histogram == null ? 0 : histogram.percentile(percentile);
+  }
+
+  /**
+   * Formats the report as a table with one row per type of command. Latencies are shown in
+   * microseconds.
+   *
+   * @return the formatted report
+   */
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append(String.format("%d commands in %.2f s (%.0f ops/s)", operations,
+            elapsedNanos / 1e9, getOpsPerSecond()));
+    if (heapHighWater > 0) {
+      result.append(String.format(", heap high-water %d MB", heapHighWater >> 20));
+    }
+    result.append(System.lineSeparator());
+    result.append(String.format("%-16s %10s %8s %10s %10s %10s %10s%n", "command", "count",
+            "errors", "p50 us", "p99 us", "p99.9 us", "max us"));
+    for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+      result.append(String.format("%-16s %10d %8d %10.1f %10.1f %10.1f %10.1f%n", entry.getKey(),
+              histogram.count(), getErrors(entry.getKey()), histogram.percentile(50) / 1e3,
+              histogram.percentile(99) / 1e3, histogram.percentile(99.9) / 1e3,
+              histogram.max() / 1e3));
+    }
+    return result.toString();
+  }
+}
@@ -1,5 +1,6 @@
 package model;
 
+import java.util.List;
 
 /**
  * Represents a Calendar that can create, edit, and retrieve events.
@@ -34,6 +35,36 @@ public interface Calendar {
    */
   void createEventSeriesUntil(Event event, String weekdays, String until);
 
+  /**
+   * Creates many recurring events at once, as an import or a replayed script would one by one.
+   * The series are created in order as a single change: each one is checked against the events
+   * already in the calendar and the series before it, and if one cannot be created, the ones
+   * before it are kept and its error is thrown, just as creating them one by one would.
+   * Effect: adds the occurrences of every series up to the first that fails to the calendar.
+   *
+   * @param series the series to be created, in order
+   * @throws IllegalArgumentException if the list or a series is null, or a series would create a
+   *                                  duplicate, overlap another event while the conflict
+   *                                  policy is reject, or go over the memory limit
+   */
+  void createEventSeries(List<EventSeries> series) throws IllegalArgumentException;
+
+  /**
+   * Sets what this calendar does when a new event overlaps one it already has. Calendars allow
+   * overlapping events unless told otherwise.
+   *
+   * @param policy the conflict policy
+   * @throws IllegalArgumentException if the policy is null
+   */
+  void setConflictPolicy(ConflictPolicy policy) throws IllegalArgumentException;
+
+  /**
+   * Gets what this calendar does when a new event overlaps one it already has.
+   *
+   * @return the conflict policy
+   */
+  ConflictPolicy getConflictPolicy();
+
   /**
    * Changes the property of the given event whether it is single or part of a series.
    *
@@ -46,6 +77,25 @@ public interface Calendar {
   void editEvent(String property, String subject, String startDateTime, String endDateTime,
                  String newValue);
 
+  /**
+   * Gets an event by the id it was given when it was added to this calendar.
+   *
+   * @param id the id of the event
+   * @return the event
+   * @throws IllegalArgumentException if no event has the given id
+   */
+  Event getEventById(long id) throws IllegalArgumentException;
+
+  /**
+   * Changes a property of the event with the given id. The edited event keeps its id.
+   *
+   * @param id       the id of the event to be changed
+   * @param property the property to be changed
+   * @param newValue the new value of the property
+   * @throws IllegalArgumentException if no event has the given id or the new value is invalid
+   */
+  void editEventById(long id, String property, String newValue) throws IllegalArgumentException;
+
   /**
    * Identifies event that starts at the given date and time and edit its property.
    * If this event is part of a series then the properties of all events in that series after
@@ -70,6 +120,46 @@ public interface Calendar {
    */
   void editEventSeries(String property, String subject, String startDateTime, String newValue);
 
+  /**
+   * Deletes the event with the given subject, start and end.
+   *
+   * @param subject       the subject of the event to be deleted
+   * @param startDateTime the start date and time of the event to be deleted
+   * @param endDateTime   the end date and time of the event to be deleted
+   * @throws IllegalArgumentException if there is no such event
+   */
+  void deleteEvent(String subject, String startDateTime, String endDateTime)
+          throws IllegalArgumentException;
+
+  /**
+   * Identifies the event that has the given subject and starts at the given date and time, and
+   * deletes it along with every later event of its series, or only it if it is not in a series.
+   *
+   * @param subject       the subject of the event
+   * @param startDateTime the start date and time of the event
+   * @throws IllegalArgumentException if there is no such event
+   */
+  void deleteEvents(String subject, String startDateTime) throws IllegalArgumentException;
+
+  /**
+   * Identifies the event that has the given subject and starts at the given date and time, and
+   * deletes every event of its series, or only it if it is not in a series.
+   *
+   * @param subject       the subject of the event
+   * @param startDateTime the start date and time of the event
+   * @throws IllegalArgumentException if there is no such event
+   */
+  void deleteSeries(String subject, String startDateTime) throws IllegalArgumentException;
+
+  /**
+   * Deletes every event that starts between two given times.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return the number of events deleted
+   */
+  int deleteRange(String time1, String time2);
+
   /**
    * Returns a bulleted list of events on a given date, including their start and end times,
    * and their location if it exists.
@@ -0,0 +1,135 @@
+package model;
+
+/**
+ * One change to the calendars: an event added, removed or replaced, or a calendar created,
+ * renamed or moved to another timezone. Changes are handed to a {@link CalendarListener} in
+ * batches, one batch for each command.
+ */
+public final class CalendarChange {
+
+  /**
+   * The kinds of change.
+   */
+  public enum Type {
+    EVENT_ADDED,
+    EVENT_REMOVED,
+    EVENT_REPLACED,
+    CALENDAR_CREATED,
+    CALENDAR_RENAMED,
+    CALENDAR_REZONED
+  }
+
+  private final Type type;
+  private final String calendarName;
+  private final Event oldEvent;
+  private final Event newEvent;
+  private final String oldValue;
+  private final String newValue;
+
+  private CalendarChange(Type type, String calendarName, Event oldEvent, Event newEvent,
+                         String oldValue, String newValue) {
+    this.type = type;
+    this.calendarName = calendarName;
+    this.oldEvent = oldEvent;
+    this.newEvent = newEvent;
+    this.oldValue = oldValue;
+    this.newValue = newValue;
+  }
+
+  /**
+   * Creates the change for an event that was added, removed or replaced.
+   *
+   * @param calendarName the name of the calendar the event is in
+   * @param oldEvent     the event before the change, or null if it was added
+   * @param newEvent     the event after the change, or null if it was removed
+   * @return the change
+   */
+  static CalendarChange ofEvent(String calendarName, Event oldEvent, Event newEvent) {
+    Type type = oldEvent == null ? Type.EVENT_ADDED
+            : newEvent == null ? Type.EVENT_REMOVED : Type.EVENT_REPLACED;
+    return new CalendarChange(type, calendarName, oldEvent, newEvent, null, null);
+  }
+
+  /**
+   * Creates the change for a calendar that was created, renamed or moved to another timezone.
+   *
+   * @param type         the kind of change
+   * @param calendarName the name of the calendar after the change
+   * @param oldValue     the old name or timezone, or null for a new calendar
+   * @param newValue     the new name or timezone
+   * @return the change
+   */
+  static CalendarChange ofCalendar(Type type, String calendarName, String oldValue,
+                                   String newValue) {
+    return new CalendarChange(type, calendarName, null, null, oldValue, newValue);
+  }
+
+  /**
+   * Gets the kind of change.
+   *
+   * @return the type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Gets the name of the calendar that changed, after the change.
+   *
+   * @return the name
+   */
+  public String getCalendarName() {
+    return calendarName;
+  }
+
+  /**
+   * Gets the event as it was before an event change.
+   *
+   * @return the event, or null if it was added or the change is to a calendar
+   */
+  public Event getOldEvent() {
+    return oldEvent;
+  }
+
+  /**
+   * Gets the event as it is after an event change.
+   *
+   * @return the event, or null if it was removed or the change is to a calendar
+   */
+  public Event getNewEvent() {
+    return newEvent;
+  }
+
+  /**
+   * Gets the name or timezone a calendar had before it changed.
+   *
+   * @return the old value, or null for a new calendar or an event change
+   */
+  public String getOldValue() {
+    return oldValue;
+  }
+
+  /**
+   * Gets the name or timezone a calendar has after it changed.
+   *
+   * @return the new value, or null for an event change
+   */
+  public String getNewValue() {
+    return newValue;
+  }
+
+  @Override
+  public String toString() {
+    switch (type) {
+      case EVENT_ADDED:
+        return type + " " + calendarName + " " + newEvent.getSubject();
+      case EVENT_REMOVED:
+        return type + " " + calendarName + " " + oldEvent.getSubject();
+      case EVENT_REPLACED:
+        return type + " " + calendarName + " " + oldEvent.getSubject() + " -> "
+                + newEvent.getSubject();
+      default:
+        return type + " " + calendarName + " " + oldValue + " -> " + newValue;
+    }
+  }
+}
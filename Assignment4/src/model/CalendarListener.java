@@ -0,0 +1,29 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Receives the changes made to a set of calendars, so that caches, views and indexes can be
+ * updated without querying the calendars again.
+ */
+public interface CalendarListener {
+  /**
+   * Called once for every command that changed something, with everything that command
+   * changed.
+   *
+   * @param changes the changes; event changes to one calendar are in order of event id
+   */
+  void changed(List<CalendarChange> changes);
+
+  /**
+   * A registered listener, which can be removed again.
+   */
+  interface Subscription extends AutoCloseable {
+    /**
+     * Stops delivering changes to the listener. Batches already handed to an executor may
+     * still arrive.
+     */
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,197 @@
+package model;
+
+import java.util.Locale;
+
+/**
+ * How much heap one calendar is estimated to take, and what it holds: its events, how many of
+ * them are occurrences of a series, and the series. Estimates are kept up to date as the
+ * calendar changes, so reading them costs nothing. A fork is counted in full, along with how
+ * much of that it shares with the calendar it was forked from, so a sum over calendars can
+ * count what they share once.
+ */
+public final class CalendarMemory {
+  private final String name;
+  private final int events;
+  private final int occurrences;
+  private final int series;
+  private final long eventBytes;
+  private final long indexBytes;
+  private final long sharedBytes;
+  private final long limit;
+
+  CalendarMemory(String name, int events, int occurrences, int series, long eventBytes,
+                 long indexBytes, long sharedBytes, long limit) {
+    this.name = name;
+    this.events = events;
+    this.occurrences = occurrences;
+    this.series = series;
+    this.eventBytes = eventBytes;
+    this.indexBytes = indexBytes;
+    this.sharedBytes = sharedBytes;
+    this.limit = limit;
+  }
+
+  /**
+   * Gets the name of the calendar.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of events kept in memory.
+   *
+   * @return the number of events
+   */
+  public int getEvents() {
+    return events;
+  }
+
+  /**
+   * Gets how many of the events belong to a series.
+   *
+   * @return the number of occurrences
+   */
+  public int getOccurrences() {
+    return occurrences;
+  }
+
+  /**
+   * Gets the number of series that still have events.
+   *
+   * @return the number of series
+   */
+  public int getSeries() {
+    return series;
+  }
+
+  /**
+   * Gets the estimated bytes of the events, their strings and the structures that hold them.
+   *
+   * @return the bytes
+   */
+  public long getEventBytes() {
+    return eventBytes;
+  }
+
+  /**
+   * Gets the estimated bytes of the word index used for searching.
+   *
+   * @return the bytes
+   */
+  public long getIndexBytes() {
+    return indexBytes;
+  }
+
+  /**
+   * Gets the estimated bytes in total.
+   *
+   * @return the bytes
+   */
+  public long getTotalBytes() {
+    return eventBytes + indexBytes;
+  }
+
+  /**
+   * Gets the estimated bytes of the total that are shared with the calendar this one was forked
+   * from, where that calendar is counted as well.
+   *
+   * @return the bytes, 0 if the calendar is not a fork
+   */
+  public long getSharedBytes() {
+    return sharedBytes;
+  }
+
+  /**
+   * Gets the estimated bytes in total less those shared with the calendar this one was forked
+   * from, so the memory of a set of calendars is the sum of these.
+   *
+   * @return the bytes
+   */
+  public long getOwnBytes() {
+    return eventBytes + indexBytes - sharedBytes;
+  }
+
+  /**
+   * Gets the most bytes the events may take before new events are refused.
+   *
+   * @return the limit, or 0 if there is none
+   */
+  public long getLimit() {
+    return limit;
+  }
+
+  /**
+   * Prints the counts and sizes on one line.
+   *
+   * @return the line
+   */
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append(String.format("%s: %d event(s), %d in %d series, %s events + %s index",
+            name, events, occurrences, series, format(eventBytes), format(indexBytes)));
+    if (sharedBytes > 0) {
+      result.append(String.format(", %s shared", format(sharedBytes)));
+    }
+    if (limit > 0) {
+      result.append(String.format(", limit %s (%.0f%% used)", format(limit),
+              100.0 * eventBytes / limit));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Reads a memory limit: a number of bytes, optionally followed by KB, MB or GB, or "none".
+   *
+   * @param text the limit
+   * @return the bytes, or 0 for none
+   * @throws IllegalArgumentException if the limit cannot be read
+   */
+  static long parseLimit(String text) throws IllegalArgumentException {
+    String limit = text.trim().toUpperCase(Locale.ROOT);
+    if (limit.equals("NONE")) {
+      return 0;
+    }
+    long unit = 1;
+    String[] units = {"KB", "MB", "GB"};
+    for (int i = 0; i < units.length; i++) {
+      if (limit.endsWith(units[i])) {
+        unit = 1L << (10 * (i + 1));
+        limit = limit.substring(0, limit.length() - 2).trim();
+        break;
+      }
+    }
+    try {
+      long bytes = Long.parseLong(limit);
+      if (bytes <= 0) {
+        throw new IllegalArgumentException("Invalid memory limit");
+      }
+      return Math.multiplyExact(bytes, unit);
+    } catch (NumberFormatException | ArithmeticException e) {
+      throw new IllegalArgumentException("Invalid memory limit");
+    }
+  }
+
+  /**
+   * Formats a number of bytes with a binary unit.
+   *
+   * @param bytes the bytes
+   * @return the formatted size, such as "1.5 MB"
+   */
+  public static String format(long bytes) {
+    if (bytes < 1024) {
+      return bytes + " B";
+    }
+    String units = "KMGT";
+    double size = bytes;
+    int unit = -1;
+    while (size >= 1024 && unit < units.length() - 1) {
+      size /= 1024;
+      unit++;
+    }
+    return String.format("%.1f %sB", size, units.charAt(unit));
+  }
+}
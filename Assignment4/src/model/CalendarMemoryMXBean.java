@@ -0,0 +1,45 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * The memory estimates of every calendar, for monitoring through JMX. The numbers are the ones
+ * shown by "show memory".
+ */
+public interface CalendarMemoryMXBean {
+
+  /**
+   * Gets the estimated bytes of every calendar together.
+   *
+   * @return the bytes
+   */
+  long getEstimatedBytes();
+
+  /**
+   * Gets the estimated bytes of each calendar.
+   *
+   * @return the bytes by calendar name
+   */
+  Map<String, Long> getEstimatedBytesByCalendar();
+
+  /**
+   * Gets the number of events kept in memory by every calendar together.
+   *
+   * @return the number of events
+   */
+  int getEventCount();
+
+  /**
+   * Gets how many of the events belong to a series.
+   *
+   * @return the number of occurrences
+   */
+  int getOccurrenceCount();
+
+  /**
+   * Gets the number of series that still have events.
+   *
+   * @return the number of series
+   */
+  int getSeriesCount();
+}
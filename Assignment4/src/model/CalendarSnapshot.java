@@ -0,0 +1,348 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A read-only view of a calendar's events as they were at one moment. Taking a snapshot costs
+ * nothing because the events are held in an immutable tree; edits made to the calendar afterwards
+ * build new trees and never change this one. A snapshot can therefore be queried from any thread
+ * without locking, and every query on it sees the same events.
+ *
+ * <p>Queries over a range of times also find events that have been moved to the calendar's
+ * archive, reading only the archive segments the range reaches. Lookups by id, searches without
+ * a range and the list of every event cover the events kept in memory.
+ */
+public final class CalendarSnapshot {
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+  private final IntervalTree events;
+  private final TextIndex index;
+  // the generation of the word index when the snapshot was taken
+  private final long generation;
+  private final EventArchive archive;
+
+  CalendarSnapshot(IntervalTree events, TextIndex index, long generation, EventArchive archive) {
+    this.events = events;
+    this.index = index;
+    this.generation = generation;
+    this.archive = archive;
+  }
+
+  /**
+   * Gets the number of events in this snapshot.
+   *
+   * @return the number of events
+   */
+  public int size() {
+    return events.size();
+  }
+
+  /**
+   * Gets every event in this snapshot in schedule order: by start time, and by when they were
+   * added for events that start at the same time.
+   *
+   * @return an unmodifiable list of the events
+   */
+  public List<Event> getEvents() {
+    return Collections.unmodifiableList(events.all());
+  }
+
+  /**
+   * Gets the event with the given id.
+   *
+   * @param id the id of the event
+   * @return the event, or null if there is none
+   */
+  public Event getEventById(long id) {
+    return events.get(id);
+  }
+
+  /**
+   * Gets the events between two given times in schedule order.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return an unmodifiable list of the events that overlap the given times
+   */
+  public List<Event> eventsBetween(String time1, String time2) {
+    return Collections.unmodifiableList(
+            touching(LocalDateTime.parse(time1), LocalDateTime.parse(time2)));
+  }
+
+  /**
+   * Finds the events whose subject, description or location has every word of a query, in
+   * schedule order. Words are matched whole and without regard to case; a word ending in '*'
+   * matches every word it starts. The posting lists of the words are intersected to find the
+   * candidates, and when a range is given and has fewer events than that, the range is read
+   * instead.
+   *
+   * @param query the words to look for
+   * @param time1 starting date and time of the range to search, or null to search every event
+   * @param time2 ending date and time of the range to search, or null to search every event
+   * @return an unmodifiable list of the matching events
+   * @throws IllegalArgumentException if the query has no words
+   */
+  public List<Event> search(String query, String time1, String time2)
+          throws IllegalArgumentException {
+    List<TextIndex.Term> terms = TextIndex.parse(query);
+    return select(terms, event -> TextIndex.matches(event, terms), time1, time2);
+  }
+
+  /**
+   * Finds the events that meet every condition of a query, in schedule order. The plan is
+   * chosen from what the query allows: the words its text conditions need are looked up in the
+   * word index, and the range is read from the tree instead when it has fewer events than the
+   * index offers or the query has no such words. Either way, only the events found this way are
+   * checked against the conditions.
+   *
+   * @param query the compiled query
+   * @param time1 starting date and time of the range to search, or null to search every event
+   * @param time2 ending date and time of the range to search, or null to search every event
+   * @return an unmodifiable list of the matching events
+   */
+  public List<Event> find(EventQuery query, String time1, String time2) {
+    return select(query.indexTerms(), query::matches, time1, time2);
+  }
+
+  /**
+   * Finds the events that pass a test, reading either the candidates for some words from the
+   * word index or the events in a range, whichever is smaller.
+   */
+  private List<Event> select(List<TextIndex.Term> terms, Predicate<Event> test, String time1,
+                             String time2) {
+    LocalDateTime from = time1 == null ? null : LocalDateTime.parse(time1);
+    LocalDateTime to = time2 == null ? null : LocalDateTime.parse(time2);
+    boolean ranged = from != null && to != null;
+    long[] candidates = terms.isEmpty() ? null : index.candidates(terms, events);
+    if (index.generation() != generation) {
+      // words have been taken out of the index since, and some may have been these events'
+      candidates = null;
+    }
+
+    List<Event> found = new ArrayList<>();
+    if (candidates == null || (ranged && (reachesArchive(from)
+            || events.countTouching(from, to) < candidates.length))) {
+      for (Event event : ranged ? touching(from, to) : events.all()) {
+        if (test.test(event) && within(event, from, to)) {
+          found.add(event);
+        }
+      }
+      return Collections.unmodifiableList(found);
+    }
+
+    for (long id : candidates) {
+      // a series in the index stands for every id it gave out, some of which may be gone
+      Event event = events.get(id);
+      if (event != null && test.test(event) && within(event, from, to)) {
+        found.add(event);
+      }
+    }
+    found.sort(events.scheduleOrder());
+    return Collections.unmodifiableList(found);
+  }
+
+  private static boolean within(Event event, LocalDateTime from, LocalDateTime to) {
+    return (from == null || !event.getEndDateTime().isBefore(from))
+            && (to == null || !event.getStartDateTime().isAfter(to));
+  }
+
+  /**
+   * Measures how busy the calendar was between two dates.
+   *
+   * @param name     the name to give the calendar in the result
+   * @param firstDay the first day
+   * @param lastDay  the last day
+   * @param zone     the day boundaries of the calendar's timezone
+   * @return the usage
+   */
+  CalendarUsage usage(String name, LocalDate firstDay, LocalDate lastDay, DayBoundaries zone) {
+    return CalendarUsage.of(name,
+            touching(firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay()), firstDay,
+            lastDay, zone);
+  }
+
+  /**
+   * Prints the events on a given date.
+   *
+   * @param date the date, formatted as yyyy-MM-dd
+   * @return the formatted schedule, empty if there are no events
+   */
+  public String daySchedule(String date) {
+    LocalDateTime startOfDay = LocalDateTime.parse(date + "T00:00");
+    LocalDateTime endOfDay = LocalDateTime.parse(date + "T23:59:59.999999999");
+    return format(touching(startOfDay, endOfDay));
+  }
+
+  /**
+   * Prints the events between two given times.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return the formatted schedule, empty if there are no events
+   */
+  public String rangeSchedule(String time1, String time2) {
+    return format(touching(LocalDateTime.parse(time1), LocalDateTime.parse(time2)));
+  }
+
+  /**
+   * Checks whether any event is in progress at a given time.
+   *
+   * @param date the date and time to check
+   * @return "Busy" if an event is in progress, otherwise "Available"
+   */
+  public String isFree(String date) {
+    LocalDateTime time = LocalDateTime.parse(date);
+    boolean busy = events.covers(time)
+            || (reachesArchive(time) && !touching(time, time).isEmpty());
+    return busy ? "Busy" : "Available";
+  }
+
+  /**
+   * Counts the events between two given times.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return the number of events that overlap the given times
+   */
+  public int countEvents(String time1, String time2) {
+    LocalDateTime start = LocalDateTime.parse(time1);
+    LocalDateTime end = LocalDateTime.parse(time2);
+    return reachesArchive(start) ? touching(start, end).size() : events.countTouching(start, end);
+  }
+
+  /**
+   * Returns one page of the schedule between two given times, in schedule order. Only the events
+   * on the page are looked at and formatted.
+   *
+   * @param time1  starting date and time
+   * @param time2  ending date and time
+   * @param offset the index of the first event to return
+   * @param limit  the largest number of events to return
+   * @return the formatted lines of the page, empty if the offset is past the last event
+   * @throws IllegalArgumentException if the offset is negative or the limit is not positive
+   */
+  public List<String> schedulePage(String time1, String time2, int offset, int limit)
+          throws IllegalArgumentException {
+    if (offset < 0 || limit <= 0) {
+      throw new IllegalArgumentException("Invalid page");
+    }
+    LocalDateTime start = LocalDateTime.parse(time1);
+    LocalDateTime end = LocalDateTime.parse(time2);
+    List<Event> page;
+    if (reachesArchive(start)) {
+      List<Event> all = touching(start, end);
+      page = all.subList(Math.min(offset, all.size()),
+              (int) Math.min(all.size(), (long) offset + limit));
+    } else {
+      page = events.touching(start, end, offset, limit);
+    }
+    List<String> lines = new ArrayList<>(page.size());
+    for (Event event : page) {
+      StringBuilder line = new StringBuilder();
+      appendEvent(line, event);
+      lines.add(line.toString());
+    }
+    return lines;
+  }
+
+  /**
+   * Counts the events on every day of a month in a single pass over the month's events. An event
+   * that spans several days is counted on each of them, matching {@link #daySchedule(String)}.
+   *
+   * @param month the month, formatted as yyyy-MM
+   * @return the counts, where index 0 is the first day of the month
+   */
+  public int[] eventCountsByDay(String month) {
+    YearMonth yearMonth = YearMonth.parse(month);
+    LocalDate firstDay = yearMonth.atDay(1);
+    LocalDate lastDay = yearMonth.atEndOfMonth();
+    int[] counts = new int[yearMonth.lengthOfMonth()];
+
+    for (Event event : touching(firstDay.atStartOfDay(),
+            lastDay.atTime(23, 59, 59, 999999999))) {
+      LocalDate from = event.getStartDateTime().toLocalDate();
+      LocalDate to = event.getEndDateTime().toLocalDate();
+      int first = from.isBefore(firstDay) ? 0 : from.getDayOfMonth() - 1;
+      int last = to.isAfter(lastDay) ? counts.length - 1 : to.getDayOfMonth() - 1;
+      for (int day = first; day <= last; day++) {
+        counts[day]++;
+      }
+    }
+    return counts;
+  }
+
+  private boolean reachesArchive(LocalDateTime start) {
+    return archive != null && archive.reaches(start);
+  }
+
+  /**
+   * Gets the events in memory and in the archive that touch a span, in schedule order.
+   */
+  List<Event> touching(LocalDateTime start, LocalDateTime end) {
+    List<Event> hot = events.touching(start, end);
+    if (!reachesArchive(start)) {
+      return hot;
+    }
+    List<Event> merged = new ArrayList<>();
+    int next = 0;
+    for (Event archived : archive.touching(start, end)) {
+      // an event archived after this snapshot was taken is still in its tree
+      if (events.get(archived.getId()) != null) {
+        continue;
+      }
+      while (next < hot.size()
+              && hot.get(next).getStartDateTime().isBefore(archived.getStartDateTime())) {
+        merged.add(hot.get(next++));
+      }
+      merged.add(archived);
+    }
+    merged.addAll(hot.subList(next, hot.size()));
+    return merged;
+  }
+
+  /**
+   * Formats events that are already in order as a schedule, one line per event.
+   *
+   * @param events the events to be formatted
+   * @return the formatted schedule, empty string if there are no events
+   */
+  static String format(List<Event> events) {
+    StringBuilder schedule = new StringBuilder();
+    for (Event event : events) {
+      appendEvent(schedule, event);
+      schedule.append("\n");
+    }
+    return schedule.toString();
+  }
+
+  private static void appendEvent(StringBuilder schedule, Event event) {
+    schedule.append("• ").append(event.getSubject()).append(" (");
+
+    // format start time
+    schedule.append(event.getStartDateTime().format(DATE_FORMATTER))
+            .append(" ")
+            .append(event.getStartDateTime().format(TIME_FORMATTER))
+            .append(" - ");
+
+    // include end date if different from start date
+    if (!event.getStartDateTime().toLocalDate().equals(event.getEndDateTime().toLocalDate())) {
+      schedule.append(event.getEndDateTime().format(DATE_FORMATTER))
+              .append(" ");
+    }
+    schedule.append(event.getEndDateTime().format(TIME_FORMATTER))
+            .append(")");
+
+    // add location if present
+    if (!event.getLocation().isEmpty()) {
+      schedule.append(" @ ").append(event.getLocation());
+    }
+  }
+}
@@ -0,0 +1,304 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How busy one calendar is over a span of whole days: the minutes covered by at least one event
+ * in every hour, day and week of the span, the minutes booked counting overlaps, and the most
+ * events that run at the same time.
+ *
+ * <p>Everything is worked out in one sweep over the calendar's events in start order. Starts
+ * come in order from the calendar; ends are sorted once, and walking the two together gives the
+ * number of events in progress at every moment, from which both the busy stretches and the peak
+ * fall out. Days and weeks are the calendar's local ones, and weeks start on Monday.
+ *
+ * <p>Minutes are the ones that really pass, so a day when the clocks go forward has 23 hours
+ * and one when they go back has 25. Times are turned into minutes with the day boundaries of
+ * the calendar's timezone, which takes one array lookup for most events. Hours are those of the
+ * local clock: the hour skipped when clocks go forward is never busy, and the one repeated when
+ * they go back can be busy for up to two hours.
+ */
+public final class CalendarUsage {
+  private static final int MINUTES_PER_HOUR = 60;
+  private static final int SECONDS_PER_MINUTE = 60;
+  private static final String SHADES = " .:-=+*#%@";
+
+  private final String name;
+  private final LocalDate firstDay;
+  private final long[] busyByHour;
+  private final long[] busyByDay;
+  private final long[] busyByWeek;
+  private final long bookedMinutes;
+  private final int peakOverlap;
+  private final LocalDateTime peakStart;
+
+  private CalendarUsage(String name, LocalDate firstDay, long[] busyByHour, long[] busyByDay,
+                        long[] busyByWeek, long bookedMinutes, int peakOverlap,
+                        LocalDateTime peakStart) {
+    this.name = name;
+    this.firstDay = firstDay;
+    this.busyByHour = busyByHour;
+    this.busyByDay = busyByDay;
+    this.busyByWeek = busyByWeek;
+    this.bookedMinutes = bookedMinutes;
+    this.peakOverlap = peakOverlap;
+    this.peakStart = peakStart;
+  }
+
+  /**
+   * Measures events between two dates.
+   *
+   * @param name     the name of the calendar
+   * @param touching the events of the calendar that touch the days, in start order
+   * @param firstDay the first day to measure
+   * @param lastDay  the last day to measure
+   * @param zone     the day boundaries of the calendar's timezone
+   * @return the usage
+   */
+  static CalendarUsage of(String name, List<Event> touching, LocalDate firstDay,
+                          LocalDate lastDay, DayBoundaries zone) {
+    int days = (int) ChronoUnit.DAYS.between(firstDay, lastDay) + 1;
+    long origin = zone.startOfDay(firstDay);
+
+    // where every bucket starts, in minutes since the start of the first day
+    long[] dayBounds = new long[days + 1];
+    long[] hourBounds = new long[days * 24 + 1];
+    List<Long> weekBounds = new ArrayList<>();
+    for (int day = 0; day <= days; day++) {
+      LocalDate date = firstDay.plusDays(day);
+      dayBounds[day] = (zone.startOfDay(date) - origin) / SECONDS_PER_MINUTE;
+      if (day == days) {
+        break;
+      }
+      for (int hour = 0; hour < 24; hour++) {
+        hourBounds[day * 24 + hour] = zone.clocksChange(date)
+                ? (zone.toEpochSecond(date.atTime(hour, 0)) - origin) / SECONDS_PER_MINUTE
+                : dayBounds[day] + (long) hour * MINUTES_PER_HOUR;
+      }
+      if (day == 0 || date.getDayOfWeek() == DayOfWeek.MONDAY) {
+        weekBounds.add(dayBounds[day]);
+      }
+    }
+    long span = dayBounds[days];
+    hourBounds[days * 24] = span;
+    weekBounds.add(span);
+
+    long[] starts = new long[touching.size()];
+    long[] ends = new long[touching.size()];
+    int count = 0;
+    for (Event event : touching) {
+      long start = Math.max(0, minutesSince(origin, event.getStartDateTime(), zone));
+      long end = Math.min(span, minutesSince(origin, event.getEndDateTime(), zone));
+      if (start < end) {
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+      }
+    }
+    // the events come in start order, so only the ends need sorting
+    Arrays.sort(ends, 0, count);
+
+    long[] byHour = new long[days * 24];
+    long[] byDay = new long[days];
+    long[] byWeek = new long[weekBounds.size() - 1];
+    long[] weeks = weekBounds.stream().mapToLong(Long::longValue).toArray();
+    long booked = 0;
+    int running = 0;
+    int peak = 0;
+    long peakAt = -1;
+    long busySince = 0;
+    int nextStart = 0;
+    int nextEnd = 0;
+    while (nextEnd < count) {
+      // an event that ends when another starts does not overlap it
+      if (nextStart < count && starts[nextStart] < ends[nextEnd]) {
+        long time = starts[nextStart++];
+        if (running++ == 0) {
+          busySince = time;
+        }
+        if (running > peak) {
+          peak = running;
+          peakAt = time;
+        }
+      } else {
+        long time = ends[nextEnd++];
+        if (--running == 0) {
+          addBusy(byHour, hourBounds, busySince, time);
+          addBusy(byDay, dayBounds, busySince, time);
+          addBusy(byWeek, weeks, busySince, time);
+        }
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      booked += ends[i] - starts[i];
+    }
+    return new CalendarUsage(name, firstDay, byHour, byDay, byWeek, booked, peak,
+            peakAt < 0 ? null : zone.toLocal(origin + peakAt * SECONDS_PER_MINUTE, 0));
+  }
+
+  /**
+   * Gets the minutes that have passed between an instant and a local time, rounding down.
+   */
+  private static long minutesSince(long origin, LocalDateTime time, DayBoundaries zone) {
+    return Math.floorDiv(zone.toEpochSecond(time) - origin, SECONDS_PER_MINUTE);
+  }
+
+  /**
+   * Spreads a busy stretch over the buckets of a histogram. Buckets may be empty, such as the
+   * hour skipped when clocks go forward.
+   *
+   * @param histogram the minutes of each bucket
+   * @param bounds    where each bucket starts, and where the last one ends
+   * @param from      the start of the stretch
+   * @param to        the end of the stretch
+   */
+  private static void addBusy(long[] histogram, long[] bounds, long from, long to) {
+    // the last bucket that starts at or before the stretch
+    int low = 0;
+    int high = histogram.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (bounds[middle] <= from) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    for (int bucket = low; from < to && bucket < histogram.length; bucket++) {
+      long next = Math.min(to, bounds[bucket + 1]);
+      if (next > from) {
+        histogram[bucket] += next - from;
+        from = next;
+      }
+    }
+  }
+
+  /**
+   * Gets the name of the calendar.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the first day that was measured.
+   *
+   * @return the first day
+   */
+  public LocalDate getFirstDay() {
+    return firstDay;
+  }
+
+  /**
+   * Gets the busy minutes in every hour, starting with midnight of the first day.
+   *
+   * @return the minutes, 24 for each day
+   */
+  public long[] getBusyMinutesByHour() {
+    return busyByHour.clone();
+  }
+
+  /**
+   * Gets the busy minutes on every day, starting with the first day.
+   *
+   * @return the minutes, one for each day
+   */
+  public long[] getBusyMinutesByDay() {
+    return busyByDay.clone();
+  }
+
+  /**
+   * Gets the busy minutes in every week from Monday to Sunday, starting with the week of the
+   * first day. The first and last weeks only count the days that were measured.
+   *
+   * @return the minutes, one for each week
+   */
+  public long[] getBusyMinutesByWeek() {
+    return busyByWeek.clone();
+  }
+
+  /**
+   * Gets the minutes covered by at least one event.
+   *
+   * @return the busy minutes
+   */
+  public long getBusyMinutes() {
+    long total = 0;
+    for (long minutes : busyByDay) {
+      total += minutes;
+    }
+    return total;
+  }
+
+  /**
+   * Gets the minutes of every event added up, so time where events overlap counts once for
+   * each of them.
+   *
+   * @return the booked minutes
+   */
+  public long getBookedMinutes() {
+    return bookedMinutes;
+  }
+
+  /**
+   * Gets the most events that were in progress at the same time.
+   *
+   * @return the peak, 0 if there were no events
+   */
+  public int getPeakOverlap() {
+    return peakOverlap;
+  }
+
+  /**
+   * Gets the first time the peak was reached.
+   *
+   * @return the time, or null if there were no events
+   */
+  public LocalDateTime getPeakStart() {
+    return peakStart;
+  }
+
+  /**
+   * Prints the totals, the busy hours of each week and day, and a heatmap with a row for each
+   * day and a column for each hour, shaded by how much of the hour is busy.
+   *
+   * @return the report
+   */
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append(String.format("%s: %.1f h busy, %.1f h booked, peak %d at the same time",
+            name, getBusyMinutes() / 60.0, bookedMinutes / 60.0, peakOverlap));
+    if (peakStart != null) {
+      result.append(" from ").append(peakStart.toLocalDate()).append(' ')
+              .append(peakStart.toLocalTime());
+    }
+    result.append('\n');
+    LocalDate monday = firstDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    for (int week = 0; week < busyByWeek.length; week++) {
+      result.append(String.format("  week of %s %6.1f h\n", monday.plusWeeks(week),
+              busyByWeek[week] / 60.0));
+    }
+    for (int day = 0; day < busyByDay.length; day++) {
+      result.append(String.format("  %s %3s %5.1f h |", firstDay.plusDays(day),
+              firstDay.plusDays(day).getDayOfWeek().name().substring(0, 3),
+              busyByDay[day] / 60.0));
+      for (int hour = 0; hour < 24; hour++) {
+        // the hour repeated when clocks go back can be busy for longer than an hour
+        long minutes = Math.min(MINUTES_PER_HOUR, busyByHour[day * 24 + hour]);
+        result.append(SHADES.charAt((int) ((minutes * (SHADES.length() - 1) + 59) / 60)));
+      }
+      result.append("|\n");
+    }
+    return result.toString();
+  }
+}
@@ -1,6 +1,8 @@
 package model;
 
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 /**
  * Represents an application that can handle using multiple calendars at once. Has all the
@@ -68,6 +70,233 @@ public interface Calendars extends Calendar {
   void copyEventsBetween(String startDate, String endDate, String calendarName, String newDate)
           throws IllegalArgumentException;
 
+  /**
+   * Merges every event of one calendar into another, converting times to the target's timezone.
+   * Events archived to disk are not merged.
+   *
+   * @param sourceName the calendar whose events are merged
+   * @param targetName the calendar the events are merged into
+   * @param policy     what to do with an event that the target already has: skip, overwrite,
+   *                   or keep both
+   * @return the number of events added to or replaced in the target
+   * @throws IllegalArgumentException if a calendar is not found, they are the same calendar, the
+   *                                  policy is invalid, or the target rejects a conflict
+   */
+  int mergeCalendar(String sourceName, String targetName, String policy)
+          throws IllegalArgumentException;
+
+  /**
+   * Makes a new calendar that starts as a copy of another one, for trying changes out. The copy
+   * shares the events of the original until either of them changes.
+   *
+   * @param name     the calendar to fork
+   * @param forkName the name of the fork
+   * @throws IllegalArgumentException if the calendar is not found or the name is taken
+   */
+  void forkCalendar(String name, String forkName) throws IllegalArgumentException;
+
+  /**
+   * Puts a fork in the place of the calendar it was forked from, under that calendar's name.
+   *
+   * @param forkName the fork
+   * @return the name the fork now has
+   * @throws IllegalArgumentException if the calendar is not found or is not a fork, or the
+   *                                  original is gone or has changed since the fork was made
+   */
+  String promoteCalendar(String forkName) throws IllegalArgumentException;
+
+  /**
+   * Counts the events in the current calendar between two given times.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return the number of events that overlap the given times
+   */
+  int countEvents(String time1, String time2);
+
+  /**
+   * Returns one page of the current calendar's schedule between two given times, one formatted
+   * line per event, ordered by start time.
+   *
+   * @param time1  starting date and time
+   * @param time2  ending date and time
+   * @param offset the index of the first event to return
+   * @param limit  the largest number of events to return
+   * @return the formatted lines of the page
+   * @throws IllegalArgumentException if the page or the times are invalid
+   */
+  List<String> schedulePage(String time1, String time2, int offset, int limit)
+          throws IllegalArgumentException;
+
+  /**
+   * Counts the events of the current calendar on every day of a month.
+   *
+   * @param month the month, formatted as yyyy-MM
+   * @return the counts, where index 0 is the first day of the month
+   */
+  int[] eventCountsByDay(String month);
+
+  /**
+   * Takes a read-only snapshot of the current calendar's events that later edits do not change.
+   *
+   * @return the snapshot
+   */
+  CalendarSnapshot snapshot();
+
+  /**
+   * Searches the subjects, descriptions and locations of the events in every calendar for a set
+   * of words. Every word has to appear, and a word ending in '*' matches every word it starts.
+   *
+   * @param query the words to look for
+   * @param time1 starting date and time of the range to search, or null to search every event
+   * @param time2 ending date and time of the range to search, or null to search every event
+   * @return the matching events under the name of each calendar that has any, empty if none
+   *         match
+   * @throws IllegalArgumentException if the query has no words
+   */
+  String searchEvents(String query, String time1, String time2);
+
+  /**
+   * Finds the events of the current calendar that meet every condition of a query, such as
+   * {@code location = "Room 4" and status = private}.
+   *
+   * @param query the conditions, joined by "and"
+   * @param time1 starting date and time of the range to search, or null to search every event
+   * @param time2 ending date and time of the range to search, or null to search every event
+   * @return the formatted schedule of the matching events, empty if none match
+   * @throws IllegalArgumentException if the query is invalid
+   * @throws IllegalStateException    if no calendar is selected
+   */
+  String findEvents(String query, String time1, String time2)
+          throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Measures how busy every calendar is between two dates. Each calendar is measured in one
+   * pass over its events, and the calendars are measured in parallel.
+   *
+   * @param date1 the first day, formatted as yyyy-MM-dd
+   * @param date2 the last day, formatted as yyyy-MM-dd
+   * @return the usage of each calendar, in order of name
+   * @throws IllegalArgumentException if the last day is before the first
+   */
+  List<CalendarUsage> usage(String date1, String date2);
+
+  /**
+   * Gets the estimated memory every calendar takes, which is kept up to date as the calendars
+   * change rather than measured.
+   *
+   * @return the estimate for each calendar, in order of name
+   */
+  List<CalendarMemory> memory();
+
+  /**
+   * Moves every event of the current calendar that ends before a given time out of memory into
+   * its archive on disk. Range queries still find archived events, but they cannot be edited.
+   *
+   * @param time the date and time before which events are archived
+   * @return the number of events archived
+   */
+  int archiveEvents(String time);
+
+  /**
+   * Checks whether any calendar has an event in a room at a given time, where events name their
+   * room in their location.
+   *
+   * @param location the room
+   * @param time     the date and time in the current calendar's timezone
+   * @return true if no event in the room is in progress at the time
+   * @throws IllegalStateException if no calendar is selected
+   */
+  boolean isRoomFree(String location, String time) throws IllegalStateException;
+
+  /**
+   * Finds the rooms named by events in any calendar that have no event between two times.
+   *
+   * @param time1 starting date and time in the current calendar's timezone
+   * @param time2 ending date and time in the current calendar's timezone
+   * @return the free rooms in order
+   * @throws IllegalArgumentException if the end is before the start
+   * @throws IllegalStateException    if no calendar is selected
+   */
+  List<String> freeRooms(String time1, String time2)
+          throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Starts a transaction: every change made through this session from now on, to any calendar,
+   * can be taken back as a whole by a rollback.
+   *
+   * @throws IllegalStateException if a transaction is already in progress
+   */
+  void begin() throws IllegalStateException;
+
+  /**
+   * Ends the transaction in progress and keeps its changes.
+   *
+   * @throws IllegalStateException if no transaction is in progress
+   */
+  void commit() throws IllegalStateException;
+
+  /**
+   * Ends the transaction in progress and puts back every change this session made in it,
+   * including calendars created, renamed or moved to another timezone since. Changes made
+   * through other sessions are kept.
+   *
+   * @throws IllegalStateException if no transaction is in progress, or if another session has
+   *                               since changed something this session changed, which then
+   *                               keeps this session's changes
+   */
+  void rollback() throws IllegalStateException;
+
+  /**
+   * Checks whether a transaction is in progress.
+   *
+   * @return true between begin and commit or rollback
+   */
+  boolean inTransaction();
+
+  /**
+   * Undoes the last change to the events of the current calendar.
+   *
+   * @return false if there was nothing to undo
+   */
+  boolean undo();
+
+  /**
+   * Redoes the last change to the current calendar that was undone.
+   *
+   * @return false if there was nothing to redo
+   */
+  boolean redo();
+
+  /**
+   * Subscribes to every change made to these calendars, from any session. The listener is
+   * called on the thread that made the changes, once per command, before the command returns.
+   *
+   * @param listener the listener
+   * @return the subscription, which stops the deliveries when closed
+   * @throws IllegalArgumentException if the listener is null
+   */
+  CalendarListener.Subscription subscribe(CalendarListener listener);
+
+  /**
+   * Subscribes to every change made to these calendars, from any session, delivering each
+   * command's changes on an executor. Batches arrive one at a time and in order.
+   *
+   * @param listener the listener
+   * @param executor runs the listener
+   * @return the subscription, which stops the deliveries when closed
+   * @throws IllegalArgumentException if the listener is null
+   */
+  CalendarListener.Subscription subscribe(CalendarListener listener, Executor executor);
+
+  /**
+   * Opens another session on the same calendars. Calendars and events are shared, but each
+   * session has its own calendar in use, which starts out unset.
+   *
+   * @return the new session
+   */
+  Calendars newSession();
+
   /**
    * Gets a list of all calendars. Used for testing.
    *
@@ -5,7 +5,9 @@ package model;
  */
 public enum CalendarsProperty {
   NAME("name", String.class),
-  TIMEZONE("timezone", String.class);
+  TIMEZONE("timezone", String.class),
+  CONFLICTS("conflicts", String.class),
+  MEMORY("memory", String.class);
 
   private final String name;
   private final Class<?> type;
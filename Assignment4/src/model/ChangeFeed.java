@@ -0,0 +1,155 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands the changes made to a set of calendars to the listeners subscribed to them. Changes made
+ * by one command are gathered into one batch: a command that makes several changes opens a
+ * batch on its thread, and everything published on that thread until it ends is delivered
+ * together.
+ *
+ * <p>A listener without an executor is called on the thread that made the change, before the
+ * command returns. A listener with an executor gets its batches on that executor, one at a time
+ * and in the order they were made, whatever kind of executor it is.
+ */
+final class ChangeFeed {
+  private final List<Registration> listeners;
+  private final ThreadLocal<List<CalendarChange>> open;
+
+  ChangeFeed() {
+    this.listeners = new CopyOnWriteArrayList<>();
+    this.open = new ThreadLocal<>();
+  }
+
+  /**
+   * Registers a listener.
+   *
+   * @param listener the listener
+   * @param executor runs the listener, or null to call it on the thread that made the change
+   * @return the subscription, which removes the listener when closed
+   */
+  CalendarListener.Subscription subscribe(CalendarListener listener, Executor executor) {
+    Registration registration = new Registration(listener, executor);
+    listeners.add(registration);
+    return registration;
+  }
+
+  /**
+   * Checks whether anyone is listening, so changes need not be worked out when nobody is.
+   *
+   * @return true if there are no listeners
+   */
+  boolean isEmpty() {
+    return listeners.isEmpty();
+  }
+
+  /**
+   * Publishes changes, adding them to the batch open on this thread if there is one.
+   *
+   * @param changes the changes
+   */
+  void publish(List<CalendarChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    List<CalendarChange> batch = open.get();
+    if (batch != null) {
+      batch.addAll(changes);
+    } else {
+      deliver(new ArrayList<>(changes));
+    }
+  }
+
+  /**
+   * Runs a command so that everything it changes is delivered as one batch when it ends, even
+   * if it fails part of the way through. A command run inside another joins its batch.
+   *
+   * @param command the command
+   */
+  void batch(Runnable command) {
+    if (open.get() != null) {
+      command.run();
+      return;
+    }
+    List<CalendarChange> batch = new ArrayList<>();
+    open.set(batch);
+    try {
+      command.run();
+    } finally {
+      open.remove();
+      if (!batch.isEmpty()) {
+        deliver(batch);
+      }
+    }
+  }
+
+  private void deliver(List<CalendarChange> batch) {
+    List<CalendarChange> changes = Collections.unmodifiableList(batch);
+    for (Registration registration : listeners) {
+      registration.deliver(changes);
+    }
+  }
+
+  /**
+   * A listener and how it is called.
+   */
+  private final class Registration implements CalendarListener.Subscription {
+    private final CalendarListener listener;
+    private final Executor executor;
+    private final Queue<List<CalendarChange>> queue;
+    private final AtomicBoolean draining;
+
+    private Registration(CalendarListener listener, Executor executor) {
+      this.listener = listener;
+      this.executor = executor;
+      this.queue = new ConcurrentLinkedQueue<>();
+      this.draining = new AtomicBoolean();
+    }
+
+    private void deliver(List<CalendarChange> changes) {
+      if (executor == null) {
+        call(changes);
+        return;
+      }
+      queue.add(changes);
+      if (draining.compareAndSet(false, true)) {
+        executor.execute(this::drain);
+      }
+    }
+
+    /**
+     * Delivers queued batches until none are left. Only one drain runs at a time, which keeps
+     * the batches in order.
+     */
+    private void drain() {
+      do {
+        List<CalendarChange> changes;
+        while ((changes = queue.poll()) != null) {
+          call(changes);
+        }
+        draining.set(false);
+      } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void call(List<CalendarChange> changes) {
+      try {
+        listener.changed(changes);
+      } catch (RuntimeException e) {
+        // a failing listener must not stop the command or the other listeners
+      }
+    }
+
+    @Override
+    public void close() {
+      listeners.remove(this);
+      queue.clear();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package model;
+
+/**
+ * Represents what a calendar does when a new event overlaps an event it already has.
+ */
+public enum ConflictPolicy {
+  ALLOW("allow"),
+  WARN("warn"),
+  REJECT("reject");
+
+  private final String name;
+
+  /**
+   * Constructs a ConflictPolicy with its name.
+   *
+   * @param name the policy name as used in commands
+   */
+  ConflictPolicy(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the policy name as used in the calendar interface.
+   * @return the policy name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Converts a string to the corresponding ConflictPolicy enum value.
+   * Case-insensitive matching for user convenience.
+   *
+   * @param policyName the name of the policy
+   * @return the corresponding ConflictPolicy enum value
+   * @throws IllegalArgumentException if the policy name is invalid
+   */
+  public static ConflictPolicy fromString(String policyName) {
+    if (policyName == null || policyName.trim().isEmpty()) {
+      throw new IllegalArgumentException("Conflict policy cannot be null or empty");
+    }
+
+    for (ConflictPolicy policy : ConflictPolicy.values()) {
+      if (policy.name.equalsIgnoreCase(policyName.trim())) {
+        return policy;
+      }
+    }
+    throw new IllegalArgumentException("Invalid conflict policy");
+  }
+
+  /**
+   * Converts this policy to its corresponding string representation.
+   * @return the policy name as used in the calendar interface
+   */
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,145 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Content hashes of a calendar's events arranged as a Merkle tree with three levels: the whole
+ * calendar, each month, and each day, where an event belongs to the day it starts on.
+ *
+ * <p>The hash of a node is the sum of the hashes of what is under it, so it does not depend on
+ * the order events were added in, and an event that is added or removed changes exactly one
+ * path from a day to the root by its own hash. The calendar keeps the digest up to date from
+ * the events that differ between each version and the next.
+ *
+ * <p>The digest is changed and read while the calendar is locked.
+ */
+final class ContentDigest {
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  // the hash and the number of events of each day and month
+  private final NavigableMap<LocalDate, long[]> days;
+  private final NavigableMap<YearMonth, long[]> months;
+  private long root;
+
+  ContentDigest() {
+    this.days = new TreeMap<>();
+    this.months = new TreeMap<>();
+  }
+
+  /**
+   * Makes a digest with the same hashes that can then change on its own. Only the days and
+   * months are copied, not the events.
+   *
+   * @return the copy
+   */
+  ContentDigest copy() {
+    ContentDigest copy = new ContentDigest();
+    days.forEach((day, node) -> copy.days.put(day, node.clone()));
+    months.forEach((month, node) -> copy.months.put(month, node.clone()));
+    copy.root = root;
+    return copy;
+  }
+
+  /**
+   * Counts an event in.
+   *
+   * @param event the event
+   */
+  void add(Event event) {
+    change(event, 1);
+  }
+
+  /**
+   * Counts an event out.
+   *
+   * @param event the event, which must have been added
+   */
+  void remove(Event event) {
+    change(event, -1);
+  }
+
+  private void change(Event event, int sign) {
+    long hash = sign * hash(event);
+    LocalDate day = event.getStartDateTime().toLocalDate();
+    update(days, day, hash, sign);
+    update(months, YearMonth.from(day), hash, sign);
+    root += hash;
+  }
+
+  private static <K> void update(NavigableMap<K, long[]> level, K key, long hash, int sign) {
+    long[] node = level.computeIfAbsent(key, k -> new long[2]);
+    node[0] += hash;
+    node[1] += sign;
+    if (node[1] == 0) {
+      level.remove(key);
+    }
+  }
+
+  /**
+   * Gets the hash of every event.
+   *
+   * @return the hash
+   */
+  long root() {
+    return root;
+  }
+
+  /**
+   * Gets the hash of every month that has events.
+   *
+   * @return a copy of the hashes
+   */
+  SortedMap<YearMonth, Long> months() {
+    return hashes(months);
+  }
+
+  /**
+   * Gets the hash of every day of a month that has events.
+   *
+   * @param month the month
+   * @return a copy of the hashes
+   */
+  SortedMap<LocalDate, Long> days(YearMonth month) {
+    return hashes(days.subMap(month.atDay(1), true, month.atEndOfMonth(), true));
+  }
+
+  private static <K> SortedMap<K, Long> hashes(NavigableMap<K, long[]> level) {
+    SortedMap<K, Long> copy = new TreeMap<>();
+    for (Map.Entry<K, long[]> entry : level.entrySet()) {
+      copy.put(entry.getKey(), entry.getValue()[0]);
+    }
+    return Collections.unmodifiableSortedMap(copy);
+  }
+
+  /**
+   * Hashes what an event says: its subject, times, description, location, status and series.
+   * The id is left out, since replicas number their events on their own.
+   *
+   * @param event the event
+   * @return a 64-bit hash
+   */
+  static long hash(Event event) {
+    long hash = FNV_OFFSET;
+    for (String field : new String[]{event.getSubject(), event.getStartDateTime().toString(),
+        event.getEndDateTime().toString(), event.getDescription(), event.getLocation(),
+        event.getStatus(), String.valueOf(event.getSeriesId())}) {
+      for (byte b : field.getBytes(StandardCharsets.UTF_8)) {
+        hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+      }
+      // keeps "ab" + "c" apart from "a" + "bc"
+      hash = (hash ^ 0xff) * FNV_PRIME;
+    }
+    // spreads the bits so that sums of hashes do not cancel out in the low bits
+    hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    return hash ^ (hash >>> 31);
+  }
+}
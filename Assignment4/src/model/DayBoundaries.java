@@ -0,0 +1,171 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * When each local day of a timezone starts in UTC, worked out a year at a time and kept, so
+ * that moving a local time to an instant and back is an array lookup instead of a search of the
+ * zone's rules. Every day also has the UTC offset in effect at its start; on most days that
+ * offset holds all day, and only the few days on which the clocks change go back to the rules.
+ *
+ * <p>A local time that falls in the gap left when clocks go forward is moved forward by the
+ * length of the gap, and one that happens twice when clocks go back is taken the first time,
+ * as {@link ZonedDateTime#ofLocal} does.
+ *
+ * <p>Tables are shared by every calendar in the same timezone, and filled in as years are asked
+ * for, from any thread.
+ */
+final class DayBoundaries {
+  private static final Map<ZoneId, DayBoundaries> ZONES = new ConcurrentHashMap<>();
+  private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+  private final ZoneId zone;
+  private final Map<Integer, Year> years;
+
+  private DayBoundaries(ZoneId zone) {
+    this.zone = zone;
+    this.years = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Gets the day boundaries of a timezone.
+   *
+   * @param zone the timezone
+   * @return the boundaries, shared with everything else in the timezone
+   */
+  static DayBoundaries of(ZoneId zone) {
+    return ZONES.computeIfAbsent(zone, DayBoundaries::new);
+  }
+
+  /**
+   * Gets when a local day starts.
+   *
+   * @param day the day
+   * @return the start as seconds since the epoch
+   */
+  long startOfDay(LocalDate day) {
+    return year(day.getYear()).starts[day.getDayOfYear() - 1];
+  }
+
+  /**
+   * Checks whether the UTC offset changes during a day, so that it does not have 24 hours.
+   *
+   * @param day the day
+   * @return true if the clocks change during the day
+   */
+  boolean clocksChange(LocalDate day) {
+    return year(day.getYear()).clocksChange(day.getDayOfYear() - 1);
+  }
+
+  /**
+   * Moves a local time to the instant it stands for.
+   *
+   * @param time the local time
+   * @return the instant as seconds since the epoch; the nanoseconds are those of the time
+   */
+  long toEpochSecond(LocalDateTime time) {
+    Year year = year(time.getYear());
+    int day = time.getDayOfYear() - 1;
+    if (year.clocksChange(day)) {
+      return ZonedDateTime.ofLocal(time, zone, null).toEpochSecond();
+    }
+    return time.toEpochSecond(ZoneOffset.UTC) - year.offsets[day];
+  }
+
+  /**
+   * Moves an instant to the local time it has in the timezone.
+   *
+   * @param epochSecond the instant as seconds since the epoch
+   * @param nanos       the nanoseconds of the instant
+   * @return the local time
+   */
+  LocalDateTime toLocal(long epochSecond, int nanos) {
+    // the local day is the UTC day or one next to it; take the last one that has started
+    LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY) + 1);
+    while (startOfDay(day) > epochSecond) {
+      day = day.minusDays(1);
+    }
+    Year year = year(day.getYear());
+    int index = day.getDayOfYear() - 1;
+    if (year.clocksChange(index)) {
+      return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nanos), zone);
+    }
+    return LocalDateTime.ofEpochSecond(epochSecond + year.offsets[index], nanos, ZoneOffset.UTC);
+  }
+
+  /**
+   * Moves a local time into another timezone, keeping the instant.
+   *
+   * @param time the local time in this timezone
+   * @param to   the boundaries of the other timezone
+   * @return the local time in the other timezone
+   */
+  LocalDateTime convert(LocalDateTime time, DayBoundaries to) {
+    if (to == this) {
+      return resolve(time);
+    }
+    return to.toLocal(toEpochSecond(time), time.getNano());
+  }
+
+  /**
+   * Gives the local time that a time stands for, which is the time itself unless it falls in a
+   * gap left when clocks go forward.
+   *
+   * @param time the local time
+   * @return a local time that exists in the timezone
+   */
+  LocalDateTime resolve(LocalDateTime time) {
+    if (!year(time.getYear()).clocksChange(time.getDayOfYear() - 1)) {
+      return time;
+    }
+    return ZonedDateTime.ofLocal(time, zone, null).toLocalDateTime();
+  }
+
+  private Year year(int year) {
+    Year table = years.get(year);
+    if (table == null) {
+      table = years.computeIfAbsent(year, key -> new Year(zone, key));
+    }
+    return table;
+  }
+
+  /**
+   * The start and opening offset of every day of a year, and which days the clocks change on.
+   */
+  private static final class Year {
+    private final long[] starts;
+    private final int[] offsets;
+    private final boolean[] changes;
+
+    private Year(ZoneId zone, int year) {
+      LocalDate first = LocalDate.ofYearDay(year, 1);
+      int days = first.lengthOfYear();
+      this.starts = new long[days + 1];
+      this.offsets = new int[days + 1];
+      this.changes = new boolean[days];
+      for (int day = 0; day <= days; day++) {
+        ZonedDateTime start = first.plusDays(day).atStartOfDay(zone);
+        starts[day] = start.toEpochSecond();
+        offsets[day] = start.getOffset().getTotalSeconds();
+      }
+      long midnight = first.toEpochDay() * SECONDS_PER_DAY;
+      for (int day = 0; day < days; day++) {
+        // the offset changes before the next day, or the day starts late because midnight was
+        // skipped
+        changes[day] = offsets[day] != offsets[day + 1]
+                || starts[day] + offsets[day] != midnight + (long) day * SECONDS_PER_DAY;
+      }
+    }
+
+    private boolean clocksChange(int day) {
+      return changes[day];
+    }
+  }
+}
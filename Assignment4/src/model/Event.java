@@ -9,10 +9,15 @@ import java.util.Objects;
  * description, location and status.
  */
 public class Event extends AbstractEvent {
+  private final long id;
+  private final boolean followsSeries;
 
   private Event(String subject, LocalDateTime startDateTime, LocalDateTime endDateTime,
-                String description, String location, String status, String seriesId) {
+                String description, String location, String status, String seriesId, long id,
+                boolean followsSeries) {
     super(subject, startDateTime, endDateTime, description, location, status, seriesId);
+    this.id = id;
+    this.followsSeries = followsSeries;
   }
 
   /**
@@ -36,7 +41,53 @@ public class Event extends AbstractEvent {
    */
   public Event copyEventToNewDate(LocalDateTime start, LocalDateTime end) {
     return new Event(this.subject, start, end, this.description,
-            this.location, this.status, this.seriesId);
+            this.location, this.status, this.seriesId, 0, false);
+  }
+
+  /**
+   * Gets the id this event was given when it was added to a calendar. The id stays the same when
+   * the event is edited.
+   *
+   * @return the id, or 0 if the event has not been added to a calendar
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Checks whether this event, as stored in a calendar, takes its subject, description,
+   * location and status from its series rather than keeping its own.
+   *
+   * @return true if the event follows its series
+   */
+  boolean followsSeries() {
+    return followsSeries;
+  }
+
+  /**
+   * Creates a copy of this event to be stored in a calendar.
+   *
+   * @param id            the id of the copy
+   * @param followsSeries whether the copy takes its details from its series
+   * @return a new Event object with the given id
+   */
+  Event stored(long id, boolean followsSeries) {
+    return new Event(subject, startDateTime, endDateTime, description, location, status,
+            seriesId, id, followsSeries);
+  }
+
+  /**
+   * Creates a copy of this event with new details and the same times, id and series.
+   *
+   * @param subject     the subject of the copy
+   * @param description the description of the copy
+   * @param location    the location of the copy
+   * @param status      the status of the copy
+   * @return a new Event object with the given details
+   */
+  Event withDetails(String subject, String description, String location, String status) {
+    return new Event(subject, startDateTime, endDateTime, description, location, status,
+            seriesId, id, followsSeries);
   }
 
   /**
@@ -145,7 +196,7 @@ public class Event extends AbstractEvent {
       }
 
       return new Event(subject, startDateTime, this.endDateTime, description,
-              location, status, seriesId);
+              location, status, seriesId, 0, false);
     }
   }
 
@@ -0,0 +1,347 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Events that have been moved out of memory into compressed segment files on disk. A segment
+ * holds the events of one archiving run sorted by start time, cut into blocks of a few hundred
+ * events that are compressed on their own. Each segment keeps a sparse index in memory with the
+ * first start and the latest end of every block, so a range query reads only the blocks that
+ * can hold events in the range, and skips whole segments that end too early.
+ *
+ * <p>Blocks that have been read are kept in a small cache shared by every version of the
+ * archive, and the least recently used block is dropped when it is full.
+ *
+ * <p>An archive is immutable: adding a segment returns a new archive, and segment files are
+ * never changed once written, so snapshots that hold an older version can keep reading it.
+ * Archived events are history and cannot be edited.
+ */
+final class EventArchive {
+  private static final int BLOCK_SIZE = 256;
+  private static final Comparator<Event> SCHEDULE_ORDER =
+          Comparator.comparing(Event::getStartDateTime).thenComparingLong(Event::getId);
+
+  private final Path directory;
+  private final List<Segment> segments;
+  private final BlockCache cache;
+
+  private EventArchive(Path directory, List<Segment> segments, BlockCache cache) {
+    this.directory = directory;
+    this.segments = segments;
+    this.cache = cache;
+  }
+
+  /**
+   * Creates an empty archive that writes its segments to a directory.
+   *
+   * @param directory    the directory, which is created if it does not exist
+   * @param cachedBlocks how many blocks to keep in memory once read
+   * @return the archive
+   * @throws IllegalArgumentException if the cache size is not positive
+   * @throws UncheckedIOException     if the directory cannot be created
+   */
+  static EventArchive create(Path directory, int cachedBlocks) throws IllegalArgumentException {
+    if (cachedBlocks <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive");
+    }
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new EventArchive(directory, List.of(), new BlockCache(cachedBlocks));
+  }
+
+  /**
+   * Gets the number of archived events.
+   *
+   * @return the number of events
+   */
+  int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size;
+    }
+    return size;
+  }
+
+  /**
+   * Returns an archive that also holds the given events in a new segment.
+   *
+   * @param events the events, which must have ids
+   * @return the new archive, or this one if there are no events
+   * @throws UncheckedIOException if the segment cannot be written
+   */
+  EventArchive with(List<Event> events) {
+    if (events.isEmpty()) {
+      return this;
+    }
+    List<Segment> updated = new ArrayList<>(segments);
+    updated.add(write(events));
+    return new EventArchive(directory, Collections.unmodifiableList(updated), cache);
+  }
+
+  /**
+   * Returns an archive where every event has been changed in the same way, such as being moved
+   * to another timezone. Every event is read and written again into a single segment.
+   *
+   * @param change the change to make to each event
+   * @return the new archive
+   * @throws UncheckedIOException if a segment cannot be read or written
+   */
+  EventArchive rewrite(UnaryOperator<Event> change) {
+    if (segments.isEmpty()) {
+      return this;
+    }
+    List<Event> changed = new ArrayList<>();
+    for (Segment segment : segments) {
+      for (Block block : segment.blocks) {
+        for (Event event : read(segment, block)) {
+          changed.add(change.apply(event));
+        }
+      }
+    }
+    return new EventArchive(directory, List.of(), cache).with(changed);
+  }
+
+  /**
+   * Checks whether a span could reach any archived event.
+   *
+   * @param start the start of the span
+   * @return false if every archived event ends before the span starts
+   */
+  boolean reaches(LocalDateTime start) {
+    for (Segment segment : segments) {
+      if (!segment.maxEnd.isBefore(start)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets every archived event that touches the given span, in schedule order. Only blocks whose
+   * starts and ends can overlap the span are read.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return the events
+   * @throws UncheckedIOException if a segment cannot be read
+   */
+  List<Event> touching(LocalDateTime start, LocalDateTime end) {
+    List<Event> found = new ArrayList<>();
+    for (Segment segment : segments) {
+      if (segment.maxEnd.isBefore(start) || segment.firstStart.isAfter(end)) {
+        continue;
+      }
+      for (Block block : segment.blocks) {
+        // blocks are in start order, so none after this one can start in time
+        if (block.firstStart.isAfter(end)) {
+          break;
+        }
+        if (block.maxEnd.isBefore(start)) {
+          continue;
+        }
+        for (Event event : read(segment, block)) {
+          if (!event.getEndDateTime().isBefore(start) && !event.getStartDateTime().isAfter(end)) {
+            found.add(event);
+          }
+        }
+      }
+    }
+    found.sort(SCHEDULE_ORDER);
+    return found;
+  }
+
+  private Segment write(List<Event> events) {
+    List<Event> sorted = new ArrayList<>(events);
+    sorted.sort(SCHEDULE_ORDER);
+    List<Block> blocks = new ArrayList<>();
+    LocalDateTime maxEnd = sorted.get(0).getEndDateTime();
+    try {
+      Path file = Files.createTempFile(directory, "segment-", ".dat");
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        long offset = 0;
+        for (int from = 0; from < sorted.size(); from += BLOCK_SIZE) {
+          List<Event> chunk = sorted.subList(from, Math.min(sorted.size(), from + BLOCK_SIZE));
+          byte[] bytes = encode(chunk);
+          ByteBuffer buffer = ByteBuffer.wrap(bytes);
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          LocalDateTime blockEnd = chunk.get(0).getEndDateTime();
+          for (Event event : chunk) {
+            if (event.getEndDateTime().isAfter(blockEnd)) {
+              blockEnd = event.getEndDateTime();
+            }
+          }
+          blocks.add(new Block(offset, bytes.length, chunk.get(0).getStartDateTime(), blockEnd));
+          offset += bytes.length;
+          if (blockEnd.isAfter(maxEnd)) {
+            maxEnd = blockEnd;
+          }
+        }
+      }
+      return new Segment(file, sorted.size(), sorted.get(0).getStartDateTime(), maxEnd,
+              Collections.unmodifiableList(blocks));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private List<Event> read(Segment segment, Block block) {
+    List<Event> events = cache.get(block);
+    if (events != null) {
+      return events;
+    }
+    try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(block.length);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, block.offset + buffer.position()) < 0) {
+          throw new IOException("Segment is truncated: " + segment.file);
+        }
+      }
+      events = Collections.unmodifiableList(decode(buffer.array()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    cache.put(block, events);
+    return events;
+  }
+
+  private static byte[] encode(List<Event> events) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+      out.writeInt(events.size());
+      for (Event event : events) {
+        out.writeLong(event.getId());
+        out.writeUTF(event.getSubject());
+        writeTime(out, event.getStartDateTime());
+        writeTime(out, event.getEndDateTime());
+        out.writeUTF(event.getDescription());
+        out.writeUTF(event.getLocation());
+        out.writeUTF(event.getStatus());
+        out.writeBoolean(event.getSeriesId() != null);
+        if (event.getSeriesId() != null) {
+          out.writeUTF(event.getSeriesId());
+        }
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<Event> decode(byte[] bytes) throws IOException {
+    try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+            new ByteArrayInputStream(bytes)))) {
+      int count = in.readInt();
+      List<Event> events = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        long id = in.readLong();
+        String subject = in.readUTF();
+        LocalDateTime start = readTime(in);
+        LocalDateTime end = readTime(in);
+        Event.EventBuilder builder = Event.getBuilder(subject, start)
+                .endDateTime(end)
+                .description(in.readUTF())
+                .location(in.readUTF())
+                .status(in.readUTF());
+        if (in.readBoolean()) {
+          builder.seriesId(in.readUTF());
+        }
+        events.add(builder.build().stored(id, false));
+      }
+      return events;
+    }
+  }
+
+  private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+    out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+    out.writeInt(time.getNano());
+  }
+
+  private static LocalDateTime readTime(DataInputStream in) throws IOException {
+    return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+  }
+
+  /**
+   * A segment file and its sparse index.
+   */
+  private static final class Segment {
+    private final Path file;
+    private final int size;
+    private final LocalDateTime firstStart;
+    private final LocalDateTime maxEnd;
+    private final List<Block> blocks;
+
+    private Segment(Path file, int size, LocalDateTime firstStart, LocalDateTime maxEnd,
+                    List<Block> blocks) {
+      this.file = file;
+      this.size = size;
+      this.firstStart = firstStart;
+      this.maxEnd = maxEnd;
+      this.blocks = blocks;
+    }
+  }
+
+  /**
+   * Where a compressed block is in its segment file, and the span its events cover.
+   */
+  private static final class Block {
+    private final long offset;
+    private final int length;
+    private final LocalDateTime firstStart;
+    private final LocalDateTime maxEnd;
+
+    private Block(long offset, int length, LocalDateTime firstStart, LocalDateTime maxEnd) {
+      this.offset = offset;
+      this.length = length;
+      this.firstStart = firstStart;
+      this.maxEnd = maxEnd;
+    }
+  }
+
+  /**
+   * The blocks read most recently, up to a fixed number.
+   */
+  private static final class BlockCache {
+    private final Map<Block, List<Event>> blocks;
+
+    private BlockCache(int capacity) {
+      this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Block, List<Event>> eldest) {
+          return size() > capacity;
+        }
+      };
+    }
+
+    private synchronized List<Event> get(Block block) {
+      return blocks.get(block);
+    }
+
+    private synchronized void put(Block block, List<Event> events) {
+      blocks.put(block, events);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package model;
+
+/**
+ * An immutable map from event ids to events. Ids are handed out in increasing order, so they are
+ * kept in a trie that reads five bits of the id at each level: a lookup follows at most a handful
+ * of array slots without boxing the id or hashing anything. An update copies only the arrays on
+ * the path to its id.
+ */
+final class EventIdIndex {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  static final EventIdIndex EMPTY = new EventIdIndex(new Object[WIDTH], 0, 0);
+
+  private final Object[] root;
+  private final int shift;
+  private final int size;
+
+  private EventIdIndex(Object[] root, int shift, int size) {
+    this.root = root;
+    this.shift = shift;
+    this.size = size;
+  }
+
+  /**
+   * Gets the number of events in the index.
+   *
+   * @return the number of events
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the event with the given id.
+   *
+   * @param id the id of the event
+   * @return the event, or null if there is none
+   */
+  Event get(long id) {
+    if (id < 0 || !fits(id, shift)) {
+      return null;
+    }
+    Object[] node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Object[]) node[slot(id, level)];
+      if (node == null) {
+        return null;
+      }
+    }
+    return (Event) node[slot(id, 0)];
+  }
+
+  /**
+   * Returns an index that maps the given id to the given event.
+   *
+   * @param id    the id of the event
+   * @param event the event
+   * @return the new index
+   */
+  EventIdIndex put(long id, Event event) {
+    if (id < 0) {
+      throw new IllegalArgumentException("Invalid event id");
+    }
+    Object[] top = root;
+    int topShift = shift;
+    while (!fits(id, topShift)) {
+      Object[] grown = new Object[WIDTH];
+      grown[0] = top;
+      top = grown;
+      topShift += BITS;
+    }
+    boolean added = get(id) == null;
+    return new EventIdIndex(set(top, topShift, id, event), topShift, added ? size + 1 : size);
+  }
+
+  /**
+   * Returns an index without the given id.
+   *
+   * @param id the id to be removed
+   * @return the new index, or this index if the id was not in it
+   */
+  EventIdIndex remove(long id) {
+    if (get(id) == null) {
+      return this;
+    }
+    return new EventIdIndex(set(root, shift, id, null), shift, size - 1);
+  }
+
+  /**
+   * Finds every id whose event differs between two indexes. Arrays the two share are skipped
+   * without being read, so comparing an index with one it was made from by a few updates only
+   * looks at the paths those updates copied.
+   *
+   * @param before  the older index
+   * @param after   the newer index
+   * @param visitor receives each id with its event in both indexes, either of which may be null
+   */
+  static void diff(EventIdIndex before, EventIdIndex after, Visitor visitor) {
+    int shift = Math.max(before.shift, after.shift);
+    diff(grow(before.root, before.shift, shift), grow(after.root, after.shift, shift), shift, 0,
+            visitor);
+  }
+
+  private static void diff(Object[] before, Object[] after, int level, long prefix,
+                           Visitor visitor) {
+    if (before == after) {
+      return;
+    }
+    for (int slot = 0; slot < WIDTH; slot++) {
+      Object old = before == null ? null : before[slot];
+      Object current = after == null ? null : after[slot];
+      if (old == current) {
+        continue;
+      }
+      long id = prefix | ((long) slot << level);
+      if (level == 0) {
+        visitor.visit(id, (Event) old, (Event) current);
+      } else {
+        diff((Object[]) old, (Object[]) current, level - BITS, id, visitor);
+      }
+    }
+  }
+
+  /**
+   * Puts a root under empty levels until it is as deep as another.
+   */
+  private static Object[] grow(Object[] root, int shift, int targetShift) {
+    while (shift < targetShift) {
+      Object[] grown = new Object[WIDTH];
+      grown[0] = root;
+      root = grown;
+      shift += BITS;
+    }
+    return root;
+  }
+
+  private static Object[] set(Object[] node, int level, long id, Event event) {
+    Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+    int slot = slot(id, level);
+    if (level == 0) {
+      copy[slot] = event;
+    } else {
+      copy[slot] = set((Object[]) copy[slot], level - BITS, id, event);
+    }
+    return copy;
+  }
+
+  private static boolean fits(long id, int shift) {
+    return shift + BITS >= Long.SIZE || (id >>> (shift + BITS)) == 0;
+  }
+
+  private static int slot(long id, int level) {
+    return (int) ((id >>> level) & MASK);
+  }
+
+  /**
+   * Receives the ids that differ between two indexes.
+   */
+  interface Visitor {
+    /**
+     * Called for an id whose event differs.
+     *
+     * @param id     the id
+     * @param before the event in the older index, or null if it had none
+     * @param after  the event in the newer index, or null if it has none
+     */
+    void visit(long id, Event before, Event after);
+  }
+}
@@ -0,0 +1,185 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A filter on events made of conditions joined by "and", such as
+ * {@code location = "Room 4" and status = private}. Each condition compares a field (subject,
+ * description, location or status) with a value: {@code =} and {@code !=} compare the whole
+ * field, and {@code contains} looks for the value inside it, all without regard to case.
+ *
+ * <p>A query is compiled once into conditions that are checked against events directly. The
+ * words of every {@code =} or {@code contains} condition on a text field have to appear in a
+ * matching event, so they are also handed to the calendar's word index, which narrows the events
+ * to check before any of them is read.
+ */
+public final class EventQuery {
+  private static final Pattern CONDITION = Pattern.compile(
+          "\\s*(\\w+)\\s*(!=|=|contains\\b)\\s*(\"[^\"]*\"|[^\\s\"]+)\\s*");
+  private static final Pattern AND = Pattern.compile("and\\b", Pattern.CASE_INSENSITIVE);
+
+  private final List<Condition> conditions;
+
+  private EventQuery(List<Condition> conditions) {
+    this.conditions = conditions;
+  }
+
+  /**
+   * Compiles a query.
+   *
+   * @param query the conditions, joined by "and"
+   * @return the compiled query
+   * @throws IllegalArgumentException if the query is empty, names an unknown field, or is not
+   *                                  made of conditions joined by "and"
+   */
+  public static EventQuery parse(String query) throws IllegalArgumentException {
+    if (query == null || query.trim().isEmpty()) {
+      throw new IllegalArgumentException("Query cannot be empty");
+    }
+    List<Condition> conditions = new ArrayList<>();
+    Matcher matcher = CONDITION.matcher(query);
+    int position = 0;
+    while (true) {
+      matcher.region(position, query.length());
+      if (!matcher.lookingAt()) {
+        throw new IllegalArgumentException("Invalid condition: " + query.substring(position).trim());
+      }
+      conditions.add(new Condition(Field.fromString(matcher.group(1)), matcher.group(2),
+              unquote(matcher.group(3))));
+      position = matcher.end();
+      if (position == query.length()) {
+        break;
+      }
+      Matcher and = AND.matcher(query).region(position, query.length());
+      if (!and.lookingAt()) {
+        throw new IllegalArgumentException("Conditions must be joined by 'and'");
+      }
+      position = and.end();
+    }
+    return new EventQuery(Collections.unmodifiableList(conditions));
+  }
+
+  private static String unquote(String value) {
+    return value.startsWith("\"") ? value.substring(1, value.length() - 1) : value;
+  }
+
+  /**
+   * Checks whether an event meets every condition.
+   *
+   * @param event the event
+   * @return true if it does
+   */
+  public boolean matches(Event event) {
+    for (Condition condition : conditions) {
+      if (!condition.matches(event)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the words that every matching event has in its subject, description or location,
+   * which the word index can look up. A field that equals the value has all of its words. A
+   * field that contains the value has the words inside it, while the first may be the end of a
+   * longer word and is left out, and the last may be the start of one and is looked up as a
+   * prefix.
+   *
+   * @return the words, empty if no condition can use the index
+   */
+  List<TextIndex.Term> indexTerms() {
+    List<TextIndex.Term> terms = new ArrayList<>();
+    for (Condition condition : conditions) {
+      if (condition.field == Field.STATUS || condition.operator.equals("!=")) {
+        continue;
+      }
+      String value = condition.value;
+      List<String> words = TextIndex.tokenize(value);
+      boolean contains = condition.operator.equals("contains");
+      for (int i = 0; i < words.size(); i++) {
+        boolean first = i == 0 && (value.isEmpty() || Character.isLetterOrDigit(value.charAt(0)));
+        boolean last = i == words.size() - 1 && !value.isEmpty()
+                && Character.isLetterOrDigit(value.charAt(value.length() - 1));
+        if (contains && first) {
+          continue;
+        }
+        terms.add(new TextIndex.Term(words.get(i), contains && last));
+      }
+    }
+    return terms;
+  }
+
+  @Override
+  public String toString() {
+    List<String> parts = new ArrayList<>();
+    for (Condition condition : conditions) {
+      parts.add(condition.field.name().toLowerCase(Locale.ROOT) + " " + condition.operator
+              + " \"" + condition.value + "\"");
+    }
+    return String.join(" and ", parts);
+  }
+
+  /**
+   * The fields of an event a query can look at.
+   */
+  private enum Field {
+    SUBJECT, DESCRIPTION, LOCATION, STATUS;
+
+    private static Field fromString(String name) {
+      for (Field field : values()) {
+        if (field.name().equalsIgnoreCase(name)) {
+          return field;
+        }
+      }
+      throw new IllegalArgumentException("Unknown field: " + name);
+    }
+
+    private String of(Event event) {
+      switch (this) {
+        case SUBJECT:
+          return event.getSubject();
+        case DESCRIPTION:
+          return event.getDescription();
+        case LOCATION:
+          return event.getLocation();
+        default:
+          return event.getStatus();
+      }
+    }
+  }
+
+  /**
+   * One comparison of a field with a value.
+   */
+  private static final class Condition {
+    private final Field field;
+    private final String operator;
+    private final String value;
+    private final String lowerValue;
+
+    private Condition(Field field, String operator, String value) {
+      this.field = field;
+      this.operator = operator;
+      this.value = value;
+      this.lowerValue = value.toLowerCase(Locale.ROOT);
+    }
+
+    private boolean matches(Event event) {
+      String actual = field.of(event);
+      actual = actual == null ? "" : actual;
+      switch (operator) {
+        case "=":
+          return actual.equalsIgnoreCase(value);
+        case "!=":
+          return !actual.equalsIgnoreCase(value);
+        default:
+          return actual.toLowerCase(Locale.ROOT).contains(lowerValue);
+      }
+    }
+  }
+}
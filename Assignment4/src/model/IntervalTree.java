@@ -0,0 +1,746 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable set of events ordered by start time, and by when they were added for events that
+ * start at the same time. It is a
+ * balanced binary search tree where every node also records the size of its subtree and the
+ * latest end time in it, so events can be looked up by position and whole subtrees that end too
+ * early can be skipped when looking for overlaps.
+ *
+ * <p>Events that have been given an id are also indexed by it, so they can be found without
+ * knowing their start time. Occurrences that follow their series are stored with the details
+ * they were created with, and every event handed out takes the current details from the series
+ * table, so a series-wide change of details is one update to that table.
+ *
+ * <p>An update returns a new tree that shares every node off the path it touched with the old
+ * one, so older versions stay valid and cost nothing to keep.
+ */
+final class IntervalTree {
+  static final IntervalTree EMPTY =
+          new IntervalTree(null, 0, EventIdIndex.EMPTY, SeriesTable.EMPTY);
+
+  private final Node root;
+  private final long nextSequence;
+  private final EventIdIndex byId;
+  private final SeriesTable series;
+
+  private IntervalTree(Node root, long nextSequence, EventIdIndex byId, SeriesTable series) {
+    this.root = root;
+    this.nextSequence = nextSequence;
+    this.byId = byId;
+    this.series = series;
+  }
+
+  /**
+   * Returns a tree that also holds the given event.
+   *
+   * @param event the event to be added
+   * @return the new tree
+   */
+  IntervalTree insert(Event event) {
+    EventIdIndex ids = event.getId() > 0 ? byId.put(event.getId(), event) : byId;
+    return new IntervalTree(insert(root, event, nextSequence), nextSequence + 1, ids, series);
+  }
+
+  /**
+   * Returns a tree without the given event.
+   *
+   * @param event the event to be removed
+   * @return the new tree, or this tree if the event was not in it
+   */
+  IntervalTree remove(Event event) {
+    Node node = findNode(root, event.getStartDateTime(), event.getEndDateTime(),
+            event.getSubject());
+    if (node == null) {
+      return this;
+    }
+    return new IntervalTree(remove(root, node.event.getStartDateTime(), node.sequence),
+            nextSequence, byId.remove(node.event.getId()), series);
+  }
+
+  /**
+   * Returns a tree without the events that start in the given span. The events form one run of
+   * positions, which is cut out by splitting the tree on both sides of it and joining what is
+   * left, so the cost is logarithmic in the size of the tree plus the number of events removed.
+   *
+   * @param start   the start of the span
+   * @param end     the end of the span
+   * @param removed receives the events removed, in order
+   * @return the new tree, or this tree if no event starts in the span
+   */
+  IntervalTree removeStartingBetween(LocalDateTime start, LocalDateTime end,
+                                     List<Event> removed) {
+    int from = countStartingBefore(start, false);
+    int to = countStartingBefore(end, true);
+    if (from >= to) {
+      return this;
+    }
+    Node[] before = split(root, from);
+    Node[] span = split(before[1], to - from);
+    EventIdIndex ids = byId;
+    List<Event> cut = new ArrayList<>(to - from);
+    select(span[0], 0, to - from, cut);
+    for (Event event : cut) {
+      ids = ids.remove(event.getId());
+      removed.add(resolve(event));
+    }
+    return new IntervalTree(join(before[0], span[1]), nextSequence, ids, series);
+  }
+
+  /**
+   * Returns a tree holding exactly the given events that keeps the series table of this one.
+   * The events are already in order, so the tree is built bottom up in linear time instead of
+   * by one insert per event.
+   *
+   * @param sorted the events in start order, as stored or as handed out by a tree
+   * @return the new tree
+   */
+  IntervalTree withEvents(List<Event> sorted) {
+    EventIdIndex ids = EventIdIndex.EMPTY;
+    for (Event event : sorted) {
+      if (event.getId() > 0) {
+        ids = ids.put(event.getId(), event);
+      }
+    }
+    return new IntervalTree(build(sorted, 0, sorted.size()), sorted.size(), ids, series);
+  }
+
+  /**
+   * Returns a tree that also holds the given events, placed after the events of this tree that
+   * start at the same time as if they were inserted one by one. When there are few of them they
+   * are inserted one by one; when inserting would touch more nodes than the tree has, they are
+   * merged with the events of this tree in one pass and the tree is built again bottom up. Only
+   * the new events are added to the id index either way.
+   *
+   * @param sorted the events to be added in start order, as stored
+   * @return the new tree
+   */
+  IntervalTree insertAll(List<Event> sorted) {
+    int size = size();
+    if ((long) sorted.size() * (64 - Long.numberOfLeadingZeros(size)) < size) {
+      IntervalTree tree = this;
+      for (Event event : sorted) {
+        tree = tree.insert(event);
+      }
+      return tree;
+    }
+    List<Event> current = new ArrayList<>(size);
+    select(root, 0, size, current);
+    List<Event> merged = new ArrayList<>(size + sorted.size());
+    EventIdIndex ids = byId;
+    int i = 0;
+    for (Event event : sorted) {
+      while (i < size && !current.get(i).getStartDateTime().isAfter(event.getStartDateTime())) {
+        merged.add(current.get(i++));
+      }
+      merged.add(event);
+      if (event.getId() > 0) {
+        ids = ids.put(event.getId(), event);
+      }
+    }
+    merged.addAll(current.subList(i, size));
+    return new IntervalTree(build(merged, 0, merged.size()), merged.size(), ids, series);
+  }
+
+  /**
+   * Returns a tree with no events that keeps the series table of this one.
+   *
+   * @return the new tree
+   */
+  IntervalTree withoutEvents() {
+    return new IntervalTree(null, 0, EventIdIndex.EMPTY, series);
+  }
+
+  /**
+   * Gets the details shared by the occurrences of a series.
+   *
+   * @param seriesId the id of the series
+   * @return the details, or null if the series is not in the table
+   */
+  SeriesDetails getSeries(String seriesId) {
+    return series.get(seriesId);
+  }
+
+  /**
+   * Returns a tree where the occurrences that follow a series take the given details.
+   *
+   * @param seriesId the id of the series
+   * @param details  the details of the series
+   * @return the new tree
+   */
+  IntervalTree withSeries(String seriesId, SeriesDetails details) {
+    return new IntervalTree(root, nextSequence, byId, series.put(seriesId, details));
+  }
+
+  /**
+   * Finds every event that differs between an older version of the tree and this one, as the
+   * events would be handed out by each. Only the parts of the id index and the series table
+   * that were copied between the versions are compared, and the occurrences of a series whose
+   * details changed are reported as well.
+   *
+   * @param before  the older version
+   * @param visitor receives each id with its event before and after, either of which may be null
+   */
+  void diff(IntervalTree before, EventIdIndex.Visitor visitor) {
+    EventIdIndex.diff(before.byId, byId, (id, old, current) -> visitor.visit(id,
+            old == null ? null : before.resolve(old), current == null ? null : resolve(current)));
+    SeriesTable.diff(before.series, series, (seriesId, old, current) -> {
+      if (old == null || old.sameDetails(current)) {
+        return;
+      }
+      for (long id = current.getFirstId(); id <= current.getLastId(); id++) {
+        Event stored = byId.get(id);
+        // an occurrence that was replaced itself has been reported already
+        if (stored != null && stored == before.byId.get(id) && stored.followsSeries()) {
+          visitor.visit(id, before.resolve(stored), resolve(stored));
+        }
+      }
+    });
+  }
+
+  /**
+   * Finds every event whose stored form differs between an older version of the tree and this
+   * one, and every series whose details differ, including series only the older version has.
+   * Unlike {@link #diff}, the occurrences of a series whose details changed are not visited.
+   *
+   * @param before the older version
+   * @param events receives each id with its event as stored before and after, either of which
+   *               may be null
+   * @param series receives each series with its details before and after, either of which may
+   *               be null
+   */
+  void diffStored(IntervalTree before, EventIdIndex.Visitor events, SeriesTable.Visitor series) {
+    EventIdIndex.diff(before.byId, byId, events);
+    SeriesTable.diff(before.series, this.series, series);
+    // an older version can only have series this one lacks if it was made later, as after undo
+    SeriesTable.diff(this.series, before.series, (seriesId, current, old) -> {
+      if (current == null) {
+        series.visit(seriesId, old, null);
+      }
+    });
+  }
+
+  /**
+   * Gets the order events have in this tree: by start time, and by when they were added for
+   * events that start at the same time.
+   *
+   * @return the order, for events held by this tree
+   */
+  Comparator<Event> scheduleOrder() {
+    return Comparator.comparing(Event::getStartDateTime).thenComparingLong(event -> {
+      Node node = findNode(root, event.getStartDateTime(), event.getEndDateTime(),
+              event.getSubject());
+      return node == null ? Long.MAX_VALUE : node.sequence;
+    });
+  }
+
+  /**
+   * Gets the number of events in the tree.
+   *
+   * @return the number of events
+   */
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Gets the event with the given id.
+   *
+   * @param id the id of the event
+   * @return the event, or null if there is none
+   */
+  Event get(long id) {
+    Event event = byId.get(id);
+    return event == null ? null : resolve(event);
+  }
+
+  /**
+   * Finds the event with the given start, end and subject.
+   *
+   * @param start   the start of the event
+   * @param end     the end of the event
+   * @param subject the subject of the event
+   * @return the event, or null if there is none
+   */
+  Event find(LocalDateTime start, LocalDateTime end, String subject) {
+    Node node = findNode(root, start, end, subject);
+    return node == null ? null : resolve(node.event);
+  }
+
+  /**
+   * Gets every event in order.
+   *
+   * @return the events
+   */
+  List<Event> all() {
+    return select(0, size());
+  }
+
+  /**
+   * Gets every event in order as it is stored, so events that follow a series lack its current
+   * details. A tree built from these with {@link #withEvents} holds the same events.
+   *
+   * @return the events
+   */
+  List<Event> allStored() {
+    List<Event> events = new ArrayList<>(size());
+    select(root, 0, size(), events);
+    return events;
+  }
+
+  /**
+   * Gets the events that start exactly at the given time, in order.
+   *
+   * @param start the start time
+   * @return the events
+   */
+  List<Event> startingAt(LocalDateTime start) {
+    return select(countStartingBefore(start, false), countStartingBefore(start, true));
+  }
+
+  /**
+   * Gets the events that start at or after the given time, in order.
+   *
+   * @param start the earliest start time
+   * @return the events
+   */
+  List<Event> startingFrom(LocalDateTime start) {
+    return select(countStartingBefore(start, false), size());
+  }
+
+  /**
+   * Gets the events that start in the given span, including its start but not its end, in
+   * order.
+   *
+   * @param from the earliest start time
+   * @param to   the time every event must start before
+   * @return the events
+   */
+  List<Event> startingBetween(LocalDateTime from, LocalDateTime to) {
+    return select(countStartingBefore(from, false), countStartingBefore(to, false));
+  }
+
+  /**
+   * Finds an event that overlaps the given span. Events that only touch the span, ending
+   * exactly when it starts or starting exactly when it ends, do not overlap it.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return an overlapping event, or null if there is none
+   */
+  Event findOverlap(LocalDateTime start, LocalDateTime end) {
+    Node node = root;
+    while (node != null) {
+      if (node.event.getStartDateTime().isBefore(end)
+              && node.event.getEndDateTime().isAfter(start)) {
+        return resolve(node.event);
+      }
+      // if anything on the left ends late enough it is the only side that can overlap,
+      // because everything on the right starts no earlier than it
+      if (node.left != null && node.left.maxEnd.isAfter(start)) {
+        node = node.left;
+      } else {
+        node = node.right;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether any event is in progress at the given time, counting its start and end.
+   *
+   * @param time the time to check
+   * @return true if an event covers the time
+   */
+  boolean covers(LocalDateTime time) {
+    Node node = root;
+    while (node != null) {
+      if (!node.event.getStartDateTime().isAfter(time)
+              && !node.event.getEndDateTime().isBefore(time)) {
+        return true;
+      }
+      if (node.left != null && !node.left.maxEnd.isBefore(time)) {
+        node = node.left;
+      } else {
+        node = node.right;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts the events that touch the given span, that is every event that does not end before
+   * it starts or start after it ends.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return the number of events
+   */
+  int countTouching(LocalDateTime start, LocalDateTime end) {
+    List<Event> spanning = new ArrayList<>();
+    collectSpanning(root, start, spanning);
+    int from = countStartingBefore(start, false);
+    int to = countStartingBefore(end, true);
+    return spanning.size() + Math.max(0, to - from);
+  }
+
+  /**
+   * Gets a slice of the events that touch the given span, in order. Events that start before
+   * the span come first and are found through the latest end times; the rest start inside the
+   * span, so they form one run of positions and a page of them is fetched by position.
+   *
+   * @param start  the start of the span
+   * @param end    the end of the span
+   * @param offset the index of the first event to return
+   * @param limit  the largest number of events to return
+   * @return the events
+   */
+  List<Event> touching(LocalDateTime start, LocalDateTime end, int offset, int limit) {
+    List<Event> page = new ArrayList<>();
+    collectSpanning(root, start, page);
+    if (offset < page.size()) {
+      int last = offset + Math.min(limit, page.size() - offset);
+      page = new ArrayList<>(page.subList(offset, last));
+      offset = 0;
+    } else {
+      offset -= page.size();
+      page.clear();
+    }
+    resolveAll(page);
+    int from = countStartingBefore(start, false) + offset;
+    int to = countStartingBefore(end, true);
+    if (to - from > limit - page.size()) {
+      to = from + limit - page.size();
+    }
+    if (from < to) {
+      page.addAll(select(from, to));
+    }
+    return page;
+  }
+
+  /**
+   * Gets every event that touches the given span, in order.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return the events
+   */
+  List<Event> touching(LocalDateTime start, LocalDateTime end) {
+    return touching(start, end, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Counts the events that start before the given time, or at it if asked to.
+   */
+  private int countStartingBefore(LocalDateTime time, boolean inclusive) {
+    int count = 0;
+    Node node = root;
+    while (node != null) {
+      int comparison = node.event.getStartDateTime().compareTo(time);
+      if (comparison < 0 || (inclusive && comparison == 0)) {
+        count += size(node.left) + 1;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the events at positions from (inclusive) to to (exclusive), in order.
+   */
+  private List<Event> select(int from, int to) {
+    if (from >= to) {
+      return Collections.emptyList();
+    }
+    List<Event> events = new ArrayList<>(to - from);
+    select(root, from, to, events);
+    resolveAll(events);
+    return events;
+  }
+
+  /**
+   * Gives an event as it was stored the current details of its series if it follows one.
+   *
+   * @param event the event as stored in this tree
+   * @return the event as the other lookups return it
+   */
+  Event resolve(Event event) {
+    if (!event.followsSeries()) {
+      return event;
+    }
+    SeriesDetails details = series.get(event.getSeriesId());
+    return details == null ? event : details.applyTo(event);
+  }
+
+  private void resolveAll(List<Event> events) {
+    for (int i = 0; i < events.size(); i++) {
+      events.set(i, resolve(events.get(i)));
+    }
+  }
+
+  /**
+   * Gets the current subject of an event as it was stored.
+   */
+  private String subjectOf(Event event) {
+    if (event.followsSeries()) {
+      SeriesDetails details = series.get(event.getSeriesId());
+      if (details != null) {
+        return details.getSubject();
+      }
+    }
+    return event.getSubject();
+  }
+
+  private static void select(Node node, int from, int to, List<Event> events) {
+    if (node == null || from >= to) {
+      return;
+    }
+    int leftSize = size(node.left);
+    if (from < leftSize) {
+      select(node.left, from, Math.min(to, leftSize), events);
+    }
+    if (from <= leftSize && leftSize < to) {
+      events.add(node.event);
+    }
+    if (to > leftSize + 1) {
+      select(node.right, Math.max(0, from - leftSize - 1), to - leftSize - 1, events);
+    }
+  }
+
+  /**
+   * Collects, in order, the events that start before the given time and end at or after it.
+   */
+  private static void collectSpanning(Node node, LocalDateTime time, List<Event> events) {
+    if (node == null || node.maxEnd.isBefore(time)) {
+      return;
+    }
+    collectSpanning(node.left, time, events);
+    if (node.event.getStartDateTime().isBefore(time)) {
+      if (!node.event.getEndDateTime().isBefore(time)) {
+        events.add(node.event);
+      }
+      collectSpanning(node.right, time, events);
+    }
+  }
+
+  /**
+   * Finds the node of the event with the given start, end and subject, looking only at the
+   * events that share its start time.
+   */
+  private Node findNode(Node node, LocalDateTime start, LocalDateTime end, String subject) {
+    while (node != null) {
+      int comparison = start.compareTo(node.event.getStartDateTime());
+      if (comparison == 0) {
+        if (node.event.getEndDateTime().equals(end) && subjectOf(node.event).equals(subject)) {
+          return node;
+        }
+        Node found = findNode(node.left, start, end, subject);
+        if (found != null) {
+          return found;
+        }
+        node = node.right;
+      } else {
+        node = comparison < 0 ? node.left : node.right;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Compares a start time and sequence number with the position of a node.
+   */
+  private static int compare(LocalDateTime start, long sequence, Node node) {
+    int comparison = start.compareTo(node.event.getStartDateTime());
+    return comparison != 0 ? comparison : Long.compare(sequence, node.sequence);
+  }
+
+  private static Node insert(Node node, Event event, long sequence) {
+    if (node == null) {
+      return new Node(event, sequence, null, null);
+    }
+    if (compare(event.getStartDateTime(), sequence, node) < 0) {
+      return balance(node, insert(node.left, event, sequence), node.right);
+    }
+    return balance(node, node.left, insert(node.right, event, sequence));
+  }
+
+  private static Node remove(Node node, LocalDateTime start, long sequence) {
+    if (node == null) {
+      return null;
+    }
+    int comparison = compare(start, sequence, node);
+    if (comparison < 0) {
+      Node left = remove(node.left, start, sequence);
+      return left == node.left ? node : balance(node, left, node.right);
+    }
+    if (comparison > 0) {
+      Node right = remove(node.right, start, sequence);
+      return right == node.right ? node : balance(node, node.left, right);
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor, node.left, removeFirst(node.right));
+  }
+
+  private static Node removeFirst(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node, removeFirst(node.left), node.right);
+  }
+
+  /**
+   * Builds a balanced subtree of the events at positions from (inclusive) to to (exclusive),
+   * numbering them by position.
+   */
+  private static Node build(List<Event> sorted, int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    return new Node(sorted.get(middle), middle, build(sorted, from, middle),
+            build(sorted, middle + 1, to));
+  }
+
+  /**
+   * Splits a subtree into its first count events and the rest, both balanced.
+   */
+  private static Node[] split(Node node, int count) {
+    if (node == null) {
+      return new Node[2];
+    }
+    int leftSize = size(node.left);
+    if (count <= leftSize) {
+      Node[] parts = split(node.left, count);
+      return new Node[]{parts[0], join(parts[1], node, node.right)};
+    }
+    Node[] parts = split(node.right, count - leftSize - 1);
+    return new Node[]{join(node.left, node, parts[0]), parts[1]};
+  }
+
+  /**
+   * Joins two subtrees, where every event of the first comes before every event of the second.
+   */
+  private static Node join(Node left, Node right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    Node last = left;
+    while (last.right != null) {
+      last = last.right;
+    }
+    return join(removeLast(left), last, right);
+  }
+
+  /**
+   * Joins two subtrees around a node that goes between them, descending the taller one until
+   * the heights are close and rebalancing on the way back up.
+   */
+  private static Node join(Node left, Node middle, Node right) {
+    if (height(left) > height(right) + 1) {
+      return balance(left, left.left, join(left.right, middle, right));
+    }
+    if (height(right) > height(left) + 1) {
+      return balance(right, join(left, middle, right.left), right.right);
+    }
+    return middle.with(left, right);
+  }
+
+  private static Node removeLast(Node node) {
+    if (node.right == null) {
+      return node.left;
+    }
+    return balance(node, node.left, removeLast(node.right));
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * Builds a node holding the same event as another with new children, rotating if one side has
+   * grown two levels taller.
+   */
+  private static Node balance(Node node, Node left, Node right) {
+    int difference = height(left) - height(right);
+    if (difference > 1) {
+      if (height(left.left) < height(left.right)) {
+        left = rotateLeft(left, left.left, left.right);
+      }
+      return rotateRight(node, left, right);
+    }
+    if (difference < -1) {
+      if (height(right.right) < height(right.left)) {
+        right = rotateRight(right, right.left, right.right);
+      }
+      return rotateLeft(node, left, right);
+    }
+    return node.with(left, right);
+  }
+
+  private static Node rotateRight(Node node, Node left, Node right) {
+    return left.with(left.left, node.with(left.right, right));
+  }
+
+  private static Node rotateLeft(Node node, Node left, Node right) {
+    return right.with(node.with(left, right.left), right.right);
+  }
+
+  /**
+   * A node of the tree together with the height, size and latest end time of its subtree. The
+   * sequence number records when the event was added and orders events with the same start.
+   */
+  private static final class Node {
+    private final Event event;
+    private final long sequence;
+    private final Node left;
+    private final Node right;
+    private final int height;
+    private final int size;
+    private final LocalDateTime maxEnd;
+
+    private Node(Event event, long sequence, Node left, Node right) {
+      this.event = event;
+      this.sequence = sequence;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+      LocalDateTime latest = event.getEndDateTime();
+      if (left != null && left.maxEnd.isAfter(latest)) {
+        latest = left.maxEnd;
+      }
+      if (right != null && right.maxEnd.isAfter(latest)) {
+        latest = right.maxEnd;
+      }
+      this.maxEnd = latest;
+    }
+
+    private Node with(Node left, Node right) {
+      return new Node(event, sequence, left, right);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * A replica in the same process, which answers from a calendar's content hashes and events
+ * while holding the calendar's lock, so each answer matches one version of the calendar.
+ */
+final class LocalSyncPeer implements SyncPeer {
+  private final SingleCalendar calendar;
+
+  LocalSyncPeer(SingleCalendar calendar) {
+    this.calendar = calendar;
+  }
+
+  @Override
+  public long rootHash() {
+    synchronized (calendar) {
+      return calendar.digest.root();
+    }
+  }
+
+  @Override
+  public SortedMap<YearMonth, Long> monthHashes() {
+    synchronized (calendar) {
+      return calendar.digest.months();
+    }
+  }
+
+  @Override
+  public SortedMap<LocalDate, Long> dayHashes(YearMonth month) {
+    synchronized (calendar) {
+      return calendar.digest.days(month);
+    }
+  }
+
+  @Override
+  public List<Event> eventsOn(LocalDate day) {
+    return calendar.events.startingBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+  }
+}
@@ -0,0 +1,170 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A running estimate of the heap taken by one calendar's events, kept up to date from the
+ * events that change rather than by walking the heap. Sizes are those of a 64-bit JVM with
+ * compressed references and compact strings.
+ *
+ * <p>Every event is counted with its times, its node in the tree and its slot in the id index.
+ * Its strings are counted as well, except for the occurrences that follow a series, which share
+ * the strings of the series; those are counted once for each series instead.
+ *
+ * <p>The footprint is changed and read while the calendar is locked.
+ */
+final class MemoryFootprint {
+  // the event object, two LocalDateTimes with their dates and times, a tree node, an index slot
+  static final long EVENT_BYTES = 56 + 2 * 72 + 48 + 8;
+  // the series details, and the series table node that holds them
+  static final long SERIES_BYTES = 40 + 40;
+
+  // the occurrences of each series, and the bytes its details were counted with
+  private final Map<String, long[]> bySeries;
+  private int events;
+  private int occurrences;
+  private long bytes;
+
+  MemoryFootprint() {
+    this.bySeries = new HashMap<>();
+  }
+
+  /**
+   * Makes a footprint with the same counts that can then change on its own.
+   *
+   * @return the copy
+   */
+  MemoryFootprint copy() {
+    MemoryFootprint copy = new MemoryFootprint();
+    bySeries.forEach((seriesId, counts) -> copy.bySeries.put(seriesId, counts.clone()));
+    copy.events = events;
+    copy.occurrences = occurrences;
+    copy.bytes = bytes;
+    return copy;
+  }
+
+  /**
+   * Counts an event in.
+   *
+   * @param event the event as the calendar hands it out
+   */
+  void add(Event event) {
+    events++;
+    bytes += bytesOf(event);
+    String seriesId = event.getSeriesId();
+    if (seriesId != null) {
+      occurrences++;
+      long[] counts = bySeries.get(seriesId);
+      if (counts == null) {
+        counts = new long[]{0, seriesBytesOf(event)};
+        bySeries.put(seriesId, counts);
+        bytes += counts[1];
+      }
+      counts[0]++;
+    }
+  }
+
+  /**
+   * Counts an event out.
+   *
+   * @param event the event as the calendar handed it out, which must have been added
+   */
+  void remove(Event event) {
+    events--;
+    bytes -= bytesOf(event);
+    String seriesId = event.getSeriesId();
+    if (seriesId != null) {
+      occurrences--;
+      long[] counts = bySeries.get(seriesId);
+      if (--counts[0] == 0) {
+        bySeries.remove(seriesId);
+        bytes -= counts[1];
+      }
+    }
+  }
+
+  /**
+   * Estimates how much a change between two versions of the events would add, without counting
+   * it in. The details of series that appear or disappear are left out.
+   *
+   * @param before the current events
+   * @param after  the events after the change
+   * @return the bytes added, or a negative number for bytes freed
+   */
+  static long growth(IntervalTree before, IntervalTree after) {
+    long[] growth = new long[1];
+    after.diff(before, (id, old, updated) -> {
+      if (old != null) {
+        growth[0] -= bytesOf(old);
+      }
+      if (updated != null) {
+        growth[0] += bytesOf(updated);
+      }
+    });
+    return growth[0];
+  }
+
+  int events() {
+    return events;
+  }
+
+  int occurrences() {
+    return occurrences;
+  }
+
+  int series() {
+    return bySeries.size();
+  }
+
+  long bytes() {
+    return bytes;
+  }
+
+  /**
+   * Estimates one event as the calendar hands it out.
+   *
+   * @param event the event
+   * @return the bytes
+   */
+  static long bytesOf(Event event) {
+    if (event.followsSeries()) {
+      return EVENT_BYTES;
+    }
+    return EVENT_BYTES + stringBytes(event.getSubject()) + stringBytes(event.getDescription())
+            + stringBytes(event.getLocation()) + stringBytes(event.getStatus());
+  }
+
+  /**
+   * Estimates the details of a series, which are counted once when its first occurrence is.
+   *
+   * @param occurrence an occurrence of the series
+   * @return the bytes
+   */
+  static long seriesBytesOf(Event occurrence) {
+    return SERIES_BYTES + stringBytes(occurrence.getSeriesId())
+            + stringBytes(occurrence.getSubject()) + stringBytes(occurrence.getDescription())
+            + stringBytes(occurrence.getLocation()) + stringBytes(occurrence.getStatus());
+  }
+
+  /**
+   * Estimates the size of a string and its array, padded to 8 bytes. The empty string is a
+   * constant shared by everything that uses it.
+   *
+   * @param text the string, or null
+   * @return the bytes
+   */
+  static long stringBytes(String text) {
+    if (text == null || text.isEmpty()) {
+      return 0;
+    }
+    int bytesPerChar = 1;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) > 0xff) {
+        bytesPerChar = 2;
+        break;
+      }
+    }
+    return 24 + ((16 + (long) text.length() * bytesPerChar + 7) & ~7L);
+  }
+}
@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * Represents what a merge does with an incoming event that has the same subject, start and end
+ * as an event the target calendar already has.
+ */
+public enum MergePolicy {
+  SKIP("skip"),
+  OVERWRITE("overwrite"),
+  KEEP_BOTH("keep");
+
+  private final String name;
+
+  /**
+   * Constructs a MergePolicy with its name.
+   *
+   * @param name the policy name as used in commands
+   */
+  MergePolicy(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the policy name as used in the calendar interface.
+   * @return the policy name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Converts a string to the corresponding MergePolicy enum value.
+   * Case-insensitive matching for user convenience.
+   *
+   * @param policyName the name of the policy
+   * @return the corresponding MergePolicy enum value
+   * @throws IllegalArgumentException if the policy name is invalid
+   */
+  public static MergePolicy fromString(String policyName) {
+    if (policyName == null || policyName.trim().isEmpty()) {
+      throw new IllegalArgumentException("Merge policy cannot be null or empty");
+    }
+
+    for (MergePolicy policy : MergePolicy.values()) {
+      if (policy.name.equalsIgnoreCase(policyName.trim())) {
+        return policy;
+      }
+    }
+    throw new IllegalArgumentException("Invalid merge policy");
+  }
+
+  /**
+   * Converts this policy to its corresponding string representation.
+   * @return the policy name as used in the calendar interface
+   */
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -1,13 +1,35 @@
 package model;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import view.View;
 
@@ -15,9 +37,16 @@ import view.View;
  * Represents the model for an application that can handle having more than one Calendar.
  */
 public class MultipleCalendars extends TimezoneCalendar implements Calendars {
+  private static final int ARCHIVE_CACHE_BLOCKS = 64;
+
   private final Map<String, TimezoneCalendar> calendarsByName;
   private final View view;
-  private TimezoneCalendar currentCalendar;
+  private final ChangeFeed feed;
+  private final RoomIndex rooms;
+  private volatile Path archiveDirectory;
+  // read by a GUI's query worker as well as the thread that makes changes
+  private volatile TimezoneCalendar currentCalendar;
+  private Transaction transaction;
 
   /**
    * Constructs an app that handles more than one Calendar.
@@ -25,29 +54,109 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
    * @param view the view
    */
   public MultipleCalendars(View view) {
+    this(view, new ConcurrentHashMap<>(), new ChangeFeed(), new RoomIndex());
+  }
+
+  private MultipleCalendars(View view, Map<String, TimezoneCalendar> calendarsByName,
+                            ChangeFeed feed, RoomIndex rooms) {
     super(view, TimeZone.getDefault()
     );
 
     if (view == null) {
       throw new IllegalArgumentException("View cannot be null");
     }
-    this.calendarsByName = new HashMap<>();
+    this.calendarsByName = calendarsByName;
     this.view = view;
+    this.feed = feed;
+    this.rooms = rooms;
 
   }
 
+  /**
+   * Gets the calendars by name, as they are now and as they change.
+   *
+   * @return an unmodifiable view of the calendars
+   */
+  Map<String, TimezoneCalendar> calendarMap() {
+    return Collections.unmodifiableMap(calendarsByName);
+  }
+
+  /**
+   * Sets the directory that calendars archive old events to, each in a directory of its own.
+   * Without one, a temporary directory is made the first time events are archived.
+   *
+   * @param directory the directory
+   * @throws IllegalArgumentException if the directory is null
+   */
+  public void setArchiveDirectory(Path directory) throws IllegalArgumentException {
+    if (directory == null) {
+      throw new IllegalArgumentException("Archive directory cannot be null");
+    }
+    this.archiveDirectory = directory;
+  }
+
   @Override
-  public void createCalendar(String calendarName, TimeZone timezone)
+  public CalendarListener.Subscription subscribe(CalendarListener listener)
           throws IllegalArgumentException {
-    if (calendarsByName.containsKey(calendarName)) {
-      throw new IllegalArgumentException("A calendar with this name already exists");
+    return subscribe(listener, null);
+  }
+
+  @Override
+  public CalendarListener.Subscription subscribe(CalendarListener listener, Executor executor)
+          throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
     }
+    return feed.subscribe(listener, executor);
+  }
+
+  /**
+   * Creates the observer that keeps the room index up to date and turns new versions of a
+   * calendar's events into changes for the feed. Only the parts of the events that differ
+   * between the versions are compared, and nothing is compared for the feed while nobody is
+   * listening.
+   */
+  private static SingleCalendar.ChangeObserver observer(ChangeFeed feed, RoomIndex rooms) {
+    return (calendar, before, after) -> {
+      // only calendars made here are observed, and their timezone changes under their lock
+      rooms.changed(calendar, ((TimezoneCalendar) calendar).days(), before, after);
+      if (feed.isEmpty()) {
+        return;
+      }
+      String name = ((TimezoneCalendar) calendar).listedName;
+      List<CalendarChange> changes = new ArrayList<>();
+      String calendarName = name;
+      after.diff(before, (id, oldEvent, newEvent) ->
+              changes.add(CalendarChange.ofEvent(calendarName, oldEvent, newEvent)));
+      feed.publish(changes);
+    };
+  }
+
+  @Override
+  public Calendars newSession() {
+    MultipleCalendars session = new MultipleCalendars(view, calendarsByName, feed, rooms);
+    session.archiveDirectory = archiveDirectory;
+    return session;
+  }
+
+  @Override
+  public void createCalendar(String calendarName, TimeZone timezone)
+          throws IllegalArgumentException {
     if (timezone.getID().equals("GMT") && !timezone.toString().equals("GMT")) {
       throw new IllegalArgumentException("Invalid timezone");
     }
 
+    // sessions share the map, so the name is claimed in one step
     TimezoneCalendar newCalendar = new TimezoneCalendar(this.view, timezone);
-    calendarsByName.putIfAbsent(calendarName, newCalendar);
+    newCalendar.observe(observer(feed, rooms));
+    // named before it is listed, so another session's first change is reported under the name
+    newCalendar.listedName = calendarName;
+    if (calendarsByName.putIfAbsent(calendarName, newCalendar) != null) {
+      throw new IllegalArgumentException("A calendar with this name already exists");
+    }
+    rebound(calendarName, null, newCalendar);
+    feed.publish(List.of(CalendarChange.ofCalendar(CalendarChange.Type.CALENDAR_CREATED,
+            calendarName, null, timezone.getID())));
 
   }
 
@@ -62,30 +171,240 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
       throw new IllegalArgumentException("Calendar not found");
     }
 
-    switch (calendarsProperty) {
-      case NAME:
-        if (calendarsByName.containsKey(newValue)) {
-          throw new IllegalArgumentException("A calendar with this name already exists");
+    // a new timezone replaces every event, and those changes go out with the calendar's
+    feed.batch(() -> {
+      switch (calendarsProperty) {
+        case NAME:
+          if (calendarsByName.putIfAbsent(newValue, calendarToChange) != null) {
+            throw new IllegalArgumentException("A calendar with this name already exists");
+          }
+          calendarsByName.remove(name, calendarToChange);
+          rebound(newValue, null, calendarToChange);
+          rebound(name, calendarToChange, null);
+          feed.publish(List.of(CalendarChange.ofCalendar(CalendarChange.Type.CALENDAR_RENAMED,
+                  newValue, name, newValue)));
+          break;
+
+        case TIMEZONE:
+          TimeZone newTimeZone = TimeZone.getTimeZone(newValue);
+          // means that the timezone couldnt be parsed
+          // got GMT but it wasnt GMT - > invalid
+          if (newTimeZone.getID().equals("GMT") && !newValue.equals("GMT")) {
+            throw new IllegalArgumentException("Invalid timezone");
+          }
+          String oldTimeZone = calendarToChange.timeZone.getID();
+          change(calendarToChange, calendar -> calendar.updateTimes(newTimeZone));
+          feed.publish(List.of(CalendarChange.ofCalendar(CalendarChange.Type.CALENDAR_REZONED,
+                  name, oldTimeZone, newTimeZone.getID())));
+          break;
+
+        case CONFLICTS:
+          ConflictPolicy policy = ConflictPolicy.fromString(newValue);
+          change(calendarToChange, calendar -> calendar.setConflictPolicy(policy));
+          break;
+
+        case MEMORY:
+          long limit = CalendarMemory.parseLimit(newValue);
+          change(calendarToChange, calendar -> calendar.setMemoryLimit(limit));
+          break;
+
+        default:
+          throw new IllegalArgumentException("Invalid property");
+      }
+    });
+  }
+
+  /**
+   * Starts a transaction. A calendar is saved the first time this session changes it in the
+   * transaction, and the events are immutable, so a savepoint is a few references and the cost
+   * does not depend on how many events there are or how many changes follow. Calendars that only
+   * other sessions change are never saved, so a rollback leaves their work alone.
+   *
+   * @throws IllegalStateException if a transaction is already in progress
+   */
+  @Override
+  public void begin() throws IllegalStateException {
+    if (transaction != null) {
+      throw new IllegalStateException("A transaction is already in progress");
+    }
+    transaction = new Transaction(currentCalendar);
+  }
+
+  @Override
+  public void commit() throws IllegalStateException {
+    if (transaction == null) {
+      throw new IllegalStateException("No transaction in progress");
+    }
+    transaction = null;
+  }
+
+  /**
+   * Ends the transaction in progress and puts back what this session changed in it. A calendar
+   * is put back only if no other session has changed its events since this session last did,
+   * and a name only if it is still bound to the calendar this session left it with, so a
+   * rollback never takes back the work of another session. What cannot be put back keeps this
+   * session's changes and is reported.
+   *
+   * @throws IllegalStateException if no transaction is in progress, or if another session has
+   *                               changed a calendar or name this session changed, after
+   *                               putting back everything else
+   */
+  @Override
+  public void rollback() throws IllegalStateException {
+    if (transaction == null) {
+      throw new IllegalStateException("No transaction in progress");
+    }
+    Transaction rolledBack = transaction;
+    transaction = null;
+    Set<String> changedElsewhere = new TreeSet<>();
+    for (Map.Entry<TimezoneCalendar, SingleCalendar.Savepoint> entry
+            : rolledBack.savepoints.entrySet()) {
+      TimezoneCalendar calendar = entry.getKey();
+      synchronized (calendar) {
+        if (calendar.events != rolledBack.left.get(calendar)) {
+          changedElsewhere.add(nameOf(calendar, rolledBack.namesBefore));
+          continue;
         }
-        calendarsByName.remove(name);
-        calendarsByName.put(newValue, calendarToChange);
-        break;
-
-      case TIMEZONE:
-        TimeZone newTimeZone = TimeZone.getTimeZone(newValue);
-        // means that the timezone couldnt be parsed
-        // got GMT but it wasnt GMT - > invalid
-        if (newTimeZone.getID().equals("GMT") && !newValue.equals("GMT")) {
-          throw new IllegalArgumentException("Invalid timezone");
+        calendar.timeZone = rolledBack.timeZones.get(calendar);
+        calendar.restore(entry.getValue());
+      }
+    }
+
+    Map<TimezoneCalendar, Boolean> listed = listedCalendars();
+    for (Map.Entry<String, TimezoneCalendar> entry : rolledBack.namesBefore.entrySet()) {
+      String name = entry.getKey();
+      TimezoneCalendar before = entry.getValue();
+      TimezoneCalendar after = rolledBack.namesLeft.get(name);
+      boolean restored;
+      if (after == null) {
+        restored = before == null || calendarsByName.putIfAbsent(name, before) == null;
+      } else if (before == null) {
+        restored = calendarsByName.remove(name, after);
+      } else {
+        restored = calendarsByName.replace(name, after, before);
+      }
+      if (restored) {
+        relabel(name, after, before);
+      } else {
+        changedElsewhere.add(name);
+      }
+    }
+    Map<TimezoneCalendar, Boolean> relisted = listedCalendars();
+    for (TimezoneCalendar calendar : rolledBack.namesLeft.values()) {
+      if (calendar != null && !relisted.containsKey(calendar)) {
+        rooms.forget(calendar);
+      }
+    }
+    // a calendar that a fork was promoted over lost its bookings, so they are booked again
+    for (TimezoneCalendar calendar : rolledBack.namesBefore.values()) {
+      if (calendar != null && relisted.containsKey(calendar) && !listed.containsKey(calendar)) {
+        synchronized (calendar) {
+          rooms.forget(calendar);
+          rooms.changed(calendar, calendar.days(), IntervalTree.EMPTY, calendar.events);
         }
-        calendarToChange.updateTimes(newTimeZone);
-        break;
+      }
+    }
+    currentCalendar = rolledBack.current;
+    if (!changedElsewhere.isEmpty()) {
+      throw new IllegalStateException("Changed by another session, so not rolled back: "
+              + String.join(", ", changedElsewhere));
+    }
+  }
+
+  /**
+   * Keeps the name a calendar is listed under up to date when a name moves from one calendar to
+   * another. A calendar that has been listed under another name since keeps that one.
+   */
+  private static void relabel(String name, TimezoneCalendar before, TimezoneCalendar after) {
+    if (before != null && name.equals(before.listedName)) {
+      before.listedName = null;
+    }
+    if (after != null) {
+      after.listedName = name;
+    }
+  }
+
+  private Map<TimezoneCalendar, Boolean> listedCalendars() {
+    Map<TimezoneCalendar, Boolean> listed = new IdentityHashMap<>();
+    for (TimezoneCalendar calendar : calendarsByName.values()) {
+      listed.put(calendar, true);
+    }
+    return listed;
+  }
+
+  /**
+   * Finds a name for a calendar to report it under: the one it has now, or else one it had
+   * when this session first renamed it.
+   */
+  private String nameOf(TimezoneCalendar calendar, Map<String, TimezoneCalendar> namesBefore) {
+    String name = calendar.listedName;
+    if (name != null) {
+      return name;
+    }
+    for (Map.Entry<String, TimezoneCalendar> entry : namesBefore.entrySet()) {
+      if (entry.getValue() == calendar) {
+        return entry.getKey();
+      }
+    }
+    return "an unnamed calendar";
+  }
 
-      default:
-        throw new IllegalArgumentException("Invalid property");
+  /**
+   * Makes a change to a calendar under its lock. In a transaction, the calendar is saved before
+   * this session first changes it, and the events the change leaves are noted, so a rollback
+   * can tell whether another session has changed it since.
+   *
+   * @param calendar the calendar to change
+   * @param change   the change
+   */
+  private void change(TimezoneCalendar calendar, Consumer<TimezoneCalendar> change) {
+    changeAndGet(calendar, changed -> {
+      change.accept(changed);
+      return null;
+    });
+  }
+
+  /**
+   * Makes a change to a calendar under its lock, as {@link #change} does, and returns what the
+   * change returns.
+   *
+   * @param calendar the calendar to change
+   * @param change   the change
+   * @param <T>      the type of the result
+   * @return the result of the change
+   */
+  private <T> T changeAndGet(TimezoneCalendar calendar, Function<TimezoneCalendar, T> change) {
+    synchronized (calendar) {
+      Transaction current = transaction;
+      if (current == null) {
+        return change.apply(calendar);
+      }
+      current.save(calendar);
+      try {
+        return change.apply(calendar);
+      } finally {
+        current.left.put(calendar, calendar.events);
+      }
     }
   }
 
+  /**
+   * Notes that this session bound a name to another calendar, or to none: the calendars learn
+   * the name they are listed under, and the transaction in progress, if there is one, records
+   * the binding.
+   */
+  private void rebound(String name, TimezoneCalendar before, TimezoneCalendar after) {
+    relabel(name, before, after);
+    if (transaction != null) {
+      transaction.bind(name, before, after);
+    }
+  }
+
+  @Override
+  public boolean inTransaction() {
+    return transaction != null;
+  }
+
   @Override
   public void useCalendar(String name) throws IllegalArgumentException {
     TimezoneCalendar calendar = calendarsByName.get(name);
@@ -117,37 +436,27 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     TimezoneCalendar targetCalendar = validateTargetCalendar(calendarName);
 
     // look for the event
-    List<Event> eventsByStartDate =
-            currentCalendar.eventsByStartDate.get(LocalDateTime.parse(originalDate));
-    if (eventsByStartDate == null || eventsByStartDate.isEmpty()) {
+    List<Event> eventsAtStart =
+            currentCalendar.events.startingAt(LocalDateTime.parse(originalDate));
+    if (eventsAtStart.isEmpty()) {
       throw new IllegalArgumentException("Event not found");
     }
 
-    Event eventToCopy = eventsByStartDate.stream()
+    Event eventToCopy = eventsAtStart.stream()
             .filter(e -> e.getSubject().equals(eventName))
             .findFirst()
             .orElseThrow(() -> new IllegalArgumentException("Event not found"));
 
-    // Convert times between timezones
-    LocalDateTime targetStartTime = LocalDateTime.parse(newDate)
-            .atZone(targetCalendar.timeZone.toZoneId())
-            .withZoneSameInstant(currentCalendar.timeZone.toZoneId())
-            .toLocalDateTime();
-
-    Duration duration = Duration.between(eventToCopy.getStartDateTime(),
-            eventToCopy.getEndDateTime());
-    LocalDateTime targetEndTime = targetStartTime.plus(duration);
-
-    // Convert back to target calendar's timezone
-    LocalDateTime finalStartTime = targetStartTime
-            .atZone(currentCalendar.timeZone.toZoneId())
-            .withZoneSameInstant(targetCalendar.timeZone.toZoneId())
-            .toLocalDateTime();
-
-    LocalDateTime finalEndTime = targetEndTime
-            .atZone(currentCalendar.timeZone.toZoneId())
-            .withZoneSameInstant(targetCalendar.timeZone.toZoneId())
-            .toLocalDateTime();
+    // the copy starts at the new time in the target's timezone, and lasts as long as the
+    // original really did, even if the clocks change during either of them
+    DayBoundaries sourceDays = currentCalendar.days();
+    DayBoundaries targetDays = targetCalendar.days();
+    LocalDateTime finalStartTime = targetDays.resolve(LocalDateTime.parse(newDate));
+    long seconds = sourceDays.toEpochSecond(eventToCopy.getEndDateTime())
+            - sourceDays.toEpochSecond(eventToCopy.getStartDateTime());
+    LocalDateTime finalEndTime = targetDays.toLocal(
+            targetDays.toEpochSecond(finalStartTime) + seconds,
+            eventToCopy.getEndDateTime().getNano());
 
     Event newEvent = Event.getBuilder(eventToCopy.getSubject(), finalStartTime)
             .endDateTime(finalEndTime)
@@ -157,7 +466,7 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
             .seriesId(eventToCopy.getSeriesId())
             .build();
 
-    targetCalendar.createEvent(newEvent);
+    change(targetCalendar, calendar -> calendar.createEvent(newEvent));
   }
 
   @Override
@@ -174,37 +483,11 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
       throw new IllegalArgumentException("No events found on this day");
     }
 
-    // Calculate the time difference between dates for offset
-    Duration dateDiff = Duration.between(
-            LocalDateTime.parse(date + "T00:00"),
-            LocalDateTime.parse(newDate + "T00:00"));
-
-    for (Event event : eventsToday) {
-      // Convert event times to target calendar's timezone
-      LocalDateTime sourceStart = event.getStartDateTime()
-              .atZone(currentCalendar.timeZone.toZoneId())
-              .withZoneSameInstant(targetCalendar.timeZone.toZoneId())
-              .toLocalDateTime();
-
-      LocalDateTime sourceEnd = event.getEndDateTime()
-              .atZone(currentCalendar.timeZone.toZoneId())
-              .withZoneSameInstant(targetCalendar.timeZone.toZoneId())
-              .toLocalDateTime();
+    List<Event> copies = shiftedCopies(eventsToday, targetCalendar,
+            ChronoUnit.DAYS.between(LocalDate.parse(date), LocalDate.parse(newDate)));
 
-      // Apply the date difference while preserving the time
-      LocalDateTime targetStart = sourceStart.plus(dateDiff);
-      LocalDateTime targetEnd = sourceEnd.plus(dateDiff);
-
-      Event newEvent = Event.getBuilder(event.getSubject(), targetStart)
-              .endDateTime(targetEnd)
-              .description(event.getDescription())
-              .location(event.getLocation())
-              .status(event.getStatus())
-              .seriesId(event.getSeriesId())
-              .build();
-
-      targetCalendar.createEvent(newEvent);
-    }
+    // add the copies as one change so a rejected copy leaves the target unchanged
+    change(targetCalendar, calendar -> calendar.createEvents(copies));
   }
 
   @Override
@@ -222,37 +505,166 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
       throw new IllegalArgumentException("No events found in this range of times");
     }
 
-    // Calculate the time difference between start dates for offset
-    Duration dateDiff = Duration.between(
-            LocalDateTime.parse(startDate + "T00:00"),
-            LocalDateTime.parse(newStartDate + "T00:00"));
+    List<Event> copies = shiftedCopies(eventsInRange, targetCalendar,
+            ChronoUnit.DAYS.between(LocalDate.parse(startDate), LocalDate.parse(newStartDate)));
 
-    for (Event event : eventsInRange) {
-      // Convert event times to target calendar's timezone
-      LocalDateTime sourceStart = event.getStartDateTime()
-              .atZone(currentCalendar.timeZone.toZoneId())
-              .withZoneSameInstant(targetCalendar.timeZone.toZoneId())
-              .toLocalDateTime();
-
-      LocalDateTime sourceEnd = event.getEndDateTime()
-              .atZone(currentCalendar.timeZone.toZoneId())
-              .withZoneSameInstant(targetCalendar.timeZone.toZoneId())
-              .toLocalDateTime();
-
-      // Apply the date difference while preserving the time
-      LocalDateTime targetStart = sourceStart.plus(dateDiff);
-      LocalDateTime targetEnd = sourceEnd.plus(dateDiff);
+    // add the copies as one change so a rejected copy leaves the target unchanged
+    change(targetCalendar, calendar -> calendar.createEvents(copies));
+  }
 
-      Event newEvent = Event.getBuilder(event.getSubject(), targetStart)
-              .endDateTime(targetEnd)
+  /**
+   * Copies events of the current calendar into another calendar's timezone, moved by a number of
+   * days. Each time keeps its instant in the move to the other timezone, and then its local time
+   * in the move by days, unless the clocks skip that time on the new day, when it moves forward
+   * with them.
+   *
+   * @param events the events to copy
+   * @param target the calendar the copies are for
+   * @param days   how many days to move the copies by
+   * @return the copies, without ids
+   */
+  private List<Event> shiftedCopies(List<Event> events, TimezoneCalendar target, long days) {
+    DayBoundaries sourceDays = currentCalendar.days();
+    DayBoundaries targetDays = target.days();
+    List<Event> copies = new ArrayList<>(events.size());
+    for (Event event : events) {
+      LocalDateTime start = sourceDays.convert(event.getStartDateTime(), targetDays);
+      LocalDateTime end = sourceDays.convert(event.getEndDateTime(), targetDays);
+      copies.add(Event.getBuilder(event.getSubject(), targetDays.resolve(start.plusDays(days)))
+              .endDateTime(targetDays.resolve(end.plusDays(days)))
               .description(event.getDescription())
               .location(event.getLocation())
               .status(event.getStatus())
               .seriesId(event.getSeriesId())
-              .build();
+              .build());
+    }
+    return copies;
+  }
+
+  @Override
+  public int mergeCalendar(String sourceName, String targetName, String policy)
+          throws IllegalArgumentException {
+    TimezoneCalendar source = validateTargetCalendar(sourceName);
+    TimezoneCalendar target = validateTargetCalendar(targetName);
+    if (source == target) {
+      throw new IllegalArgumentException("Cannot merge a calendar into itself");
+    }
+    MergePolicy mergePolicy = MergePolicy.fromString(policy);
+
+    IntervalTree sourceEvents;
+    DayBoundaries sourceDays;
+    synchronized (source) {
+      sourceEvents = source.events;
+      sourceDays = source.days();
+    }
+    // the target's timezone only changes under its lock, so the events are converted under it
+    synchronized (target) {
+      DayBoundaries targetDays = target.days();
+      List<Event> incoming = new ArrayList<>(sourceEvents.size());
+      boolean sorted = true;
+      for (Event event : sourceEvents.all()) {
+        Event converted = Event.getBuilder(event.getSubject(),
+                        sourceDays.convert(event.getStartDateTime(), targetDays))
+                .endDateTime(sourceDays.convert(event.getEndDateTime(), targetDays))
+                .description(event.getDescription())
+                .location(event.getLocation())
+                .status(event.getStatus())
+                .seriesId(event.getSeriesId())
+                .build();
+        if (!incoming.isEmpty() && converted.getStartDateTime()
+                .isBefore(incoming.get(incoming.size() - 1).getStartDateTime())) {
+          sorted = false;
+        }
+        incoming.add(converted);
+      }
+      // daylight saving gaps can swap a few neighbours; sorting a nearly sorted list is linear
+      if (!sorted) {
+        incoming.sort(Comparator.comparing(Event::getStartDateTime));
+      }
+      return changeAndGet(target,
+              calendar -> calendar.mergeEvents(incoming, mergePolicy, sourceName));
+    }
+  }
+
+  /**
+   * Forks a calendar. Making the fork takes time in proportion to the days with events and the
+   * rooms in use, since the fork shares the origin's room bookings, but no event is copied.
+   *
+   * @param name     the calendar to fork
+   * @param forkName the name of the fork
+   * @throws IllegalArgumentException if the calendar is not found or the name is taken
+   */
+  @Override
+  public void forkCalendar(String name, String forkName) throws IllegalArgumentException {
+    TimezoneCalendar origin = validateTargetCalendar(name);
+    TimezoneCalendar fork;
+    synchronized (origin) {
+      fork = origin.fork(view);
+      // the origin's bookings are those of the events the fork starts from while it is locked
+      rooms.fork(origin, fork);
+    }
+    fork.observe(observer(feed, rooms));
+    fork.listedName = forkName;
+    if (calendarsByName.putIfAbsent(forkName, fork) != null) {
+      rooms.forget(fork);
+      throw new IllegalArgumentException("A calendar with this name already exists");
+    }
+    rebound(forkName, null, fork);
+    feed.publish(List.of(CalendarChange.ofCalendar(CalendarChange.Type.CALENDAR_CREATED,
+            forkName, null, fork.timeZone.getID())));
+  }
 
-      targetCalendar.createEvent(newEvent);
+  /**
+   * Promotes a fork. The original is swapped out for the fork in one step while it is locked,
+   * so no change to it can slip in between the check and the swap. Listeners are told about
+   * the events that differ between the two, which are found without looking at what they still
+   * share. Other sessions that were using the original need to select it again.
+   *
+   * @param forkName the fork
+   * @return the name the fork now has
+   * @throws IllegalArgumentException if the calendar is not found or is not a fork, or the
+   *                                  original is gone or has changed since the fork was made
+   */
+  @Override
+  public String promoteCalendar(String forkName) throws IllegalArgumentException {
+    TimezoneCalendar fork = validateTargetCalendar(forkName);
+    TimezoneCalendar origin = fork.forkedFrom;
+    if (origin == null) {
+      throw new IllegalArgumentException("Calendar '" + forkName + "' is not a fork");
+    }
+    String name = origin.listedName;
+    if (name == null) {
+      throw new IllegalArgumentException("The calendar '" + forkName + "' was forked from "
+              + "no longer exists");
     }
+
+    IntervalTree before;
+    synchronized (origin) {
+      if (origin.events != fork.forkedAt) {
+        throw new IllegalArgumentException("Calendar '" + name + "' has changed since '"
+                + forkName + "' was forked from it");
+      }
+      if (!calendarsByName.replace(name, origin, fork)) {
+        throw new IllegalArgumentException("Calendar '" + name + "' has changed since '"
+                + forkName + "' was forked from it");
+      }
+      calendarsByName.remove(forkName, fork);
+      before = origin.events;
+    }
+    rebound(name, origin, fork);
+    rebound(forkName, fork, null);
+    rooms.forget(origin);
+    if (currentCalendar == origin) {
+      currentCalendar = fork;
+    }
+    if (!feed.isEmpty()) {
+      String calendarName = name;
+      List<CalendarChange> changes = new ArrayList<>();
+      fork.events.diff(before, (id, oldEvent, newEvent) ->
+              changes.add(CalendarChange.ofEvent(calendarName, oldEvent, newEvent)));
+      feed.publish(changes);
+    }
+    return name;
   }
 
   @Override
@@ -276,7 +688,67 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     if (currentCalendar == null) {
       throw new IllegalStateException("No calendar selected");
     }
-    currentCalendar.createEvent(event);
+    change(currentCalendar, calendar -> calendar.createEvent(event));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param id the id of the event
+   * @return the event with the given id
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public Event getEventById(long id) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return currentCalendar.getEventById(id);
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param id       the id of the event to be changed
+   * @param property the property to be changed
+   * @param newValue the new value of the property
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public void editEventById(long id, String property, String newValue)
+          throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    change(currentCalendar, calendar -> calendar.editEventById(id, property, newValue));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param policy the conflict policy
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public void setConflictPolicy(ConflictPolicy policy) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    change(currentCalendar, calendar -> calendar.setConflictPolicy(policy));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @return the conflict policy of the calendar in use
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public ConflictPolicy getConflictPolicy() throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return currentCalendar.getConflictPolicy();
   }
 
   /**
@@ -293,7 +765,7 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     if (currentCalendar == null) {
       throw new IllegalStateException("No calendar selected");
     }
-    currentCalendar.createEventSeriesNTimes(event, weekdays, n);
+    change(currentCalendar, calendar -> calendar.createEventSeriesNTimes(event, weekdays, n));
   }
 
   /**
@@ -310,7 +782,21 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     if (currentCalendar == null) {
       throw new IllegalStateException("No calendar selected");
     }
-    currentCalendar.createEventSeriesUntil(event, weekdays, until);
+    change(currentCalendar, calendar -> calendar.createEventSeriesUntil(event, weekdays, until));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param series the series to be created, in order
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public void createEventSeries(List<EventSeries> series) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    change(currentCalendar, calendar -> calendar.createEventSeries(series));
   }
 
   /**
@@ -329,7 +815,8 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     if (currentCalendar == null) {
       throw new IllegalStateException("No calendar selected");
     }
-    currentCalendar.editEvent(property, subject, startDateTime, endDateTime, newValue);
+    change(currentCalendar, calendar ->
+            calendar.editEvent(property, subject, startDateTime, endDateTime, newValue));
   }
 
   /**
@@ -347,7 +834,8 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     if (currentCalendar == null) {
       throw new IllegalStateException("No calendar selected");
     }
-    currentCalendar.editEvents(property, subject, startDateTime, newValue);
+    change(currentCalendar,
+            calendar -> calendar.editEvents(property, subject, startDateTime, newValue));
   }
 
   /**
@@ -365,7 +853,71 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     if (currentCalendar == null) {
       throw new IllegalStateException("No calendar selected");
     }
-    currentCalendar.editEventSeries(property, subject, startDateTime, newValue);
+    change(currentCalendar,
+            calendar -> calendar.editEventSeries(property, subject, startDateTime, newValue));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param subject       the subject of the event to be deleted
+   * @param startDateTime the start date and time of the event to be deleted
+   * @param endDateTime   the end date and time of the event to be deleted
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public void deleteEvent(String subject, String startDateTime, String endDateTime)
+          throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    change(currentCalendar, calendar -> calendar.deleteEvent(subject, startDateTime, endDateTime));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param subject       the subject of the event
+   * @param startDateTime the start date and time of the event
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public void deleteEvents(String subject, String startDateTime) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    change(currentCalendar, calendar -> calendar.deleteEvents(subject, startDateTime));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param subject       the subject of the event
+   * @param startDateTime the start date and time of the event
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public void deleteSeries(String subject, String startDateTime) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    change(currentCalendar, calendar -> calendar.deleteSeries(subject, startDateTime));
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return the number of events deleted
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public int deleteRange(String time1, String time2) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return changeAndGet(currentCalendar, calendar -> calendar.deleteRange(time1, time2));
   }
 
   /**
@@ -399,6 +951,265 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     return currentCalendar.rangeSchedule(time1, time2);
   }
 
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return the number of events in this range
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public int countEvents(String time1, String time2) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return currentCalendar.countEvents(time1, time2);
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param time1  starting date and time
+   * @param time2  ending date and time
+   * @param offset the index of the first event to return
+   * @param limit  the largest number of events to return
+   * @return the formatted lines of the page
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public List<String> schedulePage(String time1, String time2, int offset, int limit)
+          throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return currentCalendar.schedulePage(time1, time2, offset, limit);
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @param month the month, formatted as yyyy-MM
+   * @return the number of events on each day of the month
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public int[] eventCountsByDay(String month) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return currentCalendar.eventCountsByDay(month);
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @return a snapshot of the calendar in use
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public CalendarSnapshot snapshot() throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return currentCalendar.snapshot();
+  }
+
+  @Override
+  public String searchEvents(String query, String time1, String time2)
+          throws IllegalArgumentException {
+    List<String> names = new ArrayList<>(calendarsByName.keySet());
+    Collections.sort(names);
+    StringBuilder results = new StringBuilder();
+    for (String name : names) {
+      TimezoneCalendar calendar = calendarsByName.get(name);
+      List<Event> found = calendar == null ? List.of()
+              : calendar.snapshot().search(query, time1, time2);
+      if (!found.isEmpty()) {
+        results.append(name).append(":\n").append(CalendarSnapshot.format(found));
+      }
+    }
+    return results.toString();
+  }
+
+  @Override
+  public String findEvents(String query, String time1, String time2)
+          throws IllegalArgumentException, IllegalStateException {
+    EventQuery compiled = EventQuery.parse(query);
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return CalendarSnapshot.format(currentCalendar.snapshot().find(compiled, time1, time2));
+  }
+
+  /**
+   * Checks whether any calendar has an event in a room at a given time. The room index holds
+   * every calendar's bookings in UTC, so only the bookings of that room are looked at.
+   *
+   * @param location the room, as events name it in their location
+   * @param time     the date and time in the current calendar's timezone
+   * @return true if no event in the room is in progress at the time
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public boolean isRoomFree(String location, String time) throws IllegalStateException {
+    Instant instant = toInstant(time);
+    return rooms.isFree(location, instant, instant.plusNanos(1));
+  }
+
+  /**
+   * Finds the rooms that have events in some calendar, but none between two times.
+   *
+   * @param time1 starting date and time in the current calendar's timezone
+   * @param time2 ending date and time in the current calendar's timezone
+   * @return the free rooms in order
+   * @throws IllegalArgumentException if the end is before the start
+   * @throws IllegalStateException    if no calendar is selected
+   */
+  @Override
+  public List<String> freeRooms(String time1, String time2)
+          throws IllegalArgumentException, IllegalStateException {
+    Instant start = toInstant(time1);
+    Instant end = toInstant(time2);
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("End time cannot be before start time");
+    }
+    return rooms.freeRooms(start, end.equals(start) ? end.plusNanos(1) : end);
+  }
+
+  private Instant toInstant(String time) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    LocalDateTime local = LocalDateTime.parse(time);
+    return Instant.ofEpochSecond(currentCalendar.days().toEpochSecond(local), local.getNano());
+  }
+
+  @Override
+  public List<CalendarUsage> usage(String date1, String date2) throws IllegalArgumentException {
+    LocalDate firstDay = LocalDate.parse(date1);
+    LocalDate lastDay = LocalDate.parse(date2);
+    if (lastDay.isBefore(firstDay)) {
+      throw new IllegalArgumentException("End date cannot be before start date");
+    }
+    // take every snapshot first so the calendars are measured as of the same moment
+    Map<String, CalendarSnapshot> snapshots = new TreeMap<>();
+    Map<String, DayBoundaries> zones = new HashMap<>();
+    calendarsByName.forEach((name, calendar) -> {
+      synchronized (calendar) {
+        snapshots.put(name, calendar.snapshot());
+        zones.put(name, calendar.days());
+      }
+    });
+    return snapshots.entrySet().parallelStream()
+            .map(entry -> entry.getValue().usage(entry.getKey(), firstDay, lastDay,
+                    zones.get(entry.getKey())))
+            .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<CalendarMemory> memory() {
+    return memory(calendarsByName);
+  }
+
+  /**
+   * Estimates the memory of each calendar. A fork whose original is still listed reports what it
+   * shares with it, so the own bytes of the calendars add up to what they take together.
+   */
+  private static List<CalendarMemory> memory(Map<String, TimezoneCalendar> calendarsByName) {
+    Map<String, TimezoneCalendar> byName = new TreeMap<>(calendarsByName);
+    Map<TimezoneCalendar, Boolean> listed = new IdentityHashMap<>();
+    for (TimezoneCalendar calendar : byName.values()) {
+      listed.put(calendar, true);
+    }
+    List<CalendarMemory> memory = new ArrayList<>();
+    byName.forEach((name, calendar) -> memory.add(listed.containsKey(calendar.forkedFrom)
+            ? calendar.memory(name, calendar.forkedFrom) : calendar.memory(name)));
+    return memory;
+  }
+
+  /**
+   * Makes the memory estimates of these calendars, and of every session that shares them,
+   * readable through JMX under the name "model:type=CalendarMemory".
+   *
+   * @return the name the bean was registered under, for unregistering it
+   * @throws IllegalStateException if a bean is already registered under the name
+   */
+  public ObjectName registerMemoryBean() throws IllegalStateException {
+    try {
+      ObjectName name = new ObjectName("model:type=CalendarMemory");
+      ManagementFactory.getPlatformMBeanServer().registerMBean(
+              new MemoryBean(calendarsByName), name);
+      return name;
+    } catch (InstanceAlreadyExistsException e) {
+      throw new IllegalStateException("A memory bean is already registered");
+    } catch (JMException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class, first giving the calendar an
+   * archive if it has none.
+   *
+   * @param time the date and time before which events are archived
+   * @return the number of events archived
+   * @throws IllegalStateException if no calendar is selected
+   * @throws UncheckedIOException  if the archive cannot be written
+   */
+  @Override
+  public int archiveEvents(String time) throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return changeAndGet(currentCalendar, calendar -> {
+      if (calendar.archive == null) {
+        calendar.enableArchive(archiveRoot().resolve(UUID.randomUUID().toString()),
+                ARCHIVE_CACHE_BLOCKS);
+      }
+      return calendar.archiveBefore(LocalDateTime.parse(time));
+    });
+  }
+
+  private Path archiveRoot() {
+    if (archiveDirectory == null) {
+      try {
+        archiveDirectory = Files.createTempDirectory("calendar-archive");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return archiveDirectory;
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @return false if there was nothing to undo
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public boolean undo() throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return changeAndGet(currentCalendar, TimezoneCalendar::undo);
+  }
+
+  /**
+   * Delegates this function to the prexisting SingleCalendar class.
+   *
+   * @return false if there was nothing to redo
+   * @throws IllegalStateException if no calendar is selected
+   */
+  @Override
+  public boolean redo() throws IllegalStateException {
+    if (currentCalendar == null) {
+      throw new IllegalStateException("No calendar selected");
+    }
+    return changeAndGet(currentCalendar, TimezoneCalendar::redo);
+  }
+
   /**
    * Delegates this function to the prexisting SingleCalendar class.
    *
@@ -414,5 +1225,80 @@ public class MultipleCalendars extends TimezoneCalendar implements Calendars {
     return currentCalendar.isFree(date);
   }
 
+  /**
+   * What a session changed in a transaction, for a rollback to put back: the state of each
+   * calendar before the session first changed it and the events its last change left, what each
+   * name the session bound again was bound to before and after, and the calendar in use when
+   * the transaction began. A name that was not bound is mapped to null.
+   */
+  private static final class Transaction {
+    private final TimezoneCalendar current;
+    private final Map<TimezoneCalendar, SingleCalendar.Savepoint> savepoints =
+            new IdentityHashMap<>();
+    private final Map<TimezoneCalendar, TimeZone> timeZones = new IdentityHashMap<>();
+    private final Map<TimezoneCalendar, IntervalTree> left = new IdentityHashMap<>();
+    private final Map<String, TimezoneCalendar> namesBefore = new HashMap<>();
+    private final Map<String, TimezoneCalendar> namesLeft = new HashMap<>();
+
+    private Transaction(TimezoneCalendar current) {
+      this.current = current;
+    }
+
+    /**
+     * Saves a calendar the first time the session changes it. The caller holds its lock.
+     */
+    private void save(TimezoneCalendar calendar) {
+      if (!savepoints.containsKey(calendar)) {
+        savepoints.put(calendar, calendar.savepoint());
+        timeZones.put(calendar, calendar.timeZone);
+      }
+    }
+
+    private void bind(String name, TimezoneCalendar before, TimezoneCalendar after) {
+      if (!namesBefore.containsKey(name)) {
+        namesBefore.put(name, before);
+      }
+      namesLeft.put(name, after);
+    }
+  }
+
+  /**
+   * Sums the memory estimates of the calendars for JMX each time it is asked.
+   */
+  private static final class MemoryBean implements CalendarMemoryMXBean {
+    private final Map<String, TimezoneCalendar> calendarsByName;
 
-}
\ No newline at end of file
+    private MemoryBean(Map<String, TimezoneCalendar> calendarsByName) {
+      this.calendarsByName = calendarsByName;
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+      return memory(calendarsByName).stream().mapToLong(CalendarMemory::getOwnBytes).sum();
+    }
+
+    @Override
+    public Map<String, Long> getEstimatedBytesByCalendar() {
+      Map<String, Long> bytes = new TreeMap<>();
+      for (CalendarMemory calendar : memory(calendarsByName)) {
+        bytes.put(calendar.getName(), calendar.getTotalBytes());
+      }
+      return bytes;
+    }
+
+    @Override
+    public int getEventCount() {
+      return memory(calendarsByName).stream().mapToInt(CalendarMemory::getEvents).sum();
+    }
+
+    @Override
+    public int getOccurrenceCount() {
+      return memory(calendarsByName).stream().mapToInt(CalendarMemory::getOccurrences).sum();
+    }
+
+    @Override
+    public int getSeriesCount() {
+      return memory(calendarsByName).stream().mapToInt(CalendarMemory::getSeries).sum();
+    }
+  }
+}
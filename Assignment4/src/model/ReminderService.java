@@ -0,0 +1,246 @@
+package model;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers a reminder a fixed time before each event starts, across every calendar of a
+ * {@link MultipleCalendars}. Reminders wait in a {@link TimingWheel} turned by one timer task,
+ * and only events starting within the next hour or so are loaded into it, read in start order
+ * from each calendar's tree as the wheel turns.
+ *
+ * <p>Nothing has to tell the service about changes. Each tick it checks whether a calendar's
+ * tree has been replaced, and if so reads the loaded window again so that new, moved and copied
+ * events are picked up. A reminder is checked against the calendar when it falls due and is
+ * dropped if its event was removed or no longer starts at the same instant, which covers edits,
+ * undo and timezone changes without ever searching the wheel.
+ */
+public final class ReminderService implements Closeable {
+  private static final long TICK_MILLIS = 1000;
+  private static final long HORIZON_MILLIS = Duration.ofHours(1).toMillis();
+
+  private final MultipleCalendars calendars;
+  private final long leadMillis;
+  private final ReminderSink sink;
+  private final Clock clock;
+  private final TimingWheel<Reminder> wheel;
+  // forgets reminders once their events have started, so they are not loaded again
+  private final TimingWheel<Reminder> expiry;
+  // the tree each calendar had when it was last read
+  private final Map<TimezoneCalendar, IntervalTree> seen;
+  private final Set<Reminder> scheduled;
+  private long loadedUntil;
+  private ScheduledExecutorService timer;
+
+  /**
+   * Creates a service that runs on the system clock.
+   *
+   * @param calendars the calendars to remind about
+   * @param lead      how long before an event starts its reminder is delivered
+   * @param sink      receives the reminders
+   * @throws IllegalArgumentException if an argument is null or the lead is negative
+   */
+  public ReminderService(MultipleCalendars calendars, Duration lead, ReminderSink sink)
+          throws IllegalArgumentException {
+    this(calendars, lead, sink, Clock.systemUTC());
+  }
+
+  /**
+   * Creates a service that runs on the given clock.
+   *
+   * @param calendars the calendars to remind about
+   * @param lead      how long before an event starts its reminder is delivered
+   * @param sink      receives the reminders
+   * @param clock     the clock that decides when reminders are due
+   * @throws IllegalArgumentException if an argument is null or the lead is negative
+   */
+  public ReminderService(MultipleCalendars calendars, Duration lead, ReminderSink sink,
+                         Clock clock) throws IllegalArgumentException {
+    if (calendars == null || lead == null || sink == null || clock == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    if (lead.isNegative()) {
+      throw new IllegalArgumentException("Lead time cannot be negative");
+    }
+    this.calendars = calendars;
+    this.leadMillis = lead.toMillis();
+    this.sink = sink;
+    this.clock = clock;
+    this.wheel = new TimingWheel<>(TICK_MILLIS, clock.millis());
+    this.expiry = new TimingWheel<>(TICK_MILLIS, clock.millis());
+    this.seen = new IdentityHashMap<>();
+    this.scheduled = new HashSet<>();
+  }
+
+  /**
+   * Starts delivering reminders on a background thread, checking once a second.
+   */
+  public synchronized void start() {
+    if (timer != null) {
+      return;
+    }
+    timer = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "calendar-reminders");
+      thread.setDaemon(true);
+      return thread;
+    });
+    timer.scheduleAtFixedRate(() -> {
+      try {
+        tick();
+      } catch (RuntimeException e) {
+        // keep the timer alive; the next tick tries again
+      }
+    }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Brings the loaded window up to date and delivers every reminder that is due by the clock's
+   * current time. Called by the timer once started, and can be called directly to drive the
+   * service by hand.
+   */
+  public synchronized void tick() {
+    long now = clock.millis();
+    long until = now + leadMillis + HORIZON_MILLIS;
+    for (TimezoneCalendar calendar : calendars.calendarMap().values()) {
+      IntervalTree tree;
+      ZoneId zone;
+      // the timezone and the events change together under the calendar's lock
+      synchronized (calendar) {
+        tree = calendar.events;
+        zone = calendar.timeZone.toZoneId();
+      }
+      // a replaced tree may have changes anywhere in the window, so read all of it again
+      long from = seen.get(calendar) == tree ? Math.max(now, loadedUntil) : now;
+      load(calendar, tree, zone, from, until);
+      seen.put(calendar, tree);
+    }
+    loadedUntil = until;
+
+    for (Reminder reminder : wheel.advance(now)) {
+      deliver(reminder);
+    }
+    for (Reminder reminder : expiry.advance(now)) {
+      scheduled.remove(reminder);
+    }
+  }
+
+  /**
+   * Gets the number of reminders waiting to be delivered, including ones that will turn out to
+   * be out of date.
+   *
+   * @return the number of reminders
+   */
+  public synchronized int pending() {
+    return wheel.size();
+  }
+
+  /**
+   * Stops delivering reminders.
+   */
+  @Override
+  public synchronized void close() {
+    if (timer != null) {
+      timer.shutdownNow();
+      timer = null;
+    }
+  }
+
+  /**
+   * Schedules a reminder for every event of a calendar that starts in the given span and does
+   * not have one yet.
+   */
+  private void load(TimezoneCalendar calendar, IntervalTree tree, ZoneId zone, long from,
+                    long until) {
+    if (from >= until) {
+      return;
+    }
+    // widened by an hour so events in a repeated daylight saving hour are not missed
+    LocalDateTime localFrom = LocalDateTime.ofInstant(Instant.ofEpochMilli(from), zone)
+            .minusHours(1);
+    LocalDateTime localUntil = LocalDateTime.ofInstant(Instant.ofEpochMilli(until), zone)
+            .plusHours(1);
+    for (Event event : tree.startingBetween(localFrom, localUntil)) {
+      long start = startOf(event, zone);
+      if (start < from || start >= until) {
+        continue;
+      }
+      Reminder reminder = new Reminder(calendar, event.getId(), start);
+      if (scheduled.add(reminder)) {
+        wheel.add(start - leadMillis, reminder);
+        expiry.add(start + TICK_MILLIS, reminder);
+      }
+    }
+  }
+
+  /**
+   * Delivers a reminder if its event still starts when the reminder was scheduled for.
+   */
+  private void deliver(Reminder reminder) {
+    IntervalTree tree;
+    ZoneId zone;
+    synchronized (reminder.calendar) {
+      tree = reminder.calendar.events;
+      zone = reminder.calendar.timeZone.toZoneId();
+    }
+    Event event = tree.get(reminder.id);
+    if (event == null || startOf(event, zone) != reminder.start) {
+      return;
+    }
+    String name = reminder.calendar.listedName;
+    if (name == null) {
+      return;
+    }
+    try {
+      sink.remind(name, event, ZonedDateTime.ofLocal(event.getStartDateTime(), zone, null));
+    } catch (RuntimeException e) {
+      // a failing sink must not stop the other reminders
+    }
+  }
+
+  private static long startOf(Event event, ZoneId zone) {
+    return ZonedDateTime.ofLocal(event.getStartDateTime(), zone, null).toInstant()
+            .toEpochMilli();
+  }
+
+  /**
+   * A reminder for an event of a calendar that starts at a given instant.
+   */
+  private static final class Reminder {
+    private final TimezoneCalendar calendar;
+    private final long id;
+    private final long start;
+
+    private Reminder(TimezoneCalendar calendar, long id, long start) {
+      this.calendar = calendar;
+      this.id = id;
+      this.start = start;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Reminder)) {
+        return false;
+      }
+      Reminder reminder = (Reminder) other;
+      return calendar == reminder.calendar && id == reminder.id && start == reminder.start;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(calendar), id, start);
+    }
+  }
+}
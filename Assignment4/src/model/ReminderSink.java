@@ -0,0 +1,32 @@
+package model;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import view.View;
+
+/**
+ * Receives the reminders a {@link ReminderService} delivers.
+ */
+public interface ReminderSink {
+  /**
+   * Delivers a reminder for an upcoming event.
+   *
+   * @param calendarName the name of the calendar the event is in
+   * @param event        the event as it is now
+   * @param start        when the event starts, in its calendar's timezone
+   */
+  void remind(String calendarName, Event event, ZonedDateTime start);
+
+  /**
+   * Gets a sink that shows reminders as messages on a view.
+   *
+   * @param view the view
+   * @return the sink
+   */
+  static ReminderSink toView(View view) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    return (calendarName, event, start) -> view.displayMessage("Reminder: " + event.getSubject()
+            + " (" + calendarName + ") starts at " + start.format(formatter));
+  }
+}
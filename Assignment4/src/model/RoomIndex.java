@@ -0,0 +1,217 @@
+package model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * When each room is booked, across every calendar, where an event's location names its room.
+ * Bookings are kept in UTC, so events from calendars in different timezones can be compared,
+ * and each room has the bookings of every calendar that uses it in an interval tree per
+ * calendar, so a question about one room never looks at the events of another, and an overlap
+ * is found with one lookup in each tree however long the bookings are.
+ *
+ * <p>The index is kept up to date from the events that differ between each version of a
+ * calendar and the next. A booking remembers the instants it was made for, so an event can be
+ * taken out even after its calendar has moved to another timezone. Rooms are matched without
+ * regard to case or surrounding spaces.
+ *
+ * <p>Calendars report changes while locked, and different calendars may do so at the same time,
+ * so the index is synchronized.
+ */
+final class RoomIndex {
+  private final Map<String, Room> rooms;
+  // the booking of every event of a calendar that names a room, by id
+  private final Map<SingleCalendar, EventIdIndex> byCalendar;
+
+  RoomIndex() {
+    this.rooms = new HashMap<>();
+    this.byCalendar = new IdentityHashMap<>();
+  }
+
+  /**
+   * Updates the bookings of a calendar from the events that differ between two versions.
+   *
+   * @param calendar the calendar
+   * @param zone     the day boundaries of the calendar's timezone for the new version
+   * @param before   the events before the change
+   * @param after    the events after the change
+   */
+  synchronized void changed(SingleCalendar calendar, DayBoundaries zone, IntervalTree before,
+                            IntervalTree after) {
+    EventIdIndex[] bookings = {byCalendar.getOrDefault(calendar, EventIdIndex.EMPTY)};
+    after.diff(before, (id, old, updated) -> {
+      Event booking = bookings[0].get(id);
+      if (booking != null) {
+        bookings[0] = bookings[0].remove(id);
+        String room = key(booking.getLocation());
+        if (rooms.get(room).remove(calendar, booking)) {
+          rooms.remove(room);
+        }
+      }
+      String room = updated == null ? null : key(updated.getLocation());
+      if (room != null) {
+        booking = Event.getBuilder(updated.getSubject(),
+                        toUtc(updated.getStartDateTime(), zone))
+                .endDateTime(toUtc(updated.getEndDateTime(), zone))
+                .location(updated.getLocation())
+                .build()
+                .stored(id, false);
+        bookings[0] = bookings[0].put(id, booking);
+        rooms.computeIfAbsent(room, key -> new Room(updated.getLocation().trim()))
+                .add(calendar, booking);
+      }
+    });
+    if (bookings[0].size() == 0) {
+      byCalendar.remove(calendar);
+    } else {
+      byCalendar.put(calendar, bookings[0]);
+    }
+  }
+
+  /**
+   * Books a new fork of a calendar for the same events as the calendar. The bookings are
+   * immutable, so the fork shares them and this costs the same however many events there are;
+   * each side then changes its own. The calendar must be locked, so its bookings are those of
+   * the events the fork starts from.
+   *
+   * @param origin the calendar that was forked
+   * @param fork   the fork, which has no bookings yet
+   */
+  synchronized void fork(SingleCalendar origin, SingleCalendar fork) {
+    EventIdIndex bookings = byCalendar.get(origin);
+    if (bookings == null) {
+      return;
+    }
+    byCalendar.put(fork, bookings);
+    for (Room room : rooms.values()) {
+      room.fork(origin, fork);
+    }
+  }
+
+  /**
+   * Drops every booking of a calendar, such as one that was rolled back out of existence.
+   *
+   * @param calendar the calendar
+   */
+  synchronized void forget(SingleCalendar calendar) {
+    if (byCalendar.remove(calendar) == null) {
+      return;
+    }
+    rooms.values().removeIf(room -> room.forget(calendar));
+  }
+
+  /**
+   * Checks whether a room has no booking that overlaps a span.
+   *
+   * @param location the room
+   * @param start    the start of the span
+   * @param end      the end of the span, after the start; an instant is checked by giving the
+   *                 next nanosecond
+   * @return true if the room is free for the whole span
+   */
+  synchronized boolean isFree(String location, Instant start, Instant end) {
+    Room room = rooms.get(key(location));
+    return room == null || !room.overlaps(start, end);
+  }
+
+  /**
+   * Finds every room that has bookings, but none overlapping a span.
+   *
+   * @param start the start of the span
+   * @param end   the end of the span
+   * @return the rooms, as their events name them, in order
+   */
+  synchronized List<String> freeRooms(Instant start, Instant end) {
+    List<String> free = new ArrayList<>();
+    for (Room room : new TreeMap<>(rooms).values()) {
+      if (!room.overlaps(start, end)) {
+        free.add(room.name);
+      }
+    }
+    return free;
+  }
+
+  private static String key(String location) {
+    if (location == null || location.trim().isEmpty()) {
+      return null;
+    }
+    return location.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static LocalDateTime toUtc(LocalDateTime time, DayBoundaries zone) {
+    return LocalDateTime.ofEpochSecond(zone.toEpochSecond(time), time.getNano(), ZoneOffset.UTC);
+  }
+
+  private static LocalDateTime toUtc(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+  }
+
+  /**
+   * The bookings of one room, in a tree for each calendar that has any, with the times in UTC.
+   */
+  private static final class Room {
+    private final String name;
+    private final Map<SingleCalendar, IntervalTree> schedules;
+
+    private Room(String name) {
+      this.name = name;
+      this.schedules = new IdentityHashMap<>();
+    }
+
+    private void add(SingleCalendar calendar, Event booking) {
+      schedules.merge(calendar, IntervalTree.EMPTY.insert(booking),
+              (tree, ignored) -> tree.insert(booking));
+    }
+
+    /**
+     * Takes out a booking of a calendar.
+     *
+     * @return true if the room has no bookings left
+     */
+    private boolean remove(SingleCalendar calendar, Event booking) {
+      IntervalTree tree = schedules.get(calendar).remove(booking);
+      if (tree.size() == 0) {
+        schedules.remove(calendar);
+      } else {
+        schedules.put(calendar, tree);
+      }
+      return schedules.isEmpty();
+    }
+
+    private void fork(SingleCalendar origin, SingleCalendar fork) {
+      IntervalTree tree = schedules.get(origin);
+      if (tree != null) {
+        schedules.put(fork, tree);
+      }
+    }
+
+    /**
+     * Takes out every booking of a calendar.
+     *
+     * @return true if the room has no bookings left
+     */
+    private boolean forget(SingleCalendar calendar) {
+      schedules.remove(calendar);
+      return schedules.isEmpty();
+    }
+
+    private boolean overlaps(Instant start, Instant end) {
+      LocalDateTime from = toUtc(start);
+      LocalDateTime to = toUtc(end);
+      for (IntervalTree tree : schedules.values()) {
+        if (tree.findOverlap(from, to) != null) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
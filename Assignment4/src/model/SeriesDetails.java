@@ -0,0 +1,195 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The subject, description, location and status shared by the occurrences of a series. An
+ * occurrence that follows its series does not keep these properties itself; they are read from
+ * the series when the occurrence is looked up, so changing them for the whole series is a single
+ * update to this object's entry in the calendar.
+ *
+ * <p>The ids the series was created with are kept so its occurrences can be found without a
+ * search, along with the ids of strays: events with the series id that no longer follow it,
+ * because they were edited on their own or were copied in.
+ */
+final class SeriesDetails {
+  private final String subject;
+  private final String description;
+  private final String location;
+  private final String status;
+  private final long firstId;
+  private final long lastId;
+  private final long[] strays;
+
+  private SeriesDetails(String subject, String description, String location, String status,
+                        long firstId, long lastId, long[] strays) {
+    this.subject = subject;
+    this.description = description;
+    this.location = location;
+    this.status = status;
+    this.firstId = firstId;
+    this.lastId = lastId;
+    this.strays = strays;
+  }
+
+  /**
+   * Creates the details of a new series from one of its occurrences.
+   *
+   * @param occurrence an occurrence of the series
+   * @param firstId    the id of the first occurrence
+   * @param lastId     the id of the last occurrence
+   * @return the details
+   */
+  static SeriesDetails of(Event occurrence, long firstId, long lastId) {
+    return new SeriesDetails(occurrence.getSubject(), occurrence.getDescription(),
+            occurrence.getLocation(), occurrence.getStatus(), firstId, lastId, new long[0]);
+  }
+
+  String getSubject() {
+    return subject;
+  }
+
+  String getDescription() {
+    return description;
+  }
+
+  String getLocation() {
+    return location;
+  }
+
+  long getFirstId() {
+    return firstId;
+  }
+
+  long getLastId() {
+    return lastId;
+  }
+
+  /**
+   * Gets the ids of the events with this series id that do not follow the series.
+   *
+   * @return the ids, which may include events that have since been removed
+   */
+  long[] getStrays() {
+    return strays.clone();
+  }
+
+  /**
+   * Returns details with one property changed.
+   *
+   * @param property the property to change, which must not be a time
+   * @param newValue the new value
+   * @return the new details
+   * @throws IllegalArgumentException if the property is a time or the new value is invalid
+   */
+  SeriesDetails with(Property property, String newValue) throws IllegalArgumentException {
+    switch (property) {
+      case SUBJECT:
+        if (newValue == null || newValue.trim().isEmpty()) {
+          throw new IllegalArgumentException("Subject cannot be null or empty");
+        }
+        return new SeriesDetails(newValue, description, location, status, firstId, lastId,
+                strays);
+      case DESCRIPTION:
+        return new SeriesDetails(subject, newValue == null ? "" : newValue, location, status,
+                firstId, lastId, strays);
+      case LOCATION:
+        return new SeriesDetails(subject, description, newValue == null ? "" : newValue, status,
+                firstId, lastId, strays);
+      case STATUS:
+        if (!Property.isValidStatus(newValue)) {
+          throw new IllegalArgumentException("Invalid status");
+        }
+        return new SeriesDetails(subject, description, location, newValue, firstId, lastId,
+                strays);
+      default:
+        throw new IllegalArgumentException("Invalid property");
+    }
+  }
+
+  /**
+   * Returns details with the subject, description, location and status an occurrence shows,
+   * keeping the ids of the series and its strays.
+   *
+   * @param occurrence an occurrence that follows a series with the wanted details
+   * @return the new details
+   */
+  SeriesDetails withDetailsOf(Event occurrence) {
+    return new SeriesDetails(occurrence.getSubject(), occurrence.getDescription(),
+            occurrence.getLocation(), occurrence.getStatus(), firstId, lastId, strays);
+  }
+
+  /**
+   * Returns details that also list the given event as a stray.
+   *
+   * @param id the id of the event
+   * @return the new details, or these details if the event is already listed
+   */
+  SeriesDetails withStray(long id) {
+    for (long stray : strays) {
+      if (stray == id) {
+        return this;
+      }
+    }
+    long[] updated = Arrays.copyOf(strays, strays.length + 1);
+    updated[strays.length] = id;
+    return new SeriesDetails(subject, description, location, status, firstId, lastId, updated);
+  }
+
+  /**
+   * Returns details that also list the given events as strays, checking the ones already
+   * listed once for all of them rather than once per event.
+   *
+   * @param ids the ids of the events
+   * @return the new details, or these details if every event is already listed
+   */
+  SeriesDetails withStrays(List<Long> ids) {
+    Set<Long> listed = new HashSet<>();
+    for (long stray : strays) {
+      listed.add(stray);
+    }
+    long[] updated = Arrays.copyOf(strays, strays.length + ids.size());
+    int size = strays.length;
+    for (long id : ids) {
+      if (listed.add(id)) {
+        updated[size++] = id;
+      }
+    }
+    if (size == strays.length) {
+      return this;
+    }
+    return new SeriesDetails(subject, description, location, status, firstId, lastId,
+            Arrays.copyOf(updated, size));
+  }
+
+  /**
+   * Checks whether other details give occurrences the same subject, description, location and
+   * status as these.
+   *
+   * @param other the other details
+   * @return true if an occurrence would look the same under either
+   */
+  boolean sameDetails(SeriesDetails other) {
+    return subject.equals(other.subject) && description.equals(other.description)
+            && location.equals(other.location) && status.equals(other.status);
+  }
+
+  /**
+   * Gives an occurrence the details of this series.
+   *
+   * @param occurrence the occurrence as it was stored
+   * @return the occurrence with these details, or the same object if it already has them
+   */
+  Event applyTo(Event occurrence) {
+    if (occurrence.getSubject().equals(subject)
+            && occurrence.getDescription().equals(description)
+            && occurrence.getLocation().equals(location)
+            && occurrence.getStatus().equals(status)) {
+      return occurrence;
+    }
+    return occurrence.withDetails(subject, description, location, status);
+  }
+}
@@ -0,0 +1,159 @@
+package model;
+
+/**
+ * An immutable map from series ids to the details shared by the series' occurrences. It is a
+ * balanced binary search tree, and an update copies only the nodes on the path it touches.
+ */
+final class SeriesTable {
+  static final SeriesTable EMPTY = new SeriesTable(null);
+
+  private final Node root;
+
+  private SeriesTable(Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Gets the details of a series.
+   *
+   * @param seriesId the id of the series
+   * @return the details, or null if the series is not in the table
+   */
+  SeriesDetails get(String seriesId) {
+    Node node = find(seriesId);
+    return node == null ? null : node.details;
+  }
+
+  /**
+   * Returns a table that maps the given series to the given details.
+   *
+   * @param seriesId the id of the series
+   * @param details  the details of the series
+   * @return the new table
+   */
+  SeriesTable put(String seriesId, SeriesDetails details) {
+    return new SeriesTable(put(root, seriesId, details));
+  }
+
+  /**
+   * Finds every series whose details differ between two tables. Subtrees the newer table shares
+   * with the older one are skipped, so only the paths copied by recent updates are looked at.
+   * Series are never taken out of a table, so each one found is new or updated.
+   *
+   * @param before  the older table
+   * @param after   the newer table
+   * @param visitor receives each series with its details in both tables, the first of which
+   *                is null for a new series
+   */
+  static void diff(SeriesTable before, SeriesTable after, Visitor visitor) {
+    diff(before, after.root, visitor);
+  }
+
+  private static void diff(SeriesTable before, Node node, Visitor visitor) {
+    if (node == null || before.find(node.seriesId) == node) {
+      return;
+    }
+    SeriesDetails old = before.get(node.seriesId);
+    if (old != node.details) {
+      visitor.visit(node.seriesId, old, node.details);
+    }
+    diff(before, node.left, visitor);
+    diff(before, node.right, visitor);
+  }
+
+  private Node find(String seriesId) {
+    Node node = root;
+    while (node != null) {
+      int comparison = seriesId.compareTo(node.seriesId);
+      if (comparison == 0) {
+        return node;
+      }
+      node = comparison < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  private static Node put(Node node, String seriesId, SeriesDetails details) {
+    if (node == null) {
+      return new Node(seriesId, details, null, null);
+    }
+    int comparison = seriesId.compareTo(node.seriesId);
+    if (comparison == 0) {
+      return new Node(seriesId, details, node.left, node.right);
+    }
+    if (comparison < 0) {
+      return balance(node, put(node.left, seriesId, details), node.right);
+    }
+    return balance(node, node.left, put(node.right, seriesId, details));
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  /**
+   * Builds a node holding the same entry as another with new children, rotating if one side has
+   * grown two levels taller.
+   */
+  private static Node balance(Node node, Node left, Node right) {
+    int difference = height(left) - height(right);
+    if (difference > 1) {
+      if (height(left.left) < height(left.right)) {
+        left = rotateLeft(left, left.left, left.right);
+      }
+      return rotateRight(node, left, right);
+    }
+    if (difference < -1) {
+      if (height(right.right) < height(right.left)) {
+        right = rotateRight(right, right.left, right.right);
+      }
+      return rotateLeft(node, left, right);
+    }
+    return node.with(left, right);
+  }
+
+  private static Node rotateRight(Node node, Node left, Node right) {
+    return left.with(left.left, node.with(left.right, right));
+  }
+
+  private static Node rotateLeft(Node node, Node left, Node right) {
+    return right.with(node.with(left, right.left), right.right);
+  }
+
+  /**
+   * A node of the table together with the height of its subtree.
+   */
+  private static final class Node {
+    private final String seriesId;
+    private final SeriesDetails details;
+    private final Node left;
+    private final Node right;
+    private final int height;
+
+    private Node(String seriesId, SeriesDetails details, Node left, Node right) {
+      this.seriesId = seriesId;
+      this.details = details;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+    }
+
+    private Node with(Node left, Node right) {
+      return new Node(seriesId, details, left, right);
+    }
+  }
+
+  /**
+   * Receives the series that differ between two tables.
+   */
+  interface Visitor {
+    /**
+     * Called for a series whose details differ.
+     *
+     * @param seriesId the id of the series
+     * @param before   the details in the older table, or null if it had none
+     * @param after    the details in the newer table, or null if it has none
+     */
+    void visit(String seriesId, SeriesDetails before, SeriesDetails after);
+  }
+}
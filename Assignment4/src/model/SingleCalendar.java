@@ -1,20 +1,58 @@
 package model;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import view.View;
 
 /**
  * Implementation of the Calendar interface that manages calendar events.
+ *
+ * <p>The events are kept in an immutable tree. Every change builds a new tree and publishes it
+ * in one write, so readers never lock and never see half of an edit, and the trees replaced by
+ * recent changes are kept for undo and redo. Changes are synchronized on the calendar.
  */
 public class SingleCalendar implements Calendar {
-  final Map<LocalDateTime, List<Event>> eventsByStartDate;
+  private static final int MAX_HISTORY = 64;
+
+  volatile IntervalTree events;
+  // events moved to disk, or null if this calendar keeps every event in memory
+  volatile EventArchive archive;
+  private final Deque<IntervalTree> undoHistory;
+  private final Deque<IntervalTree> redoHistory;
+  private final TextIndex textIndex;
+  // hashes of the events for syncing replicas, kept up to date under the calendar's lock
+  final ContentDigest digest;
+  // an estimate of the heap the events take, kept up to date under the calendar's lock
+  private final MemoryFootprint footprint;
+  // the most bytes the events may take before changes that add to them are refused, or 0
+  private volatile long memoryLimit;
+  private final View view;
+  private volatile ConflictPolicy conflictPolicy;
+  private volatile ChangeObserver observer;
+  // the last id handed out, shared with forks so neither side hands out an id the other has
+  private final AtomicLong lastId;
 
   /**
    * Constructs a SingleCalendar with the specified view.
@@ -26,28 +64,70 @@ public class SingleCalendar implements Calendar {
     if (view == null) {
       throw new IllegalArgumentException("View cannot be null");
     }
-    this.eventsByStartDate = new HashMap<>();
+    this.events = IntervalTree.EMPTY;
+    this.undoHistory = new ArrayDeque<>();
+    this.redoHistory = new ArrayDeque<>();
+    this.textIndex = new TextIndex();
+    this.digest = new ContentDigest();
+    this.footprint = new MemoryFootprint();
+    this.view = view;
+    this.conflictPolicy = ConflictPolicy.ALLOW;
+    this.lastId = new AtomicLong();
+  }
 
+  /**
+   * Constructs a fork of another calendar that shares its events. The trees are immutable, so
+   * the fork starts from the same tree and archive, and each side copies only the paths of the
+   * tree it changes from then on. The word index is forked the same way: both sides share its
+   * posting lists until one of them changes a list. Only the content hashes are copied, one
+   * entry per day, with the memory estimate by series. The fork starts without undo history and
+   * takes its ids from the same sequence as the original, so an id names one event on either
+   * side.
+   *
+   * @param view   the view for displaying messages and errors
+   * @param origin the calendar to fork
+   */
+  SingleCalendar(View view, SingleCalendar origin) {
+    this.view = view;
+    this.undoHistory = new ArrayDeque<>();
+    this.redoHistory = new ArrayDeque<>();
+    synchronized (origin) {
+      this.events = origin.events;
+      this.archive = origin.archive;
+      this.textIndex = origin.textIndex.fork();
+      this.digest = origin.digest.copy();
+      this.footprint = origin.footprint.copy();
+      this.memoryLimit = origin.memoryLimit;
+      this.conflictPolicy = origin.conflictPolicy;
+      this.lastId = origin.lastId;
+    }
   }
 
   @Override
-  public void createEvent(Event event) throws IllegalArgumentException {
+  public synchronized void createEvent(Event event) throws IllegalArgumentException {
     if (event == null) {
       throw new IllegalArgumentException("Event cannot be null");
     }
 
-    if (isDuplicate(event)) {
-      throw new IllegalArgumentException("An event with the same name and time already exists");
+    publish(withEvent(events, event.stored(newIds(1), false)));
+  }
+
+  @Override
+  public void setConflictPolicy(ConflictPolicy policy) throws IllegalArgumentException {
+    if (policy == null) {
+      throw new IllegalArgumentException("Conflict policy cannot be null");
     }
+    this.conflictPolicy = policy;
+  }
 
-    // adds it to the list if it doesnt exist already
-    eventsByStartDate.computeIfAbsent(event.getStartDateTime(), k ->
-            new ArrayList<>()).add(event);
+  @Override
+  public ConflictPolicy getConflictPolicy() {
+    return conflictPolicy;
   }
 
 
   @Override
-  public void createEventSeriesNTimes(Event event, String weekdays, int n) {
+  public synchronized void createEventSeriesNTimes(Event event, String weekdays, int n) {
     // create an event series to generate a proper seriesId
     EventSeries series = EventSeries.getBuilder(event.getSubject(), event.getStartDateTime())
             .endDateTime(event.getEndDateTime())
@@ -61,19 +141,14 @@ public class SingleCalendar implements Calendar {
     // use the series to generate all events with proper seriesId
     List<Event> eventsToCreate = series.generateSeriesEvents();
 
-    // checking for duplicates and create events
-    for (Event newEvent : eventsToCreate) {
-      if (isDuplicate(newEvent)) {
-        throw new IllegalArgumentException("This would create a duplication");
-      }
-      eventsByStartDate.computeIfAbsent(
-              newEvent.getStartDateTime(), k -> new ArrayList<>()).add(newEvent);
-    }
+    // checking for duplicates and conflicts before creating any events
+    checkSeries(eventsToCreate);
+    publish(withOccurrences(events, eventsToCreate));
   }
 
 
   @Override
-  public void createEventSeriesUntil(Event event, String weekdays, String until)
+  public synchronized void createEventSeriesUntil(Event event, String weekdays, String until)
           throws IllegalArgumentException {
     LocalDateTime untilDate = LocalDateTime.parse(until + "T00:00");
     EventSeries series = EventSeries.getBuilder(event.getSubject(), event.getStartDateTime())
@@ -88,58 +163,162 @@ public class SingleCalendar implements Calendar {
     // use the EventSeries to generate all events with the same seriesId
     List<Event> eventsToCreate = series.generateSeriesEvents();
 
-    // checking for duplicates before creating any events
-    for (Event newEvent : eventsToCreate) {
-      if (isDuplicate(newEvent)) {
-        throw new IllegalArgumentException("This would create a duplication");
+    // checking for duplicates and conflicts before creating any events
+    checkSeries(eventsToCreate);
+
+    // if no duplicates found, create all events
+    publish(withOccurrences(events, eventsToCreate));
+
+  }
+
+  /**
+   * Creates many series as one change. The series are expanded on the common fork-join pool,
+   * and each expansion is checked against the events already in the calendar there as well,
+   * since those do not change while the calendar is locked. The occurrences are then checked
+   * against the series before them in order, so the outcome, the ids handed out, the warnings
+   * and the first error are those of creating the series one by one. The occurrences of the
+   * series that pass are sorted as one list, which merges the runs each series was generated
+   * in, and added to the tree together.
+   */
+  @Override
+  public synchronized void createEventSeries(List<EventSeries> series)
+          throws IllegalArgumentException {
+    if (series == null || series.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("Series cannot be null");
+    }
+    IntervalTree base = events;
+    EventArchive past = archive;
+    ConflictPolicy policy = conflictPolicy;
+    List<Expansion> expansions = series.parallelStream()
+            .map(definition -> new Expansion(definition, base, past, policy))
+            .collect(Collectors.toList());
+
+    // the occurrences of the series that passed, as a set to find duplicates and, when
+    // overlaps matter, as a tree to find them
+    Set<Event> added = new HashSet<>();
+    IntervalTree addedTree = IntervalTree.EMPTY;
+    List<Event> stored = new ArrayList<>();
+    IntervalTree updated = base;
+    long bytes = footprint.bytes();
+    long limit = memoryLimit;
+    IllegalArgumentException failure = null;
+    for (Expansion expansion : expansions) {
+      List<Event> occurrences = expansion.occurrences;
+      if (occurrences.isEmpty()) {
+        continue;
+      }
+      Event first = occurrences.get(0);
+      try {
+        checkExpansion(expansion, policy, added, addedTree);
+        long firstId = newIds(occurrences.size());
+        long growth = occurrences.size() * MemoryFootprint.EVENT_BYTES;
+        if (limit > 0 && bytes + growth > limit) {
+          throw new IllegalArgumentException("Memory limit of " + CalendarMemory.format(limit)
+                  + " reached");
+        }
+        bytes += growth + MemoryFootprint.seriesBytesOf(first);
+        updated = updated.withSeries(first.getSeriesId(),
+                SeriesDetails.of(first, firstId, firstId + occurrences.size() - 1));
+        long id = firstId;
+        for (Event occurrence : occurrences) {
+          stored.add(occurrence.stored(id++, true));
+        }
+      } catch (IllegalArgumentException e) {
+        failure = e;
+        break;
+      }
+      added.addAll(occurrences);
+      if (policy != ConflictPolicy.ALLOW) {
+        for (Event occurrence : occurrences) {
+          addedTree = addedTree.insert(occurrence);
+        }
       }
     }
 
-    // if no duplicates found, create all events
-    for (Event e : eventsToCreate) {
-      eventsByStartDate.computeIfAbsent(
-              e.getStartDateTime(), k -> new ArrayList<>()).add(e);
+    // a stable sort keeps the series in order among occurrences that start together
+    stored.sort(Comparator.comparing(Event::getStartDateTime));
+    publish(updated.insertAll(stored));
+    if (failure != null) {
+      throw failure;
     }
+  }
 
+  /**
+   * Finishes checking the occurrences of one series of a bulk creation, against the series
+   * created before it in the same change, as {@link #checkSeries} would with those series
+   * already added.
+   */
+  private void checkExpansion(Expansion expansion, ConflictPolicy policy, Set<Event> added,
+                              IntervalTree addedTree) throws IllegalArgumentException {
+    List<Event> occurrences = expansion.occurrences;
+    int conflicts = 0;
+    Event previous = null;
+    for (int k = 0; k < occurrences.size(); k++) {
+      Event occurrence = occurrences.get(k);
+      if (k == expansion.duplicate || added.contains(occurrence)) {
+        throw new IllegalArgumentException("This would create a duplication");
+      }
+      if (policy != ConflictPolicy.ALLOW) {
+        boolean overlapsPrevious = previous != null
+                && previous.getEndDateTime().isAfter(occurrence.getStartDateTime());
+        if (overlapsPrevious || expansion.overlaps.get(k) || addedTree.findOverlap(
+                occurrence.getStartDateTime(), occurrence.getEndDateTime()) != null) {
+          if (policy == ConflictPolicy.REJECT) {
+            throw new IllegalArgumentException("Conflict: '" + occurrence.getSubject()
+                    + "' on " + occurrence.getStartDateTime() + " overlaps another event");
+          }
+          conflicts++;
+        }
+      }
+      previous = occurrence;
+    }
+    if (conflicts > 0) {
+      view.displayMessage("Warning: " + conflicts + " occurrence(s) of '"
+              + occurrences.get(0).getSubject() + "' overlap other events");
+    }
   }
 
   @Override
-  public void editEvent(String property, String subject, String startDateTime,
-                        String endDateTime, String newValue) throws IllegalArgumentException {
+  public synchronized void editEvent(String property, String subject, String startDateTime,
+                                     String endDateTime, String newValue)
+          throws IllegalArgumentException {
     LocalDateTime start = LocalDateTime.parse(startDateTime);
     LocalDateTime end = LocalDateTime.parse(endDateTime);
     Property propertyName = Property.fromString(property);
 
     // unable to find event to edit
-
-    Event oldEvent = null;
-
-    List<Event> eventsAtStart = eventsByStartDate.get(start);
-    if (eventsAtStart != null) {
-      for (Event event : eventsAtStart) {
-        if (event.getSubject().equals(subject) && event.getEndDateTime().equals(end)) {
-          oldEvent = event;
-        }
-      }
-    }
+    Event oldEvent = events.find(start, end, subject);
 
     if (oldEvent == null) {
       throw new IllegalArgumentException("Event not found");
     }
 
     // makes a new event to replace the old event
-    Event newEvent = createUpdatedEvent(oldEvent, propertyName, newValue);
-    replaceEvent(oldEvent, newEvent);
+    publish(editOne(events, oldEvent, propertyName, newValue));
+  }
+
+
+  @Override
+  public Event getEventById(long id) throws IllegalArgumentException {
+    Event event = events.get(id);
+    if (event == null) {
+      throw new IllegalArgumentException("Event not found");
+    }
+    return event;
+  }
+
+  @Override
+  public synchronized void editEventById(long id, String property, String newValue)
+          throws IllegalArgumentException {
+    Property propertyName = Property.fromString(property);
+    publish(editOne(events, getEventById(id), propertyName, newValue));
   }
 
 
   private Event findEvent(String subject, LocalDateTime start) {
-    List<Event> eventsAtStart = eventsByStartDate.get(start);
-    if (eventsAtStart != null) {
-      for (Event event : eventsAtStart) {
-        if (event.getSubject().equals(subject)) {
-          return event;
-        }
+    for (Event event : events.startingAt(start)) {
+      if (event.getSubject().equals(subject)) {
+        return event;
       }
     }
     return null;
@@ -147,8 +326,8 @@ public class SingleCalendar implements Calendar {
 
 
   @Override
-  public void editEvents(String property, String subject, String startDateTime, String newValue)
-          throws IllegalArgumentException {
+  public synchronized void editEvents(String property, String subject, String startDateTime,
+                                      String newValue) throws IllegalArgumentException {
     Property propertyToEdit = Property.fromString(property);
     LocalDateTime start = LocalDateTime.parse(startDateTime);
 
@@ -164,150 +343,1036 @@ public class SingleCalendar implements Calendar {
       String seriesId = targetEvent.getSeriesId();
 
       // gets all the matching series
-      for (Map.Entry<LocalDateTime, List<Event>> entry : eventsByStartDate.entrySet()) {
-        if (!entry.getKey().isBefore(start)) {
-          for (Event event : entry.getValue()) {
-            if (event.getSeriesId() != null && event.getSeriesId().equals(seriesId)) {
-              eventsToUpdate.add(event);
-            }
-          }
+      for (Event event : events.startingFrom(start)) {
+        if (seriesId.equals(event.getSeriesId())) {
+          eventsToUpdate.add(event);
         }
       }
 
-      // replaces old events
-      for (Event event : eventsToUpdate) {
-        Event newEvent = createUpdatedEvent(event, propertyToEdit, newValue);
-        replaceEvent(event, newEvent);
-      }
+      // replaces old events, publishing them all at once
+      publish(replaceEvents(eventsToUpdate, propertyToEdit, newValue));
     }
     // treat like single event
     else {
-      Event newEvent = createUpdatedEvent(targetEvent, propertyToEdit, newValue);
-      replaceEvent(targetEvent, newEvent);
+      publish(editOne(events, targetEvent, propertyToEdit, newValue));
     }
 
 
   }
 
   @Override
-  public void editEventSeries(String property, String subject, String startDateTime,
-                              String newValue) {
+  public synchronized void editEventSeries(String property, String subject, String startDateTime,
+                                           String newValue) {
     Property propertyToEdit = Property.fromString(property);
     LocalDateTime start = LocalDateTime.parse(startDateTime);
 
 
     // finds the target event to get the series ID
-    Event targetEvent = null;
-    List<Event> eventsAtStart = eventsByStartDate.get(start);
-    if (eventsAtStart != null) {
-      for (Event event : eventsAtStart) {
-        if (event.getSubject().equals(subject)) {
-          targetEvent = event;
-          break;
-        }
-      }
-    }
+    Event targetEvent = findEvent(subject, start);
 
     if (targetEvent == null) {
       throw new IllegalArgumentException("Event not found");
     }
 
-    if (targetEvent.isPartOfSeries()) {
+    SeriesDetails details = targetEvent.isPartOfSeries()
+            ? events.getSeries(targetEvent.getSeriesId()) : null;
+    if (details != null && isDetail(propertyToEdit)) {
+      // the occurrences that follow the series change with a single update
+      publish(editSeriesDetails(targetEvent.getSeriesId(), details, propertyToEdit, newValue));
+    } else if (targetEvent.isPartOfSeries()) {
       // for the series events, find all events with the same series ID
       List<Event> eventsToUpdate = new ArrayList<>();
       String seriesId = targetEvent.getSeriesId();
 
       // collects all events in the series
-      for (List<Event> events : eventsByStartDate.values()) {
-        for (Event event : events) {
-          if (event.getSeriesId() != null && event.getSeriesId().equals(seriesId)) {
-            eventsToUpdate.add(event);
-          }
+      for (Event event : events.all()) {
+        if (seriesId.equals(event.getSeriesId())) {
+          eventsToUpdate.add(event);
         }
       }
 
-      // updates all events in the series
-      for (Event event : eventsToUpdate) {
-        Event newEvent = createUpdatedEvent(event, propertyToEdit, newValue);
-        replaceEvent(event, newEvent);
-      }
+      // updates all events in the series, publishing them all at once
+      publish(replaceEvents(eventsToUpdate, propertyToEdit, newValue));
     } else {
       // for non-series events, just update the single event
-      Event newEvent = createUpdatedEvent(targetEvent, propertyToEdit, newValue);
-      replaceEvent(targetEvent, newEvent);
+      publish(editOne(events, targetEvent, propertyToEdit, newValue));
     }
 
   }
 
+  @Override
+  public synchronized void deleteEvent(String subject, String startDateTime, String endDateTime)
+          throws IllegalArgumentException {
+    Event event = events.find(LocalDateTime.parse(startDateTime),
+            LocalDateTime.parse(endDateTime), subject);
+    if (event == null) {
+      throw new IllegalArgumentException("Event not found");
+    }
+    publish(events.remove(event));
+  }
 
   @Override
-  public String daySchedule(String date) {
-    LocalDateTime startOfDay = LocalDateTime.parse(date + "T00:00");
-    LocalDateTime endOfDay = LocalDateTime.parse(date + "T23:59:59.999999999");
+  public synchronized void deleteEvents(String subject, String startDateTime)
+          throws IllegalArgumentException {
+    deleteFromSeries(subject, LocalDateTime.parse(startDateTime), true);
+  }
+
+  @Override
+  public synchronized void deleteSeries(String subject, String startDateTime)
+          throws IllegalArgumentException {
+    deleteFromSeries(subject, LocalDateTime.parse(startDateTime), false);
+  }
+
+  /**
+   * Deletes the occurrences of the series of an event, or only the event if it is not in a
+   * series. The occurrences are looked up by id through the series table, so only the events of
+   * the series are visited. A series that came from another calendar, by a copy, a merge or a
+   * sync, has no entry in the table, and its events are found by their series id instead.
+   */
+  private void deleteFromSeries(String subject, LocalDateTime start, boolean onlyLater)
+          throws IllegalArgumentException {
+    Event targetEvent = findEvent(subject, start);
+    if (targetEvent == null) {
+      throw new IllegalArgumentException("Event not found");
+    }
+    if (!targetEvent.isPartOfSeries()) {
+      publish(events.remove(targetEvent));
+      return;
+    }
+    String seriesId = targetEvent.getSeriesId();
+    SeriesDetails details = events.getSeries(seriesId);
+    if (details == null) {
+      IntervalTree updated = events;
+      for (Event event : onlyLater ? events.startingFrom(start) : events.all()) {
+        if (seriesId.equals(event.getSeriesId())) {
+          updated = updated.remove(event);
+        }
+      }
+      publish(updated);
+      return;
+    }
+    IntervalTree updated = events;
+    for (long id = details.getFirstId(); id <= details.getLastId(); id++) {
+      updated = withoutOccurrence(updated, id, seriesId, onlyLater, start);
+    }
+    for (long id : details.getStrays()) {
+      updated = withoutOccurrence(updated, id, seriesId, onlyLater, start);
+    }
+    publish(updated);
+  }
 
-    List<Event> events = findEventsInRange(startOfDay, endOfDay);
-    return formatSchedule(events);
+  private IntervalTree withoutOccurrence(IntervalTree tree, long id, String seriesId,
+                                         boolean onlyLater, LocalDateTime start) {
+    Event event = tree.get(id);
+    if (event == null || !seriesId.equals(event.getSeriesId())
+            || (onlyLater && event.getStartDateTime().isBefore(start))) {
+      return tree;
+    }
+    return tree.remove(event);
   }
 
   @Override
-  public String rangeSchedule(String time1, String time2) {
-    LocalDateTime start = LocalDateTime.parse(time1);
-    LocalDateTime end = LocalDateTime.parse(time2);
+  public synchronized int deleteRange(String time1, String time2) {
+    List<Event> removed = new ArrayList<>();
+    publish(events.removeStartingBetween(LocalDateTime.parse(time1), LocalDateTime.parse(time2),
+            removed));
+    return removed.size();
+  }
+
 
-    List<Event> events = findEventsInRange(start, end);
-    return formatSchedule(events);
+  @Override
+  public String daySchedule(String date) {
+    return snapshot().daySchedule(date);
+  }
+
+  @Override
+  public String rangeSchedule(String time1, String time2) {
+    return snapshot().rangeSchedule(time1, time2);
   }
 
   @Override
   public String isFree(String date) {
-    LocalDateTime targetTime = LocalDateTime.parse(date);
-    List<Event> events = findEventsInRange(targetTime, targetTime);
+    return snapshot().isFree(date);
+  }
 
-    if (events.isEmpty()) {
-      return "Available";
-    } else {
-      return "Busy";
+
+  /**
+   * Counts the events between two given times.
+   *
+   * @param time1 starting date and time
+   * @param time2 ending date and time
+   * @return the number of events that overlap the given times
+   */
+  public int countEvents(String time1, String time2) {
+    return snapshot().countEvents(time1, time2);
+  }
+
+  /**
+   * Returns one page of the schedule between two given times. Each line is formatted the same
+   * way as a line of {@link #rangeSchedule(String, String)}, and the lines are in the same order,
+   * so consecutive pages never repeat or skip an event.
+   *
+   * @param time1  starting date and time
+   * @param time2  ending date and time
+   * @param offset the index of the first event to return
+   * @param limit  the largest number of events to return
+   * @return the formatted lines of the page, empty if the offset is past the last event
+   * @throws IllegalArgumentException if the offset is negative or the limit is not positive
+   */
+  public List<String> schedulePage(String time1, String time2, int offset, int limit)
+          throws IllegalArgumentException {
+    return snapshot().schedulePage(time1, time2, offset, limit);
+  }
+
+  /**
+   * Counts the events on every day of a month in a single pass over the month's events. An event
+   * that spans several days is counted on each of them, matching {@link #daySchedule(String)}.
+   *
+   * @param month the month, formatted as yyyy-MM
+   * @return the counts, where index 0 is the first day of the month
+   */
+  public int[] eventCountsByDay(String month) {
+    return snapshot().eventCountsByDay(month);
+  }
+
+  /**
+   * Takes a snapshot of the events in this calendar. This costs the same however many events
+   * there are, and later changes to the calendar do not show up in the snapshot.
+   *
+   * @return the snapshot
+   */
+  public CalendarSnapshot snapshot() {
+    // the generation of the word index is read before the tree, so words taken out for a later
+    // tree start a new one; the tree is read before the archive, so an event archived in between
+    // shows up twice, and the snapshot drops the archived copy
+    long generation = textIndex.generation();
+    IntervalTree current = events;
+    return new CalendarSnapshot(current, textIndex, generation, archive);
+  }
+
+  /**
+   * Gets a peer that answers for this calendar in the same process, for another replica to
+   * sync from.
+   *
+   * @return the peer
+   */
+  public SyncPeer syncPeer() {
+    return new LocalSyncPeer(this);
+  }
+
+  /**
+   * Brings this calendar in line with another replica. The content hashes are compared from the
+   * root down, skipping every month and then every day whose hashes agree, and only the events
+   * of the days that differ are fetched. Those days are replaced in this calendar as one change,
+   * without checking them against the conflict policy, since the other replica already holds
+   * them. Events archived to disk take no part in the hashes and are left alone.
+   *
+   * <p>A fetched event that is already here on its day keeps its id, so ids held elsewhere stay
+   * valid. Series come across with their events: a series this calendar does not have is added
+   * to its series table, from an occurrence that follows it on the other replica, and a series
+   * whose details changed there takes the new details. Fetched events that do not follow their
+   * series are listed as its strays, so series-wide edits and deletes reach every event of a
+   * series either way.
+   *
+   * <p>The peer is asked without holding this calendar's lock, so two calendars can sync from
+   * each other at the same time. A change made here while the peer is being asked may be
+   * replaced, if it falls on a day that is fetched, or waits for the next sync.
+   *
+   * @param peer the replica to copy from
+   * @return the number of days replaced
+   * @throws IllegalArgumentException if the peer is null
+   */
+  public int syncFrom(SyncPeer peer) throws IllegalArgumentException {
+    if (peer == null) {
+      throw new IllegalArgumentException("Peer cannot be null");
+    }
+    SortedMap<YearMonth, Long> localMonths;
+    synchronized (this) {
+      if (digest.root() == peer.rootHash()) {
+        return 0;
+      }
+      localMonths = digest.months();
+    }
+    Set<LocalDate> differing = new TreeSet<>();
+    for (YearMonth month : differingKeys(localMonths, peer.monthHashes())) {
+      SortedMap<LocalDate, Long> localDays;
+      synchronized (this) {
+        localDays = digest.days(month);
+      }
+      differing.addAll(differingKeys(localDays, peer.dayHashes(month)));
+    }
+    Map<LocalDate, List<Event>> fetched = new TreeMap<>();
+    for (LocalDate day : differing) {
+      fetched.put(day, peer.eventsOn(day));
+    }
+
+    synchronized (this) {
+      IntervalTree updated = events;
+      List<Event> replaced = new ArrayList<>();
+      for (LocalDate day : fetched.keySet()) {
+        updated = updated.removeStartingBetween(day.atStartOfDay(), day.atTime(LocalTime.MAX),
+                replaced);
+      }
+      Map<List<Object>, Long> keptIds = new HashMap<>();
+      for (Event event : replaced) {
+        keptIds.put(syncKey(event), event.getId());
+      }
+
+      // the details of each series, from an occurrence that follows it on the other replica
+      Map<String, Event> peerSeries = new HashMap<>();
+      Map<String, Integer> newOccurrences = new HashMap<>();
+      for (List<Event> dayEvents : fetched.values()) {
+        for (Event event : dayEvents) {
+          if (event.isPartOfSeries() && event.followsSeries()) {
+            peerSeries.putIfAbsent(event.getSeriesId(), event);
+            if (updated.getSeries(event.getSeriesId()) == null) {
+              newOccurrences.merge(event.getSeriesId(), 1, Integer::sum);
+            }
+          }
+        }
+      }
+      Map<String, List<Long>> strays = new HashMap<>();
+      // the next id for each occurrence of a series this calendar does not have yet
+      Map<String, Long> nextIds = new HashMap<>();
+      for (Map.Entry<String, Event> entry : peerSeries.entrySet()) {
+        String seriesId = entry.getKey();
+        SeriesDetails details = updated.getSeries(seriesId);
+        if (details == null) {
+          int count = newOccurrences.get(seriesId);
+          long firstId = newIds(count);
+          nextIds.put(seriesId, firstId);
+          updated = updated.withSeries(seriesId,
+                  SeriesDetails.of(entry.getValue(), firstId, firstId + count - 1));
+        } else if (!details.sameDetails(SeriesDetails.of(entry.getValue(), 0, 0))) {
+          updated = pinOccurrences(updated, details, seriesId, fetched.keySet(), strays);
+          updated = updated.withSeries(seriesId, details.withDetailsOf(entry.getValue()));
+        }
+      }
+
+      for (List<Event> dayEvents : fetched.values()) {
+        for (Event event : dayEvents) {
+          Long id = keptIds.remove(syncKey(event));
+          if (event.followsSeries() && nextIds.containsKey(event.getSeriesId())) {
+            id = nextIds.merge(event.getSeriesId(), 1L, Long::sum) - 1;
+          }
+          SeriesDetails details = event.isPartOfSeries()
+                  ? updated.getSeries(event.getSeriesId()) : null;
+          boolean follows = id != null && details != null && event.followsSeries()
+                  && id >= details.getFirstId() && id <= details.getLastId();
+          Event stored = event.stored(id == null ? newIds(1) : id, follows);
+          updated = updated.insert(stored);
+          if (!follows) {
+            addStray(updated, stored, strays);
+          }
+        }
+      }
+      publish(withStrays(updated, strays));
+    }
+    return fetched.size();
+  }
+
+  /**
+   * Gets what identifies an event across a sync: its series, times and, unless it follows the
+   * series and so takes its subject from it, its subject.
+   */
+  private static List<Object> syncKey(Event event) {
+    return Arrays.asList(event.getSeriesId(), event.getStartDateTime(), event.getEndDateTime(),
+            event.followsSeries() ? null : event.getSubject());
+  }
+
+  /**
+   * Turns the occurrences of a series that follow it on days a sync leaves alone into strays
+   * with the details they show now, so a change to the details of the series does not reach
+   * them. The other replica holds them with these details, or their days would be fetched.
+   */
+  private static IntervalTree pinOccurrences(IntervalTree tree, SeriesDetails details,
+                                             String seriesId, Set<LocalDate> fetchedDays,
+                                             Map<String, List<Long>> strays) {
+    for (long id = details.getFirstId(); id <= details.getLastId(); id++) {
+      Event event = tree.get(id);
+      if (event != null && event.followsSeries() && seriesId.equals(event.getSeriesId())
+              && !fetchedDays.contains(event.getStartDateTime().toLocalDate())) {
+        tree = tree.remove(event).insert(event.stored(id, false));
+        strays.computeIfAbsent(seriesId, key -> new ArrayList<>()).add(id);
+      }
+    }
+    return tree;
+  }
+
+  /**
+   * Notes an event that does not follow its series as a stray of it, if the tree has the
+   * series.
+   */
+  private static void addStray(IntervalTree tree, Event event, Map<String, List<Long>> strays) {
+    if (event.isPartOfSeries() && tree.getSeries(event.getSeriesId()) != null) {
+      strays.computeIfAbsent(event.getSeriesId(), id -> new ArrayList<>()).add(event.getId());
+    }
+  }
+
+  /**
+   * Lists the noted strays with their series.
+   */
+  private static IntervalTree withStrays(IntervalTree tree, Map<String, List<Long>> strays) {
+    for (Map.Entry<String, List<Long>> entry : strays.entrySet()) {
+      tree = tree.withSeries(entry.getKey(),
+              tree.getSeries(entry.getKey()).withStrays(entry.getValue()));
+    }
+    return tree;
+  }
+
+  /**
+   * Finds the keys whose hashes differ between two levels of hash trees, including keys only
+   * one of them has.
+   */
+  private static <K> Set<K> differingKeys(SortedMap<K, Long> local, SortedMap<K, Long> remote) {
+    Set<K> keys = new TreeSet<>(local.keySet());
+    keys.addAll(remote.keySet());
+    keys.removeIf(key -> Objects.equals(local.get(key), remote.get(key)));
+    return keys;
+  }
+
+  /**
+   * Sets how much memory the events of this calendar may take. Changes that would make them take
+   * more are refused, while changes that free memory, undo and redo are always allowed, so the
+   * limit may be set below what is already used. The limit is soft: it is checked against an
+   * estimate, and the word index is not counted.
+   *
+   * @param bytes the limit in bytes, or 0 for none
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public void setMemoryLimit(long bytes) throws IllegalArgumentException {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("Memory limit cannot be negative");
+    }
+    memoryLimit = bytes;
+  }
+
+  /**
+   * Gets the estimated memory this calendar takes.
+   *
+   * @param name the name to report the calendar under
+   * @return the estimate
+   */
+  public synchronized CalendarMemory memory(String name) {
+    return new CalendarMemory(name, footprint.events(), footprint.occurrences(),
+            footprint.series(), footprint.bytes(), textIndex.estimatedBytes(), 0, memoryLimit);
+  }
+
+  /**
+   * Gets the estimated memory this fork takes, with how much of it it shares with the calendar
+   * it was forked from. The events the two versions do not share are found without looking at
+   * the parts of the tree they still share, and the rest of the events are counted as shared.
+   *
+   * @param name   the name to report the calendar under
+   * @param origin the calendar this one was forked from
+   * @return the estimate
+   */
+  CalendarMemory memory(String name, SingleCalendar origin) {
+    IntervalTree base;
+    synchronized (origin) {
+      base = origin.events;
+    }
+    synchronized (this) {
+      long[] own = {0};
+      events.diff(base, (id, old, updated) -> {
+        if (updated != null) {
+          own[0] += MemoryFootprint.bytesOf(updated);
+        }
+      });
+      long shared = Math.max(0, footprint.bytes() - own[0])
+              + textIndex.sharedBytes(origin.textIndex);
+      return new CalendarMemory(name, footprint.events(), footprint.occurrences(),
+              footprint.series(), footprint.bytes(), textIndex.estimatedBytes(), shared,
+              memoryLimit);
+    }
+  }
+
+  /**
+   * Lets this calendar move old events to compressed segment files on disk.
+   *
+   * @param directory    the directory for the segment files
+   * @param cachedBlocks how many blocks of archived events to keep in memory once read
+   * @throws IllegalArgumentException if the cache size is not positive
+   * @throws IllegalStateException    if the calendar already has an archive
+   * @throws UncheckedIOException     if the directory cannot be created
+   */
+  public synchronized void enableArchive(Path directory, int cachedBlocks)
+          throws IllegalArgumentException, IllegalStateException {
+    if (archive != null) {
+      throw new IllegalStateException("Calendar already has an archive");
+    }
+    archive = EventArchive.create(directory, cachedBlocks);
+  }
+
+  /**
+   * Moves every event that ends before a given time out of memory into a new archive segment,
+   * so only the events after it stay in the hot tree. Range queries still find the archived
+   * events, but they can no longer be edited, and the undo history is forgotten.
+   *
+   * @param cutoff the time before which events are archived
+   * @return the number of events archived
+   * @throws IllegalStateException if the calendar has no archive
+   * @throws UncheckedIOException  if the segment cannot be written
+   */
+  public synchronized int archiveBefore(LocalDateTime cutoff) throws IllegalStateException {
+    if (archive == null) {
+      throw new IllegalStateException("Calendar has no archive");
+    }
+    List<Event> old = new ArrayList<>();
+    IntervalTree remaining = events;
+    for (Event event : events.touching(LocalDateTime.MIN, cutoff)) {
+      if (event.getEndDateTime().isBefore(cutoff)) {
+        old.add(event);
+        remaining = remaining.remove(event);
+      }
+    }
+    if (old.isEmpty()) {
+      return 0;
+    }
+    // published before the tree, so a reader that sees the new tree also sees the archive
+    archive = archive.with(old);
+    resetEvents(remaining);
+    return old.size();
+  }
+
+  /**
+   * Puts the events back the way they were before the last change. A bulk edit such as an edit
+   * to a whole series is undone in one step.
+   *
+   * @return false if there was nothing to undo
+   */
+  public synchronized boolean undo() {
+    if (undoHistory.isEmpty()) {
+      return false;
+    }
+    redoHistory.push(events);
+    install(undoHistory.pop());
+    return true;
+  }
+
+  /**
+   * Makes again the last change that was undone.
+   *
+   * @return false if there was nothing to redo
+   */
+  public synchronized boolean redo() {
+    if (redoHistory.isEmpty()) {
+      return false;
+    }
+    undoHistory.push(events);
+    install(redoHistory.pop());
+    return true;
+  }
+
+  /**
+   * Checks a new event against the events already in a tree, and those archived, according to
+   * the conflict policy. The check is a single lookup in the tree, and the archive is only read
+   * when the event reaches back that far.
+   *
+   * @param current the events the new event is checked against
+   * @param event   the event about to be added
+   * @throws IllegalArgumentException if the policy is reject and the event overlaps another
+   */
+  private void checkConflict(IntervalTree current, Event event) throws IllegalArgumentException {
+    if (conflictPolicy == ConflictPolicy.ALLOW) {
+      return;
+    }
+    Event existing = findOverlap(current, archive, event.getStartDateTime(),
+            event.getEndDateTime());
+    if (existing == null) {
+      return;
+    }
+    String conflict = "'" + event.getSubject() + "' overlaps '" + existing.getSubject() + "'";
+    if (conflictPolicy == ConflictPolicy.REJECT) {
+      throw new IllegalArgumentException("Conflict: " + conflict);
+    }
+    view.displayMessage("Warning: " + conflict);
+  }
+
+  /**
+   * Checks every occurrence of a new series for duplicates and conflicts before any of them is
+   * added. Each occurrence costs one lookup in the tree, and occurrences are compared with their
+   * neighbours since they are generated in start order. With the warn policy a single warning is
+   * given for the whole series.
+   *
+   * @param occurrences the occurrences of the series, in start order
+   * @throws IllegalArgumentException if an occurrence is a duplicate, or overlaps another event
+   *                                  while the policy is reject
+   */
+  private void checkSeries(List<Event> occurrences) throws IllegalArgumentException {
+    IntervalTree current = events;
+    int conflicts = 0;
+    Event previous = null;
+    for (Event occurrence : occurrences) {
+      if (isDuplicate(current, archive, occurrence)) {
+        throw new IllegalArgumentException("This would create a duplication");
+      }
+      if (conflictPolicy != ConflictPolicy.ALLOW) {
+        boolean overlapsPrevious = previous != null
+                && previous.getEndDateTime().isAfter(occurrence.getStartDateTime());
+        if (overlapsPrevious || findOverlap(current, archive, occurrence.getStartDateTime(),
+                occurrence.getEndDateTime()) != null) {
+          if (conflictPolicy == ConflictPolicy.REJECT) {
+            throw new IllegalArgumentException("Conflict: '" + occurrence.getSubject()
+                    + "' on " + occurrence.getStartDateTime() + " overlaps another event");
+          }
+          conflicts++;
+        }
+      }
+      previous = occurrence;
+    }
+    if (conflicts > 0) {
+      view.displayMessage("Warning: " + conflicts + " occurrence(s) of '"
+              + occurrences.get(0).getSubject() + "' overlap other events");
+    }
+  }
+
+  /**
+   * Adds a list of events as one change, so either all of them are added or none are.
+   *
+   * @param newEvents the events to be added
+   * @throws IllegalArgumentException if any event is a duplicate or is rejected by the conflict
+   *                                  policy
+   */
+  synchronized void createEvents(List<Event> newEvents) throws IllegalArgumentException {
+    IntervalTree updated = events;
+    for (Event event : newEvents) {
+      updated = withEvent(updated, event.stored(newIds(1), false));
+    }
+    publish(updated);
+  }
+
+  /**
+   * Merges events from another calendar into this one as one change. Both sides are walked
+   * together in start order, so an incoming event only has to be compared with the events
+   * that start at the same time to find its duplicate, and the merged events are built into a
+   * new tree in one pass. The work is linear in the size of both calendars.
+   *
+   * <p>A duplicate has the same subject, start and end. The policy decides whether it is
+   * skipped, replaces the existing event under that event's id, or is kept as well with the
+   * given label added to its subject. Overlaps with other events are checked against the
+   * conflict policy in the same pass, from the latest end seen before each new event and the
+   * start of the event after it. An added or replaced event whose series this calendar also
+   * has is listed as a stray of that series, so series-wide edits and deletes still reach it.
+   *
+   * @param incoming the events to merge, already in this calendar's timezone, in start order
+   * @param policy   what to do with duplicates
+   * @param label    added to the subject of a duplicate that is kept as well
+   * @return the number of events added or replaced
+   * @throws IllegalArgumentException if the conflict policy is reject and a new event overlaps
+   *                                  another
+   */
+  synchronized int mergeEvents(List<Event> incoming, MergePolicy policy, String label)
+          throws IllegalArgumentException {
+    // the events as stored, so those that follow a series keep doing so in the merged tree
+    List<Event> current = events.allStored();
+    List<Event> merged = new ArrayList<>(current.size() + incoming.size());
+    // positions in merged of the events that were added or replaced
+    BitSet changedAt = new BitSet();
+    int i = 0;
+    int j = 0;
+    while (i < current.size() || j < incoming.size()) {
+      if (j == incoming.size() || (i < current.size() && current.get(i).getStartDateTime()
+              .isBefore(incoming.get(j).getStartDateTime()))) {
+        merged.add(current.get(i++));
+        continue;
+      }
+      LocalDateTime start = incoming.get(j).getStartDateTime();
+      if (i == current.size() || start.isBefore(current.get(i).getStartDateTime())) {
+        changedAt.set(merged.size());
+        merged.add(storeMerged(incoming.get(j++), 0));
+        continue;
+      }
+      // both sides have events at this start; duplicates can only be among them
+      int firstAtStart = merged.size();
+      while (i < current.size() && current.get(i).getStartDateTime().equals(start)) {
+        merged.add(current.get(i++));
+      }
+      List<Event> atStart = merged.subList(firstAtStart, merged.size());
+      for (; j < incoming.size() && incoming.get(j).getStartDateTime().equals(start); j++) {
+        Event event = incoming.get(j);
+        int duplicate = indexOfResolved(atStart, event);
+        if (duplicate >= 0 && policy == MergePolicy.KEEP_BOTH) {
+          event = Event.getBuilder(event.getSubject() + " (" + label + ")", start)
+                  .endDateTime(event.getEndDateTime())
+                  .description(event.getDescription())
+                  .location(event.getLocation())
+                  .status(event.getStatus())
+                  .seriesId(event.getSeriesId())
+                  .build();
+          // merged before with the same label
+          duplicate = indexOfResolved(atStart, event) >= 0 ? -2 : -1;
+        }
+        if (duplicate == -1) {
+          changedAt.set(merged.size());
+          atStart.add(storeMerged(event, 0));
+        } else if (duplicate >= 0 && policy == MergePolicy.OVERWRITE
+                && !sameDetails(events.resolve(atStart.get(duplicate)), event)) {
+          changedAt.set(firstAtStart + duplicate);
+          atStart.set(duplicate, storeMerged(event, atStart.get(duplicate).getId()));
+        }
+      }
+    }
+    if (changedAt.isEmpty()) {
+      return 0;
     }
+    checkMerged(merged, changedAt);
+    IntervalTree updated = events.withEvents(merged);
+    // merged events do not follow a series, so the series this calendar has list them as strays
+    Map<String, List<Long>> strays = new HashMap<>();
+    for (int k = changedAt.nextSetBit(0); k >= 0; k = changedAt.nextSetBit(k + 1)) {
+      addStray(updated, merged.get(k), strays);
+    }
+    publish(withStrays(updated, strays));
+    return changedAt.cardinality();
   }
 
+  /**
+   * Finds an event among events as stored, comparing it with each as it is resolved.
+   *
+   * @return the position of the event, or -1 if it is not there
+   */
+  private int indexOfResolved(List<Event> stored, Event event) {
+    for (int k = 0; k < stored.size(); k++) {
+      if (events.resolve(stored.get(k)).equals(event)) {
+        return k;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean sameDetails(Event event, Event other) {
+    return event.getDescription().equals(other.getDescription())
+            && event.getLocation().equals(other.getLocation())
+            && event.getStatus().equals(other.getStatus())
+            && Objects.equals(event.getSeriesId(), other.getSeriesId());
+  }
+
+  /**
+   * Gives a merged event an id, a new one unless it replaces an event.
+   */
+  private Event storeMerged(Event event, long id) {
+    return event.stored(id > 0 ? id : newIds(1), false);
+  }
+
+  /**
+   * Checks the new events of a merge against the conflict policy. An event overlaps an earlier
+   * one if some event before it ends after it starts, and a later one if the next event starts
+   * before it ends, since the events are in start order.
+   */
+  private void checkMerged(List<Event> merged, BitSet changedAt) throws IllegalArgumentException {
+    if (conflictPolicy == ConflictPolicy.ALLOW) {
+      return;
+    }
+    int conflicts = 0;
+    LocalDateTime latestEnd = null;
+    for (int k = 0; k < merged.size(); k++) {
+      Event event = merged.get(k);
+      if (changedAt.get(k)) {
+        boolean overlapsEarlier = latestEnd != null
+                && latestEnd.isAfter(event.getStartDateTime());
+        boolean overlapsLater = k + 1 < merged.size()
+                && merged.get(k + 1).getStartDateTime().isBefore(event.getEndDateTime());
+        if (overlapsEarlier || overlapsLater) {
+          if (conflictPolicy == ConflictPolicy.REJECT) {
+            throw new IllegalArgumentException("Conflict: '" + event.getSubject()
+                    + "' on " + event.getStartDateTime() + " overlaps another event");
+          }
+          conflicts++;
+        }
+      }
+      if (latestEnd == null || event.getEndDateTime().isAfter(latestEnd)) {
+        latestEnd = event.getEndDateTime();
+      }
+    }
+    if (conflicts > 0) {
+      view.displayMessage("Warning: " + conflicts + " merged event(s) overlap other events");
+    }
+  }
+
+  /**
+   * Replaces every event in this calendar and forgets the undo history, for changes such as a
+   * new timezone that cannot be undone by restoring the events alone.
+   *
+   * @param replacement the new events
+   */
+  synchronized void resetEvents(IntervalTree replacement) {
+    undoHistory.clear();
+    redoHistory.clear();
+    install(replacement);
+  }
+
+  /**
+   * Remembers the state of this calendar so it can be put back. The events are immutable, so
+   * this only keeps references to the current tree and to the trees kept for undo and redo.
+   *
+   * @return the savepoint
+   */
+  synchronized Savepoint savepoint() {
+    return new Savepoint(events, archive, conflictPolicy, memoryLimit,
+            new ArrayList<>(undoHistory), new ArrayList<>(redoHistory));
+  }
+
+  /**
+   * Puts this calendar back the way it was at a savepoint, together with its undo and redo
+   * history. Ids handed out since are not reused.
+   *
+   * @param savepoint the savepoint
+   */
+  synchronized void restore(Savepoint savepoint) {
+    undoHistory.clear();
+    undoHistory.addAll(savepoint.undo);
+    redoHistory.clear();
+    redoHistory.addAll(savepoint.redo);
+    archive = savepoint.archive;
+    conflictPolicy = savepoint.conflictPolicy;
+    memoryLimit = savepoint.memoryLimit;
+    install(savepoint.events);
+  }
+
+  /**
+   * Sets what is told about every new version of the events.
+   *
+   * @param observer the observer, or null for none
+   */
+  void observe(ChangeObserver observer) {
+    this.observer = observer;
+  }
+
+  /**
+   * Brings the content hashes and the memory estimate up to date with the events that changed,
+   * and tells the observer, if there is one.
+   *
+   * @param before the version the events had before the change
+   */
+  private void changed(IntervalTree before) {
+    if (before != events) {
+      events.diff(before, (id, old, updated) -> {
+        if (old != null) {
+          digest.remove(old);
+          footprint.remove(old);
+        }
+        if (updated != null) {
+          digest.add(updated);
+          footprint.add(updated);
+        }
+      });
+    }
+    ChangeObserver current = observer;
+    if (current != null && before != events) {
+      current.changed(this, before, events);
+    }
+  }
+
+  /**
+   * Makes a tree the current version of the events, remembering the old one for undo. A change
+   * that makes the events take more memory is refused if that goes over the calendar's limit.
+   *
+   * @param updated the new version
+   * @throws IllegalArgumentException if the change would go over the memory limit
+   */
+  private void publish(IntervalTree updated) throws IllegalArgumentException {
+    if (updated == events) {
+      return;
+    }
+    long limit = memoryLimit;
+    if (limit > 0) {
+      long growth = MemoryFootprint.growth(events, updated);
+      if (growth > 0 && footprint.bytes() + growth > limit) {
+        throw new IllegalArgumentException("Memory limit of " + CalendarMemory.format(limit)
+                + " reached");
+      }
+    }
+    undoHistory.push(events);
+    if (undoHistory.size() > MAX_HISTORY) {
+      undoHistory.removeLast();
+    }
+    redoHistory.clear();
+    install(updated);
+  }
+
+  /**
+   * Makes a tree the current version of the events. Its new words are indexed before it is
+   * published, so a search of it finds them, and the words it dropped are taken out after, so a
+   * search of the version before still finds its own until then.
+   *
+   * @param updated the new version
+   */
+  private void install(IntervalTree updated) {
+    IntervalTree before = events;
+    TextIndex.Stale stale = before == updated ? null : textIndex.add(before, updated);
+    events = updated;
+    if (stale != null) {
+      textIndex.prune(stale);
+    }
+    changed(before);
+  }
+
+  /**
+   * Adds an event to a tree after checking it for duplicates and conflicts. An event that is
+   * part of a series it does not follow is listed as a stray of that series.
+   *
+   * @param current the tree to add to
+   * @param event   the event to be added
+   * @return the tree with the event
+   * @throws IllegalArgumentException if the event is a duplicate or is rejected by the conflict
+   *                                  policy
+   */
+  private IntervalTree withEvent(IntervalTree current, Event event)
+          throws IllegalArgumentException {
+    if (isDuplicate(current, archive, event)) {
+      throw new IllegalArgumentException("An event with the same name and time already exists");
+    }
+    checkConflict(current, event);
+
+    SeriesDetails details = event.isPartOfSeries() && !event.followsSeries()
+            ? current.getSeries(event.getSeriesId()) : null;
+    if (details != null) {
+      current = current.withSeries(event.getSeriesId(), details.withStray(event.getId()));
+    }
+
+    // adds it to the tree if it doesnt exist already
+    return current.insert(event);
+  }
+
+  /**
+   * Adds the occurrences of a new series, which have already been checked, to a tree. The
+   * occurrences get ids and follow the details recorded for the series.
+   */
+  private IntervalTree withOccurrences(IntervalTree current, List<Event> occurrences) {
+    if (occurrences.isEmpty()) {
+      return current;
+    }
+    Event first = occurrences.get(0);
+    long id = newIds(occurrences.size());
+    current = current.withSeries(first.getSeriesId(),
+            SeriesDetails.of(first, id, id + occurrences.size() - 1));
+    for (Event occurrence : occurrences) {
+      current = current.insert(occurrence.stored(id++, true));
+    }
+    return current;
+  }
+
+  /**
+   * Hands out ids for new events, which follow on from one another.
+   *
+   * @param count how many ids are needed
+   * @return the first of the ids
+   */
+  private long newIds(int count) {
+    return lastId.getAndAdd(count) + 1;
+  }
+
+  /**
+   * Changes a detail of every event in a series. Occurrences that follow the series pick up the
+   * change from one update to its details; only strays are edited one by one.
+   *
+   * @param seriesId the id of the series
+   * @param details  the current details of the series
+   * @param property the detail to be changed
+   * @param newValue the new value for the detail
+   * @return the tree with the change made
+   * @throws IllegalArgumentException if the new value is invalid or a new subject would make an
+   *                                  occurrence a duplicate of another event
+   */
+  private IntervalTree editSeriesDetails(String seriesId, SeriesDetails details,
+                                         Property property, String newValue)
+          throws IllegalArgumentException {
+    SeriesDetails updated = details.with(property, newValue);
+    if (property == Property.SUBJECT && !newValue.equals(details.getSubject())) {
+      for (long id = details.getFirstId(); id <= details.getLastId(); id++) {
+        Event occurrence = events.get(id);
+        if (occurrence != null && occurrence.followsSeries()
+                && exists(events, archive, occurrence.getStartDateTime(),
+                occurrence.getEndDateTime(), newValue)) {
+          throw new IllegalArgumentException(
+                  "An event with the same name and time already exists");
+        }
+      }
+    }
+
+    IntervalTree tree = events.withSeries(seriesId, updated);
+    for (long id : details.getStrays()) {
+      Event stray = tree.get(id);
+      if (stray != null && seriesId.equals(stray.getSeriesId())) {
+        tree = editOne(tree, stray, property, newValue);
+      }
+    }
+    return tree;
+  }
+
+  /**
+   * Checks whether a property is one of the details a series shares rather than a time.
+   */
+  private static boolean isDetail(Property property) {
+    return property != Property.START && property != Property.END;
+  }
 
   /**
    * checks if an event with the same name and time already exists.
    *
-   * @param event the vent to be checked
+   * @param current the events to look in
+   * @param archive the archived events to look in as well, or null if there are none
+   * @param event   the vent to be checked
    * @return true if the event exists
    */
-  private boolean isDuplicate(Event event) {
-    List<Event> eventsAtStart = eventsByStartDate.get(event.getStartDateTime());
-    if (eventsAtStart != null) {
-      for (Event existingEvent : eventsAtStart) {
-        if (existingEvent.getSubject().equals(event.getSubject())
-                && existingEvent.getEndDateTime().equals(event.getEndDateTime())) {
-          return true;
-        }
+  private static boolean isDuplicate(IntervalTree current, EventArchive archive, Event event) {
+    return exists(current, archive, event.getStartDateTime(), event.getEndDateTime(),
+            event.getSubject());
+  }
+
+  /**
+   * Checks whether an event with the given start, end and subject is in a tree or has been
+   * archived. The archive is only read when the span reaches back that far.
+   */
+  private static boolean exists(IntervalTree current, EventArchive archive, LocalDateTime start,
+                                LocalDateTime end, String subject) {
+    if (current.find(start, end, subject) != null) {
+      return true;
+    }
+    if (archive == null || !archive.reaches(start)) {
+      return false;
+    }
+    for (Event archived : archive.touching(start, end)) {
+      if (archived.getStartDateTime().equals(start) && archived.getEndDateTime().equals(end)
+              && archived.getSubject().equals(subject)) {
+        return true;
       }
     }
     return false;
   }
 
+  /**
+   * Finds an event in a tree or in the archive that overlaps a span, in the same way as
+   * {@link IntervalTree#findOverlap}. The archive is only read when the span reaches back that
+   * far.
+   *
+   * @return an overlapping event, or null if there is none
+   */
+  private static Event findOverlap(IntervalTree current, EventArchive archive,
+                                   LocalDateTime start, LocalDateTime end) {
+    Event existing = current.findOverlap(start, end);
+    if (existing != null || archive == null || !archive.reaches(start)) {
+      return existing;
+    }
+    for (Event archived : archive.touching(start, end)) {
+      if (archived.getStartDateTime().isBefore(end) && archived.getEndDateTime().isAfter(start)) {
+        return archived;
+      }
+    }
+    return null;
+  }
+
 
   /**
-   * Finds all events within a given time range.
+   * Finds all events within a given time range, including those that have been archived.
    *
    * @param start the start time of the time range
    * @param end   the end time of the time range
    * @return a list of events within the given time range, empty list if no events are found
    */
   List<Event> findEventsInRange(LocalDateTime start, LocalDateTime end) {
-    List<Event> events = new ArrayList<>();
-    for (Map.Entry<LocalDateTime, List<Event>> entry : eventsByStartDate.entrySet()) {
-      for (Event event : entry.getValue()) {
-        if (!(event.getEndDateTime().isBefore(start) || event.getStartDateTime().isAfter(end))) {
-          events.add(event);
-        }
-      }
-    }
-    return events;
+    return snapshot().touching(start, end);
   }
 
   /**
@@ -378,29 +1443,38 @@ public class SingleCalendar implements Calendar {
   }
 
   /**
-   * Replaces an event with a new event.
+   * Replaces an event in a tree with an edited copy, which keeps the id of the old one. Nothing
+   * is published, so a rejected edit leaves the calendar unchanged. An occurrence whose details
+   * are edited on their own stops following its series.
    *
-   * @param oldEvent the event to be replaced
-   * @param newEvent the new event
+   * @param current  the tree holding the old event
+   * @param oldEvent the event to be edited
+   * @param property the property to be updated
+   * @param newValue the new value for the property
+   * @return the tree with the edited event in place of the old one
    */
-  private void replaceEvent(Event oldEvent, Event newEvent) {
-    removeEvent(oldEvent);
-    createEvent(newEvent);
+  private IntervalTree editOne(IntervalTree current, Event oldEvent, Property property,
+                               String newValue) {
+    Event newEvent = createUpdatedEvent(oldEvent, property, newValue)
+            .stored(oldEvent.getId(), oldEvent.followsSeries() && !isDetail(property));
+    return withEvent(current.remove(oldEvent), newEvent);
   }
 
   /**
-   * Removes an event from the list of events.
+   * Applies the same edit to several events, one after another, on a copy of the current tree.
    *
-   * @param event the event to be removed
+   * @param eventsToUpdate the events to be edited
+   * @param property       the property to be updated
+   * @param newValue       the new value for the property
+   * @return the tree with every event edited
    */
-  private void removeEvent(Event event) {
-    List<Event> eventsAtStart = eventsByStartDate.get(event.getStartDateTime());
-    if (eventsAtStart != null) {
-      eventsAtStart.remove(event);
-      if (eventsAtStart.isEmpty()) {
-        eventsByStartDate.remove(event.getStartDateTime());
-      }
+  private IntervalTree replaceEvents(List<Event> eventsToUpdate, Property property,
+                                     String newValue) {
+    IntervalTree updated = events;
+    for (Event event : eventsToUpdate) {
+      updated = editOne(updated, event, property, newValue);
     }
+    return updated;
   }
 
   /**
@@ -410,39 +1484,79 @@ public class SingleCalendar implements Calendar {
    * @return the formatted schedule, empty string if no events are found
    */
   public String formatSchedule(List<Event> events) {
-    final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
     if (events.isEmpty()) {
       return "";
     }
 
-    StringBuilder schedule = new StringBuilder();
     events.sort(Comparator.comparing(Event::getStartDateTime));
+    return CalendarSnapshot.format(events);
+  }
 
-    for (Event event : events) {
-      schedule.append("• ").append(event.getSubject()).append(" (");
-
-      // format start time
-      schedule.append(event.getStartDateTime().format(dateFormatter))
-              .append(" ")
-              .append(event.getStartDateTime().format(timeFormatter))
-              .append(" - ");
-
-      // include end date if different from start date
-      if (!event.getStartDateTime().toLocalDate().equals(event.getEndDateTime().toLocalDate())) {
-        schedule.append(event.getEndDateTime().format(dateFormatter))
-                .append(" ");
-      }
-      schedule.append(event.getEndDateTime().format(timeFormatter))
-              .append(")");
+  /**
+   * The state of a calendar at one moment, as references to immutable versions.
+   */
+  static final class Savepoint {
+    private final IntervalTree events;
+    private final EventArchive archive;
+    private final ConflictPolicy conflictPolicy;
+    private final long memoryLimit;
+    private final List<IntervalTree> undo;
+    private final List<IntervalTree> redo;
+
+    private Savepoint(IntervalTree events, EventArchive archive, ConflictPolicy conflictPolicy,
+                      long memoryLimit, List<IntervalTree> undo, List<IntervalTree> redo) {
+      this.events = events;
+      this.archive = archive;
+      this.conflictPolicy = conflictPolicy;
+      this.memoryLimit = memoryLimit;
+      this.undo = undo;
+      this.redo = redo;
+    }
+  }
 
-      // add location if present
-      if (!event.getLocation().isEmpty()) {
-        schedule.append(" @ ").append(event.getLocation());
+  /**
+   * The occurrences of one series in a bulk creation, and what checking them against the events
+   * already in the calendar found. Only the occurrences before the first duplicate are checked
+   * for overlaps, since creating the series stops there.
+   */
+  private static final class Expansion {
+    private final List<Event> occurrences;
+    // the position of the first occurrence that duplicates an event, or -1
+    private final int duplicate;
+    // the positions of occurrences that overlap an event, if the conflict policy cares
+    private final BitSet overlaps;
+
+    private Expansion(EventSeries definition, IntervalTree base, EventArchive archive,
+                      ConflictPolicy policy) {
+      this.occurrences = definition.generateSeriesEvents();
+      this.overlaps = new BitSet();
+      int firstDuplicate = -1;
+      for (int k = 0; k < occurrences.size(); k++) {
+        Event occurrence = occurrences.get(k);
+        if (isDuplicate(base, archive, occurrence)) {
+          firstDuplicate = k;
+          break;
+        }
+        if (policy != ConflictPolicy.ALLOW && findOverlap(base, archive,
+                occurrence.getStartDateTime(), occurrence.getEndDateTime()) != null) {
+          overlaps.set(k);
+        }
       }
-      schedule.append("\n");
+      this.duplicate = firstDuplicate;
     }
+  }
 
-    return schedule.toString();
+  /**
+   * Is told about every new version of a calendar's events, while the calendar is locked.
+   */
+  interface ChangeObserver {
+    /**
+     * Called after the events of a calendar have changed.
+     *
+     * @param calendar the calendar
+     * @param before   the events before the change
+     * @param after    the events after the change
+     */
+    void changed(SingleCalendar calendar, IntervalTree before, IntervalTree after);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * A replica of a calendar that another replica can be brought in line with. The replica
+ * answers questions about its content hashes from the top of its hash tree down, so a sync only
+ * asks for the events of the days whose hashes differ.
+ *
+ * <p>The hash of a day covers every event that starts on it, and the hash of a month or of the
+ * whole calendar covers the days in it. Hashes depend only on what the events say, not on their
+ * ids, so two replicas that hold the same events have the same hashes.
+ */
+public interface SyncPeer {
+
+  /**
+   * Gets the hash of every event of the replica.
+   *
+   * @return the hash, 0 if there are no events
+   */
+  long rootHash();
+
+  /**
+   * Gets the hash of every month that has events.
+   *
+   * @return the hashes in order of month
+   */
+  SortedMap<YearMonth, Long> monthHashes();
+
+  /**
+   * Gets the hash of every day of a month that has events.
+   *
+   * @param month the month
+   * @return the hashes in order of day
+   */
+  SortedMap<LocalDate, Long> dayHashes(YearMonth month);
+
+  /**
+   * Gets the events that start on a day, as the replica holds them: an occurrence that follows
+   * its series says so, and shows the current details of the series.
+   *
+   * @param day the day
+   * @return the events in start order
+   */
+  List<Event> eventsOn(LocalDate day);
+}
@@ -0,0 +1,567 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An inverted index from the words in events' subjects, descriptions and locations to the
+ * events they appear in. Each word has a posting list: a sorted array of ids, kept as plain
+ * longs like the ids themselves, and the series whose details have the word. Occurrences that
+ * follow their series are found through the series, so a series-wide change of details changes
+ * one entry per word rather than one per occurrence.
+ *
+ * <p>The index follows the current version of the calendar's events. When a new version is
+ * published, the words it adds are indexed first and the words it drops are taken out after,
+ * so the index always holds at least the words of the version being read. Taking words out
+ * starts a new generation of the index; a snapshot of an older version no longer trusts it then
+ * and reads its own events instead. Every answer is only a set of candidates, which are checked
+ * again against the version searched.
+ *
+ * <p>Words are changed under the calendar's lock; lookups may come from any thread, so both
+ * are synchronized on the index.
+ */
+final class TextIndex {
+  // the postings object, on top of its arrays
+  private static final long POSTINGS_BYTES = 56;
+  // a map entry and the postings object, on top of the word itself and the arrays
+  private static final long WORD_BYTES = 40 + POSTINGS_BYTES;
+  // a hash set entry for a series, on top of its id, which the series table holds already
+  private static final long SERIES_BYTES = 48;
+
+  private final NavigableMap<String, Postings> postings;
+  // marks the posting lists this index may change in place; lists shared with a fork are
+  // copied before they are changed
+  private Object owner;
+  // an estimate of the heap the index takes, kept up to date as it changes
+  private long bytes;
+  // counts the times words have been taken out
+  private volatile long generation;
+
+  TextIndex() {
+    this.postings = new TreeMap<>();
+    this.owner = new Object();
+  }
+
+  private TextIndex(TextIndex origin) {
+    this.postings = new TreeMap<>(origin.postings);
+    this.owner = new Object();
+    this.bytes = origin.bytes;
+  }
+
+  /**
+   * Makes a copy of this index for a fork of its calendar. The posting lists are shared until
+   * either index changes one, which then copies it first.
+   *
+   * @return the copy
+   */
+  synchronized TextIndex fork() {
+    // neither side owns the lists from now on
+    owner = new Object();
+    return new TextIndex(this);
+  }
+
+  /**
+   * Gets the generation of the index, which changes whenever words are taken out.
+   *
+   * @return the generation
+   */
+  long generation() {
+    return generation;
+  }
+
+  /**
+   * Indexes the words that a new version of the events has and an older one did not, and finds
+   * the words the new version no longer has. Only the events and series that differ between the
+   * versions are looked at.
+   *
+   * @param before the version the index follows now
+   * @param after  the version about to be published
+   * @return the words to take out once the new version is published
+   */
+  synchronized Stale add(IntervalTree before, IntervalTree after) {
+    Stale stale = new Stale();
+    after.diffStored(before, (id, old, updated) -> {
+      Set<String> oldWords = indexedById(before, old) ? words(old.getSubject(),
+              old.getDescription(), old.getLocation()) : Set.of();
+      Set<String> newWords = indexedById(after, updated) ? words(updated.getSubject(),
+              updated.getDescription(), updated.getLocation()) : Set.of();
+      for (String word : newWords) {
+        if (!oldWords.contains(word)) {
+          Postings list = writable(word);
+          long size = list.bytes();
+          list.add(id);
+          bytes += list.bytes() - size;
+        }
+      }
+      for (String word : oldWords) {
+        if (!newWords.contains(word)) {
+          stale.words.add(word);
+          stale.ids.add(id);
+          stale.series.add(null);
+        }
+      }
+    }, (seriesId, old, updated) -> {
+      Set<String> oldWords = old == null ? Set.of()
+              : words(old.getSubject(), old.getDescription(), old.getLocation());
+      Set<String> newWords = updated == null ? Set.of()
+              : words(updated.getSubject(), updated.getDescription(), updated.getLocation());
+      for (String word : newWords) {
+        if (!oldWords.contains(word)) {
+          Postings list = writable(word);
+          long size = list.bytes();
+          list.addSeries(seriesId);
+          bytes += list.bytes() - size;
+        }
+      }
+      for (String word : oldWords) {
+        if (!newWords.contains(word)) {
+          stale.words.add(word);
+          stale.ids.add(0L);
+          stale.series.add(seriesId);
+        }
+      }
+    });
+    return stale;
+  }
+
+  /**
+   * Takes out the words a published version no longer has, starting a new generation if there
+   * are any. Words left without events or series are forgotten.
+   *
+   * @param stale the words found when the version was indexed
+   */
+  synchronized void prune(Stale stale) {
+    if (stale.words.isEmpty()) {
+      return;
+    }
+    generation++;
+    for (int i = 0; i < stale.words.size(); i++) {
+      String word = stale.words.get(i);
+      if (!postings.containsKey(word)) {
+        continue;
+      }
+      Postings list = writable(word);
+      long before = list.bytes();
+      if (stale.series.get(i) == null) {
+        list.remove(stale.ids.get(i));
+      } else {
+        list.removeSeries(stale.series.get(i));
+      }
+      bytes += list.bytes() - before;
+      if (list.isEmpty()) {
+        postings.remove(word);
+        bytes -= WORD_BYTES + MemoryFootprint.stringBytes(word) + list.bytes();
+      }
+    }
+  }
+
+  /**
+   * Estimates the heap the index takes. Arrays that have grown are counted at their current
+   * size, without the ones they replaced.
+   *
+   * @return the bytes
+   */
+  synchronized long estimatedBytes() {
+    return bytes;
+  }
+
+  /**
+   * Estimates the heap this index shares with the index it was forked from: the posting lists
+   * neither has changed since, with their words. Only the map entries are each index's own.
+   *
+   * @param origin the index this one was forked from
+   * @return the bytes
+   */
+  long sharedBytes(TextIndex origin) {
+    // a fork is always locked before its origin
+    synchronized (this) {
+      synchronized (origin) {
+        long shared = 0;
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+          Postings list = entry.getValue();
+          if (origin.postings.get(entry.getKey()) == list) {
+            shared += POSTINGS_BYTES + MemoryFootprint.stringBytes(entry.getKey()) + list.bytes();
+          }
+        }
+        return shared;
+      }
+    }
+  }
+
+  /**
+   * Finds the ids of the events that may have every term of a query, by intersecting the
+   * posting lists of the terms. A prefix term takes the union of the lists of every word it
+   * starts. A series in a list stands for the ids of its occurrences in the given version.
+   *
+   * @param terms  the terms of the query
+   * @param events the version of the events whose series are looked up
+   * @return the candidate ids in ascending order
+   */
+  synchronized long[] candidates(List<Term> terms, IntervalTree events) {
+    long[] result = null;
+    for (Term term : terms) {
+      IdList ids = new IdList();
+      if (term.prefix) {
+        for (Postings list : postings.subMap(term.word, true, term.word + Character.MAX_VALUE,
+                false).values()) {
+          list.collect(ids, events);
+        }
+      } else {
+        Postings list = postings.get(term.word);
+        if (list != null) {
+          list.collect(ids, events);
+        }
+      }
+      long[] sorted = ids.sorted();
+      result = result == null ? sorted : intersect(result, sorted);
+      if (result.length == 0) {
+        break;
+      }
+    }
+    return result == null ? new long[0] : result;
+  }
+
+  /**
+   * Splits a query into terms. Quotes are ignored and a word ending in '*' matches every word it
+   * starts.
+   *
+   * @param query the query
+   * @return the terms
+   * @throws IllegalArgumentException if the query has no words
+   */
+  static List<Term> parse(String query) throws IllegalArgumentException {
+    List<Term> terms = new ArrayList<>();
+    if (query != null) {
+      for (String part : query.trim().split("\\s+")) {
+        boolean prefix = part.replace("\"", "").endsWith("*");
+        List<String> words = tokenize(part);
+        for (int i = 0; i < words.size(); i++) {
+          terms.add(new Term(words.get(i), prefix && i == words.size() - 1));
+        }
+      }
+    }
+    if (terms.isEmpty()) {
+      throw new IllegalArgumentException("Search needs at least one word");
+    }
+    return terms;
+  }
+
+  /**
+   * Checks whether an event's text has every term of a query.
+   *
+   * @param event the event
+   * @param terms the terms of the query
+   * @return true if every term matches a word of the event
+   */
+  static boolean matches(Event event, List<Term> terms) {
+    List<String> words = tokenize(event.getSubject() + " " + event.getDescription() + " "
+            + event.getLocation());
+    for (Term term : terms) {
+      boolean found = false;
+      for (String word : words) {
+        if (term.prefix ? word.startsWith(term.word) : word.equals(term.word)) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Splits text into lower case words made of letters and digits.
+   *
+   * @param text the text
+   * @return the words in order, with repeats
+   */
+  static List<String> tokenize(String text) {
+    List<String> words = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (inWord && start < 0) {
+        start = i;
+      } else if (!inWord && start >= 0) {
+        words.add(text.substring(start, i).toLowerCase());
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Checks whether an event as it is stored in a version is indexed by its id. An occurrence
+   * that follows a series in the table is found through the series instead.
+   */
+  private static boolean indexedById(IntervalTree tree, Event stored) {
+    return stored != null
+            && !(stored.followsSeries() && tree.getSeries(stored.getSeriesId()) != null);
+  }
+
+  private static Set<String> words(String subject, String description, String location) {
+    return new HashSet<>(tokenize(subject + " " + description + " " + location));
+  }
+
+  /**
+   * Gets the posting list of a word to change, adding the word if it is new and copying the
+   * list first if a fork of the index shares it.
+   */
+  private Postings writable(String word) {
+    Postings list = postings.get(word);
+    if (list == null) {
+      list = new Postings(owner);
+      postings.put(word, list);
+      bytes += WORD_BYTES + MemoryFootprint.stringBytes(word) + list.bytes();
+    } else if (list.owner != owner) {
+      list = list.copy(owner);
+      postings.put(word, list);
+    }
+    return list;
+  }
+
+  private static long[] intersect(long[] a, long[] b) {
+    long[] result = new long[Math.min(a.length, b.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        result[size++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  /**
+   * One word of a query, which either has to appear as it is or, for a prefix, start a word.
+   */
+  static final class Term {
+    private final String word;
+    private final boolean prefix;
+
+    Term(String word, boolean prefix) {
+      this.word = word;
+      this.prefix = prefix;
+    }
+  }
+
+  /**
+   * The words a new version of the events dropped, each with the id or the series it was
+   * dropped from.
+   */
+  static final class Stale {
+    private final List<String> words = new ArrayList<>();
+    private final List<Long> ids = new ArrayList<>();
+    // the series a word was dropped from, or null where it was dropped from an id
+    private final List<String> series = new ArrayList<>();
+  }
+
+  /**
+   * Ids collected from posting lists, in any order and with repeats until sorted.
+   */
+  private static final class IdList {
+    private long[] ids = new long[16];
+    private int size;
+
+    private void add(long id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+
+    private long[] sorted() {
+      Arrays.sort(ids, 0, size);
+      int unique = 0;
+      for (int i = 0; i < size; i++) {
+        if (unique == 0 || ids[unique - 1] != ids[i]) {
+          ids[unique++] = ids[i];
+        }
+      }
+      return Arrays.copyOf(ids, unique);
+    }
+  }
+
+  /**
+   * The ids and series a word appears in. New events have higher ids than every event before
+   * them, so adding an id is nearly always an append. A removed id is only marked, and an id
+   * added out of order, when an edit or an undo brings an older event back, waits in a short
+   * list of its own; both are cleared out into the sorted ids once there are enough of them.
+   * Reading a list never changes it, so a list can be shared with a fork.
+   */
+  private static final class Postings {
+    private final Object owner;
+    private long[] ids;
+    private int size;
+    // positions in ids whose id was removed
+    private BitSet removed;
+    private int removedCount;
+    private long[] late;
+    private int lateSize;
+    private Set<String> series;
+
+    private Postings(Object owner) {
+      this.owner = owner;
+      this.ids = new long[4];
+      this.removed = new BitSet();
+      this.late = new long[0];
+    }
+
+    private Postings copy(Object newOwner) {
+      Postings copy = new Postings(newOwner);
+      copy.ids = Arrays.copyOf(ids, Math.max(size, 4));
+      copy.size = size;
+      copy.removed = (BitSet) removed.clone();
+      copy.removedCount = removedCount;
+      copy.late = Arrays.copyOf(late, lateSize);
+      copy.lateSize = lateSize;
+      copy.series = series == null ? null : new HashSet<>(series);
+      return copy;
+    }
+
+    private void add(long id) {
+      if (size == 0 || ids[size - 1] < id) {
+        if (size == ids.length) {
+          ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+        return;
+      }
+      int position = Arrays.binarySearch(ids, 0, size, id);
+      if (position >= 0) {
+        if (removed.get(position)) {
+          removed.clear(position);
+          removedCount--;
+        }
+      } else if (indexOfLate(id) < 0) {
+        if (lateSize == late.length) {
+          late = Arrays.copyOf(late, Math.max(4, lateSize * 2));
+        }
+        late[lateSize++] = id;
+        if (lateSize > 16 + size / 8) {
+          compact();
+        }
+      }
+    }
+
+    private void remove(long id) {
+      int position = Arrays.binarySearch(ids, 0, size, id);
+      if (position >= 0) {
+        if (!removed.get(position)) {
+          removed.set(position);
+          removedCount++;
+          if (removedCount * 2 > size) {
+            compact();
+          }
+        }
+        return;
+      }
+      position = indexOfLate(id);
+      if (position >= 0) {
+        late[position] = late[--lateSize];
+      }
+    }
+
+    private void addSeries(String seriesId) {
+      if (series == null) {
+        series = new HashSet<>();
+      }
+      series.add(seriesId);
+    }
+
+    private void removeSeries(String seriesId) {
+      if (series != null && series.remove(seriesId) && series.isEmpty()) {
+        series = null;
+      }
+    }
+
+    private boolean isEmpty() {
+      return size == removedCount && lateSize == 0 && series == null;
+    }
+
+    /**
+     * Adds the ids of this word to a list, with the occurrences of its series in a version.
+     */
+    private void collect(IdList list, IntervalTree events) {
+      for (int i = 0; i < size; i++) {
+        if (removedCount == 0 || !removed.get(i)) {
+          list.add(ids[i]);
+        }
+      }
+      for (int i = 0; i < lateSize; i++) {
+        list.add(late[i]);
+      }
+      if (series != null) {
+        for (String seriesId : series) {
+          SeriesDetails details = events.getSeries(seriesId);
+          if (details != null) {
+            for (long id = details.getFirstId(); id <= details.getLastId(); id++) {
+              list.add(id);
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Drops the removed ids and merges in the ones added out of order.
+     */
+    private void compact() {
+      Arrays.sort(late, 0, lateSize);
+      long[] merged = new long[Math.max(4, size - removedCount + lateSize)];
+      int count = 0;
+      int j = 0;
+      for (int i = 0; i < size; i++) {
+        if (removed.get(i)) {
+          continue;
+        }
+        while (j < lateSize && late[j] < ids[i]) {
+          merged[count++] = late[j++];
+        }
+        merged[count++] = ids[i];
+      }
+      while (j < lateSize) {
+        merged[count++] = late[j++];
+      }
+      ids = merged;
+      size = count;
+      removed = new BitSet();
+      removedCount = 0;
+      late = new long[0];
+      lateSize = 0;
+    }
+
+    private int indexOfLate(long id) {
+      for (int i = 0; i < lateSize; i++) {
+        if (late[i] == id) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Estimates the heap the arrays and series of this list take.
+     */
+    private long bytes() {
+      return 8L * ids.length + 8L * late.length + removed.size() / 8
+              + (series == null ? 0 : SERIES_BYTES * series.size());
+    }
+  }
+}
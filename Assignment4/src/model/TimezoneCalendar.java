@@ -1,8 +1,6 @@
 package model;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.TimeZone;
 
 import view.View;
@@ -13,6 +11,11 @@ import view.View;
  */
 public class TimezoneCalendar extends SingleCalendar {
   TimeZone timeZone;
+  // the name this is listed under by the calendars that made it, or null if it is not listed
+  volatile String listedName;
+  // the calendar this was forked from and its events at the time, or null if it is no fork
+  final TimezoneCalendar forkedFrom;
+  final IntervalTree forkedAt;
 
   /**
    * Constructs a timezoneCalendar object.
@@ -22,6 +25,41 @@ public class TimezoneCalendar extends SingleCalendar {
   public TimezoneCalendar(View view, TimeZone timeZone) {
     super(view);
     this.timeZone = timeZone;
+    this.forkedFrom = null;
+    this.forkedAt = null;
+  }
+
+  /**
+   * Constructs a fork of another calendar in the same timezone.
+   *
+   * @param view   view
+   * @param origin the calendar to fork, which must be locked
+   */
+  private TimezoneCalendar(View view, TimezoneCalendar origin) {
+    super(view, origin);
+    this.timeZone = origin.timeZone;
+    this.forkedFrom = origin;
+    this.forkedAt = events;
+  }
+
+  /**
+   * Makes a fork of this calendar that shares its events until either of them changes.
+   *
+   * @param view the view for the fork
+   * @return the fork
+   */
+  synchronized TimezoneCalendar fork(View view) {
+    return new TimezoneCalendar(view, this);
+  }
+
+  /**
+   * Gets the day boundaries of this calendar's timezone, which are worked out once for every
+   * calendar in the timezone.
+   *
+   * @return the boundaries
+   */
+  DayBoundaries days() {
+    return DayBoundaries.of(timeZone.toZoneId());
   }
 
   /**
@@ -30,47 +68,50 @@ public class TimezoneCalendar extends SingleCalendar {
    * @param newTimeZone the new timezone to update to
    * @throws IllegalArgumentException if newTimeZone is null
    */
-  public void updateTimes(TimeZone newTimeZone) {
+  public synchronized void updateTimes(TimeZone newTimeZone) {
     if (newTimeZone == null) {
       throw new IllegalArgumentException("New timezone cannot be null");
     }
 
-    TimeZone oldTimeZone = this.timeZone;
-    List<Event> allEvents = new ArrayList<>();
-
-    // collect events
-    for (List<Event> events : eventsByStartDate.values()) {
-      allEvents.addAll(events);
-    }
-
-    // get rid of all old events
-    eventsByStartDate.clear();
+    DayBoundaries oldDays = days();
+    DayBoundaries newDays = DayBoundaries.of(newTimeZone.toZoneId());
+    IntervalTree updatedEvents = events.withoutEvents();
 
     // update the timezone
     this.timeZone = newTimeZone;
 
     // add the events back with the right time for this timezone
-    for (Event event : allEvents) {
-      LocalDateTime newStart = event.getStartDateTime()
-              .atZone(oldTimeZone.toZoneId())
-              .withZoneSameInstant(newTimeZone.toZoneId())
-              .toLocalDateTime();
-
-      LocalDateTime newEnd = event.getEndDateTime()
-              .atZone(oldTimeZone.toZoneId())
-              .withZoneSameInstant(newTimeZone.toZoneId())
-              .toLocalDateTime();
+    for (Event event : events.all()) {
+      updatedEvents = updatedEvents.insert(moveEvent(event, oldDays, newDays)
+              .stored(event.getId(), event.followsSeries()));
+    }
+    if (archive != null) {
+      archive = archive.rewrite(event -> moveEvent(event, oldDays, newDays)
+              .stored(event.getId(), false));
+    }
 
-      Event updatedEvent = Event.getBuilder(event.getSubject(), newStart)
-              .endDateTime(newEnd)
-              .description(event.getDescription())
-              .location(event.getLocation())
-              .status(event.getStatus())
-              .seriesId(event.getSeriesId())
-              .build();
+    // replace the old events all at once
+    resetEvents(updatedEvents);
+  }
 
-      eventsByStartDate.computeIfAbsent(newStart, k -> new ArrayList<>()).add(updatedEvent);
+  /**
+   * Creates a copy of an event that starts and ends at the same instants in another timezone.
+   *
+   * @param event   the event to be moved
+   * @param oldDays the day boundaries of the timezone the event's times are in
+   * @param newDays the day boundaries of the timezone to move the event to
+   * @return the moved event, without an id
+   */
+  private static Event moveEvent(Event event, DayBoundaries oldDays, DayBoundaries newDays) {
+    LocalDateTime newStart = oldDays.convert(event.getStartDateTime(), newDays);
+    LocalDateTime newEnd = oldDays.convert(event.getEndDateTime(), newDays);
 
-    }
+    return Event.getBuilder(event.getSubject(), newStart)
+            .endDateTime(newEnd)
+            .description(event.getDescription())
+            .location(event.getLocation())
+            .status(event.getStatus())
+            .seriesId(event.getSeriesId())
+            .build();
   }
-}
\ No newline at end of file
+}
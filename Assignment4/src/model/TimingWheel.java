@@ -0,0 +1,143 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel: a set of items that each become due at a deadline, where adding an
+ * item and stepping the clock forward by one tick both take constant time however many items are
+ * waiting. Level 0 has one slot per tick; each level above it has slots as wide as a whole turn
+ * of the level below. Items far away wait in a coarse slot and drop to finer levels as their time
+ * approaches, so nothing is ever sorted.
+ *
+ * <p>Not thread-safe; it is meant to be driven by a single thread.
+ *
+ * @param <T> the type of the items
+ */
+final class TimingWheel<T> {
+  private static final int BITS = 6;
+  private static final int SLOTS = 1 << BITS;
+  private static final int LEVELS = 4;
+
+  private final long tickMillis;
+  private final List<List<Entry<T>>> slots;
+  // items further away than the top level can hold, placed again as the wheel turns
+  private final List<Entry<T>> overflow;
+  private final List<T> due;
+  private long currentTick;
+  private int size;
+
+  /**
+   * Creates an empty wheel.
+   *
+   * @param tickMillis the width of a tick in milliseconds
+   * @param nowMillis  the current time in milliseconds
+   * @throws IllegalArgumentException if the tick is not positive
+   */
+  TimingWheel(long tickMillis, long nowMillis) throws IllegalArgumentException {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("Tick must be positive");
+    }
+    this.tickMillis = tickMillis;
+    this.slots = new ArrayList<>(SLOTS * LEVELS);
+    for (int i = 0; i < SLOTS * LEVELS; i++) {
+      slots.add(new ArrayList<>());
+    }
+    this.overflow = new ArrayList<>();
+    this.due = new ArrayList<>();
+    this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+  }
+
+  /**
+   * Gets the number of items that have not been handed out yet.
+   *
+   * @return the number of items
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Adds an item. An item whose deadline has already passed is handed out by the next advance.
+   *
+   * @param deadlineMillis when the item is due, in milliseconds
+   * @param item           the item
+   */
+  void add(long deadlineMillis, T item) {
+    size++;
+    place(new Entry<>(Math.floorDiv(deadlineMillis, tickMillis), item));
+  }
+
+  /**
+   * Moves the wheel forward to the given time and hands out every item due by then, in order of
+   * their ticks.
+   *
+   * @param nowMillis the current time in milliseconds
+   * @return the items that are due
+   */
+  List<T> advance(long nowMillis) {
+    long target = Math.floorDiv(nowMillis, tickMillis);
+    while (currentTick < target) {
+      currentTick++;
+      // cascade from the coarsest level down so entries land before their slot is emptied
+      for (int level = LEVELS - 1; level > 0; level--) {
+        if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+          List<Entry<T>> slot = slots.get(index(level, currentTick));
+          List<Entry<T>> moving = new ArrayList<>(slot);
+          slot.clear();
+          for (Entry<T> entry : moving) {
+            place(entry);
+          }
+        }
+      }
+      if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0 && !overflow.isEmpty()) {
+        List<Entry<T>> moving = new ArrayList<>(overflow);
+        overflow.clear();
+        for (Entry<T> entry : moving) {
+          place(entry);
+        }
+      }
+      List<Entry<T>> slot = slots.get(index(0, currentTick));
+      for (Entry<T> entry : slot) {
+        due.add(entry.item);
+      }
+      slot.clear();
+    }
+    List<T> result = new ArrayList<>(due);
+    size -= due.size();
+    due.clear();
+    return result;
+  }
+
+  private void place(Entry<T> entry) {
+    long delta = entry.tick - currentTick;
+    if (delta <= 0) {
+      due.add(entry.item);
+      return;
+    }
+    for (int level = 0; level < LEVELS; level++) {
+      if (delta < 1L << (BITS * (level + 1))) {
+        slots.get(index(level, entry.tick)).add(entry);
+        return;
+      }
+    }
+    overflow.add(entry);
+  }
+
+  private static int index(int level, long tick) {
+    return level * SLOTS + (int) ((tick >>> (BITS * level)) & (SLOTS - 1));
+  }
+
+  /**
+   * An item together with the tick it is due at.
+   */
+  private static final class Entry<T> {
+    private final long tick;
+    private final T item;
+
+    private Entry(long tick, T item) {
+      this.tick = tick;
+      this.item = item;
+    }
+  }
+}
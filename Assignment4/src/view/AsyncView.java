@@ -0,0 +1,423 @@
+package view;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A view that never writes on the caller's thread. Messages are put on a bounded lock-free ring
+ * buffer and a background writer thread drains them in batches, so a slow terminal or pipe does
+ * not stall the model. What happens when the buffer is full is decided by a
+ * {@link BackpressurePolicy}.
+ *
+ * <p>This view is also an {@link Appendable}, so it can be handed to controllers that write
+ * their output to an Appendable (such as the spreadsheet controllers). Text appended that way is
+ * written to the message stream exactly as given.
+ *
+ * <p>Anything still buffered is written when {@link #close()} is called, or by a shutdown hook
+ * if the JVM exits first.
+ */
+public class AsyncView implements View, Appendable, Closeable {
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final int BATCH_SIZE = 256;
+  // the most messages the overflow batch holds before later ones are dropped
+  private static final int OVERFLOW_LIMIT = 1 << 16;
+  private static final long WAIT_NANOS = 50_000L;
+
+  private final RingBuffer<Message> buffer;
+  private final Appendable out;
+  private final Appendable err;
+  private final BackpressurePolicy policy;
+  private final Thread writer;
+  private final Thread shutdownHook;
+  private final Object sinkLock = new Object();
+  private final Object overflowLock = new Object();
+  private final Object drainLock = new Object();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong droppedTotal = new AtomicLong();
+
+  private Batch overflow;
+  private volatile boolean overflowing;
+  private volatile boolean closed;
+  private volatile boolean writerIdle;
+  private volatile long written;
+  private volatile IOException failure;
+
+  /**
+   * Creates an asynchronous view that writes to the console and blocks callers when its buffer
+   * is full.
+   */
+  public AsyncView() {
+    this(System.out, System.err, DEFAULT_CAPACITY, BackpressurePolicy.BLOCK);
+  }
+
+  /**
+   * Creates an asynchronous view that writes to the given destinations.
+   *
+   * @param out      where messages are written
+   * @param err      where errors are written
+   * @param capacity the number of messages that can be buffered before the policy applies
+   * @param policy   what to do with a message when the buffer is full
+   * @throws IllegalArgumentException if any argument is null or the capacity is not positive
+   */
+  public AsyncView(Appendable out, Appendable err, int capacity, BackpressurePolicy policy)
+          throws IllegalArgumentException {
+    if (out == null || err == null || policy == null) {
+      throw new IllegalArgumentException("Outputs and policy cannot be null");
+    }
+    this.buffer = new RingBuffer<>(capacity);
+    this.out = out;
+    this.err = err;
+    this.policy = policy;
+
+    this.writer = new Thread(this::drainLoop, "async-view-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+
+    this.shutdownHook = new Thread(this::close, "async-view-flush");
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+  }
+
+  @Override
+  public void displayMessage(String message) {
+    enqueue(new Message(message + System.lineSeparator(), false));
+  }
+
+  @Override
+  public void displayError(String error) {
+    enqueue(new Message("Error: " + error + System.lineSeparator(), true));
+  }
+
+  @Override
+  public Appendable append(CharSequence text) {
+    enqueue(new Message(String.valueOf(text), false));
+    return this;
+  }
+
+  @Override
+  public Appendable append(CharSequence text, int start, int end) {
+    CharSequence source = text == null ? "null" : text;
+    return append(source.subSequence(start, end));
+  }
+
+  @Override
+  public Appendable append(char c) {
+    return append(String.valueOf(c));
+  }
+
+  /**
+   * Waits until every message handed to this view so far has been written.
+   *
+   * @throws IllegalStateException if the writer was unable to write to its destination
+   */
+  public void flush() throws IllegalStateException {
+    long target = buffer.produced();
+    LockSupport.unpark(writer);
+    while ((written < target || overflowing) && writer.isAlive()) {
+      LockSupport.parkNanos(WAIT_NANOS);
+      LockSupport.unpark(writer);
+    }
+    checkFailure();
+  }
+
+  /**
+   * Writes everything that is still buffered and stops the writer thread. Messages displayed
+   * after closing are written directly on the caller's thread.
+   *
+   * @throws IllegalStateException if the writer was unable to write to its destination
+   */
+  @Override
+  public void close() throws IllegalStateException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    LockSupport.unpark(writer);
+    drainIfClosed();
+    if (Thread.currentThread() != shutdownHook) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(shutdownHook);
+      } catch (IllegalStateException e) {
+        // the JVM is already shutting down, the hook will find this view closed
+      }
+    }
+    checkFailure();
+  }
+
+  /**
+   * Gets the number of messages discarded because the buffer was full.
+   *
+   * @return the number of dropped messages
+   */
+  public long getDroppedCount() {
+    return droppedTotal.get();
+  }
+
+  /**
+   * Gets the policy this view applies when its buffer is full.
+   *
+   * @return the backpressure policy
+   */
+  public BackpressurePolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Hands a message to the writer thread, applying the backpressure policy if needed.
+   *
+   * @param message the message to be written
+   */
+  private void enqueue(Message message) {
+    if (closed) {
+      writeDirect(message);
+      return;
+    }
+    if (overflowing && policy == BackpressurePolicy.COALESCE) {
+      coalesce(message);
+      wakeWriter();
+      drainIfClosed();
+      return;
+    }
+    if (buffer.offer(message)) {
+      wakeWriter();
+      drainIfClosed();
+      return;
+    }
+
+    switch (policy) {
+      case BLOCK:
+        while (!buffer.offer(message)) {
+          if (closed) {
+            writeDirect(message);
+            return;
+          }
+          LockSupport.unpark(writer);
+          LockSupport.parkNanos(WAIT_NANOS);
+        }
+        wakeWriter();
+        drainIfClosed();
+        break;
+      case DROP:
+        dropped.incrementAndGet();
+        droppedTotal.incrementAndGet();
+        wakeWriter();
+        break;
+      case COALESCE:
+        coalesce(message);
+        wakeWriter();
+        drainIfClosed();
+        break;
+      default:
+        throw new IllegalStateException("Unknown backpressure policy");
+    }
+  }
+
+  /**
+   * Folds a message into the overflow batch. Once overflowing, later messages also go here so
+   * they stay in order behind it. A sink that stalls would let the batch grow without end, so
+   * once it holds {@link #OVERFLOW_LIMIT} messages, later ones are dropped and counted.
+   *
+   * @param message the message that did not fit in the buffer
+   */
+  private void coalesce(Message message) {
+    synchronized (overflowLock) {
+      if (overflow == null) {
+        overflow = new Batch();
+      }
+      if (overflow.messages == OVERFLOW_LIMIT) {
+        dropped.incrementAndGet();
+        droppedTotal.incrementAndGet();
+      } else {
+        overflow.add(message.text, message.error);
+        overflow.messages++;
+      }
+      overflowing = true;
+    }
+  }
+
+  /**
+   * Writes what is left on the caller's thread if the view was closed while a message was being
+   * handed over. The writer may have drained the buffer and stopped before the message arrived,
+   * so once it has stopped, whatever is still buffered is written here.
+   */
+  private void drainIfClosed() {
+    if (!closed || Thread.currentThread() == writer) {
+      return;
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    synchronized (drainLock) {
+      while (drainBatch()) {
+        // keep going until nothing is left
+      }
+    }
+  }
+
+  private void wakeWriter() {
+    if (writerIdle) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  /**
+   * Body of the writer thread. Drains batches until the view is closed and nothing is left.
+   */
+  private void drainLoop() {
+    while (true) {
+      if (drainBatch()) {
+        continue;
+      }
+      if (closed && buffer.consumed() == buffer.produced() && !overflowing) {
+        return;
+      }
+      // producers and close unpark the writer once they see it idle
+      writerIdle = true;
+      if (buffer.consumed() == buffer.produced() && !overflowing && !closed) {
+        LockSupport.park(this);
+      } else {
+        Thread.onSpinWait();
+      }
+      writerIdle = false;
+    }
+  }
+
+  /**
+   * Writes up to one batch of buffered messages. When the buffer is empty, writes the overflow
+   * batch and the count of dropped messages instead.
+   *
+   * @return true if anything was written
+   */
+  private boolean drainBatch() {
+    Batch batch = new Batch();
+    int count = 0;
+    Message message;
+    while (count < BATCH_SIZE && (message = buffer.poll()) != null) {
+      batch.add(message.text, message.error);
+      count++;
+    }
+
+    if (count > 0) {
+      write(batch);
+      written = buffer.consumed();
+      return true;
+    }
+
+    boolean wrote = false;
+    if (overflowing) {
+      Batch pending;
+      synchronized (overflowLock) {
+        pending = overflow;
+        overflow = null;
+      }
+      if (pending != null) {
+        write(pending);
+      }
+      synchronized (overflowLock) {
+        if (overflow == null) {
+          overflowing = false;
+        }
+      }
+      wrote = true;
+    }
+
+    long lost = dropped.getAndSet(0);
+    if (lost > 0) {
+      Batch notice = new Batch();
+      notice.add("Error: " + lost + " message(s) dropped" + System.lineSeparator(), true);
+      write(notice);
+      wrote = true;
+    }
+    return wrote;
+  }
+
+  private void writeDirect(Message message) {
+    Batch batch = new Batch();
+    batch.add(message.text, message.error);
+    write(batch);
+  }
+
+  /**
+   * Writes a batch to the destinations run by run, in the order the text was displayed,
+   * remembering the first failure so it can be reported to the caller of flush or close.
+   *
+   * @param batch the text to be written
+   */
+  private void write(Batch batch) {
+    synchronized (sinkLock) {
+      try {
+        for (Run run : batch.runs) {
+          Appendable destination = run.error ? err : out;
+          destination.append(run.text);
+          if (destination instanceof Flushable) {
+            ((Flushable) destination).flush();
+          }
+        }
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+  }
+
+  private void checkFailure() throws IllegalStateException {
+    IOException e = failure;
+    if (e != null) {
+      throw new IllegalStateException(e.getMessage());
+    }
+  }
+
+  /**
+   * Text waiting to be written, in the order it was displayed. Pieces in a row for the same
+   * destination are joined into one run, so each run is written with one call and messages and
+   * errors come out in the same order as they would from a console view.
+   */
+  private static final class Batch {
+    private final List<Run> runs = new ArrayList<>();
+    private int messages;
+
+    private void add(String text, boolean error) {
+      Run last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+      if (last == null || last.error != error) {
+        last = new Run(error);
+        runs.add(last);
+      }
+      last.text.append(text);
+    }
+  }
+
+  /**
+   * Text in a row for one destination.
+   */
+  private static final class Run {
+    private final StringBuilder text = new StringBuilder();
+    private final boolean error;
+
+    private Run(boolean error) {
+      this.error = error;
+    }
+  }
+
+  /**
+   * A piece of text waiting to be written and which destination it belongs to.
+   */
+  private static final class Message {
+    private final String text;
+    private final boolean error;
+
+    private Message(String text, boolean error) {
+      this.text = text;
+      this.error = error;
+    }
+  }
+}
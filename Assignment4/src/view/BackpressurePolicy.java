@@ -0,0 +1,23 @@
+package view;
+
+/**
+ * Represents what an asynchronous view does when its buffer is full.
+ */
+public enum BackpressurePolicy {
+  /**
+   * The caller waits until the writer thread has made room.
+   */
+  BLOCK,
+
+  /**
+   * The message is discarded and counted. The writer reports how many were lost.
+   */
+  DROP,
+
+  /**
+   * The message is folded into a single overflow batch that the writer emits after the
+   * buffered messages, so the caller never waits. Nothing is lost unless the batch is full,
+   * after which messages are discarded and counted as with DROP.
+   */
+  COALESCE
+}
@@ -6,18 +6,20 @@ import java.awt.Color;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.awt.event.ActionListener;
 import java.util.TimeZone;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.DefaultListModel;
 import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
 
@@ -32,7 +34,9 @@ public class CalendarGUI extends JFrame {
   private static final Color BACKGROUND_COLOR = new Color(200, 220, 250);
 
   private GUIController controller;
-  private JTextArea scheduleArea;
+  private ScheduleLoader loader;
+  private JList<String> scheduleList;
+  private MonthGridPanel monthGrid;
   private JComboBox<String> calendarSelector;
   private JComboBox<String> monthBox;
   private JComboBox<Integer> dayBox;
@@ -48,6 +52,7 @@ public class CalendarGUI extends JFrame {
     if (!result.startsWith("Error")) {
       controller.useCalendar("Default");
     }
+    loader = new ScheduleLoader(controller);
 
     initializeGUI();
   }
@@ -171,12 +176,14 @@ public class CalendarGUI extends JFrame {
     calendarSelector.addActionListener(e -> {
       String selected = (String)calendarSelector.getSelectedItem();
       if (selected != null) {
-        String result = controller.useCalendar(selected);
-        if (result.startsWith("Error")) {
-          JOptionPane.showMessageDialog(this, result, "Error", JOptionPane.ERROR_MESSAGE);
-        } else {
-          updateScheduleView();
-        }
+        loader.edit(() -> controller.useCalendar(selected), result -> {
+          if (result.startsWith("Error")) {
+            JOptionPane.showMessageDialog(this, result, "Error", JOptionPane.ERROR_MESSAGE);
+          } else {
+            updateScheduleView();
+            monthGrid.refresh();
+          }
+        });
       }
     });
 
@@ -184,19 +191,20 @@ public class CalendarGUI extends JFrame {
   }
 
   /**
-   * Updates the calendar list dropdown.
+   * Updates the calendar list dropdown. The list is fetched on the loader's worker.
    */
   public void updateCalendarList() {
-    calendarSelector.removeAllItems();
-    String calendarList = controller.getCalendars();
-    if (!calendarList.startsWith("Error")) {
-      String[] calendars = calendarList.split("\n");
-      for (String calendar : calendars) {
-        if (!calendar.equals("No calendars")) {
-          calendarSelector.addItem(calendar);
+    loader.loadCalendars(calendarList -> {
+      calendarSelector.removeAllItems();
+      if (!calendarList.startsWith("Error")) {
+        String[] calendars = calendarList.split("\n");
+        for (String calendar : calendars) {
+          if (!calendar.equals("No calendars")) {
+            calendarSelector.addItem(calendar);
+          }
         }
       }
-    }
+    });
   }
 
   private void showAddCalendarDialog() {
@@ -214,16 +222,18 @@ public class CalendarGUI extends JFrame {
 
     JButton addButton = new JButton("Add");
     addButton.addActionListener(e -> {
-      String result = controller.createCalendar(nameField.getText(),
-              TimeZone.getTimeZone((String) timezoneBox.getSelectedItem()));
-
-      if (result.startsWith("Error")) {
-        JOptionPane.showMessageDialog(dialog, result, "Error", JOptionPane.ERROR_MESSAGE);
-      } else {
-        updateCalendarList();
-        JOptionPane.showMessageDialog(dialog, result, "Success", JOptionPane.INFORMATION_MESSAGE);
-        dialog.dispose();
-      }
+      String name = nameField.getText();
+      TimeZone timezone = TimeZone.getTimeZone((String) timezoneBox.getSelectedItem());
+      loader.edit(() -> controller.createCalendar(name, timezone), result -> {
+        if (result.startsWith("Error")) {
+          JOptionPane.showMessageDialog(dialog, result, "Error", JOptionPane.ERROR_MESSAGE);
+        } else {
+          updateCalendarList();
+          JOptionPane.showMessageDialog(dialog, result, "Success",
+                  JOptionPane.INFORMATION_MESSAGE);
+          dialog.dispose();
+        }
+      });
     });
 
     dialog.add(addButton);
@@ -273,36 +283,52 @@ public class CalendarGUI extends JFrame {
     dateSelectionPanel.add(new JLabel("Year:"));
     dateSelectionPanel.add(yearBox);
 
-    // Make schedule area
-    scheduleArea = new JTextArea(10, 40);
-    scheduleArea.setEditable(false);
-    scheduleArea.setBackground(new Color(222, 238, 252));
-    JScrollPane scrollPane = new JScrollPane(scheduleArea);
+    // Make schedule list, the prototype keeps it from asking for rows that are not visible
+    scheduleList = new JList<>();
+    scheduleList.setPrototypeCellValue("• Event subject (2025-01-01 00:00 - 2025-01-02 00:00) @ "
+            + "Location");
+    scheduleList.setVisibleRowCount(10);
+    scheduleList.setBackground(new Color(222, 238, 252));
+    JScrollPane scrollPane = new JScrollPane(scheduleList);
+
+    // Make month grid, clicking a day selects it
+    monthGrid = new MonthGridPanel(loader, day -> dayBox.setSelectedItem(day), BACKGROUND_COLOR);
 
     // Add components to center
     centerPanel.add(dateSelectionPanel, BorderLayout.NORTH);
     centerPanel.add(scrollPane, BorderLayout.CENTER);
+    centerPanel.add(monthGrid, BorderLayout.EAST);
 
     add(centerPanel, BorderLayout.CENTER);
   }
 
   /**
-   * Updates the schedule display.
+   * Updates the schedule display. The first page of the schedule is loaded off the event thread
+   * and shown when it arrives, unless the selected date has changed again by then. Further pages
+   * are fetched by the list model as they are scrolled into view.
    */
   public void updateScheduleView() {
-    try {
-      String date = getCurrentSelectedDate();
-      if (date != null) {
-        String schedule = controller.getSchedule(date);
-        if (schedule.startsWith("Error")) {
-          scheduleArea.setText(schedule);
-        } else {
-          scheduleArea.setText(schedule.isEmpty() ? "No events scheduled" : schedule);
-        }
-      }
-    } catch (Exception e) {
-      scheduleArea.setText("Error: " + e.getMessage());
+    String date = getCurrentSelectedDate();
+    if (date == null || loader == null) {
+      return;
     }
+    monthGrid.showMonth(YearMonth.of((Integer) yearBox.getSelectedItem(),
+            monthBox.getSelectedIndex() + 1));
+    loader.loadDay(date, page -> {
+      if (page.getError() != null) {
+        scheduleList.setModel(messageModel(page.getError()));
+      } else if (page.getTotal() == 0) {
+        scheduleList.setModel(messageModel("No events scheduled"));
+      } else {
+        scheduleList.setModel(new EventListModel(loader, page));
+      }
+    });
+  }
+
+  private DefaultListModel<String> messageModel(String message) {
+    DefaultListModel<String> model = new DefaultListModel<>();
+    model.addElement(message);
+    return model;
   }
 
   private String getCurrentSelectedDate() {
@@ -467,13 +493,15 @@ public class CalendarGUI extends JFrame {
                 .status((String) statusBox.getSelectedItem())
                 .build();
 
-        String result = controller.createEvent(event);
-        if (result.startsWith("Error")) {
-          JOptionPane.showMessageDialog(dialog, result, "Error", JOptionPane.ERROR_MESSAGE);
-        } else {
-          dialog.dispose();
-          updateScheduleView();
-        }
+        loader.edit(() -> controller.createEvent(event), result -> {
+          if (result.startsWith("Error")) {
+            JOptionPane.showMessageDialog(dialog, result, "Error", JOptionPane.ERROR_MESSAGE);
+          } else {
+            dialog.dispose();
+            updateScheduleView();
+            monthGrid.refresh();
+          }
+        });
       } catch (Exception ex) {
         JOptionPane.showMessageDialog(dialog,
                 "Error: " + ex.getMessage(),
@@ -578,15 +606,19 @@ public class CalendarGUI extends JFrame {
         String property = (String) propertyBox.getSelectedItem();
         String newValue = newValueField.getText();
 
-        String result = controller.editEvent(property, subject, startDateTime.toString(),
-                endDateTime.toString(), newValue);
-
-        if (result.startsWith("Error")) {
-          JOptionPane.showMessageDialog(dialog, result, "Error", JOptionPane.ERROR_MESSAGE);
-        } else {
-          dialog.dispose();
-          updateScheduleView();
-        }
+        String start = startDateTime.toString();
+        String end = endDateTime.toString();
+        loader.edit(() -> controller.editEvent(property, subject, start, end, newValue),
+                result -> {
+                  if (result.startsWith("Error")) {
+                    JOptionPane.showMessageDialog(dialog, result, "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                  } else {
+                    dialog.dispose();
+                    updateScheduleView();
+                    monthGrid.refresh();
+                  }
+                });
       } catch (Exception ex) {
         JOptionPane.showMessageDialog(dialog,
                 "Error: " + ex.getMessage(),
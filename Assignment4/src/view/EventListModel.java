@@ -0,0 +1,92 @@
+package view;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * A list model for a schedule that only holds the pages that have been looked at. Rows are
+ * fetched one page at a time through a {@link ScheduleLoader} when the list first asks for them,
+ * so a long schedule is never formatted or laid out as a whole. Until a page arrives its rows
+ * read as a placeholder.
+ *
+ * <p>This model is used on the Swing event thread only.
+ */
+public class EventListModel extends AbstractListModel<String> {
+  private static final long serialVersionUID = 1L;
+  static final String LOADING = "Loading...";
+  private static final int MAX_PAGES = 16;
+
+  private final ScheduleLoader loader;
+  private final String start;
+  private final String end;
+  private final int size;
+  private final Map<Integer, List<String>> pages;
+  private final Set<Integer> requested;
+
+  /**
+   * Creates a model for a schedule whose first page has already been loaded.
+   *
+   * @param loader    the loader that fetches further pages
+   * @param firstPage the first page of the schedule and its total size
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public EventListModel(ScheduleLoader loader, SchedulePage firstPage)
+          throws IllegalArgumentException {
+    if (loader == null || firstPage == null) {
+      throw new IllegalArgumentException("Loader and page cannot be null");
+    }
+    this.loader = loader;
+    this.start = firstPage.getStart();
+    this.end = firstPage.getEnd();
+    this.size = firstPage.getTotal();
+    this.pages = new LinkedHashMap<>(MAX_PAGES, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, List<String>> eldest) {
+        return size() > MAX_PAGES;
+      }
+    };
+    this.requested = new HashSet<>();
+    this.pages.put(0, firstPage.getRows());
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public String getElementAt(int index) {
+    int page = index / ScheduleLoader.PAGE_SIZE;
+    List<String> rows = pages.get(page);
+    if (rows == null) {
+      request(page);
+      return LOADING;
+    }
+    int row = index % ScheduleLoader.PAGE_SIZE;
+    return row < rows.size() ? rows.get(row) : "";
+  }
+
+  /**
+   * Asks the loader for a page unless it is already on its way, and repaints its rows when it
+   * arrives.
+   *
+   * @param page the index of the page
+   */
+  private void request(int page) {
+    if (!requested.add(page)) {
+      return;
+    }
+    int first = page * ScheduleLoader.PAGE_SIZE;
+    loader.loadPage(start, end, first, rows -> {
+      requested.remove(page);
+      pages.put(page, rows);
+      int last = Math.min(size, first + ScheduleLoader.PAGE_SIZE) - 1;
+      fireContentsChanged(this, first, last);
+    });
+  }
+}
@@ -0,0 +1,106 @@
+package view;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.GridLayout;
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+
+/**
+ * A month view that shows how many events fall on each day. The counts for a month are fetched
+ * in one query through the {@link ScheduleLoader} and clicking a day hands it to a listener.
+ */
+public class MonthGridPanel extends JPanel {
+  private static final long serialVersionUID = 1L;
+
+  private final ScheduleLoader loader;
+  private final IntConsumer daySelected;
+  private final JLabel title;
+  private final JPanel grid;
+  private YearMonth shown;
+
+  /**
+   * Creates an empty month grid.
+   *
+   * @param loader      the loader used to fetch the counts
+   * @param daySelected called with the day of the month when a day is clicked
+   * @param background  the background colour of the panel
+   */
+  public MonthGridPanel(ScheduleLoader loader, IntConsumer daySelected, Color background) {
+    super(new BorderLayout());
+    this.loader = loader;
+    this.daySelected = daySelected;
+    this.title = new JLabel("", SwingConstants.CENTER);
+    this.grid = new JPanel(new GridLayout(0, 7, 2, 2));
+    setBackground(background);
+    grid.setBackground(background);
+    add(title, BorderLayout.NORTH);
+    add(grid, BorderLayout.CENTER);
+  }
+
+  /**
+   * Shows a month, fetching its counts off the event thread unless it is already shown. Counts
+   * that arrive after another month has been asked for are ignored.
+   *
+   * @param month the month to be shown
+   */
+  public void showMonth(YearMonth month) {
+    if (month.equals(shown)) {
+      return;
+    }
+    shown = month;
+    load(month);
+  }
+
+  /**
+   * Fetches the counts for the month on display again, for example after an edit.
+   */
+  public void refresh() {
+    if (shown != null) {
+      load(shown);
+    }
+  }
+
+  private void load(YearMonth month) {
+    loader.loadMonthCounts(month.toString(), counts -> {
+      if (month.equals(shown)) {
+        render(month, counts);
+      }
+    });
+  }
+
+  private void render(YearMonth month, int[] counts) {
+    title.setText(month.getMonth().getDisplayName(TextStyle.FULL, Locale.getDefault())
+            + " " + month.getYear());
+    grid.removeAll();
+
+    for (DayOfWeek day : DayOfWeek.values()) {
+      grid.add(new JLabel(day.getDisplayName(TextStyle.SHORT, Locale.getDefault()),
+              SwingConstants.CENTER));
+    }
+    // leave blanks before the first day so every column is one weekday
+    int blanks = month.atDay(1).getDayOfWeek().getValue() - 1;
+    for (int i = 0; i < blanks; i++) {
+      grid.add(new JLabel(""));
+    }
+    for (int day = 1; day <= month.lengthOfMonth(); day++) {
+      int count = day - 1 < counts.length ? counts[day - 1] : 0;
+      JButton button = new JButton(count == 0 ? String.valueOf(day)
+              : "<html><center>" + day + "<br>(" + count + ")</center></html>");
+      final int selected = day;
+      button.addActionListener(e -> daySelected.accept(selected));
+      grid.add(button);
+    }
+
+    grid.revalidate();
+    grid.repaint();
+  }
+}
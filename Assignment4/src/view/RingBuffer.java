@@ -0,0 +1,116 @@
+package view;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer that many threads can offer to and a single thread drains.
+ * Every slot carries a sequence number so producers can claim slots with one compare-and-set
+ * and the consumer can tell when a claimed slot has actually been filled.
+ *
+ * @param <E> the type of element held in the buffer
+ */
+final class RingBuffer<E> {
+  private final AtomicReferenceArray<E> slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail;
+  private volatile long head;
+
+  /**
+   * Creates a ring buffer that can hold at least the given number of elements. The capacity is
+   * rounded up to the next power of two.
+   *
+   * @param capacity the minimum number of elements the buffer can hold
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  RingBuffer(int capacity) throws IllegalArgumentException {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.mask = size - 1;
+    this.tail = new AtomicLong();
+    this.head = 0;
+  }
+
+  /**
+   * Adds an element if there is room. Safe to call from any number of threads.
+   *
+   * @param element the element to add
+   * @return true if the element was added, false if the buffer is full
+   */
+  boolean offer(E element) {
+    while (true) {
+      long position = tail.get();
+      int index = (int) (position & mask);
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          slots.set(index, element);
+          // publishing the sequence hands the slot over to the consumer
+          sequences.set(index, position + 1);
+          return true;
+        }
+      } else if (difference < 0) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element. Must only be called from the single consumer thread.
+   *
+   * @return the oldest element, or null if the buffer is empty or the next slot is still being
+   *         filled
+   */
+  E poll() {
+    long position = head;
+    int index = (int) (position & mask);
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    E element = slots.get(index);
+    slots.set(index, null);
+    // recycle the slot for the producer one lap ahead
+    sequences.set(index, position + mask + 1);
+    head = position + 1;
+    return element;
+  }
+
+  /**
+   * Gets the number of elements ever claimed by producers.
+   *
+   * @return the total number of successful offers started so far
+   */
+  long produced() {
+    return tail.get();
+  }
+
+  /**
+   * Gets the number of elements ever removed by the consumer.
+   *
+   * @return the total number of polled elements
+   */
+  long consumed() {
+    return head;
+  }
+
+  /**
+   * Gets the number of slots in this buffer.
+   *
+   * @return the capacity
+   */
+  int capacity() {
+    return mask + 1;
+  }
+}
@@ -0,0 +1,278 @@
+package view;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.swing.SwingUtilities;
+
+import controller.GUIController;
+
+/**
+ * Runs GUIController queries for the GUI on a background worker so the Swing event thread never
+ * waits on the model. A newer day request supersedes older ones: anything still queued or running
+ * for an older request is cancelled and its result is never shown.
+ *
+ * <p>A day is loaded as its first page of events plus a total count; the remaining pages are
+ * fetched on demand with {@link #loadPage}. After a day is loaded, the days and weeks on either
+ * side of it are prefetched into a small cache so that stepping through dates is answered
+ * without touching the model.
+ *
+ * <p>Changes to the model are made on a second worker of their own, one at a time, so the event
+ * thread does not wait for them either, and a slow change never holds up a query.
+ */
+public class ScheduleLoader {
+  /**
+   * The number of events fetched per page.
+   */
+  public static final int PAGE_SIZE = 20;
+  private static final int CACHE_SIZE = 32;
+  private static final int[] PREFETCH_OFFSETS = {1, -1, 7, -7};
+
+  private final GUIController controller;
+  private final Executor deliverer;
+  private final ExecutorService worker;
+  private final ExecutorService editor;
+  private final Map<String, SchedulePage> cache;
+  private final List<Future<?>> pending;
+  private long generation;
+
+  /**
+   * Creates a loader that delivers its results on the Swing event thread.
+   *
+   * @param controller the controller to query
+   */
+  public ScheduleLoader(GUIController controller) {
+    this(controller, SwingUtilities::invokeLater);
+  }
+
+  /**
+   * Creates a loader that delivers its results through the given executor.
+   *
+   * @param controller the controller to query
+   * @param deliverer  runs the callbacks that receive results
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public ScheduleLoader(GUIController controller, Executor deliverer)
+          throws IllegalArgumentException {
+    if (controller == null || deliverer == null) {
+      throw new IllegalArgumentException("Controller and deliverer cannot be null");
+    }
+    this.controller = controller;
+    this.deliverer = deliverer;
+    this.worker = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "schedule-loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.editor = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "schedule-editor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, SchedulePage> eldest) {
+        return size() > CACHE_SIZE;
+      }
+    };
+    this.pending = new ArrayList<>();
+  }
+
+  /**
+   * Loads the first page of a date's schedule and hands it to the callback. A cached page is
+   * handed over right away on the calling thread; otherwise the query runs on the worker and the
+   * result is delivered only if no newer request was made in the meantime.
+   *
+   * @param date     the date to load, formatted as yyyy-MM-dd
+   * @param callback receives the first page of the schedule
+   */
+  public void loadDay(String date, Consumer<SchedulePage> callback) {
+    long request = supersede();
+    SchedulePage cached = cached(date);
+    if (cached != null) {
+      callback.accept(cached);
+      submit(() -> prefetchAround(date, request));
+      return;
+    }
+
+    submit(() -> {
+      if (!isCurrent(request)) {
+        return;
+      }
+      SchedulePage page = query(date);
+      deliver(request, () -> callback.accept(page));
+      prefetchAround(date, request);
+    });
+  }
+
+  /**
+   * Loads one page of a schedule on the worker. Page loads never supersede each other, so a
+   * list can have several pages in flight while it is scrolled.
+   *
+   * @param start    the start date time of the schedule
+   * @param end      the end date time of the schedule
+   * @param offset   the index of the first event on the page
+   * @param callback receives the formatted lines of the page
+   */
+  public void loadPage(String start, String end, int offset, Consumer<List<String>> callback) {
+    worker.submit(() -> {
+      List<String> rows = controller.getSchedulePage(start, end, offset, PAGE_SIZE);
+      deliverer.execute(() -> callback.accept(rows));
+    });
+  }
+
+  /**
+   * Loads the number of events on every day of a month on the worker.
+   *
+   * @param month    the month, formatted as yyyy-MM
+   * @param callback receives the counts, where index 0 is the first day of the month
+   */
+  public void loadMonthCounts(String month, Consumer<int[]> callback) {
+    worker.submit(() -> {
+      int[] counts = controller.getMonthEventCounts(month);
+      deliverer.execute(() -> callback.accept(counts));
+    });
+  }
+
+  /**
+   * Loads the list of calendar names on the worker.
+   *
+   * @param callback receives the newline separated list of calendar names
+   */
+  public void loadCalendars(Consumer<String> callback) {
+    worker.submit(() -> {
+      String calendars = controller.getCalendars();
+      deliverer.execute(() -> callback.accept(calendars));
+    });
+  }
+
+  /**
+   * Makes a change to the model on the edit worker and hands its result to the callback. The
+   * cache is forgotten once the change has been made, before the result is delivered, so
+   * schedules loaded from the callback see the change.
+   *
+   * @param change   makes the change and returns the controller's result message
+   * @param callback receives the result message
+   */
+  public void edit(Supplier<String> change, Consumer<String> callback) {
+    editor.submit(() -> {
+      String result = change.get();
+      invalidate();
+      deliverer.execute(() -> callback.accept(result));
+    });
+  }
+
+  /**
+   * Forgets every cached schedule. Must be called after anything changes the model or the
+   * calendar in use.
+   */
+  public synchronized void invalidate() {
+    cache.clear();
+    generation++;
+  }
+
+  /**
+   * Stops the workers. Pending requests are cancelled; changes already asked for are still made.
+   */
+  public void shutdown() {
+    supersede();
+    worker.shutdownNow();
+    editor.shutdown();
+  }
+
+  /**
+   * Marks every earlier request as stale and cancels whatever is queued or running for it.
+   *
+   * @return the id of the new request
+   */
+  private synchronized long supersede() {
+    for (Future<?> future : pending) {
+      future.cancel(true);
+    }
+    pending.clear();
+    return ++generation;
+  }
+
+  private synchronized boolean isCurrent(long request) {
+    return request == generation;
+  }
+
+  private synchronized void submit(Runnable task) {
+    pending.removeIf(Future::isDone);
+    pending.add(worker.submit(task));
+  }
+
+  private synchronized SchedulePage cached(String date) {
+    return cache.get(date);
+  }
+
+  /**
+   * Runs the query for a date and caches the result unless the cache was invalidated while the
+   * query was running. The count is only asked for when the first page is full.
+   *
+   * @param date the date to query
+   * @return the first page of the date's schedule
+   */
+  private SchedulePage query(String date) {
+    long before;
+    synchronized (this) {
+      before = generation;
+    }
+    String start = date + "T00:00";
+    String end = date + "T23:59:59.999999999";
+    List<String> rows = controller.getSchedulePage(start, end, 0, PAGE_SIZE);
+    if (rows.size() == 1 && rows.get(0).startsWith("Error")) {
+      return SchedulePage.failed(start, end, rows.get(0));
+    }
+    int total = rows.size() < PAGE_SIZE ? rows.size() : controller.getEventCount(start, end);
+    SchedulePage page = new SchedulePage(start, end, total, rows);
+    synchronized (this) {
+      if (before == generation) {
+        cache.put(date, page);
+      }
+    }
+    return page;
+  }
+
+  private void deliver(long request, Runnable delivery) {
+    deliverer.execute(() -> {
+      if (isCurrent(request)) {
+        delivery.run();
+      }
+    });
+  }
+
+  /**
+   * Warms the cache with the neighbouring days and weeks of a date, stopping as soon as a newer
+   * request arrives.
+   *
+   * @param date    the date that was just loaded
+   * @param request the request the prefetch belongs to
+   */
+  private void prefetchAround(String date, long request) {
+    LocalDate day;
+    try {
+      day = LocalDate.parse(date);
+    } catch (Exception e) {
+      return;
+    }
+    for (int offset : PREFETCH_OFFSETS) {
+      if (!isCurrent(request) || Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      String neighbour = day.plusDays(offset).toString();
+      if (cached(neighbour) == null) {
+        query(neighbour);
+      }
+    }
+  }
+}
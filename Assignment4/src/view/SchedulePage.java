@@ -0,0 +1,77 @@
+package view;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the first page of a schedule as loaded for the GUI, together with the total number
+ * of events so the rest can be fetched lazily.
+ */
+public final class SchedulePage {
+  private final String start;
+  private final String end;
+  private final int total;
+  private final List<String> rows;
+  private final String error;
+
+  /**
+   * Creates a loaded page.
+   *
+   * @param start the start date time of the schedule
+   * @param end   the end date time of the schedule
+   * @param total the number of events in the whole schedule
+   * @param rows  the formatted lines of the first page
+   */
+  public SchedulePage(String start, String end, int total, List<String> rows) {
+    this.start = start;
+    this.end = end;
+    this.total = total;
+    this.rows = Collections.unmodifiableList(rows);
+    this.error = null;
+  }
+
+  private SchedulePage(String start, String end, String error) {
+    this.start = start;
+    this.end = end;
+    this.total = 0;
+    this.rows = Collections.emptyList();
+    this.error = error;
+  }
+
+  /**
+   * Creates a page for a schedule that could not be loaded.
+   *
+   * @param start the start date time of the schedule
+   * @param end   the end date time of the schedule
+   * @param error the error message
+   * @return the failed page
+   */
+  public static SchedulePage failed(String start, String end, String error) {
+    return new SchedulePage(start, end, error);
+  }
+
+  public String getStart() {
+    return start;
+  }
+
+  public String getEnd() {
+    return end;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public List<String> getRows() {
+    return rows;
+  }
+
+  /**
+   * Gets the error message if the schedule could not be loaded.
+   *
+   * @return the error message, or null if the page loaded
+   */
+  public String getError() {
+    return error;
+  }
+}
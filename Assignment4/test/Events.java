@@ -0,0 +1,49 @@
+import java.time.LocalDateTime;
+
+import model.Event;
+
+/**
+ * Builds the events the tests put into calendars, so each test only spells out what matters to
+ * it.
+ */
+final class Events {
+  private Events() {
+  }
+
+  /**
+   * Starts building an event that lasts one hour.
+   *
+   * @param subject the subject of the event
+   * @param start   the start, as an ISO date and time
+   * @return a builder for the event
+   */
+  static Event.EventBuilder hour(String subject, String start) {
+    return Event.getBuilder(subject, LocalDateTime.parse(start))
+            .endDateTime(LocalDateTime.parse(start).plusHours(1));
+  }
+
+  /**
+   * Creates an event that lasts one hour.
+   *
+   * @param subject the subject of the event
+   * @param start   the start, as an ISO date and time
+   * @return the event
+   */
+  static Event event(String subject, String start) {
+    return hour(subject, start).build();
+  }
+
+  /**
+   * Creates an event with the given start and end.
+   *
+   * @param subject the subject of the event
+   * @param start   the start, as an ISO date and time
+   * @param end     the end, as an ISO date and time
+   * @return the event
+   */
+  static Event event(String subject, String start, String end) {
+    return Event.getBuilder(subject, LocalDateTime.parse(start))
+            .endDateTime(LocalDateTime.parse(end))
+            .build();
+  }
+}
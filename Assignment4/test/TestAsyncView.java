@@ -0,0 +1,197 @@
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import view.AsyncView;
+import view.BackpressurePolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the asynchronous batching view.
+ */
+public class TestAsyncView {
+  private static final String NL = System.lineSeparator();
+
+  @Test
+  public void testMessagesAndErrorsWrittenInOrder() {
+    StringBuilder out = new StringBuilder();
+    StringBuilder err = new StringBuilder();
+    AsyncView view = new AsyncView(out, err, 4, BackpressurePolicy.BLOCK);
+
+    for (int i = 0; i < 100; i++) {
+      view.displayMessage("message " + i);
+    }
+    view.displayError("bad command");
+    view.close();
+
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      expected.append("message ").append(i).append(NL);
+    }
+    assertEquals(expected.toString(), out.toString());
+    assertEquals("Error: bad command" + NL, err.toString());
+  }
+
+  @Test
+  public void testMessagesAndErrorsKeepTheirOrder() {
+    StringBuilder console = new StringBuilder();
+    AsyncView view = new AsyncView(console, console, 4, BackpressurePolicy.BLOCK);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      view.displayMessage("message " + i);
+      expected.append("message ").append(i).append(NL);
+      if (i % 7 == 0) {
+        view.displayError("error " + i);
+        expected.append("Error: error ").append(i).append(NL);
+      }
+    }
+    view.close();
+    assertEquals(expected.toString(), console.toString());
+  }
+
+  @Test
+  public void testMessagesRacingCloseAreWritten() throws InterruptedException {
+    for (int round = 0; round < 50; round++) {
+      StringBuffer out = new StringBuffer();
+      AsyncView view = new AsyncView(out, new StringBuffer(), 16, BackpressurePolicy.BLOCK);
+      CountDownLatch ready = new CountDownLatch(1);
+      Thread producer = new Thread(() -> {
+        ready.countDown();
+        for (int i = 0; i < 200; i++) {
+          view.displayMessage("m");
+        }
+      });
+      producer.start();
+      assertTrue(ready.await(5, TimeUnit.SECONDS));
+      view.close();
+      producer.join();
+      assertEquals(200, out.toString().split(NL).length);
+    }
+  }
+
+  @Test
+  public void testFlushWaitsForWriter() {
+    StringBuilder out = new StringBuilder();
+    AsyncView view = new AsyncView(out, new StringBuilder(), 16, BackpressurePolicy.BLOCK);
+    view.displayMessage("first");
+    view.append("Type instruction: ");
+    view.flush();
+    assertEquals("first" + NL + "Type instruction: ", out.toString());
+    view.close();
+  }
+
+  @Test
+  public void testWriteAfterCloseIsDirect() {
+    StringBuilder out = new StringBuilder();
+    AsyncView view = new AsyncView(out, new StringBuilder(), 16, BackpressurePolicy.DROP);
+    view.close();
+    view.displayMessage("late");
+    assertEquals("late" + NL, out.toString());
+  }
+
+  @Test
+  public void testDropPolicyCountsLostMessages() throws InterruptedException {
+    BlockingAppendable out = new BlockingAppendable();
+    StringBuilder err = new StringBuilder();
+    AsyncView view = new AsyncView(out, err, 2, BackpressurePolicy.DROP);
+
+    view.displayMessage("first");
+    assertTrue(out.started.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 50; i++) {
+      view.displayMessage("message " + i);
+    }
+    out.release.countDown();
+    view.close();
+
+    long written = out.text.toString().split(NL).length;
+    assertEquals(51, written + view.getDroppedCount());
+    assertTrue(view.getDroppedCount() > 0);
+    assertTrue(err.toString().contains("message(s) dropped"));
+  }
+
+  @Test
+  public void testCoalescePolicyKeepsEverything() throws InterruptedException {
+    BlockingAppendable out = new BlockingAppendable();
+    AsyncView view = new AsyncView(out, new StringBuilder(), 2, BackpressurePolicy.COALESCE);
+
+    view.displayMessage("first");
+    assertTrue(out.started.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 50; i++) {
+      view.displayMessage("message " + i);
+    }
+    out.release.countDown();
+    view.close();
+
+    StringBuilder expected = new StringBuilder("first" + NL);
+    for (int i = 0; i < 50; i++) {
+      expected.append("message ").append(i).append(NL);
+    }
+    assertEquals(expected.toString(), out.text.toString());
+    assertEquals(0, view.getDroppedCount());
+  }
+
+  @Test
+  public void testCoalesceDropsPastTheOverflowLimit() throws InterruptedException {
+    BlockingAppendable out = new BlockingAppendable();
+    StringBuilder err = new StringBuilder();
+    AsyncView view = new AsyncView(out, err, 2, BackpressurePolicy.COALESCE);
+
+    view.displayMessage("first");
+    assertTrue(out.started.await(5, TimeUnit.SECONDS));
+    // the overflow batch holds 65536 messages, on top of the two in the buffer
+    for (int i = 0; i < 70000; i++) {
+      view.displayMessage("m");
+    }
+    out.release.countDown();
+    view.close();
+
+    assertEquals(70000 - 2 - 65536, view.getDroppedCount());
+    assertEquals("Error: " + view.getDroppedCount() + " message(s) dropped" + NL,
+            err.toString());
+    assertEquals("first" + NL + ("m" + NL).repeat(2 + 65536), out.text.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCapacity() {
+    new AsyncView(new StringBuilder(), new StringBuilder(), 0, BackpressurePolicy.BLOCK);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullPolicy() {
+    new AsyncView(new StringBuilder(), new StringBuilder(), 8, null);
+  }
+
+  /**
+   * An Appendable that holds up the first write until released, simulating a slow terminal.
+   */
+  private static class BlockingAppendable implements Appendable {
+    private final StringBuilder text = new StringBuilder();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      text.append(csq);
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      return append(csq.subSequence(start, end));
+    }
+
+    @Override
+    public Appendable append(char c) {
+      return append(String.valueOf(c));
+    }
+  }
+}
@@ -0,0 +1,261 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import model.Event;
+import model.EventSeries;
+import model.MultipleCalendars;
+import view.View;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests creating many series at once, which must end the same way as creating them one by one.
+ */
+public class TestBulkSeries {
+  private MultipleCalendars bulk;
+  private MultipleCalendars oneByOne;
+  private StringBuilder bulkMessages;
+  private StringBuilder oneByOneMessages;
+
+  @Before
+  public void setup() {
+    bulkMessages = new StringBuilder();
+    oneByOneMessages = new StringBuilder();
+    bulk = calendars(bulkMessages);
+    oneByOne = calendars(oneByOneMessages);
+  }
+
+  @Test
+  public void testSameEventsAsOneByOne() {
+    createEvent(Events.event("Review", "2025-09-03T09:30", "2025-09-03T10:30"));
+    List<String[]> definitions = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      // some series start together, so their order among equal starts is checked as well
+      String start = String.format("2025-09-%02dT%02d:00", 1 + i % 20, 8 + i % 9);
+      definitions.add(new String[]{"Course " + i, start, "MTWRFSU".substring(i % 7, i % 7 + 1)
+              + "W", String.valueOf(1 + i % 40)});
+    }
+    assertNull(createBoth(definitions));
+    assertSameEvents();
+    assertEquals(oneByOneMessages.toString(), bulkMessages.toString());
+    assertEquals("Course 7", bulk.snapshot().search("course 7", null, null).get(0)
+            .getSubject());
+  }
+
+  @Test
+  public void testFewSeriesIntoLargeCalendar() {
+    createEvent(Events.event("Review", "2025-09-03T09:30", "2025-09-03T10:30"));
+    bulk.createEventSeriesNTimes(Events.event("Shift", "2025-01-01T06:00", "2025-01-01T14:00"),
+            "MTWRFSU", 5000);
+    oneByOne.createEventSeriesNTimes(Events.event("Shift", "2025-01-01T06:00", "2025-01-01T14:00"),
+            "MTWRFSU", 5000);
+    assertNull(createBoth(List.of(
+            new String[]{"Lecture", "2025-09-01T06:00", "MW", "30"},
+            new String[]{"Lab", "2025-09-02T06:00", "TR", "30"})));
+    assertSameEvents();
+  }
+
+  @Test
+  public void testStopsAtTheSameDuplicate() {
+    createEvent(Events.event("Review", "2025-09-03T09:00", "2025-09-03T10:00"));
+    assertEquals("This would create a duplication", createBoth(List.of(
+            new String[]{"Lecture", "2025-09-01T09:00", "MW", "10"},
+            new String[]{"Lab", "2025-09-02T09:00", "TR", "10"},
+            // the fifth Lecture of the first series
+            new String[]{"Lecture", "2025-09-15T09:00", "M", "3"},
+            new String[]{"Seminar", "2025-09-05T09:00", "F", "10"})));
+    assertSameEvents();
+    assertEquals(21, bulk.snapshot().size());
+
+    assertEquals("This would create a duplication", createBoth(List.of(
+            new String[]{"Seminar", "2025-09-05T09:00", "F", "10"},
+            new String[]{"Review", "2025-09-03T09:00", "W", "2"})));
+    assertSameEvents();
+    // ids go on from the same place
+    createEvent(Events.event("Trip", "2025-10-01T09:00", "2025-10-01T10:00"));
+    assertSameEvents();
+  }
+
+  @Test
+  public void testConflictPolicies() {
+    createEvent(Events.event("Review", "2025-09-03T09:30", "2025-09-03T10:30"));
+    bulk.editCalendar("Work", "conflicts", "warn");
+    oneByOne.editCalendar("Work", "conflicts", "warn");
+    assertNull(createBoth(List.of(
+            new String[]{"Lecture", "2025-09-01T09:00", "MW", "10"},
+            new String[]{"Lab", "2025-09-02T09:00", "TR", "10"},
+            new String[]{"Tutorial", "2025-09-02T09:30", "R", "5"})));
+    assertSameEvents();
+    assertEquals("Warning: 1 occurrence(s) of 'Lecture' overlap other events\n"
+            + "Warning: 5 occurrence(s) of 'Tutorial' overlap other events\n",
+            bulkMessages.toString());
+    assertEquals(oneByOneMessages.toString(), bulkMessages.toString());
+
+    bulk.editCalendar("Work", "conflicts", "reject");
+    oneByOne.editCalendar("Work", "conflicts", "reject");
+    assertEquals("Conflict: 'Seminar' on 2025-09-12T09:30 overlaps another event",
+            createBoth(List.of(
+                    new String[]{"Clinic", "2025-09-05T09:00", "F", "10"},
+                    new String[]{"Seminar", "2025-09-12T09:30", "TF", "10"},
+                    new String[]{"Office hours", "2025-09-05T12:00", "F", "10"})));
+    assertSameEvents();
+  }
+
+  @Test
+  public void testStopsAtTheSameMemoryLimit() {
+    bulk.editCalendar("Work", "memory", "64KB");
+    oneByOne.editCalendar("Work", "memory", "64KB");
+    List<String[]> definitions = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      definitions.add(new String[]{"Course " + i,
+              String.format("2025-09-01T%02d:00", 8 + i % 10), "MTWRF", "20"});
+    }
+    String error = createBoth(definitions);
+    assertTrue(error, error.startsWith("Memory limit of 64.0 KB reached"));
+    assertSameEvents();
+    assertEquals(oneByOne.memory().get(0).getEventBytes(), bulk.memory().get(0).getEventBytes());
+
+    bulk.editCalendar("Work", "memory", "none");
+    oneByOne.editCalendar("Work", "memory", "none");
+    createEvent(Events.event("Trip", "2025-10-01T07:00", "2025-10-01T08:00"));
+    assertSameEvents();
+  }
+
+  @Test
+  public void testOneUndo() {
+    createEvent(Events.event("Review", "2025-09-03T09:30", "2025-09-03T10:30"));
+    assertNull(createBoth(List.of(
+            new String[]{"Lecture", "2025-09-01T09:00", "MW", "10"},
+            new String[]{"Lab", "2025-09-02T09:00", "TR", "10"})));
+    assertEquals(21, bulk.snapshot().size());
+    assertTrue(bulk.undo());
+    assertEquals(1, bulk.snapshot().size());
+    assertTrue(bulk.redo());
+    assertEquals(21, bulk.snapshot().size());
+    // the occurrences follow their series
+    bulk.editEventSeries("location", "Lab", "2025-09-02T09:00", "Annex");
+    assertEquals("Annex", bulk.snapshot().eventsBetween("2025-09-04T00:00",
+            "2025-09-04T23:59").get(0).getLocation());
+  }
+
+  @Test
+  public void testNullAndEmpty() {
+    try {
+      bulk.createEventSeries(null);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Series cannot be null", e.getMessage());
+    }
+    List<EventSeries> series = new ArrayList<>();
+    series.add(null);
+    try {
+      bulk.createEventSeries(series);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Series cannot be null", e.getMessage());
+    }
+    bulk.createEventSeries(List.of());
+    assertEquals(0, bulk.snapshot().size());
+    try {
+      new MultipleCalendars(new RecordingView(bulkMessages)).createEventSeries(List.of());
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("No calendar selected", e.getMessage());
+    }
+  }
+
+  /**
+   * Creates the series in bulk on one set of calendars and one by one on the other, and checks
+   * that both fail the same way.
+   *
+   * @param definitions the subject, start, weekdays and number of occurrences of each series
+   * @return the error, or null if every series was created
+   */
+  private String createBoth(List<String[]> definitions) {
+    List<Event> events = new ArrayList<>();
+    List<EventSeries> series = new ArrayList<>();
+    for (String[] definition : definitions) {
+      Event event = Events.event(definition[0], definition[1],
+              LocalDateTime.parse(definition[1]).plusHours(1).toString());
+      events.add(event);
+      series.add(EventSeries.getBuilder(event.getSubject(), event.getStartDateTime())
+              .endDateTime(event.getEndDateTime())
+              .description(event.getDescription())
+              .location(event.getLocation())
+              .status(event.getStatus())
+              .weekdays(definition[2])
+              .occurrences(Integer.parseInt(definition[3]))
+              .build());
+    }
+
+    String oneByOneError = null;
+    for (int i = 0; i < definitions.size(); i++) {
+      try {
+        oneByOne.createEventSeriesNTimes(events.get(i), definitions.get(i)[2],
+                Integer.parseInt(definitions.get(i)[3]));
+      } catch (IllegalArgumentException e) {
+        oneByOneError = e.getMessage();
+        break;
+      }
+    }
+    String bulkError = null;
+    try {
+      bulk.createEventSeries(series);
+    } catch (IllegalArgumentException e) {
+      bulkError = e.getMessage();
+    }
+    assertEquals(oneByOneError, bulkError);
+    return bulkError;
+  }
+
+  private void createEvent(Event event) {
+    bulk.createEvent(event);
+    oneByOne.createEvent(event);
+  }
+
+  private void assertSameEvents() {
+    assertEquals(describe(oneByOne.snapshot().getEvents()),
+            describe(bulk.snapshot().getEvents()));
+  }
+
+  private static List<String> describe(List<Event> events) {
+    return events.stream().map(e -> e.getId() + " " + e.getSubject() + " "
+                    + e.getStartDateTime() + " " + e.getEndDateTime() + " "
+                    + e.isPartOfSeries())
+            .collect(Collectors.toList());
+  }
+
+  private static MultipleCalendars calendars(StringBuilder messages) {
+    MultipleCalendars calendars = new MultipleCalendars(new RecordingView(messages));
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+    return calendars;
+  }
+
+  private static class RecordingView implements View {
+    private final StringBuilder log;
+
+    RecordingView(StringBuilder log) {
+      this.log = log;
+    }
+
+    @Override
+    public void displayMessage(String message) {
+      log.append(message).append("\n");
+    }
+
+    @Override
+    public void displayError(String error) {
+      log.append(error).append("\n");
+    }
+  }
+}
@@ -0,0 +1,133 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import model.CalendarChange;
+import model.CalendarListener;
+import model.Calendars;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the changes published to calendar listeners.
+ */
+public class TestCalendarChanges {
+  private MultipleCalendars calendars;
+  private List<List<String>> batches;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    batches = new ArrayList<>();
+    calendars.subscribe(changes -> batches.add(changes.stream().map(CalendarChange::toString)
+            .collect(Collectors.toList())));
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+  }
+
+  @Test
+  public void testEventChangesComeOneBatchPerCommand() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    calendars.editEvent("subject", "Standup", "2025-03-10T09:00", "2025-03-10T10:00", "Sync");
+    calendars.createEventSeriesNTimes(Events.event("Gym", "2025-03-10T18:00"), "MW", 3);
+    calendars.editEventSeries("location", "Gym", "2025-03-10T18:00", "Hall");
+    calendars.undo();
+
+    assertEquals(List.of(
+            List.of("CALENDAR_CREATED Work null -> UTC"),
+            List.of("EVENT_ADDED Work Standup"),
+            List.of("EVENT_REPLACED Work Standup -> Sync"),
+            List.of("EVENT_ADDED Work Gym", "EVENT_ADDED Work Gym", "EVENT_ADDED Work Gym"),
+            List.of("EVENT_REPLACED Work Gym -> Gym", "EVENT_REPLACED Work Gym -> Gym",
+                    "EVENT_REPLACED Work Gym -> Gym"),
+            List.of("EVENT_REPLACED Work Gym -> Gym", "EVENT_REPLACED Work Gym -> Gym",
+                    "EVENT_REPLACED Work Gym -> Gym")), batches);
+  }
+
+  @Test
+  public void testSeriesEditCarriesOldAndNewEvents() {
+    calendars.createEventSeriesNTimes(Events.event("Gym", "2025-03-10T18:00"), "MW", 2);
+    List<CalendarChange> seen = new ArrayList<>();
+    calendars.subscribe(seen::addAll);
+    calendars.editEventSeries("location", "Gym", "2025-03-10T18:00", "Hall");
+
+    assertEquals(2, seen.size());
+    for (CalendarChange change : seen) {
+      assertEquals(CalendarChange.Type.EVENT_REPLACED, change.getType());
+      assertEquals("", change.getOldEvent().getLocation());
+      assertEquals("Hall", change.getNewEvent().getLocation());
+      assertEquals(change.getOldEvent().getId(), change.getNewEvent().getId());
+    }
+  }
+
+  @Test
+  public void testCalendarChangesAndOtherSessions() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    batches.clear();
+    Calendars session = calendars.newSession();
+    session.editCalendar("Work", "name", "Office");
+    session.editCalendar("Office", "timezone", "Asia/Tokyo");
+
+    assertEquals(List.of(
+            List.of("CALENDAR_RENAMED Office Work -> Office"),
+            List.of("EVENT_REPLACED Office Standup -> Standup",
+                    "CALENDAR_REZONED Office UTC -> Asia/Tokyo")), batches);
+  }
+
+  @Test
+  public void testEventChangesCarryTheCurrentName() {
+    calendars.editCalendar("Work", "name", "Office");
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    calendars.forkCalendar("Office", "Plan");
+    calendars.useCalendar("Plan");
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    calendars.promoteCalendar("Plan");
+    calendars.begin();
+    calendars.editCalendar("Office", "name", "Desk");
+    calendars.rollback();
+    batches.clear();
+    calendars.useCalendar("Office");
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T12:00"));
+
+    assertEquals(List.of(List.of("EVENT_ADDED Office Lunch")), batches);
+  }
+
+  @Test
+  public void testAsyncDeliveryIsOrderedAndStopsWhenClosed() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<String> seen = new ArrayList<>();
+    CountDownLatch delivered = new CountDownLatch(100);
+    CalendarListener.Subscription subscription = calendars.subscribe(changes -> {
+      synchronized (seen) {
+        changes.forEach(change -> seen.add(change.getNewEvent().getSubject()));
+      }
+      changes.forEach(change -> delivered.countDown());
+    }, executor);
+    for (int i = 0; i < 100; i++) {
+      calendars.createEvent(Events.event("E" + i, "2025-03-10T09:00"));
+    }
+    assertTrue(delivered.await(10, TimeUnit.SECONDS));
+    subscription.close();
+    calendars.createEvent(Events.event("Late", "2025-03-10T09:00"));
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    synchronized (seen) {
+      assertEquals(100, seen.size());
+      for (int i = 0; i < seen.size(); i++) {
+        assertEquals("E" + i, seen.get(i));
+      }
+    }
+  }
+}
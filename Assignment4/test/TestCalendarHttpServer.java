@@ -0,0 +1,145 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import controller.CalendarHttpServer;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the JSON API served over HTTP.
+ */
+public class TestCalendarHttpServer {
+  private CalendarHttpServer server;
+  private HttpClient client;
+  private String base;
+
+  @Before
+  public void setup() throws Exception {
+    server = new CalendarHttpServer(new MultipleCalendars(new ViewForConsole()),
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    server.start();
+    client = HttpClient.newHttpClient();
+    base = "http://127.0.0.1:" + server.getAddress().getPort() + "/calendars";
+    assertEquals(201, send("POST", "", "{\"name\": \"Work\", \"timezone\": \"UTC\"}")
+            .statusCode());
+  }
+
+  @After
+  public void teardown() {
+    server.close();
+  }
+
+  @Test
+  public void testCreateAndListEvents() throws Exception {
+    assertEquals("{\"calendars\":[\"Work\"]}", send("GET", "", null).body());
+    assertEquals(201, send("POST", "/Work/events", "{\"subject\": \"Standup\", "
+            + "\"start\": \"2025-03-10T09:00\", \"end\": \"2025-03-10T09:15\", "
+            + "\"location\": \"Room \\\"4\\\"\"}").statusCode());
+    assertEquals(201, send("POST", "/Work/events", "{\"subject\": \"Gym\", "
+            + "\"start\": \"2025-03-10T18:00\", \"end\": \"2025-03-10T19:00\", "
+            + "\"repeats\": \"MW\", \"times\": 2}").statusCode());
+
+    HttpResponse<String> day = send("GET", "/Work/events?date=2025-03-10", null);
+    assertEquals(200, day.statusCode());
+    assertEquals("application/json; charset=utf-8",
+            day.headers().firstValue("Content-Type").orElse(""));
+    assertTrue(day.body().startsWith("{\"events\":[{\"id\":1,\"subject\":\"Standup\","
+            + "\"start\":\"2025-03-10T09:00\",\"end\":\"2025-03-10T09:15\",\"description\":\"\","
+            + "\"location\":\"Room \\\"4\\\"\",\"status\":\"\",\"seriesId\":null},"));
+    assertTrue(day.body().contains("\"subject\":\"Gym\""));
+
+    HttpResponse<String> range = send("GET",
+            "/Work/events?from=2025-03-11T00:00&to=2025-03-12T23:59", null);
+    assertTrue(range.body().contains("\"start\":\"2025-03-12T18:00\""));
+  }
+
+  @Test
+  public void testEtagGivesNotModifiedUntilTheDayChanges() throws Exception {
+    send("POST", "/Work/events", "{\"subject\": \"Standup\", \"start\": \"2025-03-10T09:00\", "
+            + "\"end\": \"2025-03-10T09:15\"}");
+    HttpResponse<String> first = send("GET", "/Work/events?date=2025-03-10", null);
+    String tag = first.headers().firstValue("ETag").orElseThrow();
+
+    HttpResponse<String> again = client.send(HttpRequest.newBuilder(
+                    URI.create(base + "/Work/events?date=2025-03-10"))
+            .header("If-None-Match", tag).build(), HttpResponse.BodyHandlers.ofString());
+    assertEquals(304, again.statusCode());
+    assertEquals("", again.body());
+
+    // a change on another day keeps the tag
+    send("POST", "/Work/events", "{\"subject\": \"Gym\", \"date\": \"2025-03-11\"}");
+    assertEquals(tag, send("GET", "/Work/events?date=2025-03-10", null).headers()
+            .firstValue("ETag").orElseThrow());
+
+    send("PATCH", "/Work/events/1", "{\"property\": \"location\", \"value\": \"Room 4\"}");
+    HttpResponse<String> changed = client.send(HttpRequest.newBuilder(
+                    URI.create(base + "/Work/events?date=2025-03-10"))
+            .header("If-None-Match", tag).build(), HttpResponse.BodyHandlers.ofString());
+    assertEquals(200, changed.statusCode());
+    assertNotEquals(tag, changed.headers().firstValue("ETag").orElseThrow());
+  }
+
+  @Test
+  public void testEventByIdFreeBusyAndCopy() throws Exception {
+    send("POST", "/Work/events", "{\"subject\": \"A\", \"start\": \"2025-03-10T09:00\", "
+            + "\"end\": \"2025-03-10T10:00\"}");
+    send("POST", "/Work/events", "{\"subject\": \"B\", \"start\": \"2025-03-10T09:30\", "
+            + "\"end\": \"2025-03-10T11:00\"}");
+    send("POST", "/Work/events", "{\"subject\": \"C\", \"start\": \"2025-03-10T13:00\", "
+            + "\"end\": \"2025-03-10T14:00\"}");
+
+    HttpResponse<String> edited = send("PATCH", "/Work/events/2",
+            "{\"property\": \"subject\", \"value\": \"Review\"}");
+    assertTrue(edited.body().startsWith("{\"id\":2,\"subject\":\"Review\""));
+    assertTrue(send("GET", "/Work/events/2", null).body().contains("\"Review\""));
+
+    assertEquals("{\"at\":\"2025-03-10T10:30\",\"status\":\"Busy\"}",
+            send("GET", "/Work/freebusy?at=2025-03-10T10:30", null).body());
+    assertEquals("{\"busy\":[{\"start\":\"2025-03-10T09:00\",\"end\":\"2025-03-10T11:00\"},"
+                    + "{\"start\":\"2025-03-10T13:00\",\"end\":\"2025-03-10T14:00\"}]}",
+            send("GET", "/Work/freebusy?date=2025-03-10", null).body());
+
+    send("POST", "", "{\"name\": \"Home\", \"timezone\": \"UTC\"}");
+    assertEquals(200, send("POST", "/Work/copy", "{\"event\": \"C\", "
+            + "\"on\": \"2025-03-10T13:00\", \"target\": \"Home\", \"to\": \"2025-03-12T13:00\"}")
+            .statusCode());
+    assertTrue(send("GET", "/Home/events?date=2025-03-12", null).body()
+            .contains("\"subject\":\"C\""));
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    HttpResponse<String> missing = send("GET", "/Nope/events?date=2025-03-10", null);
+    assertEquals(404, missing.statusCode());
+    assertEquals("{\"error\":\"Calendar not found\"}", missing.body());
+    assertEquals(404, send("GET", "/Work/events/99", null).statusCode());
+    assertEquals(400, send("GET", "/Work/events?date=March", null).statusCode());
+    assertEquals(400, send("POST", "/Work/events", "{\"subject\": [1]}").statusCode());
+    assertEquals("{\"error\":\"Missing field: start\"}",
+            send("POST", "/Work/events", "{\"subject\": \"A\"}").body());
+    assertEquals(400, send("POST", "", "{\"name\": \"Work\", \"timezone\": \"UTC\"}")
+            .statusCode());
+    assertEquals(405, send("DELETE", "/Work/events", null).statusCode());
+  }
+
+  private HttpResponse<String> send(String method, String path, String body)
+          throws IOException, InterruptedException {
+    HttpRequest.BodyPublisher publisher = body == null
+            ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+    return client.send(HttpRequest.newBuilder(URI.create(base + path))
+            .method(method, publisher).build(), HttpResponse.BodyHandlers.ofString());
+  }
+}
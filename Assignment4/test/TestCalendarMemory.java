@@ -0,0 +1,155 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.TimeZone;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import controller.EnhancedCommandParser;
+import model.CalendarMemory;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the memory estimates of calendars and their limits.
+ */
+public class TestCalendarMemory {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+  }
+
+  @Test
+  public void testEstimatesFollowChanges() {
+    assertEquals(0, work().getEventBytes());
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    long single = work().getEventBytes();
+    assertTrue(single > 0);
+    assertTrue(work().getIndexBytes() > 0);
+
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 100);
+    CalendarMemory memory = work();
+    assertEquals(101, memory.getEvents());
+    assertEquals(100, memory.getOccurrences());
+    assertEquals(1, memory.getSeries());
+    // occurrences share the strings of their series
+    long perOccurrence = (memory.getEventBytes() - single) / 100;
+    assertTrue(perOccurrence < single);
+
+    calendars.deleteSeries("Standup", "2025-03-10T09:00");
+    assertEquals(single, work().getEventBytes());
+    assertEquals(0, work().getSeries());
+    calendars.undo();
+    assertEquals(memory.getEventBytes(), work().getEventBytes());
+    calendars.undo();
+    calendars.undo();
+    assertEquals(0, work().getEventBytes());
+    assertEquals(0, work().getEvents());
+  }
+
+  @Test
+  public void testLimitRefusesGrowth() {
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    long used = work().getEventBytes();
+    calendars.editCalendar("Work", "memory", String.valueOf(used * 3));
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T12:00"));
+    try {
+      calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 100);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Memory limit of " + CalendarMemory.format(used * 3) + " reached",
+              e.getMessage());
+    }
+    assertEquals(2, work().getEvents());
+    // edits that do not grow the events, and deletes, are still allowed
+    calendars.editEvent("status", "Lunch", "2025-03-10T12:00", "2025-03-10T13:00", "private");
+    calendars.deleteEvent("Lunch", "2025-03-10T12:00", "2025-03-10T13:00");
+    calendars.createEvent(Events.event("Gym", "2025-03-10T18:00"));
+
+    calendars.editCalendar("Work", "memory", "none");
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 100);
+    assertEquals(102, work().getEvents());
+    calendars.editCalendar("Work", "memory", "64KB");
+    assertEquals(64 * 1024, work().getLimit());
+    try {
+      calendars.editCalendar("Work", "memory", "lots");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid memory limit", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testForkKeepsItsOwnEstimate() {
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 10);
+    calendars.forkCalendar("Work", "Plan");
+    calendars.useCalendar("Plan");
+    calendars.deleteSeries("Standup", "2025-03-10T09:00");
+    List<CalendarMemory> memory = calendars.memory();
+    assertEquals(List.of("Home", "Plan", "Work"),
+            List.of(memory.get(0).getName(), memory.get(1).getName(), memory.get(2).getName()));
+    assertEquals(0, memory.get(1).getEvents());
+    assertEquals(10, memory.get(2).getEvents());
+  }
+
+  @Test
+  public void testMemoryBean() throws Exception {
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 10);
+    ObjectName name = calendars.registerMemoryBean();
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(11, server.getAttribute(name, "EventCount"));
+      assertEquals(10, server.getAttribute(name, "OccurrenceCount"));
+      assertEquals(1, server.getAttribute(name, "SeriesCount"));
+      assertEquals(work().getTotalBytes(), server.getAttribute(name, "EstimatedBytes"));
+      TabularData byCalendar = (TabularData) server.getAttribute(name,
+              "EstimatedBytesByCalendar");
+      assertEquals(2, byCalendar.size());
+      try {
+        calendars.registerMemoryBean();
+        fail("Expected IllegalStateException");
+      } catch (IllegalStateException e) {
+        assertEquals("A memory bean is already registered", e.getMessage());
+      }
+    } finally {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+  }
+
+  @Test
+  public void testShowMemoryCommand() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 10);
+    parser.executeCommand("edit calendar --name Work --property memory 1MB");
+    String report = parser.executeCommand("show memory");
+    String[] lines = report.split("\n");
+    assertEquals(3, lines.length);
+    assertEquals("Home: 0 event(s), 0 in 0 series, 0 B events + 0 B index", lines[0]);
+    assertTrue(lines[1], lines[1].startsWith("Work: 10 event(s), 10 in 1 series, "));
+    assertTrue(lines[1], lines[1].endsWith(", limit 1.0 MB (0% used)"));
+    assertTrue(lines[2], lines[2].startsWith("Total: "));
+  }
+
+  private CalendarMemory work() {
+    for (CalendarMemory memory : calendars.memory()) {
+      if (memory.getName().equals("Work")) {
+        return memory;
+      }
+    }
+    throw new AssertionError("No memory for Work");
+  }
+}
@@ -0,0 +1,119 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import controller.CalendarClient;
+import controller.CalendarServer;
+import controller.LoadReport;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests serving commands over a socket and the client that talks to the server.
+ */
+public class TestCalendarServer {
+  private CalendarServer server;
+
+  @Before
+  public void setup() throws IOException {
+    server = new CalendarServer(new MultipleCalendars(new ViewForConsole()),
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    server.start();
+  }
+
+  @After
+  public void teardown() throws IOException {
+    server.close();
+  }
+
+  @Test
+  public void testRepliesInOrder() throws IOException {
+    try (CalendarClient client = new CalendarClient(server.getAddress())) {
+      assertEquals("Calendar 'Work' created successfully",
+              client.send("create calendar --name Work --timezone America/New_York"));
+      assertEquals("Now using calendar: Work", client.send("use calendar --name Work"));
+      client.send("create event Standup from 2025-03-10T09:00 to 2025-03-10T09:15");
+      client.send("create event Lunch from 2025-03-10T12:00 to 2025-03-10T13:00");
+      assertEquals("• Standup (2025-03-10 09:00 - 09:15)\n• Lunch (2025-03-10 12:00 - 13:00)\n",
+              client.send("print events on 2025-03-10"));
+      assertEquals("Error: Not a valid command: fly away", client.send("fly away"));
+      assertEquals("Exiting...", client.send("exit"));
+      try {
+        client.send("print events on 2025-03-10");
+        fail("Expected IOException");
+      } catch (IOException e) {
+        // the server closes the connection after exit
+      }
+    }
+  }
+
+  @Test
+  public void testSessionsHaveTheirOwnCalendarInUse() throws IOException {
+    try (CalendarClient first = new CalendarClient(server.getAddress());
+         CalendarClient second = new CalendarClient(server.getAddress())) {
+      first.send("create calendar --name Work --timezone America/New_York");
+      first.send("create calendar --name Home --timezone America/New_York");
+      first.send("use calendar --name Work");
+      assertEquals("Error: No calendar selected",
+              second.send("create event Gym from 2025-03-10T18:00 to 2025-03-10T19:00"));
+
+      second.send("use calendar --name Home");
+      second.send("create event Gym from 2025-03-10T18:00 to 2025-03-10T19:00");
+      assertEquals("", first.send("print events on 2025-03-10"));
+      first.send("use calendar --name Home");
+      assertEquals("• Gym (2025-03-10 18:00 - 19:00)\n",
+              first.send("print events on 2025-03-10"));
+    }
+  }
+
+  @Test
+  public void testPipelinedScript() throws IOException {
+    StringBuilder script = new StringBuilder();
+    script.append("create calendar --name Work --timezone UTC\n");
+    script.append("use calendar --name Work\n");
+    for (int i = 0; i < 3000; i++) {
+      script.append("create event E").append(i).append(" from 2025-03-10T09:00 to ")
+              .append("2025-03-10T10:00\n");
+    }
+    script.append("create event E0 from 2025-03-10T09:00 to 2025-03-10T10:00\n");
+    script.append("show status on 2025-03-10T09:30\n");
+    script.append("exit\n");
+
+    try (CalendarClient client = new CalendarClient(server.getAddress())) {
+      LoadReport report = client.run(new StringReader(script.toString()));
+      assertEquals(3005, report.getOperations());
+      assertEquals(3001, report.getCount("create event"));
+      assertEquals(1, report.getErrors("create event"));
+      assertEquals(1, report.getCount("show status"));
+    }
+    try (CalendarClient client = new CalendarClient(server.getAddress())) {
+      client.send("use calendar --name Work");
+      assertEquals("Busy", client.send("show status on 2025-03-10T09:30"));
+    }
+  }
+
+  @Test
+  public void testUnixDomainSocket() throws IOException {
+    Path socket = Files.createTempDirectory("calendar").resolve("server.sock");
+    try (CalendarServer local = new CalendarServer(new MultipleCalendars(new ViewForConsole()),
+            UnixDomainSocketAddress.of(socket))) {
+      local.start();
+      try (CalendarClient client = new CalendarClient(local.getAddress())) {
+        assertEquals("Calendar 'Work' created successfully",
+                client.send("create calendar --name Work --timezone UTC"));
+      }
+    }
+    assertEquals(false, Files.exists(socket));
+  }
+}
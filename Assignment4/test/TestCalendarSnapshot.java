@@ -0,0 +1,105 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import controller.EnhancedCommandParser;
+import model.CalendarSnapshot;
+import model.ConflictPolicy;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests snapshots of a calendar and undoing and redoing changes.
+ */
+public class TestCalendarSnapshot {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.event("Meeting", "2025-03-10T09:00", "2025-03-10T10:00"));
+  }
+
+  @Test
+  public void testSnapshotIgnoresLaterEdits() {
+    CalendarSnapshot before = calendars.snapshot();
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T12:00", "2025-03-10T13:00"));
+    calendars.editEvent("subject", "Meeting", "2025-03-10T09:00", "2025-03-10T10:00", "Sync");
+
+    assertEquals(1, before.size());
+    assertEquals("• Meeting (2025-03-10 09:00 - 10:00)\n", before.daySchedule("2025-03-10"));
+    assertEquals(2, calendars.snapshot().size());
+    assertEquals("• Sync (2025-03-10 09:00 - 10:00)\n"
+            + "• Lunch (2025-03-10 12:00 - 13:00)\n", calendars.daySchedule("2025-03-10"));
+  }
+
+  @Test
+  public void testPagingIncludesEventsStartedEarlier() {
+    calendars.createEvent(Events.event("Conference", "2025-03-08T09:00", "2025-03-11T17:00"));
+    for (int i = 0; i < 5; i++) {
+      calendars.createEvent(Events.event("Call " + i, "2025-03-10T1" + i + ":00",
+              "2025-03-10T1" + i + ":30"));
+    }
+    CalendarSnapshot snapshot = calendars.snapshot();
+    assertEquals(7, snapshot.countEvents("2025-03-10T00:00", "2025-03-10T23:59"));
+    assertEquals("• Conference (2025-03-08 09:00 - 2025-03-11 17:00)",
+            snapshot.schedulePage("2025-03-10T00:00", "2025-03-10T23:59", 0, 2).get(0));
+    assertEquals("• Call 1 (2025-03-10 11:00 - 11:30)",
+            snapshot.schedulePage("2025-03-10T00:00", "2025-03-10T23:59", 3, 2).get(0));
+    assertEquals(1, snapshot.schedulePage("2025-03-10T00:00", "2025-03-10T23:59", 6, 2).size());
+    assertEquals("Busy", snapshot.isFree("2025-03-09T03:00"));
+    assertEquals("Available", snapshot.isFree("2025-03-12T03:00"));
+  }
+
+  @Test
+  public void testUndoSeriesEditInOneStep() {
+    calendars.createEventSeriesNTimes(
+            Events.event("Standup", "2025-03-03T08:00", "2025-03-03T08:15"), "MWF", 6);
+    calendars.editEventSeries("location", "Standup", "2025-03-05T08:00", "Room 4");
+    assertEquals("• Standup (2025-03-03 08:00 - 08:15) @ Room 4\n",
+            calendars.daySchedule("2025-03-03"));
+
+    assertTrue(calendars.undo());
+    assertEquals("• Standup (2025-03-03 08:00 - 08:15)\n", calendars.daySchedule("2025-03-03"));
+    assertEquals("• Standup (2025-03-14 08:00 - 08:15)\n", calendars.daySchedule("2025-03-14"));
+
+    assertTrue(calendars.redo());
+    assertEquals("• Standup (2025-03-14 08:00 - 08:15) @ Room 4\n",
+            calendars.daySchedule("2025-03-14"));
+    assertFalse(calendars.redo());
+  }
+
+  @Test
+  public void testRejectedBulkEditChangesNothing() {
+    calendars.createEventSeriesNTimes(
+            Events.event("Standup", "2025-03-03T08:00", "2025-03-03T08:15"), "M", 3);
+    calendars.setConflictPolicy(ConflictPolicy.REJECT);
+    try {
+      calendars.editEventSeries("end", "Standup", "2025-03-03T08:00", "2025-03-10T09:30");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Conflict"));
+    }
+    assertEquals("• Standup (2025-03-03 08:00 - 08:15)\n", calendars.daySchedule("2025-03-03"));
+    assertEquals(4, calendars.countEvents("2025-03-01T00:00", "2025-03-31T23:59"));
+  }
+
+  @Test
+  public void testUndoCommands() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    assertEquals("Last change undone", parser.executeCommand("undo"));
+    assertEquals("", calendars.daySchedule("2025-03-10"));
+    assertEquals("Nothing to undo", parser.executeCommand("undo"));
+    assertEquals("Last change redone", parser.executeCommand("redo"));
+    assertEquals("Nothing to redo", parser.executeCommand("redo"));
+    assertEquals(1, calendars.snapshot().size());
+  }
+}
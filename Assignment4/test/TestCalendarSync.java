@@ -0,0 +1,149 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+import model.Event;
+import model.SingleCalendar;
+import model.SyncPeer;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests syncing calendar replicas through their content hashes.
+ */
+public class TestCalendarSync {
+  private SingleCalendar primary;
+  private SingleCalendar standby;
+
+  @Before
+  public void setup() {
+    primary = new SingleCalendar(new ViewForConsole());
+    standby = new SingleCalendar(new ViewForConsole());
+  }
+
+  @Test
+  public void testSameEventsHaveTheSameHashes() {
+    primary.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    primary.createEvent(Events.event("Review", "2025-04-02T14:00"));
+    // added in the other order, with other ids
+    standby.createEvent(Events.event("Lunch", "2025-03-10T12:00"));
+    standby.createEvent(Events.event("Review", "2025-04-02T14:00"));
+    standby.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    assertNotEquals(primary.syncPeer().rootHash(), standby.syncPeer().rootHash());
+    assertEquals(primary.syncPeer().dayHashes(YearMonth.of(2025, 4)),
+            standby.syncPeer().dayHashes(YearMonth.of(2025, 4)));
+
+    standby.deleteEvent("Lunch", "2025-03-10T12:00", "2025-03-10T13:00");
+    assertEquals(primary.syncPeer().rootHash(), standby.syncPeer().rootHash());
+    assertEquals(primary.syncPeer().monthHashes(), standby.syncPeer().monthHashes());
+
+    // undo changes the hashes back along with the events
+    standby.undo();
+    assertNotEquals(primary.syncPeer().rootHash(), standby.syncPeer().rootHash());
+  }
+
+  @Test
+  public void testSyncCopiesOnlyTheDaysThatDiffer() {
+    primary.createEventSeriesNTimes(Events.event("Standup", "2020-01-01T09:00"), "MTWRFSU", 100000);
+    // the first sync copies every day, since series ids differ between calendars
+    assertEquals(100000, standby.syncFrom(primary.syncPeer()));
+    assertEquals(0, standby.syncFrom(primary.syncPeer()));
+
+    primary.editEvent("location", "Standup", "2030-05-05T09:00", "2030-05-05T10:00", "Hall");
+    primary.createEvent(Events.event("Review", "2041-07-01T14:00"));
+    primary.deleteEvent("Standup", "2060-02-29T09:00", "2060-02-29T10:00");
+    standby.createEvent(Events.event("Lunch", "2050-01-01T12:00"));
+
+    CountingPeer peer = new CountingPeer(primary.syncPeer());
+    assertEquals(4, standby.syncFrom(peer));
+    assertEquals(List.of(LocalDate.parse("2030-05-05"), LocalDate.parse("2041-07-01"),
+            LocalDate.parse("2050-01-01"), LocalDate.parse("2060-02-29")), peer.daysFetched);
+    assertEquals(4, peer.monthsAsked);
+    assertEquals(primary.syncPeer().rootHash(), standby.syncPeer().rootHash());
+    assertEquals(List.of("Hall"), standby.snapshot()
+            .eventsBetween("2030-05-05T09:00", "2030-05-05T09:00").stream()
+            .map(Event::getLocation).collect(Collectors.toList()));
+    assertEquals(100000, standby.snapshot().size());
+    assertEquals(0, standby.syncFrom(primary.syncPeer()));
+  }
+
+  @Test
+  public void testSeriesEditsAreHashed() {
+    primary.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 20);
+    standby.syncFrom(primary.syncPeer());
+    primary.editEventSeries("subject", "Standup", "2025-03-10T09:00", "Daily");
+
+    assertEquals(20, standby.syncFrom(primary.syncPeer()));
+    assertEquals(primary.syncPeer().rootHash(), standby.syncPeer().rootHash());
+    assertEquals("Daily", standby.snapshot().getEvents().get(19).getSubject());
+  }
+
+  @Test
+  public void testSeriesComeAcrossWithTheirEvents() {
+    primary.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 4);
+    standby.syncFrom(primary.syncPeer());
+    long id = standby.snapshot().getEvents().get(1).getId();
+
+    // an event fetched again keeps its id
+    primary.createEvent(Events.event("Review", "2025-03-11T14:00"));
+    assertEquals(1, standby.syncFrom(primary.syncPeer()));
+    assertEquals("Standup", standby.getEventById(id).getSubject());
+
+    primary.editEvent("location", "Standup", "2025-03-12T09:00", "2025-03-12T10:00", "Annex");
+    primary.editEventSeries("subject", "Standup", "2025-03-10T09:00", "Daily");
+    assertEquals(4, standby.syncFrom(primary.syncPeer()));
+    assertEquals(primary.syncPeer().rootHash(), standby.syncPeer().rootHash());
+    assertEquals("Daily", standby.getEventById(id).getSubject());
+
+    standby.editEventSeries("location", "Daily", "2025-03-10T09:00", "Hall");
+    assertEquals(List.of("Daily Hall", "Daily Hall", "Review ", "Daily Hall", "Daily Hall"),
+            standby.snapshot().getEvents().stream()
+                    .map(e -> e.getSubject() + " " + e.getLocation())
+                    .collect(Collectors.toList()));
+    standby.deleteSeries("Daily", "2025-03-10T09:00");
+    assertEquals(1, standby.snapshot().size());
+  }
+
+  /**
+   * A peer that records what it is asked for.
+   */
+  private static class CountingPeer implements SyncPeer {
+    private final SyncPeer peer;
+    private final List<LocalDate> daysFetched = new ArrayList<>();
+    private int monthsAsked;
+
+    CountingPeer(SyncPeer peer) {
+      this.peer = peer;
+    }
+
+    @Override
+    public long rootHash() {
+      return peer.rootHash();
+    }
+
+    @Override
+    public SortedMap<YearMonth, Long> monthHashes() {
+      return peer.monthHashes();
+    }
+
+    @Override
+    public SortedMap<LocalDate, Long> dayHashes(YearMonth month) {
+      monthsAsked++;
+      return peer.dayHashes(month);
+    }
+
+    @Override
+    public List<Event> eventsOn(LocalDate day) {
+      daysFetched.add(day);
+      return peer.eventsOn(day);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TimeZone;
+
+import controller.EnhancedCommandParser;
+import model.CalendarUsage;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests measuring how busy calendars are.
+ */
+public class TestCalendarUsage {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+  }
+
+  @Test
+  public void testBusyBookedAndPeak() {
+    // Wednesday
+    calendars.createEvent(Events.event("A", "2025-03-12T09:00", "2025-03-12T10:00"));
+    calendars.createEvent(Events.event("B", "2025-03-12T09:30", "2025-03-12T11:00"));
+    calendars.createEvent(Events.event("C", "2025-03-12T09:45", "2025-03-12T10:15"));
+    // touches B without overlapping it
+    calendars.createEvent(Events.event("D", "2025-03-12T11:00", "2025-03-12T11:30"));
+
+    CalendarUsage work = calendars.usage("2025-03-12", "2025-03-12").get(1);
+    assertEquals("Work", work.getName());
+    assertEquals(150, work.getBusyMinutes());
+    assertEquals(60 + 90 + 30 + 30, work.getBookedMinutes());
+    assertEquals(3, work.getPeakOverlap());
+    assertEquals(LocalDateTime.parse("2025-03-12T09:45"), work.getPeakStart());
+    long[] hours = work.getBusyMinutesByHour();
+    assertEquals(24, hours.length);
+    assertEquals(60, hours[9]);
+    assertEquals(60, hours[10]);
+    assertEquals(30, hours[11]);
+    assertEquals(0, hours[12]);
+  }
+
+  @Test
+  public void testEventsAreClippedToDaysAndWeeks() {
+    // Sunday night into Monday
+    calendars.createEvent(Events.event("Flight", "2025-03-09T22:00", "2025-03-10T02:00"));
+    calendars.createEvent(Events.event("Early", "2025-03-01T08:00", "2025-03-01T09:00"));
+
+    CalendarUsage work = calendars.usage("2025-03-08", "2025-03-10").get(1);
+    assertArrayEquals(new long[]{0, 120, 120}, work.getBusyMinutesByDay());
+    // the week of Monday the 3rd, then the week of Monday the 10th
+    assertArrayEquals(new long[]{120, 120}, work.getBusyMinutesByWeek());
+    assertEquals(240, work.getBookedMinutes());
+    assertEquals(1, work.getPeakOverlap());
+
+    CalendarUsage home = calendars.usage("2025-03-08", "2025-03-10").get(0);
+    assertEquals(0, home.getBusyMinutes());
+    assertEquals(0, home.getPeakOverlap());
+    assertNull(home.getPeakStart());
+  }
+
+  @Test
+  public void testDaysWhenClocksChange() {
+    calendars.createCalendar("New York", TimeZone.getTimeZone("America/New_York"));
+    calendars.useCalendar("New York");
+    // clocks go forward at 02:00 on the 9th of March and back at 02:00 on the 2nd of November
+    calendars.createEvent(Events.event("Spring", "2025-03-09T00:00", "2025-03-10T00:00"));
+    calendars.createEvent(Events.event("Fall", "2025-11-02T00:00", "2025-11-03T00:00"));
+
+    CalendarUsage spring = calendars.usage("2025-03-09", "2025-03-09").get(1);
+    assertEquals("New York", spring.getName());
+    assertArrayEquals(new long[]{23 * 60}, spring.getBusyMinutesByDay());
+    long[] hours = spring.getBusyMinutesByHour();
+    assertEquals(60, hours[1]);
+    assertEquals(0, hours[2]);
+    assertEquals(60, hours[3]);
+
+    CalendarUsage fall = calendars.usage("2025-11-02", "2025-11-02").get(1);
+    assertArrayEquals(new long[]{25 * 60}, fall.getBusyMinutesByDay());
+    assertEquals(25 * 60, fall.getBookedMinutes());
+    assertEquals(120, fall.getBusyMinutesByHour()[1]);
+    assertEquals(60, fall.getBusyMinutesByHour()[2]);
+  }
+
+  @Test
+  public void testReportCommand() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00", "2025-03-10T09:30"));
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+
+    String report = parser.executeCommand("report from 2025-03-10 to 2025-03-11");
+    assertTrue(report.startsWith("Home: 0.0 h busy"));
+    assertTrue(report.contains("Work: 0.5 h busy, 0.5 h booked, peak 1 at the same time "
+            + "from 2025-03-10 09:00\n  week of 2025-03-10    0.5 h\n"));
+    assertTrue(report.contains("  2025-03-10 MON   0.5 h |         +              |\n"));
+    assertEquals("Error: Invalid report format", parser.executeCommand("report 2025-03-10"));
+  }
+
+  @Test
+  public void testBackwardsRange() {
+    try {
+      calendars.usage("2025-03-10", "2025-03-09");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("End date cannot be before start date", e.getMessage());
+    }
+    assertEquals(List.of(), new MultipleCalendars(new ViewForConsole())
+            .usage("2025-03-10", "2025-03-10"));
+  }
+}
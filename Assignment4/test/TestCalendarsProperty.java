@@ -51,17 +51,20 @@ public class TestCalendarsProperty {
   public void testToString() {
     assertEquals("name", CalendarsProperty.NAME.toString());
     assertEquals("timezone", CalendarsProperty.TIMEZONE.toString());
+    assertEquals("conflicts", CalendarsProperty.CONFLICTS.toString());
   }
 
 
   @Test
   public void testAllProperties() {
     CalendarsProperty[] allProperties = CalendarsProperty.values();
-    assertEquals(2, allProperties.length);
+    assertEquals(4, allProperties.length);
 
     // make sure that all expected properties exist
     boolean hasName = false;
     boolean hasTimezone = false;
+    boolean hasConflicts = false;
+    boolean hasMemory = false;
 
     for (CalendarsProperty prop : allProperties) {
       switch (prop) {
@@ -71,6 +74,12 @@ public class TestCalendarsProperty {
         case TIMEZONE:
           hasTimezone = true;
           break;
+        case CONFLICTS:
+          hasConflicts = true;
+          break;
+        case MEMORY:
+          hasMemory = true;
+          break;
         default:
           throw new IllegalStateException("Unexpected property: " + prop);
       }
@@ -78,6 +87,8 @@ public class TestCalendarsProperty {
 
     assertTrue(hasName);
     assertTrue(hasTimezone);
+    assertTrue(hasConflicts);
+    assertTrue(hasMemory);
   }
 
   @Test
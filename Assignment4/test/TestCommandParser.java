@@ -2,9 +2,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.Assert;
 
+import java.util.List;
+
 import controller.CommandParser;
 import model.Calendar;
+import model.ConflictPolicy;
 import model.Event;
+import model.EventSeries;
 import view.View;
 
 /**
@@ -367,6 +371,12 @@ public class TestCommandParser {
               .append("until: ").append(until).append("\n");
     }
 
+    @Override
+    public void createEventSeries(List<EventSeries> series) {
+      log.append("createEventSeries called\n")
+              .append("series: ").append(series.size()).append("\n");
+    }
+
     @Override
     public void editEvent(String property, String subject, String startDateTime, String endDateTime,
                           String newProperty) {
@@ -388,6 +398,27 @@ public class TestCommandParser {
       log.append("editEventSeries called\n");
     }
 
+    @Override
+    public void deleteEvent(String subject, String startDateTime, String endDateTime) {
+      log.append("deleteEvent called\n");
+    }
+
+    @Override
+    public void deleteEvents(String subject, String startDateTime) {
+      log.append("deleteEvents called\n");
+    }
+
+    @Override
+    public void deleteSeries(String subject, String startDateTime) {
+      log.append("deleteSeries called\n");
+    }
+
+    @Override
+    public int deleteRange(String time1, String time2) {
+      log.append("deleteRange called\n");
+      return 0;
+    }
+
     @Override
     public String daySchedule(String date) {
       log.append("daySchedule called with date: ").append(date).append("\n");
@@ -405,6 +436,27 @@ public class TestCommandParser {
       log.append("isFree called with date: ").append(date).append("\n");
       return "Available";
     }
+
+    @Override
+    public Event getEventById(long id) {
+      log.append("getEventById called with id: ").append(id).append("\n");
+      return null;
+    }
+
+    @Override
+    public void editEventById(long id, String property, String newValue) {
+      log.append("editEventById called with id: ").append(id).append("\n");
+    }
+
+    @Override
+    public void setConflictPolicy(ConflictPolicy policy) {
+      log.append("setConflictPolicy called with: ").append(policy).append("\n");
+    }
+
+    @Override
+    public ConflictPolicy getConflictPolicy() {
+      return ConflictPolicy.ALLOW;
+    }
   }
 
   private static class MockView implements View {
@@ -0,0 +1,138 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import model.ConflictPolicy;
+import model.Event;
+import model.MultipleCalendars;
+import view.View;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the conflict policies that decide what happens when a new event overlaps another.
+ */
+public class TestConflictPolicy {
+  private MultipleCalendars calendars;
+  private StringBuilder messages;
+  private Event meeting;
+
+  @Before
+  public void setup() {
+    messages = new StringBuilder();
+    calendars = new MultipleCalendars(new RecordingView(messages));
+    calendars.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    calendars.useCalendar("Work");
+    meeting = Event.getBuilder("Meeting", LocalDateTime.parse("2025-03-10T09:00"))
+            .endDateTime(LocalDateTime.parse("2025-03-10T10:00"))
+            .build();
+    calendars.createEvent(meeting);
+  }
+
+  @Test
+  public void testFromString() {
+    assertEquals(ConflictPolicy.REJECT, ConflictPolicy.fromString("REJECT"));
+    assertEquals("warn", ConflictPolicy.WARN.toString());
+    try {
+      ConflictPolicy.fromString("ignore");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid conflict policy", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testAllowIsDefault() {
+    assertEquals(ConflictPolicy.ALLOW, calendars.getConflictPolicy());
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T09:30", "2025-03-10T10:30"));
+    assertEquals(2, calendars.countEvents("2025-03-10T00:00", "2025-03-10T23:59"));
+    assertEquals("", messages.toString());
+  }
+
+  @Test
+  public void testRejectOverlappingEvent() {
+    calendars.editCalendar("Work", "conflicts", "reject");
+    try {
+      calendars.createEvent(Events.event("Lunch", "2025-03-10T09:30", "2025-03-10T10:30"));
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Conflict: 'Lunch' overlaps 'Meeting'", e.getMessage());
+    }
+
+    // events that only touch do not overlap
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T10:00", "2025-03-10T11:00"));
+    assertEquals(2, calendars.countEvents("2025-03-10T00:00", "2025-03-10T23:59"));
+  }
+
+  @Test
+  public void testWarnStillCreatesEvent() {
+    calendars.setConflictPolicy(ConflictPolicy.WARN);
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T09:30", "2025-03-10T10:30"));
+    assertEquals("Warning: 'Lunch' overlaps 'Meeting'\n", messages.toString());
+    assertEquals(2, calendars.countEvents("2025-03-10T00:00", "2025-03-10T23:59"));
+  }
+
+  @Test
+  public void testRejectedSeriesCreatesNothing() {
+    calendars.setConflictPolicy(ConflictPolicy.REJECT);
+    // the third occurrence lands on Monday the 10th
+    Event standup = Events.event("Standup", "2025-03-06T09:45", "2025-03-06T10:15");
+    try {
+      calendars.createEventSeriesNTimes(standup, "MR", 4);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Conflict: 'Standup' on 2025-03-10T09:45"));
+    }
+    assertEquals(1, calendars.countEvents("2025-03-01T00:00", "2025-03-31T23:59"));
+  }
+
+  @Test
+  public void testWarnedSeriesGivesOneWarning() {
+    calendars.setConflictPolicy(ConflictPolicy.WARN);
+    calendars.createEventSeriesUntil(
+            Events.event("Standup", "2025-03-03T09:45", "2025-03-03T10:15"), "M", "2025-03-31");
+    assertEquals("Warning: 1 occurrence(s) of 'Standup' overlap other events\n",
+            messages.toString());
+    assertEquals(5, calendars.countEvents("2025-03-01T00:00", "2025-03-31T23:59"));
+  }
+
+  @Test
+  public void testRejectedEditLeavesEventUnchanged() {
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T12:00", "2025-03-10T13:00"));
+    calendars.setConflictPolicy(ConflictPolicy.REJECT);
+    try {
+      calendars.editEvent("start", "Lunch", "2025-03-10T12:00", "2025-03-10T13:00",
+              "2025-03-10T09:30");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Conflict"));
+    }
+    assertEquals("• Meeting (2025-03-10 09:00 - 10:00)\n"
+            + "• Lunch (2025-03-10 12:00 - 13:00)\n", calendars.daySchedule("2025-03-10"));
+  }
+
+  /**
+   * A view that records the messages it is given.
+   */
+  private static class RecordingView implements View {
+    private final StringBuilder log;
+
+    RecordingView(StringBuilder log) {
+      this.log = log;
+    }
+
+    @Override
+    public void displayMessage(String message) {
+      log.append(message).append("\n");
+    }
+
+    @Override
+    public void displayError(String error) {
+      log.append(error).append("\n");
+    }
+  }
+}
@@ -0,0 +1,154 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import controller.EnhancedCommandParser;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests deleting single events, parts of series and ranges of events.
+ */
+public class TestDeleteEvents {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+  }
+
+  @Test
+  public void testDeleteSingleEvent() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+
+    calendars.deleteEvent("Standup", "2025-03-10T09:00", "2025-03-10T10:00");
+    assertEquals(List.of("Review"), subjects(calendars.snapshot().getEvents()));
+    try {
+      calendars.deleteEvent("Standup", "2025-03-10T09:00", "2025-03-10T10:00");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event not found", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testDeleteLaterEventsAndWholeSeries() {
+    // Monday to Friday, two weeks
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF", 10);
+    calendars.createEventSeriesNTimes(Events.event("Lunch", "2025-03-10T12:00"), "MTWRF", 10);
+    calendars.editEvent("location", "Standup", "2025-03-12T09:00", "2025-03-12T10:00", "Hall");
+
+    calendars.deleteEvents("Standup", "2025-03-14T09:00");
+    assertEquals(4, count("Standup"));
+    assertEquals(10, count("Lunch"));
+    assertEquals("Hall", calendars.snapshot().eventsBetween("2025-03-12T09:00",
+            "2025-03-12T09:00").get(0).getLocation());
+
+    calendars.deleteSeries("Standup", "2025-03-11T09:00");
+    assertEquals(0, count("Standup"));
+    assertEquals(10, count("Lunch"));
+
+    calendars.undo();
+    assertEquals(4, count("Standup"));
+    calendars.undo();
+    assertEquals(10, count("Standup"));
+  }
+
+  @Test
+  public void testDeleteCopiedSeries() {
+    calendars.createCalendar("Copy", TimeZone.getTimeZone("UTC"));
+    calendars.createCalendar("Days", TimeZone.getTimeZone("UTC"));
+    calendars.createEventSeriesNTimes(Events.event("Lec", "2025-02-03T07:00"), "M", 4);
+    calendars.createEvent(Events.event("Gym", "2025-02-10T18:00"));
+    calendars.copyEventsBetween("2025-02-01", "2025-02-28", "Copy", "2025-02-01");
+    calendars.copyEventsOn("2025-02-03", "Days", "2025-02-03");
+    calendars.copyEventsOn("2025-02-17", "Days", "2025-02-17");
+
+    calendars.useCalendar("Copy");
+    calendars.deleteEvents("Lec", "2025-02-10T07:00");
+    assertEquals(1, count("Lec"));
+    assertEquals(1, count("Gym"));
+    calendars.undo();
+    calendars.deleteSeries("Lec", "2025-02-03T07:00");
+    assertEquals(0, count("Lec"));
+    assertEquals(1, count("Gym"));
+
+    // copied one day at a time, the copies still share the series
+    calendars.useCalendar("Days");
+    calendars.deleteSeries("Lec", "2025-02-17T07:00");
+    assertEquals(0, count("Lec"));
+    // the original keeps its own
+    calendars.useCalendar("Work");
+    assertEquals(4, count("Lec"));
+  }
+
+  @Test
+  public void testDeleteRangeKeepsTheTreeUsable() {
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-01-01T09:00"), "MTWRFSU", 1000);
+    long lastId = calendars.snapshot().getEvents().get(999).getId();
+    Event inRange = calendars.snapshot().eventsBetween("2025-03-01T09:00",
+            "2025-03-01T09:00").get(0);
+
+    // every day of march and april
+    assertEquals(61, calendars.deleteRange("2025-03-01T00:00", "2025-04-30T23:59"));
+    assertEquals(939, calendars.snapshot().size());
+    assertEquals(List.of(), calendars.snapshot().eventsBetween("2025-03-01T00:00",
+            "2025-04-30T23:59"));
+    assertNull(calendars.snapshot().getEventById(inRange.getId()));
+    assertEquals("Standup", calendars.snapshot().getEventById(lastId).getSubject());
+    assertEquals(2, calendars.snapshot().countEvents("2025-02-28T00:00", "2025-05-01T23:59"));
+
+    // the rest of the tree can still be searched and changed
+    calendars.createEvent(Events.event("Review", "2025-03-15T09:00"));
+    assertEquals(List.of("Standup", "Review", "Standup"), subjects(calendars.snapshot()
+            .eventsBetween("2025-02-28T09:00", "2025-05-01T09:00")));
+    assertEquals(0, calendars.deleteRange("2030-01-01T00:00", "2030-12-31T23:59"));
+    assertEquals(940, calendars.deleteRange("2024-01-01T00:00", "2029-12-31T23:59"));
+    assertEquals(0, calendars.snapshot().size());
+
+    calendars.undo();
+    assertEquals(940, calendars.snapshot().size());
+    calendars.undo();
+    calendars.undo();
+    assertEquals(1000, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testDeleteCommands() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    calendars.createEventSeriesNTimes(Events.event("Team sync", "2025-03-10T09:00"), "MW", 6);
+    calendars.createEvent(Events.event("Review", "2025-03-11T09:00"));
+
+    assertEquals("Event(s) deleted successfully", parser.executeCommand(
+            "delete event Review from 2025-03-11T09:00 to 2025-03-11T10:00"));
+    assertEquals("Event(s) deleted successfully", parser.executeCommand(
+            "delete events \"Team sync\" from 2025-03-19T09:00"));
+    assertEquals(3, count("Team sync"));
+    assertEquals("Deleted 1 event(s)", parser.executeCommand(
+            "delete events between 2025-03-10T00:00 and 2025-03-10T23:59"));
+    assertEquals("Event(s) deleted successfully", parser.executeCommand(
+            "delete series \"Team sync\" from 2025-03-12T09:00"));
+    assertEquals(0, calendars.snapshot().size());
+    assertEquals("Error: Invalid delete format", parser.executeCommand("delete everything"));
+  }
+
+  private int count(String subject) {
+    return (int) calendars.snapshot().getEvents().stream()
+            .filter(e -> e.getSubject().equals(subject)).count();
+  }
+
+  private static List<String> subjects(List<Event> events) {
+    return events.stream().map(Event::getSubject).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,181 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TimeZone;
+
+import controller.EnhancedCommandParser;
+import model.CalendarSnapshot;
+import model.ConflictPolicy;
+import model.Event;
+import model.MultipleCalendars;
+import model.TimezoneCalendar;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests moving old events to archive segments on disk.
+ */
+public class TestEventArchive {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private TimezoneCalendar calendar;
+
+  @Before
+  public void setup() throws Exception {
+    calendar = new TimezoneCalendar(new ViewForConsole(), TimeZone.getTimeZone("UTC"));
+    calendar.enableArchive(folder.newFolder("archive").toPath(), 4);
+  }
+
+  @Test
+  public void testArchivedEventsAreStillFoundByRange() {
+    // a thousand days of history, so the archive has several blocks
+    LocalDateTime start = LocalDateTime.parse("2020-01-01T09:00");
+    calendar.createEventSeriesNTimes(Events.event("Standup", start.toString()), "MTWRFSU", 1000);
+    calendar.createEvent(Events.event("Review", "2022-09-27T09:30"));
+    String before = calendar.rangeSchedule("2021-06-01T00:00", "2021-06-03T23:59");
+
+    assertEquals(999, calendar.archiveBefore(LocalDateTime.parse("2022-09-26T00:00")));
+    assertEquals(2, calendar.snapshot().size());
+    assertEquals(before, calendar.rangeSchedule("2021-06-01T00:00", "2021-06-03T23:59"));
+    assertEquals(1001, calendar.countEvents("2019-01-01T00:00", "2023-01-01T00:00"));
+    assertEquals("Busy", calendar.isFree("2020-02-29T09:30"));
+    assertEquals("Available", calendar.isFree("2020-02-29T10:30"));
+    assertEquals(1, calendar.eventCountsByDay("2020-03")[30]);
+    assertEquals(List.of("• Standup (2022-09-25 09:00 - 10:00)",
+                    "• Standup (2022-09-26 09:00 - 10:00)",
+                    "• Review (2022-09-27 09:30 - 10:30)"),
+            calendar.schedulePage("2022-09-25T00:00", "2022-09-28T00:00", 0, 3));
+    assertTrue(folder.getRoot().toPath().resolve("archive").toFile().list().length > 0);
+  }
+
+  @Test
+  public void testArchivingSkipsEventsStillRunningAndForgetsUndo() {
+    calendar.createEvent(Events.event("Old", "2024-01-01T09:00"));
+    calendar.createEvent(Event.getBuilder("Trip", LocalDateTime.parse("2024-01-01T09:00"))
+            .endDateTime(LocalDateTime.parse("2024-03-01T09:00")).build());
+
+    assertEquals(1, calendar.archiveBefore(LocalDateTime.parse("2024-02-01T00:00")));
+    assertEquals(0, calendar.archiveBefore(LocalDateTime.parse("2024-02-01T00:00")));
+    assertEquals("• Old (2024-01-01 09:00 - 10:00)\n"
+                    + "• Trip (2024-01-01 09:00 - 2024-03-01 09:00)\n",
+            calendar.daySchedule("2024-01-01"));
+    assertTrue(!calendar.undo());
+    try {
+      calendar.editEvent("location", "Old", "2024-01-01T09:00", "2024-01-01T10:00", "Hall");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // archived events cannot be edited
+    }
+  }
+
+  @Test
+  public void testSnapshotsAndTimezoneChanges() {
+    calendar.createEvent(Events.event("Old", "2024-01-01T09:00"));
+    CalendarSnapshot before = calendar.snapshot();
+    calendar.archiveBefore(LocalDateTime.parse("2024-02-01T00:00"));
+    assertEquals("• Old (2024-01-01 09:00 - 10:00)\n", before.daySchedule("2024-01-01"));
+    assertEquals("• Old (2024-01-01 09:00 - 10:00)\n",
+            calendar.snapshot().daySchedule("2024-01-01"));
+
+    calendar.updateTimes(TimeZone.getTimeZone("Asia/Tokyo"));
+    assertEquals("• Old (2024-01-01 18:00 - 19:00)\n", calendar.daySchedule("2024-01-01"));
+  }
+
+  @Test
+  public void testArchiveCommand() throws Exception {
+    MultipleCalendars calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.setArchiveDirectory(folder.newFolder("calendars").toPath());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.event("Old", "2024-01-01T09:00"));
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+
+    assertEquals("Archived 1 event(s)",
+            parser.executeCommand("archive events before 2024-02-01T00:00"));
+    assertEquals(0, calendars.snapshot().size());
+    assertEquals("• Old (2024-01-01 09:00 - 10:00)\n", calendars.daySchedule("2024-01-01"));
+    assertEquals("Archived 0 event(s)",
+            parser.executeCommand("archive events before 2024-02-01T00:00"));
+  }
+
+  @Test
+  public void testDuplicatesOfArchivedEventsAreRejected() {
+    calendar.createEvent(Events.event("Old", "2024-01-01T09:00"));
+    calendar.archiveBefore(LocalDateTime.parse("2024-02-01T00:00"));
+    try {
+      calendar.createEvent(Events.event("Old", "2024-01-01T09:00"));
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("An event with the same name and time already exists", e.getMessage());
+    }
+    try {
+      calendar.createEventSeriesNTimes(Events.event("Old", "2023-12-31T09:00"), "MTWRFSU", 3);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("This would create a duplication", e.getMessage());
+    }
+    assertEquals("• Old (2024-01-01 09:00 - 10:00)\n", calendar.daySchedule("2024-01-01"));
+  }
+
+  @Test
+  public void testRejectPolicySeesArchivedEvents() {
+    calendar.createEvent(Events.event("Old", "2024-01-01T09:00"));
+    calendar.archiveBefore(LocalDateTime.parse("2024-02-01T00:00"));
+    calendar.setConflictPolicy(ConflictPolicy.REJECT);
+    try {
+      calendar.createEvent(Events.event("Clash", "2024-01-01T09:30"));
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Conflict: 'Clash' overlaps 'Old'", e.getMessage());
+    }
+    // touching the archived event is not a conflict
+    calendar.createEvent(Events.event("Next", "2024-01-01T10:00"));
+    assertEquals(2, calendar.countEvents("2024-01-01T00:00", "2024-01-02T00:00"));
+  }
+
+  @Test
+  public void testArchivedDaysCanBeCopied() throws Exception {
+    MultipleCalendars calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.setArchiveDirectory(folder.newFolder("copies").toPath());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.event("Old", "2024-01-01T09:00"));
+    calendars.createEvent(Events.event("New", "2024-03-01T09:00"));
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    parser.executeCommand("archive events before 2024-02-01T00:00");
+
+    calendars.copyEventsOn("2024-01-01", "Home", "2024-05-01");
+    calendars.copyEventsBetween("2023-12-31", "2024-03-01", "Home", "2024-06-01");
+    calendars.useCalendar("Home");
+    assertEquals("• Old (2024-05-01 09:00 - 10:00)\n", calendars.daySchedule("2024-05-01"));
+    assertEquals("• Old (2024-06-02 09:00 - 10:00)\n", calendars.daySchedule("2024-06-02"));
+    assertEquals("• New (2024-08-01 09:00 - 10:00)\n", calendars.daySchedule("2024-08-01"));
+  }
+
+  @Test
+  public void testArchiveMustBeEnabled() {
+    try {
+      new TimezoneCalendar(new ViewForConsole(), TimeZone.getTimeZone("UTC"))
+              .archiveBefore(LocalDateTime.parse("2024-02-01T00:00"));
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("Calendar has no archive", e.getMessage());
+    }
+    try {
+      calendar.enableArchive(new File(folder.getRoot(), "other").toPath(), 4);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("Calendar already has an archive", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,101 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import controller.GUIController;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the ids given to events and editing events by id.
+ */
+public class TestEventIds {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    calendars.useCalendar("Work");
+  }
+
+  @Test
+  public void testEventsGetDistinctIds() {
+    calendars.createEvent(Events.event("Meeting", "2025-03-10T09:00"));
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T08:00"), "MTWRF", 3);
+    long first = calendars.snapshot().getEvents().get(0).getId();
+    long second = calendars.snapshot().getEvents().get(1).getId();
+    assertTrue(first > 0);
+    assertNotEquals(first, second);
+    assertEquals(0, Events.event("Unsaved", "2025-03-10T09:00").getId());
+  }
+
+  @Test
+  public void testEditByIdKeepsId() {
+    calendars.createEvent(Events.event("Meeting", "2025-03-10T09:00"));
+    long id = calendars.snapshot().getEvents().get(0).getId();
+
+    calendars.editEventById(id, "subject", "Review");
+    calendars.editEventById(id, "start", "2025-03-10T08:30");
+    Event edited = calendars.getEventById(id);
+    assertEquals("Review", edited.getSubject());
+    assertEquals(LocalDateTime.parse("2025-03-10T08:30"), edited.getStartDateTime());
+    assertEquals("• Review (2025-03-10 08:30 - 10:00)\n", calendars.daySchedule("2025-03-10"));
+
+    // undoing the last edit brings back the earlier version under the same id
+    calendars.undo();
+    assertEquals("Review", calendars.getEventById(id).getSubject());
+    assertEquals(LocalDateTime.parse("2025-03-10T09:00"),
+            calendars.getEventById(id).getStartDateTime());
+  }
+
+  @Test
+  public void testEditByIdErrors() {
+    try {
+      calendars.getEventById(42);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event not found", e.getMessage());
+    }
+    calendars.createEvent(Events.event("Meeting", "2025-03-10T09:00"));
+    long id = calendars.snapshot().getEvents().get(0).getId();
+    try {
+      calendars.editEventById(id, "status", "secret");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid status", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testLookupAcrossManyEvents() {
+    for (int i = 0; i < 2000; i++) {
+      calendars.createEvent(Events.event("Task " + i, "2025-01-01T09:00").copyEventToNewDate(
+              LocalDateTime.parse("2025-01-01T09:00").plusMinutes(i),
+              LocalDateTime.parse("2025-01-01T09:30").plusMinutes(i)));
+    }
+    Event last = calendars.snapshot().getEvents().get(1999);
+    assertEquals("Task 1999", calendars.getEventById(last.getId()).getSubject());
+    assertNull(calendars.snapshot().getEventById(last.getId() + 1));
+  }
+
+  @Test
+  public void testControllerEditById() {
+    GUIController controller = new GUIController(calendars);
+    controller.createEvent(Events.event("Meeting", "2025-03-10T09:00"));
+    long id = calendars.snapshot().getEvents().get(0).getId();
+    assertEquals("Event edited successfully", controller.editEventById(id, "location", "Room 4"));
+    assertEquals("Room 4", controller.getEventById(id).getLocation());
+    assertTrue(controller.editEventById(id + 1, "location", "Room 5").startsWith("Error:"));
+    assertNull(controller.getEventById(id + 1));
+  }
+}
@@ -0,0 +1,104 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import controller.EnhancedCommandParser;
+import model.Event;
+import model.EventQuery;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests filtering events with compiled queries.
+ */
+public class TestFindEvents {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.hour("Standup", "2025-03-10T09:00").location("Room 4")
+            .status("private").build());
+    calendars.createEvent(Events.hour("Review", "2025-03-10T11:00").location("Room 4")
+            .status("public").build());
+    calendars.createEvent(Events.hour("Planning", "2025-03-11T09:00").location("Room 42")
+            .status("private").build());
+    calendars.createEvent(Events.hour("Lunch", "2025-03-11T12:00").location("Cafe").build());
+  }
+
+  @Test
+  public void testConditionsAreJoinedByAnd() {
+    assertEquals(List.of("Standup"), find("location = \"Room 4\" and status = private"));
+    assertEquals(List.of("Standup", "Review"), find("location = \"room 4\""));
+    assertEquals(List.of("Planning", "Lunch"), find("location != \"Room 4\""));
+    assertEquals(List.of("Standup", "Review", "Planning"), find("location contains \"oom 4\""));
+    assertEquals(List.of("Planning"), find("location contains \"Room 42\" AND subject = Planning"));
+    assertEquals(List.of("Review"), find("subject contains view"));
+    assertEquals(List.of(), find("status = private and subject = Lunch"));
+  }
+
+  @Test
+  public void testRangesAndEditsAreRespected() {
+    assertEquals(List.of("Planning"), subjects(calendars.snapshot().find(
+            EventQuery.parse("status = private"), "2025-03-11T00:00", "2025-03-11T23:59")));
+    calendars.editEvent("location", "Standup", "2025-03-10T09:00", "2025-03-10T10:00", "Hall");
+    assertEquals(List.of("Review"), find("location = \"Room 4\""));
+    assertEquals(List.of("Standup"), find("location = hall"));
+    calendars.undo();
+    assertEquals(List.of("Standup", "Review"), find("location = \"Room 4\""));
+  }
+
+  @Test
+  public void testIndexedFieldsNarrowLargeCalendars() {
+    calendars.createEventSeriesNTimes(Events.hour("Sync", "2026-01-01T08:00").location("Hall")
+            .build(), "MTWRFSU", 100000);
+    calendars.createEvent(Events.hour("Offsite", "2027-06-01T09:00").location("Lake house")
+            .status("private").build());
+    assertEquals(List.of("Offsite"), find("location contains \"lake hou\" and status = private"));
+    assertEquals(100000, calendars.snapshot().find(EventQuery.parse("location = Hall"), null,
+            null).size());
+    assertEquals(7, calendars.snapshot().find(EventQuery.parse("subject = sync"),
+            "2026-02-01T00:00", "2026-02-07T23:59").size());
+  }
+
+  @Test
+  public void testInvalidQueries() {
+    for (String query : new String[]{"", "room = 4", "location = 4 or status = private",
+        "location 4"}) {
+      try {
+        EventQuery.parse(query);
+        fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+    assertEquals("location = \"Room 4\" and status != \"public\"",
+            EventQuery.parse("location = \"Room 4\" and status != public").toString());
+  }
+
+  @Test
+  public void testFindCommand() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    assertEquals("• Planning (2025-03-11 09:00 - 10:00) @ Room 42\n", parser.executeCommand(
+            "find events where status = private from 2025-03-11T00:00 to 2025-03-11T23:59"));
+    assertEquals("No events found", parser.executeCommand("find events where subject = Gym"));
+    assertEquals("Error: Unknown field: room", parser.executeCommand(
+            "find events where room = 4"));
+  }
+
+  private List<String> find(String query) {
+    return subjects(calendars.snapshot().find(EventQuery.parse(query), null, null));
+  }
+
+  private static List<String> subjects(List<Event> events) {
+    return events.stream().map(Event::getSubject).collect(Collectors.toList());
+  }
+}
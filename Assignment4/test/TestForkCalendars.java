@@ -0,0 +1,220 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import controller.EnhancedCommandParser;
+import model.CalendarChange;
+import model.CalendarMemory;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests forking calendars and promoting forks over their originals.
+ */
+public class TestForkCalendars {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Term", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Term");
+    calendars.createEventSeriesNTimes(Events.hour("Lecture", "2025-09-01T09:00").location("Hall")
+            .build(), "MW", 20);
+    calendars.createEvent(Events.hour("Exam", "2025-11-03T14:00").location("Gym").build());
+  }
+
+  @Test
+  public void testForkChangesOnItsOwn() {
+    calendars.forkCalendar("Term", "Plan");
+    calendars.useCalendar("Plan");
+    assertEquals(21, calendars.snapshot().size());
+    calendars.editEventSeries("location", "Lecture", "2025-09-01T09:00", "Annex");
+    calendars.createEvent(Events.hour("Review", "2025-11-01T10:00").location("Library").build());
+    assertEquals(22, calendars.snapshot().size());
+    assertEquals("Annex", calendars.snapshot().eventsBetween("2025-09-01T00:00",
+            "2025-09-01T23:59").get(0).getLocation());
+    assertEquals(List.of("Review 2025-11-01T10:00"),
+            describe(calendars.snapshot().search("review", null, null)));
+    // the fork's undo history starts with the fork
+    assertTrue(calendars.undo());
+    assertTrue(calendars.undo());
+    assertFalse(calendars.undo());
+
+    calendars.useCalendar("Term");
+    assertEquals(21, calendars.snapshot().size());
+    calendars.createEvent(Events.hour("Trip", "2025-11-01T10:00").location("Bus").build());
+    assertEquals("Hall", calendars.snapshot().eventsBetween("2025-09-01T00:00",
+            "2025-09-01T23:59").get(0).getLocation());
+    assertEquals(List.of(), calendars.snapshot().search("review", null, null));
+    // rooms booked only by the fork are busy too
+    assertFalse(calendars.isRoomFree("Bus", "2025-11-01T10:30"));
+  }
+
+  @Test
+  public void testPromoteSwapsTheForkIn() {
+    List<CalendarChange> changes = new ArrayList<>();
+    calendars.forkCalendar("Term", "Plan");
+    calendars.useCalendar("Plan");
+    calendars.deleteEvent("Exam", "2025-11-03T14:00", "2025-11-03T15:00");
+    calendars.createEvent(Events.hour("Project", "2025-11-05T14:00").location("Lab").build());
+    calendars.subscribe(changes::addAll, Runnable::run);
+
+    calendars.useCalendar("Term");
+    assertEquals("Term", calendars.promoteCalendar("Plan"));
+    assertEquals("Term", calendars.getCalendars());
+    // the session using the original now uses the fork
+    assertEquals(21, calendars.snapshot().size());
+    assertEquals(List.of("Lecture 2025-11-05T09:00", "Project 2025-11-05T14:00"),
+            describe(calendars.snapshot().eventsBetween("2025-11-03T12:00", "2025-11-05T23:59")));
+    assertTrue(calendars.isRoomFree("Gym", "2025-11-03T14:30"));
+    assertFalse(calendars.isRoomFree("Lab", "2025-11-05T14:30"));
+    // listeners only hear about what differs
+    assertEquals(2, changes.size());
+    assertTrue(changes.stream().allMatch(change -> change.getCalendarName().equals("Term")));
+
+    calendars.createEvent(Events.hour("Exam", "2025-11-03T14:00").location("Gym").build());
+    assertEquals(22, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testPromoteChecksTheOriginal() {
+    calendars.forkCalendar("Term", "Plan");
+    calendars.createEvent(Events.hour("Trip", "2025-11-01T10:00").location("Bus").build());
+    try {
+      calendars.promoteCalendar("Plan");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Calendar 'Term' has changed since 'Plan' was forked from it",
+              e.getMessage());
+    }
+    try {
+      calendars.promoteCalendar("Term");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Calendar 'Term' is not a fork", e.getMessage());
+    }
+    try {
+      calendars.forkCalendar("Term", "Plan");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("A calendar with this name already exists", e.getMessage());
+    }
+
+    // a renamed original is still found
+    calendars.undo();
+    calendars.editCalendar("Term", "name", "Autumn");
+    assertEquals("Autumn", calendars.promoteCalendar("Plan"));
+    assertEquals("Autumn", calendars.getCalendars());
+  }
+
+  @Test
+  public void testRollbackUndoesPromote() {
+    calendars.forkCalendar("Term", "Plan");
+    calendars.useCalendar("Plan");
+    calendars.deleteEvent("Exam", "2025-11-03T14:00", "2025-11-03T15:00");
+    calendars.begin();
+    calendars.promoteCalendar("Plan");
+    calendars.rollback();
+
+    assertEquals("Plan\nTerm", calendars.getCalendars());
+    calendars.useCalendar("Term");
+    assertEquals(21, calendars.snapshot().size());
+    assertFalse(calendars.isRoomFree("Gym", "2025-11-03T14:30"));
+  }
+
+  @Test
+  public void testLargeCalendarForksWithoutCopying() {
+    calendars.createEventSeriesNTimes(Events.event("Shift", "2026-01-01T06:00"), "MTWRFSU",
+            100000);
+    for (int i = 0; i < 50; i++) {
+      calendars.forkCalendar("Term", "Plan " + i);
+    }
+    calendars.useCalendar("Plan 7");
+    calendars.deleteRange("2026-01-01T00:00", "2026-12-31T23:59");
+    assertEquals(100021 - 365, calendars.snapshot().size());
+    calendars.useCalendar("Plan 8");
+    assertEquals(100021, calendars.snapshot().size());
+    assertEquals("Term", calendars.promoteCalendar("Plan 7"));
+    calendars.useCalendar("Term");
+    assertEquals(0, calendars.snapshot().countEvents("2026-01-01T00:00", "2026-12-31T23:59"));
+  }
+
+  @Test
+  public void testForkingSharesRoomBookings() {
+    // a hundred thousand events on a thousand days, since forking copies the days' hashes
+    LocalDateTime first = LocalDateTime.parse("2026-01-01T06:00");
+    for (int i = 0; i < 100; i++) {
+      calendars.createEventSeriesNTimes(Events.hour("Shift " + i, first.plusMinutes(i).toString())
+              .location("Ward").build(), "MTWRFSU", 1000);
+    }
+    long before = System.nanoTime();
+    for (int i = 0; i < 200; i++) {
+      calendars.forkCalendar("Term", "Plan " + i);
+    }
+    long millis = (System.nanoTime() - before) / 1_000_000;
+    assertTrue("forking took " + millis + " ms", millis < 2000);
+
+    // each side changes its own bookings from there
+    calendars.useCalendar("Term");
+    calendars.deleteRange("2026-01-01T00:00", "2029-01-01T00:00");
+    calendars.useCalendar("Plan 3");
+    calendars.createEvent(Events.hour("Audit", "2026-03-01T12:00").location("Lab").build());
+    assertFalse(calendars.isRoomFree("Ward", "2026-03-01T06:30"));
+    assertFalse(calendars.isRoomFree("Lab", "2026-03-01T12:30"));
+    assertEquals(List.of("Gym", "Hall", "Lab"),
+            calendars.freeRooms("2026-03-01T06:00", "2026-03-01T07:00"));
+  }
+
+  @Test
+  public void testForkHasItsOwnIdsAndCountsSharedMemoryOnce() {
+    calendars.forkCalendar("Term", "Plan");
+    calendars.useCalendar("Plan");
+    calendars.createEvent(Events.event("Review", "2025-11-01T10:00"));
+    long review = calendars.snapshot().search("review", null, null).get(0).getId();
+    calendars.useCalendar("Term");
+    calendars.createEvent(Events.event("Trip", "2025-11-01T10:00"));
+    long trip = calendars.snapshot().search("trip", null, null).get(0).getId();
+    assertNotEquals(review, trip);
+
+    List<CalendarMemory> memory = calendars.memory();
+    CalendarMemory plan = memory.get(0);
+    CalendarMemory term = memory.get(1);
+    assertEquals(0, term.getSharedBytes());
+    assertTrue(plan.getSharedBytes() > 0);
+    assertTrue(plan.getOwnBytes() < term.getTotalBytes() / 4);
+    String report = new EnhancedCommandParser(calendars, new ViewForConsole())
+            .executeCommand("show memory");
+    assertTrue(report, report.endsWith("\nTotal: "
+            + CalendarMemory.format(term.getTotalBytes() + plan.getOwnBytes())));
+  }
+
+  @Test
+  public void testForkCommands() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    assertEquals("Calendar 'Plan' forked successfully",
+            parser.executeCommand("fork calendar Term as Plan"));
+    assertEquals("Calendar 'Plan' promoted to 'Term'",
+            parser.executeCommand("promote calendar Plan"));
+    assertEquals("Error: No calendar found with that name",
+            parser.executeCommand("promote calendar Plan"));
+    assertEquals("Error: Invalid fork calendar format", parser.executeCommand("fork calendar"));
+  }
+
+  private static List<String> describe(List<Event> events) {
+    return events.stream().map(e -> e.getSubject() + " " + e.getStartDateTime())
+            .collect(Collectors.toList());
+  }
+}
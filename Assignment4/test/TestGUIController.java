@@ -758,4 +758,69 @@ public class TestGUIController {
     String singleSeriesResult = controller.createEventSeriesNTimes(singleEvent, "M", 1);
     assertEquals("Event series created successfully", singleSeriesResult);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testSchedulePageOrdersAndPages() {
+    controller.createCalendar("Test", TimeZone.getTimeZone("America/New_York"));
+    controller.useCalendar("Test");
+    controller.createEvent(Event.getBuilder("Late", LocalDateTime.parse("2025-01-01T15:00"))
+            .endDateTime(LocalDateTime.parse("2025-01-01T16:00")).build());
+    controller.createEvent(Event.getBuilder("Early", LocalDateTime.parse("2025-01-01T08:00"))
+            .endDateTime(LocalDateTime.parse("2025-01-01T09:00")).location("Room 4").build());
+    controller.createEvent(Event.getBuilder("Noon", LocalDateTime.parse("2025-01-01T12:00"))
+            .endDateTime(LocalDateTime.parse("2025-01-01T13:00")).build());
+
+    assertEquals(3, controller.getEventCount("2025-01-01T00:00", "2025-01-01T23:59"));
+    java.util.List<String> first = controller.getSchedulePage("2025-01-01T00:00",
+            "2025-01-01T23:59", 0, 2);
+    assertEquals(2, first.size());
+    assertEquals("• Early (2025-01-01 08:00 - 09:00) @ Room 4", first.get(0));
+    assertEquals("• Noon (2025-01-01 12:00 - 13:00)", first.get(1));
+    java.util.List<String> second = controller.getSchedulePage("2025-01-01T00:00",
+            "2025-01-01T23:59", 2, 2);
+    assertEquals(1, second.size());
+    assertEquals("• Late (2025-01-01 15:00 - 16:00)", second.get(0));
+    assertTrue(controller.getSchedulePage("2025-01-01T00:00", "2025-01-01T23:59", 3, 2)
+            .isEmpty());
+  }
+
+  @Test
+  public void testSchedulePageErrors() {
+    java.util.List<String> noCalendar = controller.getSchedulePage("2025-01-01T00:00",
+            "2025-01-01T23:59", 0, 5);
+    assertEquals(1, noCalendar.size());
+    assertTrue(noCalendar.get(0).startsWith("Error:"));
+    assertEquals(0, controller.getEventCount("2025-01-01T00:00", "2025-01-01T23:59"));
+
+    controller.createCalendar("Test", TimeZone.getTimeZone("America/New_York"));
+    controller.useCalendar("Test");
+    assertTrue(controller.getSchedulePage("2025-01-01T00:00", "2025-01-01T23:59", -1, 5)
+            .get(0).startsWith("Error:"));
+    assertTrue(controller.getSchedulePage("", "2025-01-01T23:59", 0, 5)
+            .get(0).startsWith("Error:"));
+  }
+
+  @Test
+  public void testMonthEventCounts() {
+    controller.createCalendar("Test", TimeZone.getTimeZone("America/New_York"));
+    controller.useCalendar("Test");
+    controller.createEvent(Event.getBuilder("Trip", LocalDateTime.parse("2025-01-30T10:00"))
+            .endDateTime(LocalDateTime.parse("2025-02-02T10:00")).build());
+    controller.createEvent(Event.getBuilder("Call", LocalDateTime.parse("2025-01-31T10:00"))
+            .endDateTime(LocalDateTime.parse("2025-01-31T11:00")).build());
+
+    int[] january = controller.getMonthEventCounts("2025-01");
+    assertEquals(31, january.length);
+    assertEquals(0, january[28]);
+    assertEquals(1, january[29]);
+    assertEquals(2, january[30]);
+
+    int[] february = controller.getMonthEventCounts("2025-02");
+    assertEquals(28, february.length);
+    assertEquals(1, february[0]);
+    assertEquals(1, february[1]);
+    assertEquals(0, february[2]);
+
+    assertEquals(0, controller.getMonthEventCounts("not a month").length);
+  }
+}
@@ -0,0 +1,83 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import controller.LoadDriver;
+import controller.LoadGenerator;
+import controller.LoadReport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the load generator and the driver that measures scripts.
+ */
+public class TestLoadGenerator {
+
+  @Test
+  public void testSameSeedSameScript() throws IOException {
+    StringBuilder first = new StringBuilder();
+    StringBuilder second = new StringBuilder();
+    LoadGenerator.getBuilder().events(500).seed(7).build().write(first);
+    LoadGenerator.getBuilder().events(500).seed(7).build().write(second);
+    assertEquals(first.toString(), second.toString());
+    assertTrue(first.toString().endsWith("exit\n"));
+  }
+
+  @Test
+  public void testGeneratedScriptRunsCleanly() throws IOException {
+    StringBuilder script = new StringBuilder();
+    LoadGenerator.getBuilder().events(2000).calendars(3).mix(60, 25, 0, 15).build()
+            .write(script);
+    LoadReport report = LoadDriver.run(new StringReader(script.toString()));
+
+    assertEquals(script.toString().split("\n").length, report.getOperations());
+    assertEquals(3, report.getCount("create calendar"));
+    assertTrue(report.getCount("create series") > 0);
+    assertTrue(report.getCount("edit series") > 0);
+    assertTrue(report.getCount("print events") > 0);
+    for (String type : report.getCommandTypes()) {
+      assertEquals(type, 0, report.getErrors(type));
+    }
+    assertTrue(report.getOpsPerSecond() > 0);
+    assertTrue(report.getHeapHighWater() > 0);
+  }
+
+  @Test
+  public void testReportCountsErrorsAndPercentiles() {
+    LoadReport report = LoadDriver.run(new StringReader(
+            "create calendar --name Work --timezone UTC\n"
+                    + "use calendar --name Work\n"
+                    + "create event Meeting from 2025-03-10T09:00 to 2025-03-10T10:00\n"
+                    + "create event Meeting from 2025-03-10T09:00 to 2025-03-10T10:00\n"
+                    + "print events on 2025-03-10\n"
+                    + "exit\n"
+                    + "print events on 2025-03-11\n"));
+    assertEquals(6, report.getOperations());
+    assertEquals(2, report.getCount("create event"));
+    assertEquals(1, report.getErrors("create event"));
+    assertEquals(1, report.getCount("print events"));
+    assertTrue(report.getPercentile("create event", 50)
+            <= report.getPercentile("create event", 100));
+    assertEquals(0, report.getPercentile("copy event", 50));
+    assertTrue(report.toString().contains("create event"));
+  }
+
+  @Test
+  public void testInvalidSettings() {
+    try {
+      LoadGenerator.getBuilder().events(0);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Number of events must be positive", e.getMessage());
+    }
+    try {
+      LoadGenerator.getBuilder().mix(0, 1, 1, 1);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid command mix", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,182 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import controller.EnhancedCommandParser;
+import model.CalendarChange;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests merging one calendar into another.
+ */
+public class TestMergeCalendars {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    calendars.useCalendar("Home");
+    // 9:00 and 18:00 in New York
+    calendars.createEvent(Events.hour("Standup", "2025-03-10T13:00").location("Hall").build());
+    calendars.createEvent(Events.event("Gym", "2025-03-10T22:00"));
+  }
+
+  @Test
+  public void testSkipConvertsTimezones() {
+    assertEquals(1, calendars.mergeCalendar("Home", "Work", "skip"));
+    calendars.useCalendar("Work");
+    assertEquals(List.of("Standup 2025-03-10T09:00 ", "Gym 2025-03-10T18:00 "),
+            describe(calendars.snapshot().getEvents()));
+    assertEquals(0, calendars.mergeCalendar("Home", "Work", "skip"));
+    // the source is left alone
+    calendars.useCalendar("Home");
+    assertEquals(2, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testOverwriteKeepsTheId() {
+    calendars.useCalendar("Work");
+    long id = calendars.snapshot().getEvents().get(0).getId();
+    assertEquals(2, calendars.mergeCalendar("Home", "Work", "OVERWRITE"));
+    assertEquals("Hall", calendars.getEventById(id).getLocation());
+    assertEquals(List.of("Standup 2025-03-10T09:00 Hall", "Gym 2025-03-10T18:00 "),
+            describe(calendars.snapshot().getEvents()));
+    // nothing changes the second time
+    assertEquals(0, calendars.mergeCalendar("Home", "Work", "overwrite"));
+
+    calendars.undo();
+    assertEquals("", calendars.getEventById(id).getLocation());
+  }
+
+  @Test
+  public void testKeepBothLabelsTheCopy() {
+    assertEquals(2, calendars.mergeCalendar("Home", "Work", "keep"));
+    calendars.useCalendar("Work");
+    assertEquals(List.of("Standup 2025-03-10T09:00 ", "Standup (Home) 2025-03-10T09:00 Hall",
+            "Gym 2025-03-10T18:00 "), describe(calendars.snapshot().getEvents()));
+    // the copy of Gym is a duplicate now, while the labelled Standup is already there
+    assertEquals(1, calendars.mergeCalendar("Home", "Work", "keep"));
+    assertEquals(0, calendars.mergeCalendar("Home", "Work", "keep"));
+    assertEquals(4, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testSeriesEditsReachMergedEvents() {
+    calendars.createCalendar("Spare", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Home");
+    calendars.createEventSeriesNTimes(Events.event("Yoga", "2025-03-17T07:00"), "M", 4);
+    // the copies keep the series id
+    calendars.copyEventsBetween("2025-03-17", "2025-04-07", "Spare", "2025-03-17");
+    calendars.useCalendar("Spare");
+    calendars.editEvent("location", "Yoga", "2025-03-24T07:00", "2025-03-24T08:00", "Studio");
+
+    assertEquals(1, calendars.mergeCalendar("Spare", "Home", "overwrite"));
+    calendars.useCalendar("Home");
+    calendars.editEventSeries("location", "Yoga", "2025-03-17T07:00", "Park");
+    assertEquals(List.of("Yoga 2025-03-17T07:00 Park", "Yoga 2025-03-24T07:00 Park",
+                    "Yoga 2025-03-31T07:00 Park", "Yoga 2025-04-07T07:00 Park"),
+            describe(calendars.snapshot().eventsBetween("2025-03-17T00:00", "2025-04-08T00:00")));
+
+    assertEquals(4, calendars.mergeCalendar("Spare", "Home", "keep"));
+    assertEquals(10, calendars.snapshot().size());
+    calendars.deleteSeries("Yoga", "2025-03-17T07:00");
+    assertEquals(List.of("Standup 2025-03-10T13:00 Hall", "Gym 2025-03-10T22:00 "),
+            describe(calendars.snapshot().getEvents()));
+  }
+
+  @Test
+  public void testMergePublishesOnlyWhatItChanged() {
+    calendars.useCalendar("Home");
+    calendars.createEventSeriesNTimes(Events.event("Yoga", "2025-03-17T07:00"), "M", 5);
+    calendars.editEventSeries("subject", "Yoga", "2025-03-17T07:00", "Pilates");
+    calendars.createCalendar("Spare", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Spare");
+    calendars.createEvent(Events.event("Swim", "2025-03-18T07:00"));
+    calendars.createEvent(Events.hour("Gym", "2025-03-10T22:00").location("Pool").build());
+    List<String> seen = new ArrayList<>();
+    calendars.subscribe(changes -> changes.forEach(change -> seen.add(change.toString())));
+
+    assertEquals(2, calendars.mergeCalendar("Spare", "Home", "overwrite"));
+    assertEquals(List.of("EVENT_REPLACED Home Gym -> Gym", "EVENT_ADDED Home Swim"), seen);
+    calendars.useCalendar("Home");
+    calendars.editEventSeries("location", "Pilates", "2025-03-17T07:00", "Park");
+    assertEquals("• Pilates (2025-03-31 07:00 - 08:00) @ Park\n",
+            calendars.daySchedule("2025-03-31"));
+  }
+
+  @Test
+  public void testRejectedConflictLeavesTheTargetAlone() {
+    calendars.useCalendar("Home");
+    calendars.createEvent(Events.event("Dentist", "2025-03-10T15:30"));
+    calendars.editCalendar("Work", "conflicts", "reject");
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.event("Review", "2025-03-10T12:00"));
+    try {
+      calendars.mergeCalendar("Home", "Work", "skip");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Conflict: 'Dentist' on 2025-03-10T11:30 overlaps another event",
+              e.getMessage());
+    }
+    assertEquals(2, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testLargeCalendarsMergeInOnePass() {
+    calendars.createCalendar("A", TimeZone.getTimeZone("UTC"));
+    calendars.createCalendar("B", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("A");
+    calendars.createEventSeriesNTimes(Events.event("Early", "2020-01-01T08:00"), "MTWRFSU", 50000);
+    calendars.createEventSeriesNTimes(Events.event("Late", "2020-01-01T10:00"), "MTWRFSU", 50000);
+    calendars.useCalendar("B");
+    calendars.createEventSeriesNTimes(Events.event("Early", "2020-01-01T08:00"), "MTWRFSU", 50000);
+    calendars.createEventSeriesNTimes(Events.event("Noon", "2020-01-01T12:00"), "MTWRFSU", 50000);
+
+    assertEquals(50000, calendars.mergeCalendar("A", "B", "skip"));
+    assertEquals(150000, calendars.snapshot().size());
+    assertEquals(List.of("Early", "Late", "Noon"), calendars.snapshot()
+            .eventsBetween("2050-06-01T00:00", "2050-06-01T23:59").stream()
+            .map(Event::getSubject).collect(Collectors.toList()));
+    // the merged tree takes further changes as usual
+    calendars.deleteSeries("Early", "2020-01-01T08:00");
+    assertEquals(100000, calendars.snapshot().size());
+    calendars.undo();
+    calendars.undo();
+    assertEquals(100000, calendars.snapshot().size());
+    assertEquals(0, calendars.snapshot().countEvents("2020-01-01T09:30", "2020-01-01T10:30"));
+  }
+
+  @Test
+  public void testMergeCommand() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    assertEquals("Merged 1 event(s) into 'Work'",
+            parser.executeCommand("merge calendar Home into Work"));
+    assertEquals("Merged 1 event(s) into 'Work'",
+            parser.executeCommand("merge calendar Home into Work --policy overwrite"));
+    assertEquals("Error: Cannot merge a calendar into itself",
+            parser.executeCommand("merge calendar Work into Work"));
+    assertEquals("Error: Invalid merge policy",
+            parser.executeCommand("merge calendar Home into Work --policy newest"));
+    assertEquals("Error: No calendar found with that name",
+            parser.executeCommand("merge calendar Gym into Work"));
+  }
+
+  private static List<String> describe(List<Event> events) {
+    return events.stream()
+            .map(e -> e.getSubject() + " " + e.getStartDateTime() + " " + e.getLocation())
+            .collect(Collectors.toList());
+  }
+}
@@ -475,5 +475,23 @@ public class TestMultipleCalendars {
     assertEquals("Busy", calendars.isFree("2025-01-01T09:00"));
     assertEquals("Available", calendars.isFree("2023-01-01T09:00"));
   }
-}
 
+  @Test
+  public void testCopyAcrossClockChanges() {
+    calendars.createCalendar("London", TimeZone.getTimeZone("Europe/London"));
+    calendars.useCalendar("London");
+    // London's clocks have not gone forward yet, New York's went forward two weeks before
+    calendars.createEvent(Event.getBuilder("Call", LocalDateTime.parse("2025-03-23T13:00"))
+            .endDateTime(LocalDateTime.parse("2025-03-23T14:00"))
+            .build());
+
+    // 02:30 does not happen in New York on the 9th of March, so the copy starts at 03:30, and
+    // an hour after that is 04:30
+    calendars.copyEvent("Call", "2025-03-23T13:00", "New York", "2025-03-09T02:30");
+    // the whole day moves by two weeks, into New York's time
+    calendars.copyEventsOn("2025-03-23", "New York", "2025-03-24");
+    calendars.useCalendar("New York");
+    assertEquals("• Call (2025-03-09 03:30 - 04:30)\n", calendars.daySchedule("2025-03-09"));
+    assertEquals("• Call (2025-03-24 09:00 - 10:00)\n", calendars.daySchedule("2025-03-24"));
+  }
+}
@@ -0,0 +1,154 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import model.MultipleCalendars;
+import model.ReminderService;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests delivering reminders before events start.
+ */
+public class TestReminderService {
+  private MultipleCalendars calendars;
+  private MovableClock clock;
+  private List<String> delivered;
+  private ReminderService reminders;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    calendars.createCalendar("Tokyo", TimeZone.getTimeZone("Asia/Tokyo"));
+    calendars.useCalendar("Work");
+    // 8:00 in New York
+    clock = new MovableClock(Instant.parse("2025-03-10T12:00:00Z"));
+    delivered = new ArrayList<>();
+    reminders = new ReminderService(calendars, Duration.ofMinutes(15),
+            (name, event, start) -> delivered.add(name + " " + event.getSubject() + " "
+                    + start.toLocalTime()), clock);
+  }
+
+  @Test
+  public void testRemindsLeadTimeBeforeStartAcrossTimezones() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    calendars.useCalendar("Tokyo");
+    // 9:10 in New York
+    calendars.createEvent(Events.event("Sync", "2025-03-10T22:10"));
+
+    reminders.tick();
+    advance(44);
+    assertEquals(List.of(), delivered);
+    advance(1);
+    assertEquals(List.of("Work Standup 09:00"), delivered);
+    advance(10);
+    assertEquals(List.of("Work Standup 09:00", "Tokyo Sync 22:10"), delivered);
+    advance(120);
+    assertEquals(2, delivered.size());
+  }
+
+  @Test
+  public void testEditsAndUndoReschedule() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    calendars.createEvent(Events.event("Review", "2025-03-10T09:30"));
+    reminders.tick();
+
+    calendars.editEvent("start", "Standup", "2025-03-10T09:00", "2025-03-10T10:00",
+            "2025-03-10T09:20");
+    calendars.editEvent("location", "Review", "2025-03-10T09:30", "2025-03-10T10:30", "Hall");
+    calendars.createEvent(Events.event("Lunch", "2025-03-10T09:40"));
+    calendars.undo();
+    advance(45);
+    assertEquals(List.of(), delivered);
+    advance(20);
+    assertEquals(List.of("Work Standup 09:20"), delivered);
+    advance(10);
+    assertEquals(List.of("Work Standup 09:20", "Work Review 09:30"), delivered);
+    advance(60);
+    assertEquals(2, delivered.size());
+  }
+
+  @Test
+  public void testCopiesAndTimezoneChanges() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    reminders.tick();
+    calendars.copyEvent("Standup", "2025-03-10T09:00", "Tokyo", "2025-03-10T23:30");
+    calendars.editCalendar("Work", "timezone", "America/Chicago");
+
+    advance(45);
+    assertEquals(List.of("Work Standup 08:00"), delivered);
+    // 23:30 in Tokyo is 10:30 in New York
+    advance(89);
+    assertEquals(1, delivered.size());
+    advance(1);
+    assertEquals(List.of("Work Standup 08:00", "Tokyo Standup 23:30"), delivered);
+    advance(120);
+    assertEquals(2, delivered.size());
+  }
+
+  @Test
+  public void testRemindersUseTheCurrentName() {
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    reminders.tick();
+    calendars.editCalendar("Work", "name", "Office");
+
+    advance(45);
+    assertEquals(List.of("Office Standup 09:00"), delivered);
+  }
+
+  @Test
+  public void testOnlyTheNextWindowIsLoaded() {
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRFSU", 2000);
+    reminders.tick();
+    assertEquals(1, reminders.pending());
+
+    for (int day = 0; day < 3; day++) {
+      advance(24 * 60);
+    }
+    assertEquals(3, delivered.size());
+    assertTrue(reminders.pending() <= 2);
+  }
+
+  private void advance(int minutes) {
+    for (int i = 0; i < minutes; i++) {
+      clock.now = clock.now.plus(Duration.ofMinutes(1));
+      reminders.tick();
+    }
+  }
+
+  /**
+   * A clock that only moves when told to.
+   */
+  private static class MovableClock extends Clock {
+    private Instant now;
+
+    MovableClock(Instant now) {
+      this.now = now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.of("UTC");
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TimeZone;
+
+import controller.EnhancedCommandParser;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests checking rooms across calendars through the room index.
+ */
+public class TestRoomIndex {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.hour("Standup", "2025-03-10T09:00").location("Room 4").build());
+    calendars.useCalendar("Home");
+    // 10:00 to 11:00 in New York
+    calendars.createEvent(Events.hour("Review", "2025-03-10T14:00").location(" room 4 ").build());
+    calendars.createEvent(Events.hour("Yoga", "2025-03-10T20:00").location("Studio").build());
+  }
+
+  @Test
+  public void testRoomsAreSharedAcrossTimezones() {
+    calendars.useCalendar("Work");
+    assertFalse(calendars.isRoomFree("Room 4", "2025-03-10T09:00"));
+    assertFalse(calendars.isRoomFree("ROOM 4", "2025-03-10T10:30"));
+    // the standup ends as the review starts
+    assertFalse(calendars.isRoomFree("Room 4", "2025-03-10T10:00"));
+    assertTrue(calendars.isRoomFree("Room 4", "2025-03-10T11:00"));
+    assertTrue(calendars.isRoomFree("Hall", "2025-03-10T09:00"));
+
+    assertEquals(List.of("Studio"), calendars.freeRooms("2025-03-10T09:00", "2025-03-10T11:00"));
+    assertEquals(List.of("Room 4"), calendars.freeRooms("2025-03-10T15:30", "2025-03-10T16:30"));
+    assertEquals(List.of("Room 4", "Studio"),
+            calendars.freeRooms("2025-03-10T11:00", "2025-03-10T15:00"));
+    try {
+      calendars.freeRooms("2025-03-10T11:00", "2025-03-10T10:00");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("End time cannot be before start time", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testChangesKeepTheIndexUpToDate() {
+    calendars.editEvent("location", "Review", "2025-03-10T14:00", "2025-03-10T15:00", "Hall");
+    calendars.useCalendar("Work");
+    assertTrue(calendars.isRoomFree("Room 4", "2025-03-10T10:30"));
+    assertFalse(calendars.isRoomFree("Hall", "2025-03-10T10:30"));
+
+    calendars.useCalendar("Home");
+    calendars.undo();
+    calendars.useCalendar("Work");
+    assertFalse(calendars.isRoomFree("Room 4", "2025-03-10T10:30"));
+    assertTrue(calendars.isRoomFree("Hall", "2025-03-10T10:30"));
+
+    // the bookings keep their instants when the calendar moves, and the index follows it
+    calendars.editCalendar("Work", "timezone", "Asia/Tokyo");
+    assertFalse(calendars.isRoomFree("Room 4", "2025-03-10T22:30"));
+    calendars.deleteEvent("Standup", "2025-03-10T22:00", "2025-03-10T23:00");
+    assertTrue(calendars.isRoomFree("Room 4", "2025-03-10T22:30"));
+    assertFalse(calendars.isRoomFree("Room 4", "2025-03-10T23:30"));
+
+    calendars.useCalendar("Home");
+    calendars.copyEvent("Yoga", "2025-03-10T20:00", "Work", "2025-03-12T09:00");
+    calendars.useCalendar("Work");
+    assertFalse(calendars.isRoomFree("Studio", "2025-03-12T09:30"));
+    assertTrue(calendars.isRoomFree("Studio", "2025-03-12T10:30"));
+  }
+
+  @Test
+  public void testRollbackForgetsBookings() {
+    calendars.begin();
+    calendars.createCalendar("Gym", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Gym");
+    calendars.createEvent(Events.hour("Spin", "2025-03-11T08:00").location("Studio").build());
+    calendars.useCalendar("Home");
+    calendars.createEvent(Events.hour("Lunch", "2025-03-11T12:00").location("Hall").build());
+    assertFalse(calendars.isRoomFree("Studio", "2025-03-11T08:30"));
+    calendars.rollback();
+
+    calendars.useCalendar("Home");
+    assertTrue(calendars.isRoomFree("Studio", "2025-03-11T08:30"));
+    assertTrue(calendars.isRoomFree("Hall", "2025-03-11T12:30"));
+    assertEquals(List.of("Room 4", "Studio"),
+            calendars.freeRooms("2025-03-11T00:00", "2025-03-11T23:59"));
+  }
+
+  @Test
+  public void testManyBookingsInOneRoom() {
+    calendars.useCalendar("Home");
+    calendars.createEventSeriesNTimes(Events.hour("Class", "2026-01-01T08:00").location("Studio")
+            .build(), "MTWRFSU", 20000);
+    assertFalse(calendars.isRoomFree("Studio", "2070-01-01T08:30"));
+    assertTrue(calendars.isRoomFree("Studio", "2070-01-01T09:30"));
+    assertEquals(List.of("Room 4"), calendars.freeRooms("2070-01-01T08:00", "2070-01-01T08:30"));
+    calendars.deleteRange("2026-01-01T00:00", "2080-01-01T00:00");
+    assertTrue(calendars.isRoomFree("Studio", "2070-01-01T08:30"));
+  }
+
+  @Test
+  public void testLongBookingsComeAndGo() {
+    calendars.useCalendar("Home");
+    calendars.createEvent(Event.getBuilder("Retreat", LocalDateTime.parse("2025-01-01T00:00"))
+            .endDateTime(LocalDateTime.parse("2025-12-31T00:00")).location("Hall").build());
+    assertFalse(calendars.isRoomFree("Hall", "2025-06-01T12:00"));
+    calendars.deleteEvent("Retreat", "2025-01-01T00:00", "2025-12-31T00:00");
+    assertTrue(calendars.isRoomFree("Hall", "2025-06-01T12:00"));
+    assertEquals(List.of("Room 4", "Studio"),
+            calendars.freeRooms("2025-06-01T00:00", "2025-06-02T00:00"));
+  }
+
+  @Test
+  public void testQuotedLocationsAreStoredWithoutQuotes() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    parser.executeCommand("edit event location Yoga from 2025-03-10T20:00 to 2025-03-10T21:00 "
+            + "with \"Room 5\"");
+    assertTrue(calendars.daySchedule("2025-03-10")
+            .endsWith("• Yoga (2025-03-10 20:00 - 21:00) @ Room 5\n"));
+    assertEquals("Busy", parser.executeCommand("show room \"Room 5\" at 2025-03-10T20:30"));
+    assertEquals(List.of("Room 4", "Room 5"),
+            calendars.freeRooms("2025-03-11T00:00", "2025-03-11T10:00"));
+  }
+
+  @Test
+  public void testRoomCommands() {
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+    assertEquals("Busy", parser.executeCommand("show room \"Room 4\" at 2025-03-10T14:30"));
+    assertEquals("Available", parser.executeCommand("show room Studio at 2025-03-10T14:30"));
+    assertEquals("Room 4\nStudio",
+            parser.executeCommand("show free rooms from 2025-03-11T00:00 to 2025-03-11T10:00"));
+    assertEquals("No free rooms",
+            parser.executeCommand("show free rooms from 2025-03-10T00:00 to 2025-03-10T23:00"));
+    assertEquals("Error: Invalid show room format", parser.executeCommand("show room Studio"));
+  }
+}
@@ -0,0 +1,228 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import controller.GUIController;
+import model.Event;
+import model.MultipleCalendars;
+import view.ScheduleLoader;
+import view.SchedulePage;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the background schedule loader used by the GUI.
+ */
+public class TestScheduleLoader {
+  private CountingController controller;
+  private ScheduleLoader loader;
+
+  @Before
+  public void setup() {
+    controller = new CountingController();
+    controller.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    controller.useCalendar("Work");
+    controller.createEvent(Event.getBuilder("Standup", LocalDateTime.parse("2025-03-10T09:00"))
+            .endDateTime(LocalDateTime.parse("2025-03-10T09:15"))
+            .build());
+    loader = new ScheduleLoader(controller, Runnable::run);
+  }
+
+  @After
+  public void tearDown() {
+    loader.shutdown();
+  }
+
+  @Test
+  public void testLoadDayDeliversFirstPage() throws InterruptedException {
+    List<SchedulePage> results = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+    loader.loadDay("2025-03-10", page -> {
+      results.add(page);
+      done.countDown();
+    });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, results.get(0).getTotal());
+    assertEquals("• Standup (2025-03-10 09:00 - 09:15)", results.get(0).getRows().get(0));
+  }
+
+  @Test
+  public void testLoadDayCountsBeyondFirstPage() throws InterruptedException {
+    for (int i = 0; i < 25; i++) {
+      LocalDateTime start = LocalDateTime.parse("2025-03-12T10:00");
+      controller.createEvent(Event.getBuilder("Task " + i, start)
+              .endDateTime(LocalDateTime.parse("2025-03-12T11:00"))
+              .build());
+    }
+    List<SchedulePage> results = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+    loader.loadDay("2025-03-12", page -> {
+      results.add(page);
+      done.countDown();
+    });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(25, results.get(0).getTotal());
+    assertEquals(ScheduleLoader.PAGE_SIZE, results.get(0).getRows().size());
+
+    List<List<String>> pages = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch pageDone = new CountDownLatch(1);
+    loader.loadPage(results.get(0).getStart(), results.get(0).getEnd(), ScheduleLoader.PAGE_SIZE,
+        rows -> {
+          pages.add(rows);
+          pageDone.countDown();
+        });
+    assertTrue(pageDone.await(5, TimeUnit.SECONDS));
+    assertEquals(5, pages.get(0).size());
+  }
+
+  @Test
+  public void testLoadMonthCounts() throws InterruptedException {
+    List<int[]> results = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+    loader.loadMonthCounts("2025-03", counts -> {
+      results.add(counts);
+      done.countDown();
+    });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(31, results.get(0).length);
+    assertEquals(1, results.get(0)[9]);
+    assertEquals(0, results.get(0)[10]);
+  }
+
+  @Test
+  public void testSupersededRequestIsNotDelivered() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    controller.block = release;
+    List<SchedulePage> results = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+
+    loader.loadDay("2025-03-09", results::add);
+    assertTrue(controller.entered.await(5, TimeUnit.SECONDS));
+    loader.loadDay("2025-03-10", page -> {
+      results.add(page);
+      done.countDown();
+    });
+    release.countDown();
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, results.size());
+    assertTrue(results.get(0).getRows().get(0).contains("Standup"));
+  }
+
+  @Test
+  public void testNeighboursArePrefetched() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    loader.loadDay("2025-03-10", page -> done.countDown());
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    waitForWorker();
+    assertEquals(5, controller.queries.get());
+
+    // the next day is answered from the cache on the calling thread
+    List<SchedulePage> results = new ArrayList<>();
+    loader.loadDay("2025-03-11", results::add);
+    assertEquals(1, results.size());
+    assertEquals(0, results.get(0).getTotal());
+  }
+
+  @Test
+  public void testEditDoesNotWaitForQueries() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    controller.block = release;
+    loader.loadDay("2025-03-09", page -> { });
+    assertTrue(controller.entered.await(5, TimeUnit.SECONDS));
+
+    // the query is still running while the edit is made
+    List<String> results = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch edited = new CountDownLatch(1);
+    loader.edit(() -> controller.createEvent(Event.getBuilder("Review",
+                    LocalDateTime.parse("2025-03-10T11:00"))
+            .endDateTime(LocalDateTime.parse("2025-03-10T12:00"))
+            .build()), result -> {
+              results.add(result);
+              edited.countDown();
+            });
+    assertTrue(edited.await(5, TimeUnit.SECONDS));
+    assertEquals(List.of("Event created successfully"), results);
+    release.countDown();
+
+    List<SchedulePage> pages = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+    loader.loadDay("2025-03-10", page -> {
+      pages.add(page);
+      done.countDown();
+    });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(2, pages.get(0).getTotal());
+  }
+
+  @Test
+  public void testInvalidateForgetsCachedSchedules() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    loader.loadDay("2025-03-10", page -> done.countDown());
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+
+    List<SchedulePage> cached = new ArrayList<>();
+    loader.loadDay("2025-03-10", cached::add);
+    assertEquals(1, cached.size());
+
+    loader.invalidate();
+    // the worker may answer at any time, so only a page handed over right away counts
+    Thread caller = Thread.currentThread();
+    List<SchedulePage> results = Collections.synchronizedList(new ArrayList<>());
+    loader.loadDay("2025-03-10", page -> {
+      if (Thread.currentThread() == caller) {
+        results.add(page);
+      }
+    });
+    assertEquals(0, results.size());
+  }
+
+  /**
+   * Waits for everything already queued on the loader's worker, which runs its tasks in order.
+   */
+  private void waitForWorker() throws InterruptedException {
+    CountDownLatch idle = new CountDownLatch(1);
+    loader.loadCalendars(calendars -> idle.countDown());
+    assertTrue(idle.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * A controller that counts day queries and can hold the first one up.
+   */
+  private static class CountingController extends GUIController {
+    private final AtomicInteger queries = new AtomicInteger();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private volatile CountDownLatch block;
+
+    CountingController() {
+      super(new MultipleCalendars(new ViewForConsole()));
+    }
+
+    @Override
+    public List<String> getSchedulePage(String start, String end, int offset, int limit) {
+      entered.countDown();
+      CountDownLatch latch = block;
+      if (latch != null) {
+        block = null;
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      queries.incrementAndGet();
+      return super.getSchedulePage(start, end, offset, limit);
+    }
+  }
+}
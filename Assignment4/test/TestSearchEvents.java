@@ -0,0 +1,164 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import controller.EnhancedCommandParser;
+import model.CalendarMemory;
+import model.CalendarSnapshot;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests searching event text through the inverted index.
+ */
+public class TestSearchEvents {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+  }
+
+  @Test
+  public void testAllWordsMustMatchInAnyField() {
+    calendars.createEvent(Events.event("Quarterly review", "2025-03-10T09:00"));
+    calendars.createEvent(Events.hour("Review", "2025-03-11T09:00").description("Quarterly numbers")
+            .build());
+    calendars.createEvent(Events.hour("Quarterly planning", "2025-03-12T09:00")
+            .location("Review room").build());
+    calendars.createEvent(Events.event("Standup", "2025-03-13T09:00"));
+
+    assertEquals(List.of("Quarterly review", "Review", "Quarterly planning"),
+            subjects(calendars.snapshot().search("QUARTERLY review", null, null)));
+    assertEquals(List.of("Quarterly review", "Review", "Quarterly planning"),
+            subjects(calendars.snapshot().search("quart* rev*", null, null)));
+    assertEquals(List.of(), subjects(calendars.snapshot().search("quart", null, null)));
+    assertEquals(List.of("Review"), subjects(calendars.snapshot()
+            .search("quarterly review", "2025-03-11T00:00", "2025-03-11T23:59")));
+  }
+
+  @Test
+  public void testEditsRemovalsAndUndo() {
+    calendars.createEvent(Events.event("Quarterly review", "2025-03-10T09:00"));
+    CalendarSnapshot before = calendars.snapshot();
+
+    calendars.editEvent("subject", "Quarterly review", "2025-03-10T09:00",
+            "2025-03-10T10:00", "Budget");
+    assertEquals(List.of(), subjects(calendars.snapshot().search("review", null, null)));
+    assertEquals(List.of("Budget"), subjects(calendars.snapshot().search("budget", null, null)));
+    // a snapshot keeps finding the events it holds
+    assertEquals(List.of("Quarterly review"), subjects(before.search("review", null, null)));
+
+    calendars.undo();
+    assertEquals(List.of("Quarterly review"),
+            subjects(calendars.snapshot().search("review", null, null)));
+    assertEquals(List.of(), subjects(calendars.snapshot().search("budget", null, null)));
+  }
+
+  @Test
+  public void testSeriesWideEditsAreFound() {
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF",
+            5);
+    calendars.editEventSeries("location", "Standup", "2025-03-10T09:00", "Room Four");
+    assertEquals(5, calendars.snapshot().search("four standup", null, null).size());
+    assertEquals(2, calendars.snapshot()
+            .search("room", "2025-03-12T00:00", "2025-03-13T23:59").size());
+  }
+
+  @Test
+  public void testIndexShrinksWithTheEvents() {
+    calendars.createEventSeriesNTimes(Events.event("Standup", "2025-03-10T09:00"), "MTWRF",
+            200);
+    calendars.createEvent(Events.event("Quarterly review", "2025-03-10T11:00"));
+    long indexed = indexBytes();
+    // a series-wide edit changes the entry of the series, however many occurrences it has
+    for (int i = 0; i < 20; i++) {
+      calendars.editEventSeries("location", "Standup", "2025-03-10T09:00", "Room " + i);
+    }
+    calendars.editEventSeries("location", "Standup", "2025-03-10T09:00", "");
+    assertEquals(indexed, indexBytes());
+    assertEquals(List.of(), subjects(calendars.snapshot().search("room", null, null)));
+
+    CalendarSnapshot before = calendars.snapshot();
+    calendars.deleteSeries("Standup", "2025-03-10T09:00");
+    calendars.deleteEvent("Quarterly review", "2025-03-10T11:00", "2025-03-10T12:00");
+    assertEquals(List.of(), subjects(calendars.snapshot().search("review", null, null)));
+    // a snapshot from before still finds what it holds
+    assertEquals(List.of("Quarterly review"), subjects(before.search("review", null, null)));
+    assertEquals(200, before.search("standup", null, null).size());
+
+    calendars.undo();
+    assertEquals(List.of("Quarterly review"),
+            subjects(calendars.snapshot().search("review", null, null)));
+    calendars.deleteRange("2025-01-01T00:00", "2026-12-31T00:00");
+    assertEquals(List.of(), subjects(calendars.snapshot().search("standup", null, null)));
+    assertTrue(indexBytes() < indexed);
+  }
+
+  @Test
+  public void testResultsAreInScheduleOrder() {
+    calendars.createEvent(Events.event("Review budget", "2025-03-10T09:00"));
+    calendars.createEvent(Events.event("Review plan", "2025-03-10T09:00"));
+    // moving the first event away and back puts it after the second
+    calendars.editEvent("start", "Review budget", "2025-03-10T09:00", "2025-03-10T10:00",
+            "2025-03-10T09:30");
+    calendars.editEvent("start", "Review budget", "2025-03-10T09:30", "2025-03-10T10:00",
+            "2025-03-10T09:00");
+
+    List<String> schedule = subjects(calendars.snapshot().getEvents());
+    assertEquals(List.of("Review plan", "Review budget"), schedule);
+    assertEquals(schedule, subjects(calendars.snapshot().search("review", null, null)));
+  }
+
+  @Test
+  public void testSearchCommandCoversEveryCalendar() {
+    calendars.createEvent(Events.event("Quarterly review", "2025-03-10T09:00"));
+    calendars.useCalendar("Home");
+    calendars.createEvent(Events.event("Review taxes", "2025-03-15T09:00"));
+    EnhancedCommandParser parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+
+    String result = parser.executeCommand("search events review");
+    assertTrue(result.startsWith("Home:\n• Review taxes"));
+    assertTrue(result.contains("Work:\n• Quarterly review (2025-03-10 09:00 - 10:00)"));
+    assertEquals("Work:\n• Quarterly review (2025-03-10 09:00 - 10:00)\n",
+            parser.executeCommand("search events \"quarterly review\""));
+    assertEquals("No events found", parser.executeCommand(
+            "search events review from 2025-03-11T00:00 to 2025-03-12T00:00"));
+    assertEquals("Error: Search needs at least one word",
+            parser.executeCommand("search events \"*\""));
+  }
+
+  @Test
+  public void testEmptyQuery() {
+    try {
+      calendars.snapshot().search("  ", null, null);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Search needs at least one word", e.getMessage());
+    }
+  }
+
+  private long indexBytes() {
+    for (CalendarMemory memory : calendars.memory()) {
+      if (memory.getName().equals("Work")) {
+        return memory.getIndexBytes();
+      }
+    }
+    throw new IllegalStateException("No calendar named Work");
+  }
+
+  private static List<String> subjects(List<Event> events) {
+    return events.stream().map(Event::getSubject).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,106 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import model.CalendarSnapshot;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests editing the details shared by the occurrences of a series.
+ */
+public class TestSeriesDetails {
+  private MultipleCalendars calendars;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("America/New_York"));
+    calendars.useCalendar("Work");
+    calendars.createEventSeriesNTimes(Event.getBuilder("Standup",
+                    LocalDateTime.parse("2025-03-03T08:00"))
+            .endDateTime(LocalDateTime.parse("2025-03-03T08:15"))
+            .build(), "MWF", 300);
+  }
+
+  @Test
+  public void testSeriesWideEditReachesEveryOccurrence() {
+    calendars.editEventSeries("location", "Standup", "2025-03-05T08:00", "Room 4");
+    calendars.editEventSeries("subject", "Standup", "2025-03-05T08:00", "Daily");
+    assertEquals("• Daily (2025-03-03 08:00 - 08:15) @ Room 4\n",
+            calendars.daySchedule("2025-03-03"));
+    assertEquals("• Daily (2026-01-19 08:00 - 08:15) @ Room 4\n",
+            calendars.daySchedule("2026-01-19"));
+
+    // the renamed occurrences are found by their new subject
+    calendars.editEvent("end", "Daily", "2025-03-07T08:00", "2025-03-07T08:15",
+            "2025-03-07T08:30");
+    assertEquals("• Daily (2025-03-07 08:00 - 08:30) @ Room 4\n",
+            calendars.daySchedule("2025-03-07"));
+  }
+
+  @Test
+  public void testOccurrenceEditedOnItsOwnSplitsOff() {
+    calendars.editEvent("description", "Standup", "2025-03-05T08:00", "2025-03-05T08:15",
+            "Demo day");
+    calendars.editEvent("location", "Standup", "2025-03-05T08:00", "2025-03-05T08:15",
+            "Hall");
+    calendars.editEventSeries("location", "Standup", "2025-03-03T08:00", "Room 4");
+    calendars.editEventSeries("status", "Standup", "2025-03-03T08:00", "private");
+
+    CalendarSnapshot snapshot = calendars.snapshot();
+    Event split = snapshot.getEvents().get(1);
+    assertEquals("Demo day", split.getDescription());
+    assertEquals("Room 4", split.getLocation());
+    assertEquals("private", split.getStatus());
+    Event follower = snapshot.getEvents().get(2);
+    assertEquals("", follower.getDescription());
+    assertEquals("Room 4", follower.getLocation());
+    assertEquals("private", follower.getStatus());
+  }
+
+  @Test
+  public void testSnapshotAndUndoKeepOldDetails() {
+    CalendarSnapshot before = calendars.snapshot();
+    calendars.editEventSeries("location", "Standup", "2025-03-03T08:00", "Room 4");
+    assertEquals("• Standup (2025-03-03 08:00 - 08:15)\n", before.daySchedule("2025-03-03"));
+    assertEquals(300, calendars.snapshot().size());
+
+    calendars.undo();
+    assertEquals("• Standup (2025-03-03 08:00 - 08:15)\n", calendars.daySchedule("2025-03-03"));
+  }
+
+  @Test
+  public void testRenameThatWouldDuplicateIsRejected() {
+    calendars.createEvent(Event.getBuilder("Daily", LocalDateTime.parse("2025-03-10T08:00"))
+            .endDateTime(LocalDateTime.parse("2025-03-10T08:15"))
+            .build());
+    try {
+      calendars.editEventSeries("subject", "Standup", "2025-03-03T08:00", "Daily");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("An event with the same name and time already exists", e.getMessage());
+    }
+    try {
+      calendars.editEventSeries("status", "Standup", "2025-03-03T08:00", "maybe");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid status", e.getMessage());
+    }
+    assertEquals("• Standup (2025-03-03 08:00 - 08:15)\n", calendars.daySchedule("2025-03-03"));
+  }
+
+  @Test
+  public void testTimezoneChangeKeepsSeriesTogether() {
+    calendars.editCalendar("Work", "timezone", "America/Chicago");
+    calendars.editEventSeries("location", "Standup", "2025-03-03T07:00", "Room 4");
+    assertEquals("• Standup (2025-03-05 07:00 - 07:15) @ Room 4\n",
+            calendars.daySchedule("2025-03-05"));
+  }
+}
@@ -0,0 +1,164 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import controller.EnhancedCommandParser;
+import model.Calendars;
+import model.Event;
+import model.MultipleCalendars;
+import view.ViewForConsole;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests begin, commit and rollback across calendars.
+ */
+public class TestTransactions {
+  private MultipleCalendars calendars;
+  private EnhancedCommandParser parser;
+
+  @Before
+  public void setup() {
+    calendars = new MultipleCalendars(new ViewForConsole());
+    calendars.createCalendar("Work", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Work");
+    calendars.createEvent(Events.event("Standup", "2025-03-10T09:00"));
+    parser = new EnhancedCommandParser(calendars, new ViewForConsole());
+  }
+
+  @Test
+  public void testRollbackPutsEveryCalendarBack() {
+    calendars.begin();
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    calendars.editCalendar("Work", "timezone", "Asia/Tokyo");
+    calendars.editCalendar("Work", "name", "Office");
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    calendars.useCalendar("Home");
+    calendars.createEvent(Events.event("Gym", "2025-03-10T18:00"));
+    calendars.rollback();
+
+    assertFalse(calendars.inTransaction());
+    assertEquals("Work", calendars.getCalendars());
+    assertEquals(1, calendars.snapshot().size());
+    assertEquals("2025-03-10T09:00", calendars.snapshot().getEvents().get(0)
+            .getStartDateTime().toString());
+    // the undo history is back as well
+    assertTrue(calendars.undo());
+    assertEquals(0, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testRollbackPutsTheMemoryLimitBack() {
+    calendars.begin();
+    calendars.editCalendar("Work", "memory", "1KB");
+    try {
+      calendars.createEventSeriesNTimes(Events.event("Gym", "2025-03-11T18:00"), "MTWRF", 50);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // over the limit
+    }
+    calendars.rollback();
+
+    calendars.createEventSeriesNTimes(Events.event("Gym", "2025-03-11T18:00"), "MTWRF", 50);
+    assertEquals(51, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testRollbackKeepsOtherSessionsWork() {
+    Calendars other = calendars.newSession();
+    calendars.begin();
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    other.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    other.useCalendar("Home");
+    other.createEvent(Events.event("Gym", "2025-03-10T18:00"));
+    calendars.rollback();
+
+    assertEquals("Home\nWork", calendars.getCalendars());
+    assertEquals(1, calendars.snapshot().size());
+    assertEquals(1, other.snapshot().size());
+  }
+
+  @Test
+  public void testRollbackFailsWhenAnotherSessionChangedTheSameCalendar() {
+    Calendars other = calendars.newSession();
+    other.useCalendar("Work");
+    calendars.begin();
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    calendars.editCalendar("Work", "name", "Office");
+    calendars.createCalendar("Home", TimeZone.getTimeZone("UTC"));
+    other.createEvent(Events.event("Lunch", "2025-03-10T12:00"));
+    try {
+      calendars.rollback();
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("Changed by another session, so not rolled back: Office", e.getMessage());
+    }
+    // the rest is put back, while the calendar both changed keeps both changes
+    assertFalse(calendars.inTransaction());
+    assertEquals("Work", calendars.getCalendars());
+    assertEquals(3, calendars.snapshot().size());
+  }
+
+  @Test
+  public void testCommitKeepsChanges() {
+    calendars.begin();
+    calendars.createEvent(Events.event("Review", "2025-03-10T11:00"));
+    calendars.commit();
+    assertEquals(2, calendars.snapshot().size());
+    try {
+      calendars.rollback();
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("No transaction in progress", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testLargeBlockRollsBackQuickly() {
+    calendars.begin();
+    LocalDateTime start = LocalDateTime.parse("2025-03-11T00:00");
+    for (int i = 0; i < 100000; i++) {
+      calendars.createEvent(Event.getBuilder("Event " + i, start.plusMinutes(i))
+              .endDateTime(start.plusMinutes(i + 1)).build());
+    }
+    assertEquals(100001, calendars.snapshot().size());
+    long before = System.nanoTime();
+    calendars.rollback();
+    long millis = (System.nanoTime() - before) / 1_000_000;
+    assertEquals(1, calendars.snapshot().size());
+    assertTrue("rollback took " + millis + " ms", millis < 2000);
+  }
+
+  @Test
+  public void testFailedCommandSkipsTheRestAndCommitRollsBack() {
+    assertEquals("Transaction started", parser.executeCommand("begin"));
+    parser.executeCommand("create event Review from 2025-03-10T11:00 to 2025-03-10T12:00");
+    assertTrue(parser.executeCommand("use calendar --name Home").startsWith("Error"));
+    assertEquals("Skipped: transaction failed (Calendar not found)", parser.executeCommand(
+            "create event Lunch from 2025-03-10T12:00 to 2025-03-10T13:00"));
+    assertEquals("Transaction rolled back after an error: Calendar not found",
+            parser.executeCommand("commit"));
+    assertEquals(1, calendars.snapshot().size());
+
+    parser.executeCommand("begin");
+    parser.executeCommand("create event Review from 2025-03-10T11:00 to 2025-03-10T12:00");
+    assertEquals("Transaction committed", parser.executeCommand("commit"));
+    assertEquals(2, calendars.snapshot().size());
+    assertEquals("Error: No transaction in progress", parser.executeCommand("commit"));
+  }
+
+  @Test
+  public void testExitRollsBackAnOpenTransaction() {
+    parser.executeCommand("begin");
+    assertEquals("Error: A transaction is already in progress", parser.executeCommand("begin"));
+    parser.executeCommand("create event Review from 2025-03-10T11:00 to 2025-03-10T12:00");
+    assertEquals("Exiting... (uncommitted transaction rolled back)",
+            parser.executeCommand("exit"));
+    assertEquals(1, calendars.snapshot().size());
+  }
+}